@@ -0,0 +1,79 @@
+package info.datamuse.onesky;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the JSON-to-entity converters; projects have an increasing number of languages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvertersBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int languagesCount;
+
+    private JSONObject projectJson;
+    private List<JSONObject> projectLanguagesJsons;
+    private JSONObject fileJson;
+    private JSONObject importTaskJson;
+
+    @Setup
+    public void setUp() {
+        projectJson = new JSONObject(
+            "{\"id\": 4711, \"name\": \"Project\", \"description\": \"Description\","
+            + " \"project_type\": {\"code\": \"website\", \"name\": \"Regular Website\"}, \"string_count\": 1000, \"word_count\": 5000}"
+        );
+        projectLanguagesJsons = new ArrayList<>();
+        for (int i = 0; i < languagesCount; i++) {
+            projectLanguagesJsons.add(new JSONObject(String.format(Locale.ROOT, 
+                "{\"code\": \"l%d\", \"is_base_language\": %b, \"is_ready_to_publish\": true,"
+                + " \"translation_progress\": \"%d%%\", \"last_updated_at_timestamp\": 1531000000}",
+                i, i == 0, i % 101
+            )));
+        }
+        fileJson = new JSONObject(
+            "{\"file_name\": \"fruits.yaml\", \"string_count\": 42,"
+            + " \"last_import\": {\"id\": 1234, \"status\": \"completed\"}, \"uploaded_at_timestamp\": 1531000000}"
+        );
+        importTaskJson = new JSONObject(
+            "{\"id\": 1234, \"file\": {\"name\": \"fruits.yaml\", \"format\": \"YAML\", \"locale\": {\"code\": \"de\"}},"
+            + " \"string_count\": 42, \"word_count\": 84, \"status\": \"completed\", \"created_at_timestamp\": 1531000000}"
+        );
+    }
+
+    @Benchmark
+    public OneSkyProjectsApi.Project toProject() {
+        return OneSkyProjectsApi.toProject(projectJson, projectLanguagesJsons);
+    }
+
+    @Benchmark
+    public OneSkyFilesApi.File toFile() {
+        return OneSkyFilesApi.toFile(fileJson);
+    }
+
+    @Benchmark
+    public OneSkyImportTasksApi.ImportTask toImportTask() {
+        return OneSkyImportTasksApi.toImportTask(importTaskJson);
+    }
+
+}
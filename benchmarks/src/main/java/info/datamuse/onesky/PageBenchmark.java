@@ -0,0 +1,48 @@
+package info.datamuse.onesky;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the {@link Page} construction, for pages of increasing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageBenchmark {
+
+    @Param({"10", "50", "100"})
+    private int pageSize;
+
+    private List<String> pageItems;
+
+    @Setup
+    public void setUp() {
+        pageItems = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            pageItems.add("item" + i);
+        }
+    }
+
+    @Benchmark
+    public Page<String> newPage() {
+        return new Page<>(pageItems, 1, pageSize, pageSize * 10L, 10);
+    }
+
+}
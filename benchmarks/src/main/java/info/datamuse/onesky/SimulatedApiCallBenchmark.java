@@ -0,0 +1,65 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of whole API calls, from the request construction to the decoded response, against the in-process
+ * {@link OneSkySimulator}, so that no network and no credentials are needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Otherwise the simulator's responses are delayed by the delayed acknowledgement of their headers
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@State(Scope.Benchmark)
+public class SimulatedApiCallBenchmark {
+
+    @Param({"10", "100"})
+    private int filesCount;
+
+    private OneSkySimulator simulator;
+    private OneSkyClient oneSkyClient;
+    private long projectId;
+
+    @Setup
+    public void setUp() throws IOException {
+        simulator = OneSkySimulator.builder().dataset(1, 1, filesCount).build();
+        oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+            .apiBaseUri(simulator.getApiBaseUri())
+            .retryPolicy(RetryPolicy.none())
+            .build();
+        projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Benchmark
+    public OneSkyProjectsApi.Project retrieveProject() {
+        return oneSkyClient.projects().retrieve(projectId).join();
+    }
+
+    @Benchmark
+    public Page<OneSkyFilesApi.File> listFiles() {
+        return oneSkyClient.files().pagedList(projectId, 1, filesCount).join();
+    }
+
+}
@@ -0,0 +1,75 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.HedgingPolicy;
+import info.datamuse.onesky.OneSkyTransport;
+import info.datamuse.onesky.RetryPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.net.http.HttpRequest.BodyPublishers.noBody;
+
+/**
+ * Benchmark of the API call request construction: URL with the parameters, authentication data and headers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiRequestBenchmark {
+
+    @Param({"0", "4", "16"})
+    private int parametersCount;
+
+    private ApiContext apiContext;
+    private AbstractOneSkyApi api;
+    private Map<String, String> parameters;
+    private Map<String, String> headers;
+
+    @Setup
+    public void setUp() {
+        apiContext = new ApiContext(
+            "benchmark-api-key",
+            "benchmark-api-secret",
+            URI.create("https://platform.api.onesky.io/1"),
+            OneSkyTransport.of(HttpClient.newHttpClient()),
+            RetryPolicy.none(),
+            HedgingPolicy.none()
+        );
+        api = new AbstractOneSkyApi(apiContext) { };
+        parameters = new LinkedHashMap<>();
+        for (int i = 0; i < parametersCount; i++) {
+            parameters.put("parameter" + i, "value" + i);
+        }
+        headers = Map.of("Content-Type", "application/json");
+    }
+
+    @TearDown
+    public void tearDown() {
+        apiContext.close();
+    }
+
+    @Benchmark
+    public HttpRequest apiHttpRequest() {
+        return api.apiHttpRequest("GET", noBody(), "/projects/4711/files", headers, parameters);
+    }
+
+}
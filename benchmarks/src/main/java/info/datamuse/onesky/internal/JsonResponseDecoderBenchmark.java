@@ -0,0 +1,69 @@
+package info.datamuse.onesky.internal;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static info.datamuse.onesky.internal.JsonResponseDecoder.listDataDecoder;
+import static info.datamuse.onesky.internal.JsonResponseDecoder.objectDataDecoder;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.function.Function.identity;
+
+/**
+ * Benchmark of the response decoding: {@code meta}/{@code data} envelope with a list or an object of increasing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonResponseDecoderBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int itemsCount;
+
+    private byte[] listResponse;
+    private byte[] objectResponse;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder data = new StringBuilder();
+        for (int i = 0; i < itemsCount; i++) {
+            data.append(i == 0 ? "" : ",").append(
+                String.format(Locale.ROOT, 
+                    "{\"file_name\": \"file-%d.yml\", \"string_count\": %d, \"last_import\": {\"id\": %d, \"status\": \"completed\"}, \"uploaded_at_timestamp\": 1531000000}",
+                    i, i, 1000 + i
+                )
+            );
+        }
+        final String meta = String.format(Locale.ROOT, "{\"status\": 200, \"record_count\": %d, \"page_count\": 1}", itemsCount);
+        listResponse = String.format(Locale.ROOT, "{\"meta\": %s, \"data\": [%s]}", meta, data).getBytes(UTF_8);
+        objectResponse = String.format(Locale.ROOT, "{\"meta\": %s, \"data\": {\"id\": 1, \"items\": [%s]}}", meta, data).getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public List<JSONObject> decodeList() {
+        return JsonResponseDecoder.decode(new ByteArrayInputStream(listResponse), listDataDecoder(identity())).getData();
+    }
+
+    @Benchmark
+    public JSONObject decodeObject() {
+        return JsonResponseDecoder.decode(new ByteArrayInputStream(objectResponse), objectDataDecoder(identity())).getData();
+    }
+
+}
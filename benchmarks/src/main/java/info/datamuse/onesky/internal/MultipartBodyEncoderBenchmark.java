@@ -0,0 +1,101 @@
+package info.datamuse.onesky.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the multipart upload body encoding, for files of increasing size, read from memory or from disk.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultipartBodyEncoderBenchmark {
+
+    @Param({"1024", "65536", "1048576"})
+    private int fileSize;
+
+    private byte[] fileContent;
+    private Path filePath;
+
+    @Setup
+    public void setUp() throws IOException {
+        fileContent = new byte[fileSize];
+        Arrays.fill(fileContent, (byte) 'x');
+        filePath = Files.write(Files.createTempFile("onesky-benchmark", ".yaml"), fileContent);
+        filePath.toFile().deleteOnExit();
+    }
+
+    @Benchmark
+    public long encode() {
+        final HttpRequest.BodyPublisher bodyPublisher =
+            new MultipartBodyEncoder()
+                .addFormField("file_format", "YAML")
+                .addFormField("locale", "de")
+                .addFilePart("file", "fruits.yaml", "application/octet-stream", new ByteArrayInputStream(fileContent), Runnable::run)
+                .finish();
+        return publishedLength(bodyPublisher);
+    }
+
+    @Benchmark
+    public long encodeFile() {
+        final HttpRequest.BodyPublisher bodyPublisher =
+            new MultipartBodyEncoder()
+                .addFormField("file_format", "YAML")
+                .addFormField("locale", "de")
+                .addFilePart("file", "fruits.yaml", "application/octet-stream", filePath, fileSize)
+                .finish();
+        return publishedLength(bodyPublisher);
+    }
+
+    private static long publishedLength(final HttpRequest.BodyPublisher bodyPublisher) {
+        final CompletableFuture<Long> publishedLength = new CompletableFuture<>();
+        bodyPublisher.subscribe(new Flow.Subscriber<>() {
+            private long length;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                length += item.remaining();
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                publishedLength.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                publishedLength.complete(length);
+            }
+        });
+        return publishedLength.join();
+    }
+
+}
@@ -0,0 +1,164 @@
+package info.datamuse.onesky;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Policy of caching API responses on the client side.
+ *
+ * <p>A cached response expires {@link Builder#expireAfter(Duration) some time} after it has been loaded. Optionally,
+ * a cached response is {@link Builder#refreshAfter(Duration) refreshed ahead} of its expiration: a request for a
+ * response which is older than the refresh delay returns the cached response at once, and reloads it in the
+ * background. Concurrent requests for a response which is not cached share a single API request.</p>
+ *
+ * <p>A cache of multiple entries holds up to {@link Builder#maximumSize(long) maximum size} entries, and evicts the least
+ * recently used entry when it is full.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class CachePolicy {
+
+    private static final CachePolicy NONE = builder().expireAfter(Duration.ZERO).build();
+
+    private final Duration expireAfter;
+    private final Duration refreshAfter;
+    private final long maximumSize;
+
+    private CachePolicy(final Builder builder) {
+        this.expireAfter = builder.expireAfter;
+        this.refreshAfter = builder.refreshAfter;
+        this.maximumSize = builder.maximumSize;
+    }
+
+    /**
+     * Returns the policy which never caches.
+     *
+     * @return no-cache policy
+     */
+    public static CachePolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Returns a new policy builder, initialized with the following settings: responses expire after 1 hour, are not
+     * refreshed ahead, and a cache holds up to 1000 entries.
+     *
+     * @return policy builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns whether the policy caches responses.
+     *
+     * @return {@code true} if responses are cached
+     */
+    public boolean isEnabled() {
+        return !expireAfter.isZero();
+    }
+
+    /**
+     * Returns time after which a cached response expires.
+     *
+     * @return expiration delay
+     */
+    public Duration getExpireAfter() {
+        return expireAfter;
+    }
+
+    /**
+     * Returns time after which a cached response is refreshed in the background; equal to the expiration delay if
+     * responses are not refreshed ahead.
+     *
+     * @return refresh delay
+     */
+    public Duration getRefreshAfter() {
+        return refreshAfter.compareTo(expireAfter) < 0 ? refreshAfter : expireAfter;
+    }
+
+    /**
+     * Returns maximum number of entries in a cache of multiple entries.
+     *
+     * @return maximum cache size
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.ROOT,
+            "CachePolicy{expireAfter=%s, refreshAfter=%s, maximumSize=%d}",
+            expireAfter, getRefreshAfter(), maximumSize
+        );
+    }
+
+    /**
+     * {@link CachePolicy} builder.
+     */
+    public static final class Builder {
+        private Duration expireAfter = Duration.ofHours(1);
+        private Duration refreshAfter = ChronoUnit.FOREVER.getDuration();
+        private long maximumSize = 1000;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets time after which a cached response expires; {@link Duration#ZERO} disables caching.
+         *
+         * @param expireAfter expiration delay
+         * @return this builder
+         */
+        public Builder expireAfter(final Duration expireAfter) {
+            if (expireAfter.isNegative()) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid expiration delay: %s", expireAfter));
+            }
+            this.expireAfter = expireAfter;
+            return this;
+        }
+
+        /**
+         * Sets time after which a cached response is refreshed in the background, on the next request for it; a delay
+         * not shorter than the expiration delay disables refreshing ahead.
+         *
+         * @param refreshAfter refresh delay
+         * @return this builder
+         */
+        public Builder refreshAfter(final Duration refreshAfter) {
+            if (refreshAfter.isNegative()) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid refresh delay: %s", refreshAfter));
+            }
+            this.refreshAfter = refreshAfter;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of entries in a cache of multiple entries; the least recently used entry is evicted when
+         * the cache is full.
+         *
+         * @param maximumSize maximum cache size
+         * @return this builder
+         */
+        public Builder maximumSize(final long maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`maximumSize` must be positive, but was: %d", maximumSize));
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return cache policy
+         */
+        public CachePolicy build() {
+            return new CachePolicy(this);
+        }
+    }
+
+}
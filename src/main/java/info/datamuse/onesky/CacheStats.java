@@ -0,0 +1,95 @@
+package info.datamuse.onesky;
+
+import java.util.Locale;
+
+/**
+ * Statistics of a client-side cache.
+ *
+ * <p>Instances are immutable snapshots.</p>
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+
+    /**
+     * Cache statistics constructor.
+     *
+     * @param hitCount number of requests served from the cache, including the requests which joined an in-flight load
+     * @param missCount number of requests which loaded an entry
+     * @param evictionCount number of entries evicted because the cache was full
+     */
+    public CacheStats(final long hitCount, final long missCount, final long evictionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    /**
+     * Returns number of requests served from the cache, including the requests which joined an in-flight load.
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns number of requests which loaded an entry.
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns number of entries evicted because the cache was full.
+     *
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns fraction of the requests served from the cache, {@code 1} if there were no requests.
+     *
+     * @return hit rate
+     */
+    public double getHitRate() {
+        final long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CacheStats)) {
+            return false;
+        }
+        final CacheStats theObj = (CacheStats) obj;
+        return
+            hitCount == theObj.hitCount
+            && missCount == theObj.missCount
+            && evictionCount == theObj.evictionCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hitCount) * 31 + Long.hashCode(missCount);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.ROOT,
+            "CacheStats{hitCount=%d, missCount=%d, evictionCount=%d}",
+            hitCount, missCount, evictionCount
+        );
+    }
+
+}
@@ -0,0 +1,132 @@
+package info.datamuse.onesky;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Policy of caching exported translation files in a local directory.
+ *
+ * <p>An exported file is cached under its project, locale, source file name, format, and the time of the last update
+ * of its translations, so a cached file is never stale: once the translations are updated, the file is exported
+ * again. The directory may be shared by multiple clients, including the clients of different processes on the same
+ * host; concurrent access is coordinated with a file lock.</p>
+ *
+ * <p>The directory holds up to {@link Builder#maximumSize(long) maximum size} bytes of cached files, and evicts the
+ * least recently used files when it is full.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class ExportCachePolicy {
+
+    private final Path directory;
+    private final long maximumSize;
+    private final boolean isLinkingFiles;
+
+    private ExportCachePolicy(final Builder builder) {
+        this.directory = builder.directory;
+        this.maximumSize = builder.maximumSize;
+        this.isLinkingFiles = builder.isLinkingFiles;
+    }
+
+    /**
+     * Returns a new policy builder, initialized with the following settings: the directory holds up to 1 GiB of cached
+     * files, and the cached files are copied.
+     *
+     * @param directory cache directory, created if it does not exist
+     * @return policy builder
+     */
+    public static Builder builder(final Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * Returns the cache directory.
+     *
+     * @return cache directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns maximum total size of the cached files.
+     *
+     * @return maximum cache size in bytes
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns whether the cached files are hard-linked to the export paths rather than copied.
+     *
+     * @return {@code true} if cached files are hard-linked
+     */
+    public boolean isLinkingFiles() {
+        return isLinkingFiles;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.ROOT,
+            "ExportCachePolicy{directory=%s, maximumSize=%d, isLinkingFiles=%s}",
+            directory, maximumSize, isLinkingFiles
+        );
+    }
+
+    /**
+     * {@link ExportCachePolicy} builder.
+     */
+    public static final class Builder {
+        private final Path directory;
+        private long maximumSize = 1L << 30;
+        private boolean isLinkingFiles;
+
+        private Builder(final Path directory) {
+            this.directory = requireNonNull(directory);
+        }
+
+        /**
+         * Sets maximum total size of the cached files; the least recently used files are evicted when the cache is
+         * full.
+         *
+         * @param maximumSize maximum cache size in bytes
+         * @return this builder
+         */
+        public Builder maximumSize(final long maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`maximumSize` must be positive, but was: %d", maximumSize));
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets whether the cached files are hard-linked to the export paths rather than copied, if the file system
+         * supports it; the files are copied by default.
+         *
+         * <p>A hard link shares the content of the cached file, so the exported files must not be modified in place
+         * when they are linked; the client itself replaces, rather than rewrites, a file at an export path.</p>
+         *
+         * @param isLinkingFiles {@code true} to hard-link cached files
+         * @return this builder
+         */
+        public Builder linkFiles(final boolean isLinkingFiles) {
+            this.isLinkingFiles = isLinkingFiles;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return export cache policy
+         */
+        public ExportCachePolicy build() {
+            return new ExportCachePolicy(this);
+        }
+    }
+
+}
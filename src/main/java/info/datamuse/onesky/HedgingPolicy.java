@@ -0,0 +1,195 @@
+package info.datamuse.onesky;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Policy of hedging latency-critical API requests.
+ *
+ * <p>If a hedged request has not completed within the hedging delay, a duplicate request is sent; the first successful
+ * response wins, and the other request is cancelled. The delay is the configured {@link Builder#percentile(double)
+ * percentile} of the recent latencies of the same operation, bounded by the {@link Builder#delay(Duration, Duration)
+ * min and max delay}; until enough latencies are known, the max delay is used.</p>
+ *
+ * <p>Hedged requests are limited by a per-client hedging budget: every hedgeable request adds
+ * {@link Builder#budget(double, int) ratio} of a token to the budget (up to the budget capacity), and every duplicate
+ * request takes a whole token. Hence, hedging adds at most {@code ratio} of load on top of the original requests.</p>
+ *
+ * <p>Hedging applies to the idempotent retrieval operations whose latency is usually critical:
+ * {@link OneSkyTranslationsApi#status}, {@link OneSkyProjectsApi#retrieve} and {@link OneSkyImportTasksApi#retrieve}.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class HedgingPolicy {
+
+    private static final HedgingPolicy NONE = new HedgingPolicy(new Builder().budget(0, 0));
+
+    private final double percentile;
+    private final Duration minDelay;
+    private final Duration maxDelay;
+    private final double budgetRatio;
+    private final int budgetCapacity;
+
+    private HedgingPolicy(final Builder builder) {
+        this.percentile = builder.percentile;
+        this.minDelay = builder.minDelay;
+        this.maxDelay = builder.maxDelay;
+        this.budgetRatio = builder.budgetRatio;
+        this.budgetCapacity = builder.budgetCapacity;
+    }
+
+    /**
+     * Returns the policy which never hedges.
+     *
+     * @return no-hedging policy
+     */
+    public static HedgingPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Returns a new policy builder, initialized with the following settings: 95th percentile, delay between 10ms and 1s,
+     * hedging budget of 5% of the requests with the capacity of 10.
+     *
+     * @return policy builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns whether the policy may hedge requests.
+     *
+     * @return {@code true} if requests may be hedged
+     */
+    public boolean isEnabled() {
+        return budgetCapacity > 0;
+    }
+
+    /**
+     * Returns the percentile of the recent latencies used as the hedging delay.
+     *
+     * @return percentile between {@code 0} and {@code 1}
+     */
+    public double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * Returns the minimum hedging delay.
+     *
+     * @return min delay
+     */
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    /**
+     * Returns the maximum hedging delay, used until enough latencies are known.
+     *
+     * @return max delay
+     */
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * Returns fraction of a hedging token which every hedgeable request adds to the budget.
+     *
+     * @return budget ratio
+     */
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * Returns maximum number of hedging tokens in the budget.
+     *
+     * @return budget capacity
+     */
+    public int getBudgetCapacity() {
+        return budgetCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.ROOT,
+            "HedgingPolicy{percentile=%s, delay=%s..%s, budget=%s/%d}",
+            percentile, minDelay, maxDelay, budgetRatio, budgetCapacity
+        );
+    }
+
+    /**
+     * {@link HedgingPolicy} builder.
+     */
+    public static final class Builder {
+        private double percentile = 0.95;
+        private Duration minDelay = Duration.ofMillis(10);
+        private Duration maxDelay = Duration.ofSeconds(1);
+        private double budgetRatio = 0.05;
+        private int budgetCapacity = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the percentile of the recent latencies used as the hedging delay.
+         *
+         * @param percentile percentile between {@code 0} and {@code 1}, e.g. {@code 0.95}
+         * @return this builder
+         */
+        public Builder percentile(final double percentile) {
+            if (!(percentile > 0 && percentile <= 1)) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`percentile` must be in (0, 1], but was: %s", percentile));
+            }
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Sets the bounds of the hedging delay.
+         *
+         * @param minDelay min delay
+         * @param maxDelay max delay, used until enough latencies are known
+         * @return this builder
+         */
+        public Builder delay(final Duration minDelay, final Duration maxDelay) {
+            if (minDelay.isNegative() || maxDelay.compareTo(minDelay) < 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid delay: %s..%s", minDelay, maxDelay));
+            }
+            this.minDelay = minDelay;
+            this.maxDelay = maxDelay;
+            return this;
+        }
+
+        /**
+         * Sets the per-client hedging budget.
+         *
+         * @param ratio fraction of a hedging token which every hedgeable request adds to the budget
+         * @param capacity maximum number of hedging tokens in the budget; the budget is initially full
+         * @return this builder
+         */
+        public Builder budget(final double ratio, final int capacity) {
+            if (!(ratio >= 0)) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`ratio` must be non-negative, but was: %s", ratio));
+            }
+            if (capacity < 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`capacity` must be non-negative, but was: %d", capacity));
+            }
+            this.budgetRatio = ratio;
+            this.budgetCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return hedging policy
+         */
+        public HedgingPolicy build() {
+            return new HedgingPolicy(this);
+        }
+    }
+
+}
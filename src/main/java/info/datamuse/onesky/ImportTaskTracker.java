@@ -0,0 +1,275 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.OneSkyFilesApi.FileStatus;
+import info.datamuse.onesky.OneSkyImportTasksApi.ImportTask;
+import info.datamuse.onesky.internal.Futures;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Long-lived tracker of file imports in progress, which completes the promises of the tracked imports once they
+ * finish.
+ *
+ * <p>The imports tracked in a project are polled together, by a single chain of polls scheduled on the shared
+ * scheduler according to the tracker's {@link PollingPolicy}. A single tracked import is polled by
+ * {@link OneSkyImportTasksApi#retrieve}; when more imports are tracked, every poll is a single sweep of the imports
+ * {@link FileStatus#IN_PROGRESS in progress}, and only the imports which have left it are retrieved, once, for their
+ * final status. Hence, the polling cost grows with the number of projects, not with the number of imports.</p>
+ *
+ * <p>A project is not polled while none of its imports is tracked.</p>
+ *
+ * <p>A failed poll, i.e. a failed sweep or a failed retrieval of a tracked import, does not fail the tracked imports:
+ * the project is polled again after a grown interval, and its imports are only failed after the
+ * {@link PollingPolicy#getMaxConsecutiveFailures() max number} of consecutive failed polls.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @see OneSkyImportTasksApi#newTracker(PollingPolicy)
+ */
+public final class ImportTaskTracker implements AutoCloseable {
+
+    private static final long SWEEP_MAX_ITEMS_PER_PAGE = 100;
+    private static final int SWEEP_PARALLELISM = 2;
+    private static final int RETRIEVAL_PARALLELISM = 4;
+
+    private final OneSkyImportTasksApi importTasksApi;
+    private final PollingPolicy pollingPolicy;
+    private final ConcurrentMap<Long, ProjectImports> trackedImports = new ConcurrentHashMap<>();
+    private volatile boolean isClosed;
+
+    ImportTaskTracker(final OneSkyImportTasksApi importTasksApi, final PollingPolicy pollingPolicy) {
+        this.importTasksApi = requireNonNull(importTasksApi);
+        this.pollingPolicy = requireNonNull(pollingPolicy);
+    }
+
+    /**
+     * Tracks a file import, e.g. of a file {@link OneSkyFilesApi#upload uploaded} to the project.
+     *
+     * <p>The returned promise is completed with the retrieved import task, whose status is either
+     * {@link FileStatus#COMPLETED} or {@link FileStatus#FAILED}; it is failed if the import task or the imports of the
+     * project can not be polled repeatedly, and cancelled if the tracker is closed first.
+     * Cancelling the promise stops tracking the import.</p>
+     *
+     * @param projectId project id
+     * @param importId import id
+     * @return finished import task ({@link CompletableFuture promise})
+     * @throws IllegalStateException if the tracker is closed
+     */
+    public CompletableFuture<ImportTask> track(final long projectId, final long importId) {
+        if (isClosed) {
+            throw new IllegalStateException("Import task tracker is closed");
+        }
+        final CompletableFuture<ImportTask> completion = new CompletableFuture<>();
+        ProjectImports projectImports;
+        do {
+            projectImports = trackedImports.computeIfAbsent(projectId, ProjectImports::new);
+        } while (!projectImports.track(importId, completion));
+        if (isClosed) {
+            // Closed concurrently, and possibly missed by `close()`
+            completion.cancel(false);
+        }
+        return completion;
+    }
+
+    /**
+     * Returns the number of the imports being tracked.
+     *
+     * @return number of tracked imports
+     */
+    public int getTrackedImportCount() {
+        return trackedImports.values().stream().mapToInt(ProjectImports::getTrackedImportCount).sum();
+    }
+
+    /**
+     * Returns the number of the projects being polled.
+     *
+     * @return number of polled projects
+     */
+    public int getTrackedProjectCount() {
+        return trackedImports.size();
+    }
+
+    /**
+     * Stops tracking: cancels the promises of all tracked imports, and stops polling.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        trackedImports.values().forEach(ProjectImports::close);
+    }
+
+    /**
+     * Retrieves the import tasks which are not in progress any more, out of the given ones; the promised map contains
+     * a settled retrieval for every such import task.
+     */
+    private CompletableFuture<Map<Long, CompletableFuture<ImportTask>>> retrieveFinished(final long projectId, final Set<Long> importIds) {
+        final CompletableFuture<List<Long>> finishedImportIds;
+        if (importIds.size() == 1) {
+            finishedImportIds = CompletableFuture.completedFuture(List.copyOf(importIds));
+        } else {
+            finishedImportIds = importTasksApi.fetchAll(projectId, FileStatus.IN_PROGRESS, SWEEP_MAX_ITEMS_PER_PAGE, SWEEP_PARALLELISM)
+                .thenApply(importTasksInProgress -> {
+                    final Set<Long> importIdsInProgress = importTasksInProgress.stream().map(ImportTask::getId).collect(Collectors.toSet());
+                    return importIds.stream().filter(importId -> !importIdsInProgress.contains(importId)).collect(Collectors.toList());
+                });
+        }
+        return finishedImportIds.thenCompose(importIdsToRetrieve -> Futures.mapWithBoundedParallelism(
+            importIdsToRetrieve,
+            RETRIEVAL_PARALLELISM,
+            importId -> Futures.start(() -> importTasksApi.retrieve(projectId, importId)).handle((importTask, throwable) ->
+                throwable == null ? CompletableFuture.completedFuture(importTask) : CompletableFuture.<ImportTask>failedFuture(Futures.unwrapCompletionException(throwable)))
+        ).thenApply(retrievals -> {
+            final Map<Long, CompletableFuture<ImportTask>> retrievalsByImportId = new HashMap<>();
+            for (int i = 0; i < importIdsToRetrieve.size(); i++) {
+                retrievalsByImportId.put(importIdsToRetrieve.get(i), retrievals.get(i));
+            }
+            return retrievalsByImportId;
+        }));
+    }
+
+    private static boolean isInProgress(final ImportTask importTask) {
+        return importTask.getImportStatus() != null && importTask.getImportStatus().getStatus() == FileStatus.IN_PROGRESS;
+    }
+
+    /**
+     * Imports tracked in a project, polled by a chain of scheduled polls, one at a time.
+     *
+     * <p>Once no import is tracked, the instance is retired and removed, and the chain ends; the imports tracked
+     * afterwards are polled by a new instance.</p>
+     */
+    private final class ProjectImports {
+        private final long projectId;
+
+        // Guarded by `this`
+        private final Map<Long, List<CompletableFuture<ImportTask>>> completions = new HashMap<>();
+        private Duration interval = pollingPolicy.getInitialInterval();
+        private int consecutiveFailureCount;
+        private boolean isPolling;
+        private boolean hasNewImports;
+        private boolean isRetired;
+
+        ProjectImports(final long projectId) {
+            this.projectId = projectId;
+        }
+
+        /**
+         * Adds a tracked import, unless the instance has been retired.
+         */
+        synchronized boolean track(final long importId, final CompletableFuture<ImportTask> completion) {
+            if (isRetired) {
+                return false;
+            }
+            completions.computeIfAbsent(importId, id -> new ArrayList<>()).add(completion);
+            hasNewImports = true;
+            if (!isPolling) {
+                isPolling = true;
+                schedulePoll();
+            }
+            return true;
+        }
+
+        synchronized int getTrackedImportCount() {
+            return completions.size();
+        }
+
+        void close() {
+            final List<CompletableFuture<ImportTask>> cancelledCompletions = new ArrayList<>();
+            synchronized (this) {
+                completions.values().forEach(cancelledCompletions::addAll);
+                completions.clear();
+                retire();
+            }
+            cancelledCompletions.forEach(completion -> completion.cancel(false));
+        }
+
+        private void schedulePoll() {
+            CompletableFuture.delayedExecutor(interval.toNanos(), TimeUnit.NANOSECONDS).execute(this::poll);
+        }
+
+        private void poll() {
+            final Set<Long> importIds;
+            synchronized (this) {
+                if (isRetired) {
+                    return;
+                }
+                // Cancelled by the callers
+                completions.values().forEach(importCompletions -> importCompletions.removeIf(CompletableFuture::isDone));
+                completions.values().removeIf(List::isEmpty);
+                if (completions.isEmpty()) {
+                    retire();
+                    return;
+                }
+                importIds = Set.copyOf(completions.keySet());
+                hasNewImports = false;
+            }
+            Futures.start(() -> retrieveFinished(projectId, importIds)).whenComplete(this::onPolled);
+        }
+
+        private void onPolled(final @Nullable Map<Long, CompletableFuture<ImportTask>> retrievals, final @Nullable Throwable throwable) {
+            final List<Map.Entry<CompletableFuture<ImportTask>, CompletableFuture<ImportTask>>> outcomes = new ArrayList<>();
+            synchronized (this) {
+                if (isRetired) {
+                    return;
+                }
+                final boolean isFailedPoll =
+                    throwable != null || requireNonNull(retrievals).values().stream().anyMatch(CompletableFuture::isCompletedExceptionally);
+                consecutiveFailureCount = isFailedPoll ? consecutiveFailureCount + 1 : 0;
+                final boolean isGivingUp = consecutiveFailureCount >= pollingPolicy.getMaxConsecutiveFailures();
+                if (throwable != null) {
+                    if (isGivingUp) {
+                        final CompletableFuture<ImportTask> failure = CompletableFuture.failedFuture(Futures.unwrapCompletionException(throwable));
+                        completions.values().forEach(importCompletions ->
+                            importCompletions.forEach(completion -> outcomes.add(Map.entry(completion, failure))));
+                        completions.clear();
+                    }
+                } else {
+                    for (final Map.Entry<Long, CompletableFuture<ImportTask>> retrieval : requireNonNull(retrievals).entrySet()) {
+                        if (retrieval.getValue().isCompletedExceptionally() ? !isGivingUp : isInProgress(retrieval.getValue().join())) {
+                            continue;
+                        }
+                        final @Nullable List<CompletableFuture<ImportTask>> importCompletions = completions.remove(retrieval.getKey());
+                        if (importCompletions != null) {
+                            importCompletions.forEach(completion -> outcomes.add(Map.entry(completion, retrieval.getValue())));
+                        }
+                    }
+                }
+                // A failed poll backs off, even if new imports are tracked meanwhile
+                interval = !isFailedPoll && (!outcomes.isEmpty() || hasNewImports)
+                    ? pollingPolicy.getInitialInterval()
+                    : Duration.ofNanos((long) Math.min(pollingPolicy.getMaxInterval().toNanos(), interval.toNanos() * pollingPolicy.getIntervalMultiplier()));
+                if (completions.isEmpty()) {
+                    retire();
+                } else {
+                    schedulePoll();
+                }
+            }
+            // Completed outside of the lock, as the completions run the callers' callbacks
+            outcomes.forEach(outcome -> outcome.getValue().whenComplete((importTask, failure) -> {
+                if (failure != null) {
+                    outcome.getKey().completeExceptionally(Futures.unwrapCompletionException(failure));
+                } else {
+                    outcome.getKey().complete(importTask);
+                }
+            }));
+        }
+
+        private void retire() {
+            isRetired = true;
+            trackedImports.remove(projectId, this);
+        }
+    }
+
+}
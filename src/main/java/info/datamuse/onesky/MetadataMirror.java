@@ -0,0 +1,580 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.OneSkyFilesApi.File;
+import info.datamuse.onesky.OneSkyFilesApi.FileFormat;
+import info.datamuse.onesky.OneSkyFilesApi.FileImport;
+import info.datamuse.onesky.OneSkyFilesApi.FileStatus;
+import info.datamuse.onesky.OneSkyProjectGroupsApi.ProjectGroup;
+import info.datamuse.onesky.OneSkyProjectTypesApi.ProjectType;
+import info.datamuse.onesky.OneSkyProjectsApi.Project;
+import info.datamuse.onesky.OneSkyProjectsApi.ProjectLanguage;
+import info.datamuse.onesky.internal.Futures;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static info.datamuse.onesky.internal.JsonUtils.getOptionalJsonValue;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Local mirror of the metadata of the project groups, projects, project languages and files, persisted in a file and
+ * indexed in memory, so that e.g. reports across all project groups are queried locally rather than from the API.
+ *
+ * <p>The mirror is loaded from its file when it is created, and is only updated by a refresh: {@link #refresh()}
+ * mirrors all project groups, while {@link #refreshProjectGroup(long)} and {@link #refreshProject(long)} only refresh
+ * a part of the mirror. After a refresh, the file is replaced atomically, unless the mirrored metadata has not
+ * changed; a refresh which only moves the {@link #getRefreshedAt() refresh time} is not stored, so a mirror loaded
+ * from the file reports the time of the last refresh which has changed it. The file is a gzipped JSON document.</p>
+ *
+ * <p>A refresh is not incremental: it fetches the languages and the files of every project it mirrors, since the
+ * listed projects carry no modification time to skip the unchanged ones by; {@link #refreshProjectGroup(long)} and
+ * {@link #refreshProject(long)} bound the cost of a refresh to a part of the mirror. A project whose languages or files
+ * can not be fetched keeps its last mirrored state, and the failure is returned by the refresh.</p>
+ *
+ * <p>The queries run against an immutable snapshot, which a refresh replaces at once; hence, the queries never block
+ * and always see a consistent mirror. The returned lists are immutable.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @see OneSkyClient#newMetadataMirror(Path, int)
+ */
+public final class MetadataMirror {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final long MAX_ITEMS_PER_PAGE = 100;
+
+    private static final String VERSION_KEY = "version";
+    private static final String REFRESHED_AT_KEY = "refreshed_at";
+    private static final String PROJECT_GROUPS_KEY = "project_groups";
+    private static final String PROJECTS_KEY = "projects";
+    private static final String LANGUAGES_KEY = "languages";
+    private static final String FILES_KEY = "files";
+    private static final String ID_KEY = "id";
+    private static final String NAME_KEY = "name";
+    private static final String BASE_LOCALE_KEY = "base_locale";
+    private static final String ENABLED_LOCALES_KEY = "enabled_locales";
+    private static final String PROJECT_COUNT_KEY = "project_count";
+    private static final String PROJECT_GROUP_ID_KEY = "project_group_id";
+    private static final String DESCRIPTION_KEY = "description";
+    private static final String PROJECT_TYPE_CODE_KEY = "project_type_code";
+    private static final String PROJECT_TYPE_NAME_KEY = "project_type_name";
+    private static final String STRING_COUNT_KEY = "string_count";
+    private static final String WORD_COUNT_KEY = "word_count";
+    private static final String LOCALE_KEY = "locale";
+    private static final String IS_READY_TO_PUBLISH_KEY = "is_ready_to_publish";
+    private static final String TRANSLATION_PROGRESS_KEY = "translation_progress";
+    private static final String UPDATED_AT_KEY = "updated_at";
+    private static final String FORMAT_KEY = "format";
+    private static final String IMPORT_ID_KEY = "import_id";
+    private static final String IMPORT_STATUS_KEY = "import_status";
+    private static final String LAST_IMPORTED_AT_KEY = "last_imported_at";
+
+    private final OneSkyProjectGroupsApi projectGroupsApi;
+    private final OneSkyProjectsApi projectsApi;
+    private final OneSkyFilesApi filesApi;
+    private final OneSkyTranslationsApi translationsApi;
+    private final Executor blockingExecutor;
+    private final Path file;
+    private final int parallelism;
+
+    private volatile Snapshot snapshot;
+    // Guarded by `this`; the JSON of the stored metadata, without the refresh time
+    private String storedMetadataJson;
+
+    MetadataMirror(
+        final OneSkyProjectGroupsApi projectGroupsApi,
+        final OneSkyProjectsApi projectsApi,
+        final OneSkyFilesApi filesApi,
+        final OneSkyTranslationsApi translationsApi,
+        final Executor blockingExecutor,
+        final Path file,
+        final int parallelism
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "`parallelism` must be positive, but was: %d", parallelism));
+        }
+        this.projectGroupsApi = requireNonNull(projectGroupsApi);
+        this.projectsApi = requireNonNull(projectsApi);
+        this.filesApi = requireNonNull(filesApi);
+        this.translationsApi = requireNonNull(translationsApi);
+        this.blockingExecutor = requireNonNull(blockingExecutor);
+        this.file = requireNonNull(file);
+        this.parallelism = parallelism;
+        this.snapshot = load(file);
+        this.storedMetadataJson = toJson(snapshot).toString();
+    }
+
+    /**
+     * Returns the time of the last refresh.
+     *
+     * @return last refresh time, {@code null} if the mirror has never been refreshed
+     */
+    public @Nullable Instant getRefreshedAt() {
+        return snapshot.refreshedAt;
+    }
+
+    public List<ProjectGroup> getProjectGroups() {
+        return snapshot.projectGroups;
+    }
+
+    public @Nullable ProjectGroup getProjectGroup(final long projectGroupId) {
+        return snapshot.projectGroupsById.get(projectGroupId);
+    }
+
+    /**
+     * Returns the mirrored projects; a mirrored project does not hold its languages, which are returned by
+     * {@link #getProjectLanguages(long)}.
+     *
+     * @return projects
+     */
+    public List<Project> getProjects() {
+        return snapshot.projects;
+    }
+
+    public List<Project> getProjects(final long projectGroupId) {
+        return snapshot.projectsByProjectGroupId.getOrDefault(projectGroupId, List.of());
+    }
+
+    public @Nullable Project getProject(final long projectId) {
+        final @Nullable MirroredProject mirroredProject = snapshot.projectsById.get(projectId);
+        return mirroredProject != null ? mirroredProject.project : null;
+    }
+
+    /**
+     * Returns the id of the project group of a project.
+     *
+     * @param projectId project id
+     * @return project group id, {@code null} if the project is not mirrored
+     */
+    public @Nullable Long getProjectGroupId(final long projectId) {
+        final @Nullable MirroredProject mirroredProject = snapshot.projectsById.get(projectId);
+        return mirroredProject != null ? mirroredProject.projectGroupId : null;
+    }
+
+    public List<ProjectLanguage> getProjectLanguages(final long projectId) {
+        final @Nullable MirroredProject mirroredProject = snapshot.projectsById.get(projectId);
+        return mirroredProject != null ? mirroredProject.languages : List.of();
+    }
+
+    /**
+     * Returns the projects which have a language with the given locale.
+     *
+     * @param locale locale
+     * @return projects
+     */
+    public List<Project> getProjectsByLocale(final Locale locale) {
+        return snapshot.projectsByLocale.getOrDefault(locale, List.of());
+    }
+
+    public List<File> getFiles(final long projectId) {
+        final @Nullable MirroredProject mirroredProject = snapshot.projectsById.get(projectId);
+        return mirroredProject != null ? mirroredProject.files : List.of();
+    }
+
+    /**
+     * Returns the projects which have a file with the given name.
+     *
+     * @param fileName file name
+     * @return projects
+     */
+    public List<Project> getProjectsByFileName(final String fileName) {
+        return snapshot.projectsByFileName.getOrDefault(fileName, List.of());
+    }
+
+    /**
+     * Mirrors all project groups, along with their projects, project languages and files; the project groups and
+     * the projects which do not exist any more are removed from the mirror.
+     *
+     * @return failures of mirroring the projects, by project id; such projects keep their last mirrored state
+     *     ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<Map<Long, Throwable>> refresh() {
+        return projectGroupsApi.fetchAll(MAX_ITEMS_PER_PAGE, parallelism).thenCompose(projectGroups ->
+            Futures.mapWithBoundedParallelism(projectGroups, parallelism, projectGroup -> projectsApi.list(projectGroup.getId()))
+                .thenCompose(projectGroupsProjects -> {
+                    final List<Map.Entry<Long, Project>> projects = new ArrayList<>();
+                    for (int i = 0; i < projectGroups.size(); i++) {
+                        final long projectGroupId = projectGroups.get(i).getId();
+                        projectGroupsProjects.get(i).forEach(project -> projects.add(Map.entry(projectGroupId, project)));
+                    }
+                    return mirrorProjects(projects);
+                })
+                .thenApplyAsync(mirroredProjects -> {
+                    update(currentSnapshot -> new Snapshot(Instant.now(), projectGroups, mirroredProjects.withLastMirroredState(currentSnapshot)));
+                    return mirroredProjects.projectFailures;
+                }, blockingExecutor)
+        );
+    }
+
+    /**
+     * Mirrors a project group, along with its projects, project languages and files; the projects of the group
+     * which do not exist any more are removed from the mirror.
+     *
+     * @param projectGroupId project group id
+     * @return failures of mirroring the projects, by project id; such projects keep their last mirrored state
+     *     ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<Map<Long, Throwable>> refreshProjectGroup(final long projectGroupId) {
+        return projectGroupsApi.retrieve(projectGroupId).thenCombine(projectsApi.list(projectGroupId), Map::entry)
+            .thenCompose(projectGroupAndProjects -> mirrorProjects(
+                projectGroupAndProjects.getValue().stream().map(project -> Map.entry(projectGroupId, project)).collect(Collectors.toList())
+            ).thenApplyAsync(mirroredProjects -> {
+                update(currentSnapshot -> {
+                    final Map<Long, ProjectGroup> projectGroups = new LinkedHashMap<>(currentSnapshot.projectGroupsById);
+                    projectGroups.put(projectGroupId, projectGroupAndProjects.getKey());
+                    final List<MirroredProject> projects = currentSnapshot.projectsById.values().stream()
+                        .filter(mirroredProject -> mirroredProject.projectGroupId != projectGroupId)
+                        .collect(Collectors.toCollection(ArrayList::new));
+                    projects.addAll(mirroredProjects.withLastMirroredState(currentSnapshot));
+                    return new Snapshot(currentSnapshot.refreshedAt, projectGroups.values(), projects);
+                });
+                return mirroredProjects.projectFailures;
+            }, blockingExecutor));
+    }
+
+    /**
+     * Refreshes the languages and the files of a mirrored project.
+     *
+     * @param projectId project id
+     * @return completion ({@link CompletableFuture promise}); fails with {@link IllegalArgumentException} if the
+     *     project is not mirrored
+     */
+    public CompletableFuture<Void> refreshProject(final long projectId) {
+        final @Nullable MirroredProject mirroredProject = snapshot.projectsById.get(projectId);
+        if (mirroredProject == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(String.format(Locale.ROOT, "Project is not mirrored: %d", projectId)));
+        }
+        return mirrorProject(mirroredProject.projectGroupId, mirroredProject.project).thenAcceptAsync(refreshedProject -> update(currentSnapshot -> {
+            final Map<Long, MirroredProject> projects = new LinkedHashMap<>(currentSnapshot.projectsById);
+            projects.put(projectId, refreshedProject);
+            return new Snapshot(currentSnapshot.refreshedAt, currentSnapshot.projectGroups, projects.values());
+        }), blockingExecutor);
+    }
+
+    private CompletableFuture<MirroredProjects> mirrorProjects(final List<Map.Entry<Long, Project>> projects) {
+        final Map<Long, Throwable> projectFailures = new LinkedHashMap<>();
+        return Futures.mapWithBoundedParallelism(projects, parallelism, project ->
+            Futures.start(() -> mirrorProject(project.getKey(), project.getValue())).handle((mirroredProject, throwable) -> {
+                if (throwable != null) {
+                    synchronized (projectFailures) {
+                        projectFailures.put(project.getValue().getId(), Futures.unwrapCompletionException(throwable));
+                    }
+                    return null;
+                }
+                return mirroredProject;
+            })
+        ).thenApply(mirroredProjects -> {
+            synchronized (projectFailures) {
+                return new MirroredProjects(projects, mirroredProjects, projectFailures);
+            }
+        });
+    }
+
+    private CompletableFuture<MirroredProject> mirrorProject(final long projectGroupId, final Project project) {
+        return translationsApi.projectLanguages(project.getId()).thenCombine(
+            filesApi.fetchAll(project.getId(), MAX_ITEMS_PER_PAGE, 1),
+            (languages, files) -> new MirroredProject(projectGroupId, withoutLanguages(project), languages, files)
+        );
+    }
+
+    /**
+     * Replaces the snapshot, and stores it unless its metadata is the same as the stored one; the new metadata is
+     * serialized once, and compared with the JSON kept from the last store. Blocks on the file, hence runs on the
+     * blocking executor.
+     */
+    private synchronized void update(final UnaryOperator<Snapshot> updater) {
+        final Snapshot newSnapshot = updater.apply(snapshot);
+        final JSONObject newJson = toJson(newSnapshot);
+        final String newMetadataJson = newJson.toString();
+        if (!newMetadataJson.equals(storedMetadataJson)) {
+            store(file, newJson.put(REFRESHED_AT_KEY, newSnapshot.refreshedAt != null ? newSnapshot.refreshedAt.toString() : null).toString());
+            storedMetadataJson = newMetadataJson;
+        }
+        snapshot = newSnapshot;
+    }
+
+    private static Project withoutLanguages(final Project project) {
+        return new Project(
+            project.getId(),
+            project.getName(),
+            project.getDescription(),
+            project.getProjectType(),
+            project.getCountOfStrings(),
+            project.getCountOfWords(),
+            null,
+            List.of()
+        );
+    }
+
+    private static Snapshot load(final Path file) {
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(file))) {
+            final JSONObject json = new JSONObject(new String(inputStream.readAllBytes(), UTF_8));
+            if (json.getInt(VERSION_KEY) != FORMAT_VERSION) {
+                // Written by an incompatible version; it is replaced by the next refresh
+                return Snapshot.EMPTY;
+            }
+            return fromJson(json);
+        } catch (final NoSuchFileException e) {
+            return Snapshot.EMPTY;
+        } catch (final IOException e) {
+            throw new OneSkyApiException(e);
+        }
+    }
+
+    /**
+     * Replaces the file atomically, so that a crash does not leave a partially written mirror.
+     */
+    private static void store(final Path file, final String json) {
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            final Path newFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(newFile))) {
+                outputStream.write(json.getBytes(UTF_8));
+            }
+            Files.move(newFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (final IOException e) {
+            throw new OneSkyApiException(e);
+        }
+    }
+
+    /**
+     * Returns the JSON of the metadata of the snapshot, without the refresh time.
+     */
+    private static JSONObject toJson(final Snapshot snapshot) {
+        final JSONArray projectGroupsJson = new JSONArray();
+        snapshot.projectGroups.forEach(projectGroup -> projectGroupsJson.put(new JSONObject()
+            .put(ID_KEY, projectGroup.getId())
+            .put(NAME_KEY, projectGroup.getName())
+            .put(BASE_LOCALE_KEY, projectGroup.getBaseLocale() != null ? projectGroup.getBaseLocale().toLanguageTag() : null)
+            .put(ENABLED_LOCALES_KEY, projectGroup.getEnabledLocales() != null
+                ? new JSONArray(projectGroup.getEnabledLocales().stream().map(Locale::toLanguageTag).collect(Collectors.toList()))
+                : null)
+            .put(PROJECT_COUNT_KEY, projectGroup.getProjectCount())));
+        final JSONArray projectsJson = new JSONArray();
+        snapshot.projectsById.values().forEach(mirroredProject -> {
+            final Project project = mirroredProject.project;
+            final JSONArray languagesJson = new JSONArray();
+            mirroredProject.languages.forEach(language -> languagesJson.put(new JSONObject()
+                .put(LOCALE_KEY, language.getLocale().toLanguageTag())
+                .put(IS_READY_TO_PUBLISH_KEY, language.isReadyToPublish())
+                .put(TRANSLATION_PROGRESS_KEY, language.getTranslationProgress())
+                .put(UPDATED_AT_KEY, language.getUpdatedAt() != null ? language.getUpdatedAt().toString() : null)));
+            final JSONArray filesJson = new JSONArray();
+            mirroredProject.files.forEach(projectFile -> {
+                final @Nullable FileImport fileImport = projectFile.getImportStatus();
+                filesJson.put(new JSONObject()
+                    .put(NAME_KEY, projectFile.getName())
+                    .put(STRING_COUNT_KEY, projectFile.getCountOfStrings())
+                    .put(WORD_COUNT_KEY, projectFile.getCountOfWords())
+                    .put(FORMAT_KEY, projectFile.getFormat() != null ? projectFile.getFormat().name() : null)
+                    .put(LOCALE_KEY, projectFile.getLocale() != null ? projectFile.getLocale().toLanguageTag() : null)
+                    .put(IMPORT_ID_KEY, fileImport != null ? fileImport.getId() : null)
+                    .put(IMPORT_STATUS_KEY, fileImport != null && fileImport.getStatus() != null ? fileImport.getStatus().name() : null)
+                    .put(LAST_IMPORTED_AT_KEY, fileImport != null ? fileImport.getLastImportedAt().toString() : null));
+            });
+            projectsJson.put(new JSONObject()
+                .put(ID_KEY, project.getId())
+                .put(PROJECT_GROUP_ID_KEY, mirroredProject.projectGroupId)
+                .put(NAME_KEY, project.getName())
+                .put(DESCRIPTION_KEY, project.getDescription())
+                .put(PROJECT_TYPE_CODE_KEY, project.getProjectType() != null ? project.getProjectType().getCode() : null)
+                .put(PROJECT_TYPE_NAME_KEY, project.getProjectType() != null ? project.getProjectType().getName() : null)
+                .put(STRING_COUNT_KEY, project.getCountOfStrings())
+                .put(WORD_COUNT_KEY, project.getCountOfWords())
+                .put(LANGUAGES_KEY, languagesJson)
+                .put(FILES_KEY, filesJson));
+        });
+        return new JSONObject()
+            .put(VERSION_KEY, FORMAT_VERSION)
+            .put(PROJECT_GROUPS_KEY, projectGroupsJson)
+            .put(PROJECTS_KEY, projectsJson);
+    }
+
+    private static Snapshot fromJson(final JSONObject json) {
+        final List<ProjectGroup> projectGroups = new ArrayList<>();
+        for (final Object projectGroupJsonObject : json.getJSONArray(PROJECT_GROUPS_KEY)) {
+            final JSONObject projectGroupJson = (JSONObject) projectGroupJsonObject;
+            projectGroups.add(new ProjectGroup(
+                projectGroupJson.getLong(ID_KEY),
+                projectGroupJson.getString(NAME_KEY),
+                getOptionalJsonValue(projectGroupJson, BASE_LOCALE_KEY, String.class, Locale::forLanguageTag),
+                getOptionalJsonValue(projectGroupJson, ENABLED_LOCALES_KEY, JSONArray.class, localesJson -> localesJson.toList().stream()
+                    .map(localeTag -> Locale.forLanguageTag((String) localeTag))
+                    .collect(Collectors.toList())),
+                getOptionalJsonValue(projectGroupJson, PROJECT_COUNT_KEY, Number.class, Number::longValue)
+            ));
+        }
+        final List<MirroredProject> projects = new ArrayList<>();
+        for (final Object projectJsonObject : json.getJSONArray(PROJECTS_KEY)) {
+            final JSONObject projectJson = (JSONObject) projectJsonObject;
+            final List<ProjectLanguage> languages = new ArrayList<>();
+            for (final Object languageJsonObject : projectJson.getJSONArray(LANGUAGES_KEY)) {
+                final JSONObject languageJson = (JSONObject) languageJsonObject;
+                languages.add(new ProjectLanguage(
+                    Locale.forLanguageTag(languageJson.getString(LOCALE_KEY)),
+                    languageJson.getBoolean(IS_READY_TO_PUBLISH_KEY),
+                    (short) languageJson.getInt(TRANSLATION_PROGRESS_KEY),
+                    getOptionalJsonValue(languageJson, UPDATED_AT_KEY, String.class, Instant::parse)
+                ));
+            }
+            final List<File> files = new ArrayList<>();
+            for (final Object fileJsonObject : projectJson.getJSONArray(FILES_KEY)) {
+                final JSONObject fileJson = (JSONObject) fileJsonObject;
+                files.add(new File(
+                    fileJson.getString(NAME_KEY),
+                    getOptionalJsonValue(fileJson, STRING_COUNT_KEY, Integer.class),
+                    getOptionalJsonValue(fileJson, WORD_COUNT_KEY, Integer.class),
+                    fileJson.has(IMPORT_ID_KEY)
+                        ? new FileImport(
+                            fileJson.getLong(IMPORT_ID_KEY),
+                            getOptionalJsonValue(fileJson, IMPORT_STATUS_KEY, String.class, FileStatus::valueOf),
+                            Instant.parse(fileJson.getString(LAST_IMPORTED_AT_KEY)))
+                        : null,
+                    getOptionalJsonValue(fileJson, FORMAT_KEY, String.class, FileFormat::valueOf),
+                    getOptionalJsonValue(fileJson, LOCALE_KEY, String.class, Locale::forLanguageTag)
+                ));
+            }
+            final @Nullable String projectTypeCode = getOptionalJsonValue(projectJson, PROJECT_TYPE_CODE_KEY, String.class);
+            projects.add(new MirroredProject(
+                projectJson.getLong(PROJECT_GROUP_ID_KEY),
+                new Project(
+                    projectJson.getLong(ID_KEY),
+                    projectJson.getString(NAME_KEY),
+                    getOptionalJsonValue(projectJson, DESCRIPTION_KEY, String.class),
+                    projectTypeCode != null ? new ProjectType(projectTypeCode, projectJson.getString(PROJECT_TYPE_NAME_KEY)) : null,
+                    getOptionalJsonValue(projectJson, STRING_COUNT_KEY, Integer.class),
+                    getOptionalJsonValue(projectJson, WORD_COUNT_KEY, Integer.class),
+                    null,
+                    List.of()
+                ),
+                languages,
+                files
+            ));
+        }
+        return new Snapshot(getOptionalJsonValue(json, REFRESHED_AT_KEY, String.class, Instant::parse), projectGroups, projects);
+    }
+
+    private static final class MirroredProject {
+        private final long projectGroupId;
+        private final Project project;
+        private final List<ProjectLanguage> languages;
+        private final List<File> files;
+
+        MirroredProject(final long projectGroupId, final Project project, final List<ProjectLanguage> languages, final List<File> files) {
+            this.projectGroupId = projectGroupId;
+            this.project = project;
+            this.languages = List.copyOf(languages);
+            this.files = List.copyOf(files);
+        }
+    }
+
+    /**
+     * Mirrored projects of a refresh, in the listed order; a project which has failed to be mirrored has a
+     * {@code null} mirrored project, and a failure.
+     */
+    private static final class MirroredProjects {
+        private final List<Map.Entry<Long, Project>> projects;
+        private final List<MirroredProject> mirroredProjects;
+        private final Map<Long, Throwable> projectFailures;
+
+        MirroredProjects(
+            final List<Map.Entry<Long, Project>> projects,
+            final List<MirroredProject> mirroredProjects,
+            final Map<Long, Throwable> projectFailures
+        ) {
+            this.projects = projects;
+            this.mirroredProjects = mirroredProjects;
+            this.projectFailures = Collections.unmodifiableMap(new LinkedHashMap<>(projectFailures));
+        }
+
+        /**
+         * Returns the mirrored projects, with the last mirrored state of the failed ones, if any, from the snapshot.
+         */
+        List<MirroredProject> withLastMirroredState(final Snapshot currentSnapshot) {
+            final List<MirroredProject> projectsWithLastMirroredState = new ArrayList<>();
+            for (int i = 0; i < projects.size(); i++) {
+                final @Nullable MirroredProject mirroredProject = mirroredProjects.get(i) != null
+                    ? mirroredProjects.get(i)
+                    : currentSnapshot.projectsById.get(projects.get(i).getValue().getId());
+                if (mirroredProject != null) {
+                    projectsWithLastMirroredState.add(mirroredProject);
+                }
+            }
+            return projectsWithLastMirroredState;
+        }
+    }
+
+    /**
+     * Immutable state of the mirror, along with its indexes.
+     */
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(null, List.of(), List.of());
+
+        private final @Nullable Instant refreshedAt;
+        private final List<ProjectGroup> projectGroups;
+        private final Map<Long, ProjectGroup> projectGroupsById;
+        private final List<Project> projects;
+        private final Map<Long, MirroredProject> projectsById;
+        private final Map<Long, List<Project>> projectsByProjectGroupId;
+        private final Map<Locale, List<Project>> projectsByLocale;
+        private final Map<String, List<Project>> projectsByFileName;
+
+        Snapshot(final @Nullable Instant refreshedAt, final Collection<ProjectGroup> projectGroups, final Collection<MirroredProject> projects) {
+            this.refreshedAt = refreshedAt;
+            this.projectGroups = List.copyOf(projectGroups);
+            final Map<Long, ProjectGroup> varProjectGroupsById = new LinkedHashMap<>();
+            projectGroups.forEach(projectGroup -> varProjectGroupsById.put(projectGroup.getId(), projectGroup));
+            this.projectGroupsById = Collections.unmodifiableMap(varProjectGroupsById);
+
+            final Map<Long, MirroredProject> varProjectsById = new LinkedHashMap<>();
+            final Map<Long, List<Project>> varProjectsByProjectGroupId = new LinkedHashMap<>();
+            final Map<Locale, List<Project>> varProjectsByLocale = new LinkedHashMap<>();
+            final Map<String, List<Project>> varProjectsByFileName = new LinkedHashMap<>();
+            for (final MirroredProject mirroredProject : projects) {
+                varProjectsById.put(mirroredProject.project.getId(), mirroredProject);
+                varProjectsByProjectGroupId.computeIfAbsent(mirroredProject.projectGroupId, id -> new ArrayList<>()).add(mirroredProject.project);
+                mirroredProject.languages.forEach(language ->
+                    varProjectsByLocale.computeIfAbsent(language.getLocale(), locale -> new ArrayList<>()).add(mirroredProject.project));
+                mirroredProject.files.stream().map(File::getName).distinct().forEach(fileName ->
+                    varProjectsByFileName.computeIfAbsent(fileName, name -> new ArrayList<>()).add(mirroredProject.project));
+            }
+            this.projectsById = Collections.unmodifiableMap(varProjectsById);
+            this.projects = varProjectsById.values().stream().map(mirroredProject -> mirroredProject.project).collect(Collectors.toUnmodifiableList());
+            this.projectsByProjectGroupId = immutableIndex(varProjectsByProjectGroupId);
+            this.projectsByLocale = immutableIndex(varProjectsByLocale);
+            this.projectsByFileName = immutableIndex(varProjectsByFileName);
+        }
+
+        private static <K> Map<K, List<Project>> immutableIndex(final Map<K, List<Project>> index) {
+            final Map<K, List<Project>> immutableIndex = new LinkedHashMap<>();
+            index.forEach((key, values) -> immutableIndex.put(key, List.copyOf(values)));
+            return Collections.unmodifiableMap(immutableIndex);
+        }
+    }
+
+}
@@ -1,19 +1,43 @@
 package info.datamuse.onesky;
 
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.ThrottlingTransport;
+
+import javax.annotation.Nullable;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * <a href="http://oneskyapp.com/">OneSky</a> API client.
  *
+ * <p>The client owns a single instance of every API wrapper, so the wrapper accessors are cheap; the client and
+ * the wrappers are thread-safe and are meant to be shared.</p>
+ *
  * @see <a href="https://github.com/onesky/api-documentation-platform/blob/master/README.md">OneSky Platform API documentation</a>
  */
 public final class OneSkyClient { // CHECKSTYLE:Factory
 
-    private final String apiKey;
-    private final String apiSecret;
-    private final HttpClient httpClient;
+    /**
+     * Default OneSky API base URI.
+     */
+    public static final URI DEFAULT_API_BASE_URI = URI.create("https://platform.api.onesky.io/1");
+
+    private final OneSkyProjectGroupsApi projectGroupsApi;
+    private final OneSkyProjectsApi projectsApi;
+    private final OneSkyProjectTypesApi projectTypesApi;
+    private final OneSkyFilesApi filesApi;
+    private final OneSkyTranslationsApi translationsApi;
+    private final OneSkyImportTasksApi importTasksApi;
+    private final OneSkyScreenshotsApi screenshotsApi;
+    private final OneSkyQuotationsApi quotationsApi;
+    private final OneSkyOrdersApi ordersApi;
+    private final OneSkyLocalesApi localesApi;
+    private final Executor blockingExecutor;
 
     /**
      * Client constructor.
@@ -23,9 +47,43 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @param httpClient HTTP Client
      */
     public OneSkyClient(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        this.apiKey = requireNonNull(apiKey);
-        this.apiSecret = requireNonNull(apiSecret);
-        this.httpClient = requireNonNull(httpClient);
+        this(builder(apiKey, apiSecret).httpClient(httpClient));
+    }
+
+    private OneSkyClient(final Builder builder) {
+        final OneSkyTransport transport = builder.transport != null ? builder.transport : OneSkyTransport.of(HttpClient.newHttpClient());
+        final ApiContext apiContext = new ApiContext(
+            builder.apiKey,
+            builder.apiSecret,
+            builder.apiBaseUri,
+            builder.requestsPerSecond != Double.POSITIVE_INFINITY || builder.maxConcurrentRequests != Integer.MAX_VALUE
+                ? new ThrottlingTransport(transport, builder.requestsPerSecond, builder.burst, builder.maxConcurrentRequests)
+                : transport,
+            builder.retryPolicy,
+            builder.hedgingPolicy
+        );
+        this.projectGroupsApi = new OneSkyProjectGroupsApi(apiContext, builder.entityCachePolicy);
+        this.projectsApi = new OneSkyProjectsApi(apiContext, builder.entityCachePolicy, projectGroupsApi);
+        this.projectTypesApi = new OneSkyProjectTypesApi(apiContext, builder.referenceDataCachePolicy);
+        this.filesApi = new OneSkyFilesApi(apiContext);
+        this.translationsApi = new OneSkyTranslationsApi(apiContext, builder.isRevalidatingExports, builder.exportCachePolicy);
+        this.importTasksApi = new OneSkyImportTasksApi(apiContext, builder.importPollingPolicy);
+        this.screenshotsApi = new OneSkyScreenshotsApi(apiContext);
+        this.quotationsApi = new OneSkyQuotationsApi(apiContext);
+        this.ordersApi = new OneSkyOrdersApi(apiContext);
+        this.localesApi = new OneSkyLocalesApi(apiContext, builder.referenceDataCachePolicy);
+        this.blockingExecutor = apiContext.getBlockingExecutor();
+    }
+
+    /**
+     * Returns a new client builder.
+     *
+     * @param apiKey OneSky API public key
+     * @param apiSecret OneSky API secret key
+     * @return client builder
+     */
+    public static Builder builder(final String apiKey, final String apiSecret) {
+        return new Builder(apiKey, apiSecret);
     }
 
     /**
@@ -34,7 +92,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Project Groups API wrapper
      */
     public OneSkyProjectGroupsApi projectGroups() {
-        return new OneSkyProjectGroupsApi(apiKey, apiSecret, httpClient);
+        return projectGroupsApi;
     }
 
     /**
@@ -43,7 +101,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Projects API wrapper
      */
     public OneSkyProjectsApi projects() {
-        return new OneSkyProjectsApi(apiKey, apiSecret, httpClient);
+        return projectsApi;
     }
 
     /**
@@ -52,7 +110,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Project Types API wrapper
      */
     public OneSkyProjectTypesApi projectTypes() {
-        return new OneSkyProjectTypesApi(apiKey, apiSecret, httpClient);
+        return projectTypesApi;
     }
 
     /**
@@ -61,7 +119,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Files API wrapper
      */
     public OneSkyFilesApi files() {
-        return new OneSkyFilesApi(apiKey, apiSecret, httpClient);
+        return filesApi;
     }
 
     /**
@@ -70,7 +128,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Translations API wrapper
      */
     public OneSkyTranslationsApi translations() {
-        return new OneSkyTranslationsApi(apiKey, apiSecret, httpClient);
+        return translationsApi;
     }
 
     /**
@@ -79,7 +137,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Import Tasks API wrapper
      */
     public OneSkyImportTasksApi importTasks() {
-        return new OneSkyImportTasksApi(apiKey, apiSecret, httpClient);
+        return importTasksApi;
     }
 
     /**
@@ -88,7 +146,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Screenshots API wrapper
      */
     public OneSkyScreenshotsApi screenshots() {
-        return new OneSkyScreenshotsApi(apiKey, apiSecret, httpClient);
+        return screenshotsApi;
     }
 
     /**
@@ -97,7 +155,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Quotations API wrapper
      */
     public OneSkyQuotationsApi quotations() {
-        return new OneSkyQuotationsApi(apiKey, apiSecret, httpClient);
+        return quotationsApi;
     }
 
     /**
@@ -106,7 +164,7 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Orders API wrapper
      */
     public OneSkyOrdersApi orders() {
-        return new OneSkyOrdersApi(apiKey, apiSecret, httpClient);
+        return ordersApi;
     }
 
     /**
@@ -115,7 +173,234 @@ public final class OneSkyClient { // CHECKSTYLE:Factory
      * @return Locales API wrapper
      */
     public OneSkyLocalesApi locales() {
-        return new OneSkyLocalesApi(apiKey, apiSecret, httpClient);
+        return localesApi;
+    }
+
+    /**
+     * Returns a new incremental synchronization of the translations of projects into a local directory.
+     *
+     * @param directory target directory, which also holds the sync checkpoint
+     * @param parallelism maximum number of concurrent listings and exports
+     * @return new translation sync
+     */
+    public TranslationSync newTranslationSync(final Path directory, final int parallelism) {
+        return new TranslationSync(projectsApi, filesApi, translationsApi, directory, parallelism);
+    }
+
+    /**
+     * Returns a new local mirror of the metadata of the project groups, projects, project languages and files, loaded
+     * from the given file if it exists.
+     *
+     * @param file mirror file
+     * @param parallelism maximum number of concurrent requests of a refresh
+     * @return new metadata mirror
+     */
+    public MetadataMirror newMetadataMirror(final Path file, final int parallelism) {
+        return new MetadataMirror(projectGroupsApi, projectsApi, filesApi, translationsApi, blockingExecutor, file, parallelism);
+    }
+
+    /**
+     * {@link OneSkyClient} builder.
+     */
+    public static final class Builder {
+        private final String apiKey;
+        private final String apiSecret;
+        private URI apiBaseUri = DEFAULT_API_BASE_URI;
+        private @Nullable OneSkyTransport transport;
+        private double requestsPerSecond = Double.POSITIVE_INFINITY;
+        private int burst = 1;
+        private int maxConcurrentRequests = Integer.MAX_VALUE;
+        private RetryPolicy retryPolicy = RetryPolicy.defaults();
+        private HedgingPolicy hedgingPolicy = HedgingPolicy.none();
+        private CachePolicy referenceDataCachePolicy = CachePolicy.none();
+        private CachePolicy entityCachePolicy = CachePolicy.none();
+        private boolean isRevalidatingExports;
+        private @Nullable ExportCachePolicy exportCachePolicy;
+        private PollingPolicy importPollingPolicy = PollingPolicy.defaults();
+
+        private Builder(final String apiKey, final String apiSecret) {
+            this.apiKey = requireNonNull(apiKey);
+            this.apiSecret = requireNonNull(apiSecret);
+        }
+
+        /**
+         * Sets the OneSky API base URI, {@link #DEFAULT_API_BASE_URI} by default.
+         *
+         * @param apiBaseUri API base URI, e.g. the URI of a local stand-in server
+         * @return this builder
+         */
+        public Builder apiBaseUri(final URI apiBaseUri) {
+            this.apiBaseUri = requireNonNull(apiBaseUri);
+            return this;
+        }
+
+        /**
+         * Sets the HTTP Client to send the requests with; a shortcut for {@code transport(OneSkyTransport.of(httpClient))}.
+         *
+         * @param httpClient HTTP Client
+         * @return this builder
+         */
+        public Builder httpClient(final HttpClient httpClient) {
+            return transport(OneSkyTransport.of(httpClient));
+        }
+
+        /**
+         * Sets the HTTP transport; by default, the requests are sent with a new {@link HttpClient}.
+         *
+         * @param transport HTTP transport
+         * @return this builder
+         */
+        public Builder transport(final OneSkyTransport transport) {
+            this.transport = requireNonNull(transport);
+            return this;
+        }
+
+        /**
+         * Limits the rate of the requests sent by the client; no limit by default.
+         *
+         * <p>The limit is enforced with a token bucket: up to {@code burst} requests may be sent at once after an idle
+         * period, and the requests above the limit are queued until they may be sent.</p>
+         *
+         * @param requestsPerSecond maximum sustained request rate
+         * @param burst maximum number of requests which may be sent at once
+         * @return this builder
+         */
+        public Builder rateLimit(final double requestsPerSecond, final int burst) {
+            if (!(requestsPerSecond > 0)) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid requests rate: %s", requestsPerSecond));
+            }
+            if (burst <= 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid burst: %d", burst));
+            }
+            this.requestsPerSecond = requestsPerSecond;
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * Limits the number of concurrently sent requests; no limit by default.
+         *
+         * <p>The requests above the limit are queued, and are sent in the order they have been made.</p>
+         *
+         * @param maxConcurrentRequests maximum number of in-flight requests
+         * @return this builder
+         */
+        public Builder maxConcurrentRequests(final int maxConcurrentRequests) {
+            if (maxConcurrentRequests <= 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid max concurrent requests: %d", maxConcurrentRequests));
+            }
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Sets the policy of retrying requests which failed with a transient error, {@link RetryPolicy#defaults()}
+         * by default.
+         *
+         * @param retryPolicy retry policy, {@link RetryPolicy#none()} to disable retries
+         * @return this builder
+         */
+        public Builder retryPolicy(final RetryPolicy retryPolicy) {
+            this.retryPolicy = requireNonNull(retryPolicy);
+            return this;
+        }
+
+        /**
+         * Sets the policy of hedging latency-critical requests, {@link HedgingPolicy#none()} by default.
+         *
+         * @param hedgingPolicy hedging policy
+         * @return this builder
+         */
+        public Builder hedgingPolicy(final HedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = requireNonNull(hedgingPolicy);
+            return this;
+        }
+
+        /**
+         * Sets the policy of caching the reference data, which almost never changes: the lists of
+         * {@link OneSkyLocalesApi#list() locales} and {@link OneSkyProjectTypesApi#list() project types};
+         * {@link CachePolicy#none()} by default.
+         *
+         * @param referenceDataCachePolicy reference data cache policy
+         * @return this builder
+         */
+        public Builder referenceDataCache(final CachePolicy referenceDataCachePolicy) {
+            this.referenceDataCachePolicy = requireNonNull(referenceDataCachePolicy);
+            return this;
+        }
+
+        /**
+         * Sets the policy of caching the {@link OneSkyProjectsApi#retrieve retrieved projects} and
+         * {@link OneSkyProjectGroupsApi#retrieve project groups}, {@link CachePolicy#none()} by default.
+         *
+         * <p>A cached entity is invalidated when it is created, updated or deleted through the same client;
+         * a cached project group is also invalidated when a project is created in it.</p>
+         *
+         * @param entityCachePolicy entity cache policy
+         * @return this builder
+         */
+        public Builder entityCache(final CachePolicy entityCachePolicy) {
+            this.entityCachePolicy = requireNonNull(entityCachePolicy);
+            return this;
+        }
+
+        /**
+         * Sets whether the translation exports to files are revalidated; disabled by default.
+         *
+         * <p>When enabled, the client keeps the validators of every file exported by
+         * {@link OneSkyTranslationsApi#export(long, Locale, String, java.nio.file.Path)} or
+         * {@link OneSkyTranslationsApi#exportMultilingual(long, String, java.nio.file.Path, String)}. If the same
+         * translations are exported to the same file again, and the file has not been changed since, the request is
+         * conditional ({@code If-None-Match}, {@code If-Modified-Since}), and the file is kept as is if the API responds
+         * that the translations have not been modified. If the API has not sent any validators, the translations are
+         * considered unchanged if their last update time is the same as at the previous export.</p>
+         *
+         * @param isRevalidatingExports {@code true} to revalidate exports
+         * @return this builder
+         */
+        public Builder exportRevalidation(final boolean isRevalidatingExports) {
+            this.isRevalidatingExports = isRevalidatingExports;
+            return this;
+        }
+
+        /**
+         * Sets the policy of caching the translation files exported by
+         * {@link OneSkyTranslationsApi#export(long, Locale, String, java.nio.file.Path)} and
+         * {@link OneSkyTranslationsApi#exportMultilingual(long, String, java.nio.file.Path, String)} in a local
+         * directory; no cache by default.
+         *
+         * <p>Before every cached export, the client retrieves the time of the last update of the translations, and
+         * only downloads the translations if they are not cached under that time. The cache takes precedence over
+         * {@link #exportRevalidation(boolean) revalidation}.</p>
+         *
+         * @param exportCachePolicy export cache policy
+         * @return this builder
+         */
+        public Builder exportCache(final ExportCachePolicy exportCachePolicy) {
+            this.exportCachePolicy = requireNonNull(exportCachePolicy);
+            return this;
+        }
+
+        /**
+         * Sets the policy of polling the API by {@link OneSkyImportTasksApi#awaitCompletion(long, long)},
+         * {@link PollingPolicy#defaults()} by default.
+         *
+         * @param importPollingPolicy import polling policy
+         * @return this builder
+         */
+        public Builder importPolling(final PollingPolicy importPollingPolicy) {
+            this.importPollingPolicy = requireNonNull(importPollingPolicy);
+            return this;
+        }
+
+        /**
+         * Builds the client.
+         *
+         * @return new client
+         */
+        public OneSkyClient build() {
+            return new OneSkyClient(this);
+        }
     }
 
 }
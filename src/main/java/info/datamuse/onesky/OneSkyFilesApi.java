@@ -1,29 +1,41 @@
 package info.datamuse.onesky;
 
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.Futures;
 import info.datamuse.onesky.internal.JsonUtils;
 import info.datamuse.onesky.internal.MultipartBodyEncoder;
+import info.datamuse.onesky.internal.Pagination;
 import org.json.JSONObject;
+import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static info.datamuse.onesky.OneSkyProjectsApi.PROJECTS_BY_ID_API_URL_TEMPLATE;
 import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
+import static org.slf4j.LoggerFactory.getLogger;
 
 public final class OneSkyFilesApi extends AbstractOneSkyApi {
 
+    private static final Logger logger = getLogger(OneSkyFilesApi.class);
+
     public enum FileStatus {
         ALL,
         COMPLETED,
@@ -79,7 +91,43 @@ public final class OneSkyFilesApi extends AbstractOneSkyApi {
         TMX,
         L10N,
         INI,
-        REQUIREJS
+        REQUIREJS;
+
+        private static final Map<String, FileFormat> EXTENSION_MAP = Map.ofEntries(
+                Map.entry("strings", IOS_STRINGS),
+                Map.entry("stringsdict", IOS_STRINGSDICT_XML),
+                Map.entry("po", GNU_PO),
+                Map.entry("pot", GNU_POT),
+                Map.entry("xml", ANDROID_XML),
+                Map.entry("properties", JAVA_PROPERTIES),
+                Map.entry("yml", YML),
+                Map.entry("yaml", YAML),
+                Map.entry("json", HIERARCHICAL_JSON),
+                Map.entry("resx", RESX),
+                Map.entry("resw", RESW),
+                Map.entry("resjson", RESJSON),
+                Map.entry("php", PHP),
+                Map.entry("html", HTML),
+                Map.entry("htm", HTML),
+                Map.entry("ts", QT_TS_XML),
+                Map.entry("xliff", XLIFF),
+                Map.entry("xlf", XLIFF),
+                Map.entry("tmx", TMX),
+                Map.entry("l10n", L10N),
+                Map.entry("ini", INI)
+        );
+
+        /**
+         * Infers the format of a file by its extension; an extension shared by several formats maps to the most common
+         * one, e.g. {@code .xml} to {@link #ANDROID_XML}, and {@code .json} to {@link #HIERARCHICAL_JSON}.
+         *
+         * @param fileName file name
+         * @return file format, or {@code null} if the extension is not known
+         */
+        public static @Nullable FileFormat forFileName(final String fileName) {
+            final int extensionIndex = fileName.lastIndexOf('.');
+            return extensionIndex >= 0 ? EXTENSION_MAP.get(fileName.substring(extensionIndex + 1).toLowerCase(Locale.ROOT)) : null;
+        }
     }
 
     public static final class File {
@@ -195,6 +243,94 @@ public final class OneSkyFilesApi extends AbstractOneSkyApi {
         }
     }
 
+    /**
+     * Result of an upload of a file, made by {@link #uploadAll}.
+     */
+    public static final class UploadResult {
+        private final Path path;
+        private final @Nullable File file;
+        private final @Nullable Throwable failure;
+
+        UploadResult(final Path path, final @Nullable File file, final @Nullable Throwable failure) {
+            this.path = path;
+            this.file = file;
+            this.failure = failure;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the uploaded file, including its {@link File#getImportStatus() import}.
+         *
+         * @return uploaded file, or {@code null} if the upload has failed
+         */
+        @Nullable
+        public File getFile() {
+            return file;
+        }
+
+        public boolean isSuccessful() {
+            return failure == null;
+        }
+
+        @Nullable
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return "UploadResult{" +
+                    "path=" + path +
+                    ", file=" + file +
+                    ", failure=" + failure +
+                    '}';
+        }
+    }
+
+    /**
+     * Progress of {@link #uploadAll uploading files}, reported once per completed upload.
+     */
+    public static final class UploadProgress {
+        private final UploadResult result;
+        private final int completedCount;
+        private final int totalCount;
+
+        UploadProgress(final UploadResult result, final int completedCount, final int totalCount) {
+            this.result = result;
+            this.completedCount = completedCount;
+            this.totalCount = totalCount;
+        }
+
+        /**
+         * Returns the result of the upload which has just completed.
+         *
+         * @return upload result
+         */
+        public UploadResult getResult() {
+            return result;
+        }
+
+        public int getCompletedCount() {
+            return completedCount;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        @Override
+        public String toString() {
+            return "UploadProgress{" +
+                    "result=" + result +
+                    ", completedCount=" + completedCount +
+                    ", totalCount=" + totalCount +
+                    '}';
+        }
+    }
+
     static final String PROJECT_FILE_NAME_KEY = "name";
     private static final String PROJECT_FILE_FILE_NAME_KEY = "file_name";
     static final String PROJECT_FILE_STRING_COUNT_KEY = "string_count";
@@ -219,12 +355,16 @@ public final class OneSkyFilesApi extends AbstractOneSkyApi {
 
     private static final String PROJECT_FILES_ID_API_URL_TEMPLATE = PROJECTS_BY_ID_API_URL_TEMPLATE + "/files";
 
-    OneSkyFilesApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    private final Executor blockingExecutor;
+
+    OneSkyFilesApi(final ApiContext apiContext) {
+        super(apiContext);
+        this.blockingExecutor = apiContext.getBlockingExecutor();
     }
 
     public CompletableFuture<Page<File>> pagedList(final long projectId, long pageNumber, final long maxItemsPerPage) {
         return apiGetPagedListRequest(
+                PROJECT_FILES_ID_API_URL_TEMPLATE,
                 String.format(PROJECT_FILES_ID_API_URL_TEMPLATE, projectId),
                 emptyMap(),
                 pageNumber,
@@ -233,18 +373,115 @@ public final class OneSkyFilesApi extends AbstractOneSkyApi {
         );
     }
 
+    /**
+     * Returns a lazy stream of all files of the project, fetching the pages on demand.
+     * While the items of a page are being consumed, the next page is already being fetched.
+     *
+     * @param projectId project id
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @return stream of files; should be closed if not consumed completely
+     */
+    public Stream<File> stream(final long projectId, final long maxItemsPerPage) {
+        return Pagination.stream(pageNumber -> pagedList(projectId, pageNumber, maxItemsPerPage));
+    }
+
+    /**
+     * Returns a lazy publisher of all files of the project, fetching the pages on subscriber's demand.
+     *
+     * @param projectId project id
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @return publisher of files
+     */
+    public Flow.Publisher<File> publisher(final long projectId, final long maxItemsPerPage) {
+        return Pagination.publisher(pageNumber -> pagedList(projectId, pageNumber, maxItemsPerPage));
+    }
+
+    /**
+     * Fetches all files of the project.
+     * After the first page, the remaining pages are fetched concurrently, with at most {@code parallelism} requests in flight.
+     *
+     * @param projectId project id
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @param parallelism maximum number of pages being fetched concurrently
+     * @return list of all files ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<List<File>> fetchAll(final long projectId, final long maxItemsPerPage, final int parallelism) {
+        return Pagination.fetchAll(pageNumber -> pagedList(projectId, pageNumber, maxItemsPerPage), parallelism);
+    }
+
+    /**
+     * Uploads a file.
+     *
+     * <p>The request advertises the exact body length, and the file is read anew if the request is retried.</p>
+     *
+     * @param projectId project id
+     * @param fileFormat file format
+     * @param path file path; the uploaded file is named after the last path element
+     * @param locale optional file locale
+     * @return uploaded file ({@link CompletableFuture promise})
+     */
     public CompletableFuture<File> upload(final long projectId,
                                           final FileFormat fileFormat,
                                           final Path path,
                                           final @Nullable Locale locale) {
+        final long fileSize;
         try {
-            final InputStream is = Files.newInputStream(path);
-            return upload(projectId, fileFormat, path.getFileName().toString(), is, locale, true, false);
+            fileSize = Files.size(path);
         } catch (final IOException e) {
             throw new OneSkyApiException(e);
         }
+        final MultipartBodyEncoder multipartBodyEncoder = new MultipartBodyEncoder();
+        multipartBodyEncoder.addFilePart(
+                PROJECT_FILE_UPLOAD_FILE_PARAM,
+                path.getFileName().toString(),
+                fileFormat.toString(),
+                path,
+                fileSize
+        );
+        return upload(projectId, multipartBodyEncoder, fileFormat, locale, true, false);
+    }
+
+    /**
+     * Uploads a file of in-memory content.
+     *
+     * <p>The request advertises the exact body length, and may be retried.</p>
+     *
+     * @param projectId project id
+     * @param fileFormat file format
+     * @param fileName file name
+     * @param content file content
+     * @param locale optional file locale
+     * @return uploaded file ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<File> upload(final long projectId,
+                                          final FileFormat fileFormat,
+                                          final String fileName,
+                                          final byte[] content,
+                                          final @Nullable Locale locale) {
+        final MultipartBodyEncoder multipartBodyEncoder = new MultipartBodyEncoder();
+        multipartBodyEncoder.addFilePart(
+                PROJECT_FILE_UPLOAD_FILE_PARAM,
+                requireNonNull(fileName),
+                fileFormat.toString(),
+                content.clone()
+        );
+        return upload(projectId, multipartBodyEncoder, fileFormat, locale, true, false);
     }
 
+    /**
+     * Uploads a file read from a stream.
+     *
+     * <p>The body length is unknown, so the request is sent with the chunked transfer encoding, and is not retried;
+     * prefer the {@link #upload(long, FileFormat, Path, Locale) file} and
+     * {@link #upload(long, FileFormat, String, byte[], Locale) in-memory} variants when possible.</p>
+     *
+     * @param projectId project id
+     * @param fileFormat file format
+     * @param fileName file name
+     * @param inputStream file content, closed once read
+     * @param locale optional file locale
+     * @return uploaded file ({@link CompletableFuture promise})
+     */
     public CompletableFuture<File> upload(final long projectId,
                                           final FileFormat fileFormat,
                                           final String fileName,
@@ -265,8 +502,18 @@ public final class OneSkyFilesApi extends AbstractOneSkyApi {
                 PROJECT_FILE_UPLOAD_FILE_PARAM,
                 fileName,
                 fileFormat.toString(),
-                inputStream
+                inputStream,
+                blockingExecutor
         );
+        return upload(projectId, multipartBodyEncoder, fileFormat, locale, isKeepingAllStrings, isAllowTranslationSameAsOriginal);
+    }
+
+    private CompletableFuture<File> upload(final long projectId,
+                                           final MultipartBodyEncoder multipartBodyEncoder,
+                                           final FileFormat fileFormat,
+                                           final @Nullable Locale locale,
+                                           final boolean isKeepingAllStrings,
+                                           final boolean isAllowTranslationSameAsOriginal) {
         multipartBodyEncoder.addFormField(PROJECT_FILE_UPLOAD_FILE_FORMAT_PARAM, String.valueOf(fileFormat));
         if (locale != null) {
             multipartBodyEncoder.addFormField(PROJECT_FILE_UPLOAD_LOCALE_PARAM, locale.toLanguageTag());
@@ -276,13 +523,84 @@ public final class OneSkyFilesApi extends AbstractOneSkyApi {
 
         return apiMultiPartRequest(
                 String.format(PROJECT_FILES_ID_API_URL_TEMPLATE, projectId),
-                HttpRequest.BodyPublishers.ofInputStream(() -> multipartBodyEncoder.finish()),
+                multipartBodyEncoder.finish(),
                 multipartBodyEncoder.getBoundary(),
                 Map.of(),
                 data -> toFileAfterCreation(data)
         );
     }
 
+    /**
+     * Uploads the regular files of a directory (not recursively), in the order of their names; see
+     * {@link #uploadAll(long, List, Locale, int, Consumer)}.
+     *
+     * @param projectId project id
+     * @param directory directory of the files to upload
+     * @param locale optional locale of the files
+     * @param parallelism maximum number of concurrent uploads
+     * @param progressListener receives the progress once per completed upload
+     * @return upload results, in the order of the file names ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<List<UploadResult>> uploadAll(final long projectId,
+                                                           final Path directory,
+                                                           final @Nullable Locale locale,
+                                                           final int parallelism,
+                                                           final Consumer<UploadProgress> progressListener) {
+        final List<Path> paths;
+        try (Stream<Path> directoryPaths = Files.list(directory)) {
+            paths = directoryPaths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (final IOException e) {
+            throw new OneSkyApiException(e);
+        }
+        return uploadAll(projectId, paths, locale, parallelism, progressListener);
+    }
+
+    /**
+     * Uploads the files, running at most {@code parallelism} uploads at a time; the format of every file is
+     * {@link FileFormat#forFileName inferred by its extension}.
+     *
+     * <p>A failed upload, or a file of an unknown format, does not fail the others: the result has an entry for every
+     * file, which holds either the uploaded file along with its import, or the failure. The progress listener is
+     * called from the thread which completes an upload, and must not block; an exception thrown by it is logged, and
+     * does not fail the uploads.</p>
+     *
+     * @param projectId project id
+     * @param paths files to upload
+     * @param locale optional locale of the files
+     * @param parallelism maximum number of concurrent uploads
+     * @param progressListener receives the progress once per completed upload
+     * @return upload results, in the order of the paths ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<List<UploadResult>> uploadAll(final long projectId,
+                                                           final List<Path> paths,
+                                                           final @Nullable Locale locale,
+                                                           final int parallelism,
+                                                           final Consumer<UploadProgress> progressListener) {
+        requireNonNull(progressListener);
+        final List<Path> uploadedPaths = List.copyOf(paths);
+        final AtomicInteger completedCount = new AtomicInteger();
+        return Futures.mapWithBoundedParallelism(uploadedPaths, parallelism, path ->
+                Futures.start(() -> {
+                    final String fileName = path.getFileName().toString();
+                    final @Nullable FileFormat fileFormat = FileFormat.forFileName(fileName);
+                    if (fileFormat == null) {
+                        throw new IllegalArgumentException(String.format(Locale.ROOT, "Unknown format of file: %s", fileName));
+                    }
+                    return upload(projectId, fileFormat, path, locale);
+                }).handle((file, throwable) -> {
+                    final UploadResult result = throwable == null
+                            ? new UploadResult(path, file, null)
+                            : new UploadResult(path, null, Futures.unwrapCompletionException(throwable));
+                    try {
+                        progressListener.accept(new UploadProgress(result, completedCount.incrementAndGet(), uploadedPaths.size()));
+                    } catch (final RuntimeException e) {
+                        logger.warn("Upload progress listener failed", e);
+                    }
+                    return result;
+                })
+        );
+    }
+
     public CompletableFuture<Void> delete(final long projectId, final String fileName) {
         return apiDeleteRequest(
                 String.format(Locale.ROOT, PROJECT_FILES_ID_API_URL_TEMPLATE, projectId),
@@ -290,7 +608,7 @@ public final class OneSkyFilesApi extends AbstractOneSkyApi {
         );
     }
 
-    private static File toFile(final JSONObject fileJson) {
+    static File toFile(final JSONObject fileJson) {
         final @Nullable FileImport fileImport = JsonUtils.getOptionalJsonValue(fileJson, PROJECT_FILE_LAST_IMPORT_KEY, JSONObject.class,
                 fileImportJson ->
                         new FileImport(
@@ -2,15 +2,19 @@ package info.datamuse.onesky;
 
 import info.datamuse.onesky.OneSkyFilesApi.*;
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.Pagination;
 import org.json.JSONObject;
 
 import javax.annotation.Nullable;
-import java.net.http.HttpClient;
 import java.time.Instant;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 import static info.datamuse.onesky.OneSkyFilesApi.*;
 import static info.datamuse.onesky.OneSkyProjectsApi.PROJECTS_BY_ID_API_URL_TEMPLATE;
@@ -134,8 +138,11 @@ public final class OneSkyImportTasksApi extends AbstractOneSkyApi {
         FAILED
     }
 
-    OneSkyImportTasksApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    private final ImportTaskTracker importTaskTracker;
+
+    OneSkyImportTasksApi(final ApiContext apiContext, final PollingPolicy pollingPolicy) {
+        super(apiContext);
+        this.importTaskTracker = new ImportTaskTracker(this, pollingPolicy);
     }
 
     public CompletableFuture<Page<ImportTask>> pagedList(final long projectId,
@@ -145,6 +152,7 @@ public final class OneSkyImportTasksApi extends AbstractOneSkyApi {
         final Map<String, String> params = fileStatus == null ?
                 emptyMap() : Map.of(PROJECT_FILE_IMPORT_STATUS_KEY, FileStatus.getValue(fileStatus));
         return apiGetPagedListRequest(
+                PROJECT_IMPORT_TASKS_ID_API_URL_TEMPLATE,
                 String.format(PROJECT_IMPORT_TASKS_ID_API_URL_TEMPLATE, projectId),
                 params,
                 pageNumber,
@@ -153,15 +161,84 @@ public final class OneSkyImportTasksApi extends AbstractOneSkyApi {
         );
     }
 
+    /**
+     * Returns a lazy stream of all import tasks of the project, fetching the pages on demand.
+     * While the items of a page are being consumed, the next page is already being fetched.
+     *
+     * @param projectId project id
+     * @param fileStatus optional import status filter
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @return stream of import tasks; should be closed if not consumed completely
+     */
+    public Stream<ImportTask> stream(final long projectId, final @Nullable FileStatus fileStatus, final long maxItemsPerPage) {
+        return Pagination.stream(pageNumber -> pagedList(projectId, fileStatus, pageNumber, maxItemsPerPage));
+    }
+
+    /**
+     * Returns a lazy publisher of all import tasks of the project, fetching the pages on subscriber's demand.
+     *
+     * @param projectId project id
+     * @param fileStatus optional import status filter
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @return publisher of import tasks
+     */
+    public Flow.Publisher<ImportTask> publisher(final long projectId, final @Nullable FileStatus fileStatus, final long maxItemsPerPage) {
+        return Pagination.publisher(pageNumber -> pagedList(projectId, fileStatus, pageNumber, maxItemsPerPage));
+    }
+
+    /**
+     * Fetches all import tasks of the project.
+     * After the first page, the remaining pages are fetched concurrently, with at most {@code parallelism} requests in flight.
+     *
+     * @param projectId project id
+     * @param fileStatus optional import status filter
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @param parallelism maximum number of pages being fetched concurrently
+     * @return list of all import tasks ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<List<ImportTask>> fetchAll(final long projectId, final @Nullable FileStatus fileStatus, final long maxItemsPerPage, final int parallelism) {
+        return Pagination.fetchAll(pageNumber -> pagedList(projectId, fileStatus, pageNumber, maxItemsPerPage), parallelism);
+    }
+
     public CompletableFuture<ImportTask> retrieve(final long projectId, final long importId) {
-        return apiGetObjectRequest(
+        return apiHedgedGetObjectRequest(
+                PROJECT_IMPORT_TASKS_IMPORT_ID_API_URL_TEMPLATE,
                 String.format(Locale.ROOT, PROJECT_IMPORT_TASKS_IMPORT_ID_API_URL_TEMPLATE, projectId, importId),
                 emptyMap(),
                 data -> toImportTask(data)
         );
     }
 
-    private static ImportTask toImportTask(final JSONObject importTaskJson) {
+    /**
+     * Awaits the completion of a file import, e.g. of a file {@link OneSkyFilesApi#upload uploaded} to the project.
+     *
+     * <p>The import is tracked by the client's {@link ImportTaskTracker}, polling according to the client's
+     * {@link PollingPolicy}; the imports awaited in a project are polled together.</p>
+     *
+     * <p>The returned promise is completed with the retrieved import task, whose status is either
+     * {@link FileStatus#COMPLETED} or {@link FileStatus#FAILED}; it is failed if the import task can not be polled
+     * repeatedly. Cancelling the promise stops awaiting the import.</p>
+     *
+     * @param projectId project id
+     * @param importId import id
+     * @return finished import task ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<ImportTask> awaitCompletion(final long projectId, final long importId) {
+        return importTaskTracker.track(projectId, importId);
+    }
+
+    /**
+     * Returns a new import task tracker, e.g. to track the imports of a batch of uploads separately from the other
+     * imports, and to stop tracking them at once by {@link ImportTaskTracker#close() closing} the tracker.
+     *
+     * @param pollingPolicy polling policy of the tracker
+     * @return new import task tracker
+     */
+    public ImportTaskTracker newTracker(final PollingPolicy pollingPolicy) {
+        return new ImportTaskTracker(this, pollingPolicy);
+    }
+
+    static ImportTask toImportTask(final JSONObject importTaskJson) {
         final JSONObject fileJson = importTaskJson.getJSONObject(PROJECT_FILE_UPLOAD_FILE_PARAM);
 
         final @Nullable FileFormat fileFormat = getOptionalJsonValue(fileJson, PROJECT_FILE_FORMAT_KEY, String.class,
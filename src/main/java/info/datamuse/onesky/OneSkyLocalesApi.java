@@ -1,8 +1,9 @@
 package info.datamuse.onesky;
 
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.CachedValue;
 
-import java.net.http.HttpClient;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
@@ -14,21 +15,32 @@ import static java.util.Collections.emptyMap;
  */
 public final class OneSkyLocalesApi extends AbstractOneSkyApi {
 
-    private static final String LOCALES_API_URL = API_BASE_URL + "/locales";
+    private static final String LOCALES_API_URL = "/locales";
 
     static final String LOCALE_CODE_KEY = "code";
 
-    OneSkyLocalesApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    private final CachedValue<List<Locale>> cachedLocales;
+
+    OneSkyLocalesApi(final ApiContext apiContext, final CachePolicy cachePolicy) {
+        super(apiContext);
+        this.cachedLocales = new CachedValue<>(this::fetchList, cachePolicy);
     }
 
     /**
      * Returns a {@link CompletableFuture promise} for the list of all locales supported by OneSky.
      *
+     * <p>The list is cached according to the client's {@link OneSkyClient.Builder#referenceDataCache reference data
+     * cache policy}.</p>
+     *
      * @return list of all locales (promise)
      */
     public CompletableFuture<List<Locale>> list() {
+        return cachedLocales.get();
+    }
+
+    private CompletableFuture<List<Locale>> fetchList() {
         return apiGetListRequest(
+            LOCALES_API_URL,
             LOCALES_API_URL,
             emptyMap(),
             dataItem -> Locale.forLanguageTag(
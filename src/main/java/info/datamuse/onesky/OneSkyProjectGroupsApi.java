@@ -1,18 +1,23 @@
 package info.datamuse.onesky;
 
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.EntityCache;
+import info.datamuse.onesky.internal.Pagination;
 import org.json.JSONObject;
 
 import javax.annotation.Nullable;
-import java.net.http.HttpClient;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
 
 import static info.datamuse.onesky.OneSkyLocalesApi.LOCALE_CODE_KEY;
+import static info.datamuse.onesky.internal.Futures.propagateCancellation;
 import static info.datamuse.onesky.internal.JsonUtils.getOptionalJsonValue;
 import static info.datamuse.onesky.internal.ListUtils.optionalListRequireNonNullItems;
 import static java.util.Collections.emptyMap;
@@ -135,7 +140,7 @@ public final class OneSkyProjectGroupsApi extends AbstractOneSkyApi {
         }
     }
 
-    static final String PROJECT_GROUPS_API_URL = API_BASE_URL + "/project-groups";
+    static final String PROJECT_GROUPS_API_URL = "/project-groups";
     static final String PROJECT_GROUP_BY_ID_API_URL_TEMPLATE = PROJECT_GROUPS_API_URL + "/%d";
     private static final String PROJECT_GROUP_ENABLED_LOCALES_BY_ID_API_URL_TEMPLATE = PROJECT_GROUP_BY_ID_API_URL_TEMPLATE + "/languages";
 
@@ -148,8 +153,11 @@ public final class OneSkyProjectGroupsApi extends AbstractOneSkyApi {
     static final String PROJECT_GROUP_PROJECT_COUNT_KEY = "project_count";
     static final String PROJECT_GROUP_IS_BASE_LOCALE_KEY = "is_base_language";
 
-    OneSkyProjectGroupsApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    private final EntityCache<Long, ProjectGroup> projectGroupCache;
+
+    OneSkyProjectGroupsApi(final ApiContext apiContext, final CachePolicy cachePolicy) {
+        super(apiContext);
+        this.projectGroupCache = new EntityCache<>(cachePolicy);
     }
 
     /**
@@ -166,11 +174,19 @@ public final class OneSkyProjectGroupsApi extends AbstractOneSkyApi {
             parameters.put(PROJECT_GROUP_BASE_LOCALE_PARAM, baseLocale.toLanguageTag());
         }
 
-        return apiCreateRequest(
+        final CompletableFuture<ProjectGroup> projectGroupPromise = apiCreateRequest(
             PROJECT_GROUPS_API_URL,
             parameters,
             data -> toProjectGroup(data, null)
         );
+        return propagateCancellation(
+            projectGroupPromise.whenComplete((projectGroup, throwable) -> {
+                if (projectGroup != null) {
+                    projectGroupCache.invalidate(projectGroup.getId());
+                }
+            }),
+            projectGroupPromise
+        );
     }
 
     /**
@@ -182,6 +198,7 @@ public final class OneSkyProjectGroupsApi extends AbstractOneSkyApi {
      */
     public CompletableFuture<Page<ProjectGroup>> pagedList(final long pageNumber, final long maxItemsPerPage) {
         return apiGetPagedListRequest(
+            PROJECT_GROUPS_API_URL,
             PROJECT_GROUPS_API_URL,
             emptyMap(),
             pageNumber,
@@ -190,20 +207,60 @@ public final class OneSkyProjectGroupsApi extends AbstractOneSkyApi {
         );
     }
 
+    /**
+     * Returns a lazy stream of all project groups, fetching the pages on demand.
+     * While the items of a page are being consumed, the next page is already being fetched.
+     *
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @return stream of project groups; should be closed if not consumed completely
+     */
+    public Stream<ProjectGroup> stream(final long maxItemsPerPage) {
+        return Pagination.stream(pageNumber -> pagedList(pageNumber, maxItemsPerPage));
+    }
+
+    /**
+     * Returns a lazy publisher of all project groups, fetching the pages on subscriber's demand.
+     *
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @return publisher of project groups
+     */
+    public Flow.Publisher<ProjectGroup> publisher(final long maxItemsPerPage) {
+        return Pagination.publisher(pageNumber -> pagedList(pageNumber, maxItemsPerPage));
+    }
+
+    /**
+     * Fetches all project groups.
+     * After the first page, the remaining pages are fetched concurrently, with at most {@code parallelism} requests in flight.
+     *
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @param parallelism maximum number of pages being fetched concurrently
+     * @return list of all project groups ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<List<ProjectGroup>> fetchAll(final long maxItemsPerPage, final int parallelism) {
+        return Pagination.fetchAll(pageNumber -> pagedList(pageNumber, maxItemsPerPage), parallelism);
+    }
+
     /**
      * Fetches the project group with the specified id (the "SHOW project group details" API command),
      * along with its list of enabled locales (the "list enabled LANGUAGES" API command).
+     * The project group is cached according to the client's {@link OneSkyClient.Builder#entityCache entity cache policy}.
      *
      * @param projectGroupId target project group id
      * @return project group ({@link CompletableFuture promise})
      */
     public CompletableFuture<ProjectGroup> retrieve(final long projectGroupId) {
+        return projectGroupCache.get(projectGroupId, this::retrieveUncached);
+    }
+
+    private CompletableFuture<ProjectGroup> retrieveUncached(final long projectGroupId) {
         final CompletableFuture<JSONObject> projectGroupJsonPromise = apiGetObjectRequest(
+            PROJECT_GROUP_BY_ID_API_URL_TEMPLATE,
             String.format(Locale.ROOT, PROJECT_GROUP_BY_ID_API_URL_TEMPLATE, projectGroupId),
             emptyMap(),
             identity()
         );
         final CompletableFuture<List<JSONObject>> enabledLocalesJsonsPromise = apiGetListRequest(
+            PROJECT_GROUP_ENABLED_LOCALES_BY_ID_API_URL_TEMPLATE,
             String.format(Locale.ROOT, PROJECT_GROUP_ENABLED_LOCALES_BY_ID_API_URL_TEMPLATE, projectGroupId),
             emptyMap(),
             identity()
@@ -220,10 +277,30 @@ public final class OneSkyProjectGroupsApi extends AbstractOneSkyApi {
      * @return {@link CompletableFuture promise} of the project group deletion
      */
     public CompletableFuture<Void> delete(final long projectGroupId) {
-        return apiDeleteRequest(
+        final CompletableFuture<Void> deletionPromise = apiDeleteRequest(
             String.format(Locale.ROOT, PROJECT_GROUP_BY_ID_API_URL_TEMPLATE, projectGroupId),
             emptyMap()
         );
+        return propagateCancellation(
+            deletionPromise.whenComplete((result, throwable) -> projectGroupCache.invalidate(projectGroupId)),
+            deletionPromise
+        );
+    }
+
+    /**
+     * Returns statistics of the cache of {@link #retrieve retrieved} project groups.
+     *
+     * @return cache statistics
+     */
+    public CacheStats cacheStats() {
+        return projectGroupCache.stats();
+    }
+
+    /**
+     * Invalidates the cached project group, e.g. when its projects have changed.
+     */
+    void invalidateCached(final long projectGroupId) {
+        projectGroupCache.invalidate(projectGroupId);
     }
 
     private static ProjectGroup toProjectGroup(final JSONObject projectGroupJson, final @Nullable List<JSONObject> enabledLocalesJsons) {
@@ -1,8 +1,9 @@
 package info.datamuse.onesky;
 
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.CachedValue;
 
-import java.net.http.HttpClient;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
@@ -80,22 +81,33 @@ public final class OneSkyProjectTypesApi extends AbstractOneSkyApi {
         }
     }
 
-    private static final String PROJECT_TYPES_API_URL = API_BASE_URL + "/project-types";
+    private static final String PROJECT_TYPES_API_URL = "/project-types";
 
     static final String PROJECT_TYPE_CODE_KEY = "code";
     static final String PROJECT_TYPE_NAME_KEY = "name";
 
-    OneSkyProjectTypesApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    private final CachedValue<List<ProjectType>> cachedProjectTypes;
+
+    OneSkyProjectTypesApi(final ApiContext apiContext, final CachePolicy cachePolicy) {
+        super(apiContext);
+        this.cachedProjectTypes = new CachedValue<>(this::fetchList, cachePolicy);
     }
 
     /**
      * Returns a {@link CompletableFuture promise} for the list of available project types.
      *
+     * <p>The list is cached according to the client's {@link OneSkyClient.Builder#referenceDataCache reference data
+     * cache policy}.</p>
+     *
      * @return list of project types (promise)
      */
     public CompletableFuture<List<ProjectType>> list() {
+        return cachedProjectTypes.get();
+    }
+
+    private CompletableFuture<List<ProjectType>> fetchList() {
         return apiGetListRequest(
+            PROJECT_TYPES_API_URL,
             PROJECT_TYPES_API_URL,
             emptyMap(),
             dataItem -> new ProjectType(
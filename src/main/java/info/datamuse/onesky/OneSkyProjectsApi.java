@@ -2,10 +2,11 @@ package info.datamuse.onesky;
 
 import info.datamuse.onesky.OneSkyProjectTypesApi.ProjectType;
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.EntityCache;
 import org.json.JSONObject;
 
 import javax.annotation.Nullable;
-import java.net.http.HttpClient;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -15,6 +16,7 @@ import static info.datamuse.onesky.OneSkyLocalesApi.LOCALE_CODE_KEY;
 import static info.datamuse.onesky.OneSkyProjectGroupsApi.PROJECT_GROUP_BY_ID_API_URL_TEMPLATE;
 import static info.datamuse.onesky.OneSkyProjectTypesApi.PROJECT_TYPE_CODE_KEY;
 import static info.datamuse.onesky.OneSkyProjectTypesApi.PROJECT_TYPE_NAME_KEY;
+import static info.datamuse.onesky.internal.Futures.propagateCancellation;
 import static info.datamuse.onesky.internal.JsonUtils.getOptionalJsonValue;
 import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
@@ -180,9 +182,9 @@ public final class OneSkyProjectsApi extends AbstractOneSkyApi {
         }
     }
 
-    static final String PROJECTS_API_URL = API_BASE_URL + "/projects";
+    static final String PROJECTS_API_URL = "/projects";
     static final String PROJECTS_BY_ID_API_URL_TEMPLATE = PROJECTS_API_URL + "/%d";
-    private static final String PROJECT_LANGUAGES_BY_ID_API_URL_TEMPLATE = PROJECTS_BY_ID_API_URL_TEMPLATE + "/languages";
+    static final String PROJECT_LANGUAGES_BY_ID_API_URL_TEMPLATE = PROJECTS_BY_ID_API_URL_TEMPLATE + "/languages";
     private static final String PROJECTS_BY_GROUP_ID_API_URL_TEMPLATE = PROJECT_GROUP_BY_ID_API_URL_TEMPLATE + "/projects";
 
     private static final String PROJECT_ID_KEY = "id";
@@ -201,8 +203,13 @@ public final class OneSkyProjectsApi extends AbstractOneSkyApi {
     private static final String PROJECT_NAME_PARAM = PROJECT_NAME_KEY;
     private static final String PROJECT_DESCRIPTION_PARAM = PROJECT_DESCRIPTION_KEY;
 
-    OneSkyProjectsApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    private final EntityCache<Long, Project> projectCache;
+    private final OneSkyProjectGroupsApi projectGroupsApi;
+
+    OneSkyProjectsApi(final ApiContext apiContext, final CachePolicy cachePolicy, final OneSkyProjectGroupsApi projectGroupsApi) {
+        super(apiContext);
+        this.projectCache = new EntityCache<>(cachePolicy);
+        this.projectGroupsApi = requireNonNull(projectGroupsApi);
     }
 
     public CompletableFuture<Project> create(final long projectGroupId, final String type, final @Nullable String name, final @Nullable String description) {
@@ -215,28 +222,51 @@ public final class OneSkyProjectsApi extends AbstractOneSkyApi {
             parameters.put(PROJECT_DESCRIPTION_PARAM, description);
         }
 
-        return apiCreateRequest(
+        final CompletableFuture<Project> projectPromise = apiCreateRequest(
             String.format(Locale.ROOT, PROJECTS_BY_GROUP_ID_API_URL_TEMPLATE, projectGroupId),
             parameters,
             data -> toProject(data, null)
         );
+        return propagateCancellation(
+            projectPromise.whenComplete((project, throwable) -> {
+                if (project != null) {
+                    projectCache.invalidate(project.getId());
+                }
+                projectGroupsApi.invalidateCached(projectGroupId);
+            }),
+            projectPromise
+        );
     }
 
     public CompletableFuture<List<Project>> list(final long projectGroupId) {
         return apiGetListRequest(
+            PROJECTS_BY_GROUP_ID_API_URL_TEMPLATE,
             String.format(Locale.ROOT, PROJECTS_BY_GROUP_ID_API_URL_TEMPLATE, projectGroupId),
             emptyMap(),
             data -> toProject(data, null)
         );
     }
 
+    /**
+     * Fetches the project with the specified id, along with its languages; the project is cached according to the
+     * client's {@link OneSkyClient.Builder#entityCache entity cache policy}.
+     *
+     * @param projectId target project id
+     * @return project ({@link CompletableFuture promise})
+     */
     public CompletableFuture<Project> retrieve(final long projectId) {
-        final CompletableFuture<JSONObject> projectJsonPromise = apiGetObjectRequest(
+        return projectCache.get(projectId, this::retrieveUncached);
+    }
+
+    private CompletableFuture<Project> retrieveUncached(final long projectId) {
+        final CompletableFuture<JSONObject> projectJsonPromise = apiHedgedGetObjectRequest(
+            PROJECTS_BY_ID_API_URL_TEMPLATE,
             String.format(Locale.ROOT, PROJECTS_BY_ID_API_URL_TEMPLATE, projectId),
             emptyMap(),
             identity()
         );
-        final CompletableFuture<List<JSONObject>> projectLanguagesPromise = apiGetListRequest(
+        final CompletableFuture<List<JSONObject>> projectLanguagesPromise = apiHedgedGetListRequest(
+            PROJECT_LANGUAGES_BY_ID_API_URL_TEMPLATE,
             String.format(Locale.ROOT, PROJECT_LANGUAGES_BY_ID_API_URL_TEMPLATE, projectId),
             emptyMap(),
             identity()
@@ -253,20 +283,39 @@ public final class OneSkyProjectsApi extends AbstractOneSkyApi {
         if (description != null) {
             parameters.put(PROJECT_DESCRIPTION_PARAM, description);
         }
-        return apiUpdateRequest(
+        return invalidatingCached(projectId, apiUpdateRequest(
             String.format(Locale.ROOT, PROJECTS_BY_ID_API_URL_TEMPLATE, projectId),
             parameters
-        );
+        ));
     }
 
     public CompletableFuture<Void> delete(final long projectId) {
-        return apiDeleteRequest(
+        return invalidatingCached(projectId, apiDeleteRequest(
             String.format(Locale.ROOT, PROJECTS_BY_ID_API_URL_TEMPLATE, projectId),
             emptyMap()
+        ));
+    }
+
+    /**
+     * Returns statistics of the cache of {@link #retrieve retrieved} projects.
+     *
+     * @return cache statistics
+     */
+    public CacheStats cacheStats() {
+        return projectCache.stats();
+    }
+
+    /**
+     * Invalidates the cached project once the modification has completed, whether successfully or not.
+     */
+    private <T> CompletableFuture<T> invalidatingCached(final long projectId, final CompletableFuture<T> modificationPromise) {
+        return propagateCancellation(
+            modificationPromise.whenComplete((result, throwable) -> projectCache.invalidate(projectId)),
+            modificationPromise
         );
     }
 
-    private static Project toProject(final JSONObject projectJson, final @Nullable List<JSONObject> languages) {
+    static Project toProject(final JSONObject projectJson, final @Nullable List<JSONObject> languages) {
         @Nullable ProjectLanguage baseProjectLanguage = null;
         List<ProjectLanguage> projectLanguages = new ArrayList<>();
         if (languages != null) {
@@ -296,7 +345,7 @@ public final class OneSkyProjectsApi extends AbstractOneSkyApi {
         );
     }
 
-    private static ProjectLanguage toProjectLanguage(final JSONObject projectLanguageJson) {
+    static ProjectLanguage toProjectLanguage(final JSONObject projectLanguageJson) {
         return new ProjectLanguage(
             Locale.forLanguageTag(projectLanguageJson.getString(LOCALE_CODE_KEY)),
             projectLanguageJson.getBoolean(PROJECT_LANGUAGE_IS_READY_TO_PUBLISH_KEY),
@@ -1,16 +1,16 @@
 package info.datamuse.onesky;
 
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
 
-import java.net.http.HttpClient;
 
 /**
  * OneSky Quotations API wrapper.
  */
 public final class OneSkyQuotationsApi extends AbstractOneSkyApi {
 
-    OneSkyQuotationsApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    OneSkyQuotationsApi(final ApiContext apiContext) {
+        super(apiContext);
     }
 
     // TODO: implement
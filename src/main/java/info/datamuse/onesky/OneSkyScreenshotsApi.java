@@ -1,16 +1,16 @@
 package info.datamuse.onesky;
 
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
 
-import java.net.http.HttpClient;
 
 /**
  * OneSky Screenshots API wrapper.
  */
 public final class OneSkyScreenshotsApi extends AbstractOneSkyApi {
 
-    OneSkyScreenshotsApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    OneSkyScreenshotsApi(final ApiContext apiContext) {
+        super(apiContext);
     }
 
     // TODO: implement
@@ -1,25 +1,45 @@
 package info.datamuse.onesky;
 
+import info.datamuse.onesky.OneSkyProjectsApi.ProjectLanguage;
 import info.datamuse.onesky.internal.AbstractOneSkyApi;
+import info.datamuse.onesky.internal.ApiContext;
+import info.datamuse.onesky.internal.ExportCache;
+import info.datamuse.onesky.internal.Futures;
 import org.json.JSONObject;
 
 import javax.annotation.Nullable;
+import java.io.IOException;
 import java.io.InputStream;
-import java.net.http.HttpClient;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static info.datamuse.onesky.OneSkyFilesApi.PROJECT_FILE_LANGUAGE_CODE_KEY;
 import static info.datamuse.onesky.OneSkyProjectsApi.PROJECTS_BY_ID_API_URL_TEMPLATE;
+import static info.datamuse.onesky.OneSkyProjectsApi.PROJECT_LANGUAGES_BY_ID_API_URL_TEMPLATE;
+import static info.datamuse.onesky.internal.Futures.mapWithBoundedParallelism;
+import static info.datamuse.onesky.internal.Futures.propagateCancellation;
+import static info.datamuse.onesky.internal.Futures.unwrapCompletionException;
 import static info.datamuse.onesky.internal.HttpUtils.*;
+import static info.datamuse.onesky.internal.PathUtils.resolveWithin;
 import static java.net.http.HttpRequest.BodyPublishers.noBody;
 import static java.net.http.HttpResponse.BodyHandlers.ofFile;
 import static java.net.http.HttpResponse.BodyHandlers.ofInputStream;
+import static java.util.Collections.emptyMap;
 import static java.util.Objects.requireNonNull;
+import static java.util.function.Function.identity;
 
 public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
 
@@ -74,6 +94,59 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
         }
     }
 
+    /**
+     * Result of an export of the translations of a file into a locale, made by {@link #exportAll}.
+     */
+    public static final class ExportResult {
+        private final String fileName;
+        private final Locale locale;
+        private final Path path;
+        private final @Nullable Throwable failure;
+
+        ExportResult(final String fileName, final Locale locale, final Path path, final @Nullable Throwable failure) {
+            this.fileName = fileName;
+            this.locale = locale;
+            this.path = path;
+            this.failure = failure;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public Locale getLocale() {
+            return locale;
+        }
+
+        /**
+         * Returns the target path; it holds the exported translations if the export is successful.
+         *
+         * @return target path
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        public boolean isSuccessful() {
+            return failure == null;
+        }
+
+        @Nullable
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return "ExportResult{" +
+                    "fileName='" + fileName + '\'' +
+                    ", locale=" + locale +
+                    ", path=" + path +
+                    ", failure=" + failure +
+                    '}';
+        }
+    }
+
     private static final String TRANSLATION_LOCALE_PARAM = "locale";
     private static final String TRANSLATION_SOURCE_FILE_NAME_PARAM = "source_file_name";
     private static final String TRANSLATION_EXPORT_FILE_NAME_PARAM = "export_file_name";
@@ -90,10 +163,31 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
 
     private static final String TEXT_PLAIN_CONTENT_TYPE = "text/plain; charset=UTF-8";
 
-    OneSkyTranslationsApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        super(apiKey, apiSecret, httpClient);
+    private final boolean isRevalidatingExports;
+    private final Map<List<Object>, ExportValidators> exportsValidators = new ConcurrentHashMap<>();
+    private final @Nullable ExportCache exportCache;
+
+    OneSkyTranslationsApi(final ApiContext apiContext, final boolean isRevalidatingExports, final @Nullable ExportCachePolicy exportCachePolicy) {
+        super(apiContext);
+        this.isRevalidatingExports = isRevalidatingExports;
+        this.exportCache = exportCachePolicy != null ? new ExportCache(exportCachePolicy, apiContext.getBlockingExecutor()) : null;
     }
 
+    /**
+     * Exports the translations of a file into the specified locale, and saves them to the specified path.
+     *
+     * <p>If the client has an {@link OneSkyClient.Builder#exportCache export cache}, the file is copied from the cache
+     * unless the translations have changed since it was cached. Otherwise, if the client
+     * {@link OneSkyClient.Builder#exportRevalidation revalidates exports}, and the file at the path is the unchanged
+     * result of the previous export of the same translations, the translations are only downloaded if they have changed
+     * since then.</p>
+     *
+     * @param projectId project id
+     * @param locale target locale
+     * @param fileName source file name
+     * @param path target path
+     * @return target path ({@link CompletableFuture promise})
+     */
     public CompletableFuture<Path> export(final long projectId, final Locale locale, final String fileName, final Path path) {
         final String apiUrl = String.format(TRANSLATIONS_BY_PROJECT_ID_API_URL_TEMPLATE, projectId);
         final Map<String, String> parameters = Map.of(
@@ -101,6 +195,12 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
                 TRANSLATION_SOURCE_FILE_NAME_PARAM, requireNonNull(fileName),
                 TRANSLATION_EXPORT_FILE_NAME_PARAM, path.getFileName().toString()
         );
+        if (exportCache != null) {
+            return cachedExport(exportCache, projectId, List.of(Long.toString(projectId), locale.toLanguageTag(), fileName, ""), locale, apiUrl, parameters, path);
+        }
+        if (isRevalidatingExports) {
+            return revalidatedExport(projectId, List.of(projectId, locale.toLanguageTag(), fileName, ""), locale, apiUrl, parameters, path);
+        }
         return export(apiUrl, parameters, ofFile(path));
     }
 
@@ -113,6 +213,22 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
         return export(apiUrl, parameters, ofInputStream());
     }
 
+    /**
+     * Exports the translations of a file into all the project locales as a single multilingual file, and saves it to
+     * the specified path.
+     *
+     * <p>If the client has an {@link OneSkyClient.Builder#exportCache export cache}, the file is copied from the cache
+     * unless the translations have changed since it was cached. Otherwise, if the client
+     * {@link OneSkyClient.Builder#exportRevalidation revalidates exports}, and the file at the path is the unchanged
+     * result of the previous export of the same translations, the translations are only downloaded if they have changed
+     * since then.</p>
+     *
+     * @param projectId project id
+     * @param fileName source file name
+     * @param path target path
+     * @param format optional multilingual file format
+     * @return target path ({@link CompletableFuture promise})
+     */
     public CompletableFuture<Path> exportMultilingual(final long projectId, final String fileName, final Path path, final @Nullable String format) {
         final String apiUrl = String.format(TRANSLATIONS_MULTILINGUAL_BY_PROJECT_ID_API_URL_TEMPLATE, projectId);
         final Map<String, String> parameters = new HashMap<>();
@@ -121,6 +237,12 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
         if (format != null) {
             parameters.put(TRANSLATION_FILE_FORMAT_NAME_PARAM, format);
         }
+        if (exportCache != null) {
+            return cachedExport(exportCache, projectId, List.of(Long.toString(projectId), "", fileName, format != null ? format : ""), null, apiUrl, parameters, path);
+        }
+        if (isRevalidatingExports) {
+            return revalidatedExport(projectId, List.of(projectId, "", fileName, format != null ? format : ""), null, apiUrl, parameters, path);
+        }
         return export(apiUrl, parameters, ofFile(path));
     }
 
@@ -134,6 +256,175 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
         return export(apiUrl, parameters, ofInputStream());
     }
 
+    /**
+     * Exports the translations of the files into all the project locales, running at most {@code parallelism} exports
+     * at a time.
+     *
+     * <p>Every translation is {@link #export(long, Locale, String, Path) exported} to
+     * {@code directory/<locale language tag>/<file name>}. A failed export does not fail the others: the result has an
+     * entry for every (file, locale) pair, which holds either the path of the exported translations, or the failure.
+     * A pair whose path would be outside the directory (e.g. the file name is {@code ../x}, or absolute) is not
+     * exported, and fails with an {@link IllegalArgumentException}.</p>
+     *
+     * @param projectId project id
+     * @param fileNames source file names
+     * @param directory target directory
+     * @param parallelism maximum number of concurrent exports
+     * @return export results, ordered by file, then by locale ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<List<ExportResult>> exportAll(
+        final long projectId,
+        final List<String> fileNames,
+        final Path directory,
+        final int parallelism
+    ) {
+        requireNonNull(directory);
+        final List<String> exportedFileNames = List.copyOf(fileNames);
+        return projectLanguages(projectId).thenCompose(projectLanguages -> {
+            final List<ExportResult> exports = new ArrayList<>();
+            for (final String fileName : exportedFileNames) {
+                for (final ProjectLanguage projectLanguage : projectLanguages) {
+                    final Locale locale = projectLanguage.getLocale();
+                    try {
+                        exports.add(new ExportResult(fileName, locale, resolveWithin(directory, locale.toLanguageTag(), fileName), null));
+                    } catch (final IllegalArgumentException e) {
+                        exports.add(new ExportResult(fileName, locale, directory.resolve(locale.toLanguageTag()).resolve(fileName), e));
+                    }
+                }
+            }
+            return mapWithBoundedParallelism(exports, parallelism, pendingExport ->
+                pendingExport.failure != null ? CompletableFuture.completedFuture(pendingExport) : Futures.start(() -> {
+                    try {
+                        Files.createDirectories(pendingExport.path.getParent());
+                    } catch (final IOException e) {
+                        throw new OneSkyApiException(e);
+                    }
+                    return export(projectId, pendingExport.locale, pendingExport.fileName, pendingExport.path);
+                }).handle((path, throwable) ->
+                    throwable == null
+                        ? pendingExport
+                        : new ExportResult(pendingExport.fileName, pendingExport.locale, pendingExport.path, unwrapCompletionException(throwable))
+                )
+            );
+        });
+    }
+
+    /**
+     * Copies the export from the cache, unless the translations have been updated since it was cached; the last update
+     * time is part of the cache key. If the last update time is unknown, the export is not cached, and is written to
+     * a new file at the path, since the file at the path may be linked to a cached file.
+     */
+    private CompletableFuture<Path> cachedExport(
+        final ExportCache exportCache,
+        final long projectId,
+        final List<String> exportKey,
+        final @Nullable Locale locale,
+        final String apiUrl,
+        final Map<String, String> parameters,
+        final Path path
+    ) {
+        return translationsUpdatedAt(projectId, locale).thenCompose(updatedAt -> {
+            if (updatedAt == null) {
+                return exportCache.unlinkTarget(path).thenCompose(unlinked -> export(apiUrl, parameters, ofFile(path)));
+            }
+            final List<String> cacheKey = new ArrayList<>(exportKey);
+            cacheKey.add(updatedAt.toString());
+            return exportCache.copyTo(cacheKey, path).thenCompose(isCached -> {
+                if (isCached) {
+                    return CompletableFuture.completedFuture(path);
+                }
+                final Path downloadFile = exportCache.newDownloadFile();
+                final CompletableFuture<Path> downloadPromise = export(apiUrl, parameters, ofFile(downloadFile));
+                return propagateCancellation(
+                    downloadPromise.handle((downloadedFile, throwable) -> throwable != null
+                        ? exportCache.discard(downloadFile).<Path>handle((discarded, discardThrowable) -> {
+                            throw unwrapCompletionException(throwable);
+                        })
+                        : exportCache.put(cacheKey, downloadedFile, path).thenApply(put -> path)
+                    ).thenCompose(identity()),
+                    downloadPromise
+                );
+            });
+        });
+    }
+
+    /**
+     * Exports to the path, unless the validators of the previous export to the same path show that the translations
+     * have not changed. The validators are either the HTTP validators ({@code ETag}, {@code Last-Modified}) sent by the
+     * API, or, if the API has sent none, the time of the last update of the translations.
+     */
+    private CompletableFuture<Path> revalidatedExport(
+        final long projectId,
+        final List<Object> exportKey,
+        final @Nullable Locale locale,
+        final String apiUrl,
+        final Map<String, String> parameters,
+        final Path path
+    ) {
+        final @Nullable ExportValidators validators = exportsValidators.get(exportKey);
+        final boolean isLocalCopyIntact = validators != null && validators.isLocalCopyIntact(path);
+        if (validators != null && validators.hasHttpValidators()) {
+            final Map<String, String> conditionalHeaders = isLocalCopyIntact ? validators.conditionalHeaders() : emptyMap();
+            return validatedExport(exportKey, apiUrl, parameters, path, conditionalHeaders, null);
+        }
+        // The time of the last update is fetched before the download, so that an update made meanwhile is not missed
+        return translationsUpdatedAt(projectId, locale).thenCompose(updatedAt ->
+            isLocalCopyIntact && updatedAt != null && updatedAt.equals(validators.translationsUpdatedAt)
+                ? CompletableFuture.completedFuture(path)
+                : validatedExport(exportKey, apiUrl, parameters, path, emptyMap(), updatedAt)
+        );
+    }
+
+    private CompletableFuture<Path> validatedExport(
+        final List<Object> exportKey,
+        final String apiUrl,
+        final Map<String, String> parameters,
+        final Path path,
+        final Map<String, String> conditionalHeaders,
+        final @Nullable Instant translationsUpdatedAt
+    ) {
+        final Map<String, String> headers = new HashMap<>(conditionalHeaders);
+        headers.put(CONTENT_TYPE_HEADER, TEXT_PLAIN_CONTENT_TYPE);
+        final CompletableFuture<HttpResponse<Path>> httpResponsePromise = apiConditionalGetRequest(ofFile(path), apiUrl, headers, parameters);
+        return propagateCancellation(
+            httpResponsePromise.handle((httpResponse, throwable) -> {
+                if (throwable != null) {
+                    // The local copy may be incomplete
+                    exportsValidators.remove(exportKey);
+                    throw unwrapCompletionException(throwable);
+                }
+                if (httpResponse.statusCode() == HTTP_STATUS_OK) {
+                    exportsValidators.put(exportKey, ExportValidators.of(httpResponse, translationsUpdatedAt, path));
+                }
+                return path;
+            }),
+            httpResponsePromise
+        );
+    }
+
+    /**
+     * Returns the time of the last update of the translations into the locale, or into any locale if the locale is
+     * {@code null}; {@code null} if unknown.
+     */
+    private CompletableFuture<Instant> translationsUpdatedAt(final long projectId, final @Nullable Locale locale) {
+        return projectLanguages(projectId).thenApply(projectLanguages -> projectLanguages.stream()
+            .filter(projectLanguage -> locale == null || projectLanguage.getLocale().equals(locale))
+            .map(ProjectLanguage::getUpdatedAt)
+            .filter(Objects::nonNull)
+            .max(Comparator.naturalOrder())
+            .orElse(null)
+        );
+    }
+
+    CompletableFuture<List<ProjectLanguage>> projectLanguages(final long projectId) {
+        return apiGetListRequest(
+            PROJECT_LANGUAGES_BY_ID_API_URL_TEMPLATE,
+            String.format(Locale.ROOT, PROJECT_LANGUAGES_BY_ID_API_URL_TEMPLATE, projectId),
+            emptyMap(),
+            OneSkyProjectsApi::toProjectLanguage
+        );
+    }
+
     private <T> CompletableFuture<T> export(final String apiUrl,
                                             final Map<String, String> parameters,
                                             final HttpResponse.BodyHandler<T> httpResponseBodyHandler) {
@@ -149,7 +440,8 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
     }
 
     public CompletableFuture<TranslationStatus> status(final long projectId, final String fileName, final Locale locale) {
-        return apiGetObjectRequest(
+        return apiHedgedGetObjectRequest(
+                TRANSLATIONS_STATUS_BY_PROJECT_ID_API_URL_TEMPLATE,
                 String.format(TRANSLATIONS_STATUS_BY_PROJECT_ID_API_URL_TEMPLATE, projectId),
                 Map.of(
                         TRANSLATION_FILE_NAME_KEY, requireNonNull(fileName),
@@ -159,6 +451,17 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
         );
     }
 
+    /**
+     * Returns a new watcher of the translation progress, which publishes the changes of the project languages instead
+     * of every subscriber polling {@link #status} or {@link OneSkyProjectsApi#retrieve}.
+     *
+     * @param pollingPolicy polling policy of the watcher
+     * @return new translation progress watcher
+     */
+    public TranslationProgressWatcher newProgressWatcher(final PollingPolicy pollingPolicy) {
+        return new TranslationProgressWatcher(this, pollingPolicy);
+    }
+
     private static final TranslationStatus toTranslationStatus(final JSONObject statusJson) {
         return new TranslationStatus(
                 statusJson.getString(TRANSLATION_FILE_NAME_KEY),
@@ -174,4 +477,76 @@ public final class OneSkyTranslationsApi extends AbstractOneSkyApi {
                 statusJson.getInt(TRANSLATION_WORD_COUNT_KEY)
         );
     }
+
+    /**
+     * Validators of an exported file, along with the attributes of the local copy.
+     */
+    private static final class ExportValidators {
+        private final @Nullable String entityTag;
+        private final @Nullable String lastModified;
+        private final @Nullable Instant translationsUpdatedAt;
+        private final Path path;
+        private final long size;
+        private final FileTime lastModifiedTime;
+
+        private ExportValidators(
+            final @Nullable String entityTag,
+            final @Nullable String lastModified,
+            final @Nullable Instant translationsUpdatedAt,
+            final Path path,
+            final BasicFileAttributes attributes
+        ) {
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+            this.translationsUpdatedAt = translationsUpdatedAt;
+            this.path = path;
+            this.size = attributes.size();
+            this.lastModifiedTime = attributes.lastModifiedTime();
+        }
+
+        static ExportValidators of(final HttpResponse<?> httpResponse, final @Nullable Instant translationsUpdatedAt, final Path path) {
+            try {
+                return new ExportValidators(
+                    httpResponse.headers().firstValue(ETAG_HEADER).orElse(null),
+                    httpResponse.headers().firstValue(LAST_MODIFIED_HEADER).orElse(null),
+                    translationsUpdatedAt,
+                    path,
+                    Files.readAttributes(path, BasicFileAttributes.class)
+                );
+            } catch (final IOException e) {
+                throw new OneSkyApiException(e);
+            }
+        }
+
+        boolean hasHttpValidators() {
+            return entityTag != null || lastModified != null;
+        }
+
+        Map<String, String> conditionalHeaders() {
+            final Map<String, String> headers = new HashMap<>();
+            if (entityTag != null) {
+                headers.put(IF_NONE_MATCH_HEADER, entityTag);
+            }
+            if (lastModified != null) {
+                headers.put(IF_MODIFIED_SINCE_HEADER, lastModified);
+            }
+            return headers;
+        }
+
+        /**
+         * Returns whether the file at the path is the unchanged local copy of the export.
+         */
+        boolean isLocalCopyIntact(final Path targetPath) {
+            if (!path.equals(targetPath)) {
+                return false;
+            }
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return attributes.size() == size && attributes.lastModifiedTime().equals(lastModifiedTime);
+            } catch (final IOException e) {
+                return false;
+            }
+        }
+    }
+
 }
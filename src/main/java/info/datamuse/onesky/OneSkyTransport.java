@@ -0,0 +1,42 @@
+package info.datamuse.onesky;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Transport which sends OneSky API HTTP requests.
+ *
+ * <p>By default, the requests are sent with an {@link HttpClient}; a custom transport allows to run the client against
+ * an in-process stand-in of the OneSky API, to record or to instrument the traffic.</p>
+ *
+ * <p>Implementations must be thread-safe.</p>
+ */
+@FunctionalInterface
+public interface OneSkyTransport {
+
+    /**
+     * Sends the request asynchronously.
+     *
+     * @param <T> response body type
+     * @param request HTTP request, with the absolute URI including the query parameters
+     * @param responseBodyHandler response body handler
+     * @return HTTP response ({@link CompletableFuture promise})
+     */
+    <T> CompletableFuture<HttpResponse<T>> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler);
+
+    /**
+     * Returns a transport which sends the requests with the given HTTP Client.
+     *
+     * @param httpClient HTTP Client
+     * @return transport based on the HTTP Client
+     */
+    static OneSkyTransport of(final HttpClient httpClient) {
+        requireNonNull(httpClient);
+        return httpClient::sendAsync;
+    }
+
+}
@@ -0,0 +1,166 @@
+package info.datamuse.onesky;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Policy of polling the API for the completion of asynchronous operations, e.g. of
+ * {@link OneSkyImportTasksApi#awaitCompletion(long, long) file imports}.
+ *
+ * <p>The first poll is made after the initial interval; while the polls make no progress, the interval grows by the
+ * multiplier up to the max interval, and it drops back to the initial interval once some operation completes or a new
+ * one is awaited.</p>
+ *
+ * <p>A failed poll is not fatal: the interval grows as after a poll without progress, and the operations are only
+ * failed after {@link #getMaxConsecutiveFailures() a number} of consecutive failed polls.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class PollingPolicy {
+
+    private static final PollingPolicy DEFAULT = builder().build();
+
+    private final Duration initialInterval;
+    private final Duration maxInterval;
+    private final double intervalMultiplier;
+    private final int maxConsecutiveFailures;
+
+    private PollingPolicy(final Builder builder) {
+        this.initialInterval = builder.initialInterval;
+        this.maxInterval = builder.maxInterval;
+        this.intervalMultiplier = builder.intervalMultiplier;
+        this.maxConsecutiveFailures = builder.maxConsecutiveFailures;
+    }
+
+    /**
+     * Returns the default policy: interval from 1s up to 30s, doubled after every poll without progress; the
+     * operations are failed after 10 consecutive failed polls.
+     *
+     * @return default polling policy
+     */
+    public static PollingPolicy defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a new policy builder, initialized with the {@link #defaults() default} settings.
+     *
+     * @return policy builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns interval before the first poll.
+     *
+     * @return initial interval
+     */
+    public Duration getInitialInterval() {
+        return initialInterval;
+    }
+
+    /**
+     * Returns maximum interval between polls.
+     *
+     * @return max interval
+     */
+    public Duration getMaxInterval() {
+        return maxInterval;
+    }
+
+    /**
+     * Returns multiplier of the interval after every poll without progress.
+     *
+     * @return interval multiplier
+     */
+    public double getIntervalMultiplier() {
+        return intervalMultiplier;
+    }
+
+    /**
+     * Returns number of consecutive failed polls after which the polled operations are failed.
+     *
+     * @return max consecutive failures
+     */
+    public int getMaxConsecutiveFailures() {
+        return maxConsecutiveFailures;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.ROOT,
+            "PollingPolicy{interval=%s..%s, intervalMultiplier=%s, maxConsecutiveFailures=%d}",
+            initialInterval, maxInterval, intervalMultiplier, maxConsecutiveFailures
+        );
+    }
+
+    /**
+     * {@link PollingPolicy} builder.
+     */
+    public static final class Builder {
+        private Duration initialInterval = Duration.ofSeconds(1);
+        private Duration maxInterval = Duration.ofSeconds(30);
+        private double intervalMultiplier = 2;
+        private int maxConsecutiveFailures = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the bounds of the polling interval.
+         *
+         * @param initialInterval interval before the first poll, and after a poll with progress
+         * @param maxInterval max interval
+         * @return this builder
+         */
+        public Builder interval(final Duration initialInterval, final Duration maxInterval) {
+            if (initialInterval.isNegative() || initialInterval.isZero() || maxInterval.compareTo(initialInterval) < 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid interval: %s..%s", initialInterval, maxInterval));
+            }
+            this.initialInterval = initialInterval;
+            this.maxInterval = maxInterval;
+            return this;
+        }
+
+        /**
+         * Sets multiplier of the interval after every poll without progress.
+         *
+         * @param intervalMultiplier interval multiplier, at least {@code 1}
+         * @return this builder
+         */
+        public Builder intervalMultiplier(final double intervalMultiplier) {
+            if (!(intervalMultiplier >= 1)) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`intervalMultiplier` must be at least 1, but was: %s", intervalMultiplier));
+            }
+            this.intervalMultiplier = intervalMultiplier;
+            return this;
+        }
+
+        /**
+         * Sets number of consecutive failed polls after which the polled operations are failed; a successful poll
+         * resets the count.
+         *
+         * @param maxConsecutiveFailures max consecutive failures, at least {@code 1}
+         * @return this builder
+         */
+        public Builder maxConsecutiveFailures(final int maxConsecutiveFailures) {
+            if (maxConsecutiveFailures < 1) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`maxConsecutiveFailures` must be at least 1, but was: %d", maxConsecutiveFailures));
+            }
+            this.maxConsecutiveFailures = maxConsecutiveFailures;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return polling policy
+         */
+        public PollingPolicy build() {
+            return new PollingPolicy(this);
+        }
+    }
+
+}
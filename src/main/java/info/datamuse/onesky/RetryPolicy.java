@@ -0,0 +1,290 @@
+package info.datamuse.onesky;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Policy of retrying API requests which failed with a transient error.
+ *
+ * <p>A request is retried if it failed with an I/O error, or if the API responded with the HTTP status {@code 429}
+ * (Too Many Requests), {@code 500}, {@code 502}, {@code 503} or {@code 504}. Only idempotent requests ({@code GET},
+ * {@code PUT}, {@code DELETE}) are retried, unless retrying {@code POST} requests is explicitly enabled; requests with a
+ * streamed body of unknown length are never retried, since the stream can not be replayed.</p>
+ *
+ * <p>The delay before the {@code n}-th retry grows exponentially from the initial backoff up to the max backoff,
+ * and is randomly reduced by up to the {@link Builder#jitter(double) jitter} fraction, so that clients which failed at
+ * once do not retry at once. If the API responds with a {@code Retry-After} header, the delay is at least as long as
+ * requested; a request is not retried if the requested delay exceeds the {@link Builder#maxRetryAfter max}.</p>
+ *
+ * <p>Retries are limited by a per-client retry budget: every request adds {@link Builder#retryBudget(double, int)
+ * ratio} of a token to the budget (up to the budget capacity), and every retry takes a whole token. Hence, while the
+ * API is failing, retries add at most {@code ratio} of load on top of the original requests.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class RetryPolicy {
+
+    private static final RetryPolicy NONE = builder().maxAttempts(1).build();
+    private static final RetryPolicy DEFAULT = builder().build();
+
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final double backoffMultiplier;
+    private final double jitter;
+    private final Duration maxRetryAfter;
+    private final boolean isRetryingPost;
+    private final double retryBudgetRatio;
+    private final int retryBudgetCapacity;
+
+    private RetryPolicy(final Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoff = builder.initialBackoff;
+        this.maxBackoff = builder.maxBackoff;
+        this.backoffMultiplier = builder.backoffMultiplier;
+        this.jitter = builder.jitter;
+        this.maxRetryAfter = builder.maxRetryAfter;
+        this.isRetryingPost = builder.isRetryingPost;
+        this.retryBudgetRatio = builder.retryBudgetRatio;
+        this.retryBudgetCapacity = builder.retryBudgetCapacity;
+    }
+
+    /**
+     * Returns the policy which never retries.
+     *
+     * @return no-retry policy
+     */
+    public static RetryPolicy none() {
+        return NONE;
+    }
+
+    /**
+     * Returns the default policy: up to 3 attempts, backoff from 200ms up to 10s with full jitter, {@code Retry-After}
+     * up to 60s, {@code POST} requests are not retried, retry budget of 10% of the requests with the capacity of 10.
+     *
+     * @return default retry policy
+     */
+    public static RetryPolicy defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a new policy builder, initialized with the {@link #defaults() default} settings.
+     *
+     * @return policy builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns maximum number of attempts per request, including the first one.
+     *
+     * @return maximum number of attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns delay before the first retry, before jitter.
+     *
+     * @return initial backoff
+     */
+    public Duration getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Returns maximum delay between retries, before jitter.
+     *
+     * @return max backoff
+     */
+    public Duration getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Returns multiplier of the delay after every retry.
+     *
+     * @return backoff multiplier
+     */
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    /**
+     * Returns maximum fraction by which a delay is randomly reduced.
+     *
+     * @return jitter between {@code 0} and {@code 1}
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Returns maximum honored {@code Retry-After} delay.
+     *
+     * @return max {@code Retry-After} delay
+     */
+    public Duration getMaxRetryAfter() {
+        return maxRetryAfter;
+    }
+
+    /**
+     * Returns whether {@code POST} requests are retried.
+     *
+     * @return {@code true} if {@code POST} requests are retried
+     */
+    public boolean isRetryingPost() {
+        return isRetryingPost;
+    }
+
+    /**
+     * Returns fraction of a retry token which every request adds to the retry budget.
+     *
+     * @return retry budget ratio
+     */
+    public double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    /**
+     * Returns maximum number of retry tokens in the retry budget.
+     *
+     * @return retry budget capacity
+     */
+    public int getRetryBudgetCapacity() {
+        return retryBudgetCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            Locale.ROOT,
+            "RetryPolicy{maxAttempts=%d, initialBackoff=%s, maxBackoff=%s, backoffMultiplier=%s, jitter=%s, maxRetryAfter=%s, isRetryingPost=%b, retryBudget=%s/%d}",
+            maxAttempts, initialBackoff, maxBackoff, backoffMultiplier, jitter, maxRetryAfter, isRetryingPost, retryBudgetRatio, retryBudgetCapacity
+        );
+    }
+
+    /**
+     * {@link RetryPolicy} builder.
+     */
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        private double backoffMultiplier = 2;
+        private double jitter = 1;
+        private Duration maxRetryAfter = Duration.ofSeconds(60);
+        private boolean isRetryingPost;
+        private double retryBudgetRatio = 0.1;
+        private int retryBudgetCapacity = 10;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets maximum number of attempts per request, including the first one; {@code 1} disables retries.
+         *
+         * @param maxAttempts maximum number of attempts
+         * @return this builder
+         */
+        public Builder maxAttempts(final int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`maxAttempts` must be positive, but was: %d", maxAttempts));
+            }
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Sets the exponential backoff.
+         *
+         * @param initialBackoff delay before the first retry
+         * @param maxBackoff maximum delay between retries
+         * @param backoffMultiplier multiplier of the delay after every retry, at least {@code 1}
+         * @return this builder
+         */
+        public Builder backoff(final Duration initialBackoff, final Duration maxBackoff, final double backoffMultiplier) {
+            if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid backoff: %s..%s", initialBackoff, maxBackoff));
+            }
+            if (!(backoffMultiplier >= 1)) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`backoffMultiplier` must be >=1, but was: %s", backoffMultiplier));
+            }
+            this.initialBackoff = initialBackoff;
+            this.maxBackoff = maxBackoff;
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+
+        /**
+         * Sets maximum fraction by which a delay is randomly reduced: {@code 0} for no jitter, {@code 1} for
+         * "full jitter" (a delay is random between zero and the backoff).
+         *
+         * @param jitter jitter between {@code 0} and {@code 1}
+         * @return this builder
+         */
+        public Builder jitter(final double jitter) {
+            if (!(jitter >= 0 && jitter <= 1)) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`jitter` must be between 0 and 1, but was: %s", jitter));
+            }
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Sets maximum honored {@code Retry-After} delay; a request is not retried if the API asks for a longer delay.
+         *
+         * @param maxRetryAfter max {@code Retry-After} delay
+         * @return this builder
+         */
+        public Builder maxRetryAfter(final Duration maxRetryAfter) {
+            this.maxRetryAfter = requireNonNull(maxRetryAfter);
+            return this;
+        }
+
+        /**
+         * Sets whether {@code POST} requests are retried; a retried {@code POST} request may create a duplicate entity.
+         *
+         * @param isRetryingPost {@code true} to retry {@code POST} requests
+         * @return this builder
+         */
+        public Builder retryPost(final boolean isRetryingPost) {
+            this.isRetryingPost = isRetryingPost;
+            return this;
+        }
+
+        /**
+         * Sets the per-client retry budget.
+         *
+         * @param ratio fraction of a retry token which every request adds to the budget
+         * @param capacity maximum number of retry tokens in the budget; the budget is initially full
+         * @return this builder
+         */
+        public Builder retryBudget(final double ratio, final int capacity) {
+            if (!(ratio >= 0)) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`ratio` must be non-negative, but was: %s", ratio));
+            }
+            if (capacity < 0) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "`capacity` must be non-negative, but was: %d", capacity));
+            }
+            this.retryBudgetRatio = ratio;
+            this.retryBudgetCapacity = capacity;
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return retry policy
+         */
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+}
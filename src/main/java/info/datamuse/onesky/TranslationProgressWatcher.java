@@ -0,0 +1,285 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.OneSkyProjectsApi.ProjectLanguage;
+import info.datamuse.onesky.internal.Futures;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Long-lived watcher of the translation progress of projects, which publishes the changes of the
+ * {@link ProjectLanguage languages} of every watched project, so that the subscribers do not need to poll the API.
+ *
+ * <p>A watched project is polled by a chain of polls scheduled on the shared scheduler according to the watcher's
+ * {@link PollingPolicy}; every poll is a single request for the languages of the project, shared by all of its
+ * subscribers, and only the languages whose translation progress, readiness to publish or last update time has changed
+ * since the previous poll are published. A project is not polled while it has no subscribers.</p>
+ *
+ * <p>A failed poll is retried after a grown interval; the subscribers of the project are only failed after the
+ * {@link PollingPolicy#getMaxConsecutiveFailures() max number} of consecutive failed polls.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @see OneSkyTranslationsApi#newProgressWatcher(PollingPolicy)
+ */
+public final class TranslationProgressWatcher implements AutoCloseable {
+
+    /**
+     * Change of a project language.
+     */
+    public static final class ProgressChange {
+        private final long projectId;
+        private final Locale locale;
+        private final @Nullable ProjectLanguage previous;
+        private final @Nullable ProjectLanguage current;
+
+        ProgressChange(final long projectId, final Locale locale, final @Nullable ProjectLanguage previous, final @Nullable ProjectLanguage current) {
+            this.projectId = projectId;
+            this.locale = requireNonNull(locale);
+            this.previous = previous;
+            this.current = current;
+        }
+
+        public long getProjectId() {
+            return projectId;
+        }
+
+        public Locale getLocale() {
+            return locale;
+        }
+
+        /**
+         * Returns the language before the change.
+         *
+         * @return previous language, {@code null} if the language has been added or is published as a part of the
+         *     initial state
+         */
+        @Nullable
+        public ProjectLanguage getPrevious() {
+            return previous;
+        }
+
+        /**
+         * Returns the language after the change.
+         *
+         * @return current language, {@code null} if the language has been removed
+         */
+        @Nullable
+        public ProjectLanguage getCurrent() {
+            return current;
+        }
+
+        @Override
+        public String toString() {
+            return "ProgressChange{" +
+                "projectId=" + projectId +
+                ", locale=" + locale +
+                ", previous=" + previous +
+                ", current=" + current +
+                '}';
+        }
+    }
+
+    private final OneSkyTranslationsApi translationsApi;
+    private final PollingPolicy pollingPolicy;
+    private final ConcurrentMap<Long, WatchedProject> watchedProjects = new ConcurrentHashMap<>();
+    private volatile boolean isClosed;
+
+    TranslationProgressWatcher(final OneSkyTranslationsApi translationsApi, final PollingPolicy pollingPolicy) {
+        this.translationsApi = requireNonNull(translationsApi);
+        this.pollingPolicy = requireNonNull(pollingPolicy);
+    }
+
+    /**
+     * Returns a publisher of the changes of the languages of a project.
+     *
+     * <p>Every subscriber first receives the current state of all languages, as changes without the previous language,
+     * and then the changes. A subscriber which falls behind by more than {@link Flow#defaultBufferSize()} changes is
+     * failed, rather than silently missing changes; so are all subscribers of the project if the languages can not
+     * be retrieved repeatedly. The subscribers are completed when the watcher is closed.</p>
+     *
+     * @param projectId project id
+     * @return publisher of the changes of the project languages
+     */
+    public Flow.Publisher<ProgressChange> watch(final long projectId) {
+        return subscriber -> {
+            final SubmissionPublisher<ProgressChange> publisher = new SubmissionPublisher<>();
+            publisher.subscribe(subscriber);
+            WatchedProject watchedProject;
+            do {
+                watchedProject = watchedProjects.computeIfAbsent(projectId, WatchedProject::new);
+            } while (!watchedProject.addPublisher(publisher));
+            if (isClosed) {
+                // Closed concurrently, and possibly missed by `close()`
+                publisher.close();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of the projects being polled.
+     *
+     * @return number of watched projects
+     */
+    public int getWatchedProjectCount() {
+        return watchedProjects.size();
+    }
+
+    /**
+     * Stops watching: completes all subscribers, and stops polling.
+     */
+    @Override
+    public void close() {
+        isClosed = true;
+        watchedProjects.values().forEach(WatchedProject::close);
+    }
+
+    private static boolean isSameProgress(final ProjectLanguage projectLanguage, final ProjectLanguage otherProjectLanguage) {
+        return projectLanguage.getTranslationProgress() == otherProjectLanguage.getTranslationProgress()
+            && projectLanguage.isReadyToPublish() == otherProjectLanguage.isReadyToPublish()
+            && Objects.equals(projectLanguage.getUpdatedAt(), otherProjectLanguage.getUpdatedAt());
+    }
+
+    /**
+     * Project polled by a chain of scheduled polls, one at a time, for its subscribers.
+     *
+     * <p>Once the project has no subscribers, the instance is retired and removed, and the chain ends; the project is
+     * polled for the later subscribers by a new instance.</p>
+     */
+    private final class WatchedProject {
+        private final long projectId;
+
+        // Guarded by `this`
+        private final List<SubmissionPublisher<ProgressChange>> publishers = new ArrayList<>();
+        private @Nullable Map<Locale, ProjectLanguage> projectLanguages;
+        private Duration interval = pollingPolicy.getInitialInterval();
+        private int consecutiveFailureCount;
+        private boolean isPolling;
+        private boolean isRetired;
+
+        WatchedProject(final long projectId) {
+            this.projectId = projectId;
+        }
+
+        /**
+         * Adds a publisher of a subscriber, unless the instance has been retired.
+         */
+        synchronized boolean addPublisher(final SubmissionPublisher<ProgressChange> publisher) {
+            if (isRetired) {
+                return false;
+            }
+            publishers.add(publisher);
+            if (projectLanguages != null) {
+                final List<ProgressChange> initialState = new ArrayList<>();
+                projectLanguages.forEach((locale, projectLanguage) -> initialState.add(new ProgressChange(projectId, locale, null, projectLanguage)));
+                publish(publisher, initialState);
+            }
+            if (!isPolling) {
+                isPolling = true;
+                schedulePoll(Duration.ZERO);
+            }
+            return true;
+        }
+
+        synchronized void close() {
+            publishers.forEach(SubmissionPublisher::close);
+            publishers.clear();
+            retire();
+        }
+
+        private void schedulePoll(final Duration delay) {
+            CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS).execute(this::poll);
+        }
+
+        private void poll() {
+            synchronized (this) {
+                if (isRetired) {
+                    return;
+                }
+                // Cancelled by the subscribers, or failed as falling behind
+                publishers.removeIf(publisher -> publisher.isClosed() || publisher.getNumberOfSubscribers() == 0);
+                if (publishers.isEmpty()) {
+                    retire();
+                    return;
+                }
+            }
+            Futures.start(() -> translationsApi.projectLanguages(projectId)).whenComplete(this::onPolled);
+        }
+
+        private synchronized void onPolled(final @Nullable List<ProjectLanguage> polledProjectLanguages, final @Nullable Throwable throwable) {
+            if (isRetired) {
+                return;
+            }
+            if (throwable != null) {
+                consecutiveFailureCount++;
+                if (consecutiveFailureCount >= pollingPolicy.getMaxConsecutiveFailures()) {
+                    // Retired first, so that a failed subscriber which watches the project again starts a new poll
+                    retire();
+                    final RuntimeException failure = Futures.unwrapCompletionException(throwable);
+                    publishers.forEach(publisher -> publisher.closeExceptionally(failure));
+                    publishers.clear();
+                    return;
+                }
+                interval = grownInterval();
+                schedulePoll(interval);
+                return;
+            }
+            consecutiveFailureCount = 0;
+
+            final Map<Locale, ProjectLanguage> newProjectLanguages = new LinkedHashMap<>();
+            requireNonNull(polledProjectLanguages).forEach(projectLanguage -> newProjectLanguages.put(projectLanguage.getLocale(), projectLanguage));
+            final Map<Locale, ProjectLanguage> oldProjectLanguages = projectLanguages != null ? projectLanguages : Map.of();
+            final List<ProgressChange> changes = new ArrayList<>();
+            newProjectLanguages.forEach((locale, projectLanguage) -> {
+                final @Nullable ProjectLanguage previous = oldProjectLanguages.get(locale);
+                if (previous == null || !isSameProgress(previous, projectLanguage)) {
+                    changes.add(new ProgressChange(projectId, locale, previous, projectLanguage));
+                }
+            });
+            oldProjectLanguages.forEach((locale, projectLanguage) -> {
+                if (!newProjectLanguages.containsKey(locale)) {
+                    changes.add(new ProgressChange(projectId, locale, projectLanguage, null));
+                }
+            });
+            projectLanguages = newProjectLanguages;
+            publishers.removeIf(SubmissionPublisher::isClosed);
+            publishers.forEach(publisher -> publish(publisher, changes));
+
+            interval = !changes.isEmpty() ? pollingPolicy.getInitialInterval() : grownInterval();
+            schedulePoll(interval);
+        }
+
+        private Duration grownInterval() {
+            return Duration.ofNanos((long) Math.min(pollingPolicy.getMaxInterval().toNanos(), interval.toNanos() * pollingPolicy.getIntervalMultiplier()));
+        }
+
+        private void publish(final SubmissionPublisher<ProgressChange> publisher, final List<ProgressChange> changes) {
+            for (final ProgressChange change : changes) {
+                if (publisher.offer(change, (subscriber, droppedChange) -> false) < 0) {
+                    publisher.closeExceptionally(new IllegalStateException("Subscriber has fallen behind the translation progress changes"));
+                    return;
+                }
+            }
+        }
+
+        private void retire() {
+            isRetired = true;
+            watchedProjects.remove(projectId, this);
+        }
+    }
+
+}
@@ -0,0 +1,317 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.OneSkyFilesApi.File;
+import info.datamuse.onesky.OneSkyProjectsApi.Project;
+import info.datamuse.onesky.OneSkyProjectsApi.ProjectLanguage;
+import info.datamuse.onesky.OneSkyTranslationsApi.ExportResult;
+import info.datamuse.onesky.internal.Futures;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static info.datamuse.onesky.internal.PathUtils.resolveWithin;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Incremental synchronization of the translations of projects into a local directory.
+ *
+ * <p>The translations of every (file, locale) pair of a project are exported to
+ * {@code directory/<project id>/<locale language tag>/<file name>}. Along with the exports, the sync keeps a checkpoint
+ * in the directory: the {@link ProjectLanguage#getUpdatedAt() last update time of the locale translations} and the
+ * {@link OneSkyFilesApi.FileImport#getLastImportedAt() last import time of the file} as of the last successful export
+ * of every pair. Every run lists the languages and the files of the projects, and only exports the pairs whose
+ * timestamps have moved since the checkpoint, or whose local copy is missing; hence, a run over unchanged projects
+ * costs a couple of requests per project. A pair with an unknown timestamp (e.g. of a locale which has never been
+ * translated) can not be checkpointed, and is exported by every run.</p>
+ *
+ * <p>A pair whose path would be outside the directory (e.g. the file name is {@code ../x}) is not exported, and fails
+ * with an {@link IllegalArgumentException}.</p>
+ *
+ * <p>A failed export does not fail the run, and the checkpoint of the pair is not advanced, so that the pair is
+ * exported again by the next run.</p>
+ *
+ * <p>Instances are thread-safe; the directory should not be synchronized by more than one instance at a time.</p>
+ *
+ * @see OneSkyClient#newTranslationSync(Path, int)
+ */
+public final class TranslationSync {
+
+    /**
+     * Result of a synchronization run.
+     */
+    public static final class SyncReport {
+        private final int projectCount;
+        private final int checkedCount;
+        private final List<ExportResult> exportResults;
+        private final Map<Long, Throwable> projectFailures;
+
+        SyncReport(final int projectCount, final int checkedCount, final List<ExportResult> exportResults, final Map<Long, Throwable> projectFailures) {
+            this.projectCount = projectCount;
+            this.checkedCount = checkedCount;
+            this.exportResults = List.copyOf(exportResults);
+            this.projectFailures = Collections.unmodifiableMap(new LinkedHashMap<>(projectFailures));
+        }
+
+        public int getProjectCount() {
+            return projectCount;
+        }
+
+        /**
+         * Returns the number of the checked (file, locale) pairs, including the up-to-date ones.
+         *
+         * @return number of checked pairs
+         */
+        public int getCheckedCount() {
+            return checkedCount;
+        }
+
+        /**
+         * Returns the results of the exports of the changed (file, locale) pairs.
+         *
+         * @return export results
+         */
+        public List<ExportResult> getExportResults() {
+            return exportResults;
+        }
+
+        /**
+         * Returns the failures of listing the languages or the files of the projects, by project id; such projects
+         * are not synchronized.
+         *
+         * @return project failures
+         */
+        public Map<Long, Throwable> getProjectFailures() {
+            return projectFailures;
+        }
+
+        public boolean isSuccessful() {
+            return projectFailures.isEmpty() && exportResults.stream().allMatch(ExportResult::isSuccessful);
+        }
+
+        @Override
+        public String toString() {
+            return "SyncReport{" +
+                "projectCount=" + projectCount +
+                ", checkedCount=" + checkedCount +
+                ", exportResults=" + exportResults +
+                ", projectFailures=" + projectFailures +
+                '}';
+        }
+    }
+
+    private static final String CHECKPOINT_FILE_NAME = ".onesky-sync";
+    private static final long FILES_MAX_ITEMS_PER_PAGE = 100;
+
+    private final OneSkyProjectsApi projectsApi;
+    private final OneSkyFilesApi filesApi;
+    private final OneSkyTranslationsApi translationsApi;
+    private final Path directory;
+    private final int parallelism;
+
+    // Guarded by `this`
+    private @Nullable Properties checkpoint;
+
+    TranslationSync(
+        final OneSkyProjectsApi projectsApi,
+        final OneSkyFilesApi filesApi,
+        final OneSkyTranslationsApi translationsApi,
+        final Path directory,
+        final int parallelism
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "`parallelism` must be positive, but was: %d", parallelism));
+        }
+        this.projectsApi = requireNonNull(projectsApi);
+        this.filesApi = requireNonNull(filesApi);
+        this.translationsApi = requireNonNull(translationsApi);
+        this.directory = requireNonNull(directory);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Synchronizes all projects of a project group.
+     *
+     * @param projectGroupId project group id
+     * @return sync report ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<SyncReport> syncProjectGroup(final long projectGroupId) {
+        return projectsApi.list(projectGroupId)
+            .thenCompose(projects -> sync(projects.stream().map(Project::getId).collect(Collectors.toList())));
+    }
+
+    /**
+     * Synchronizes the projects, listing at most {@code parallelism} projects and running at most {@code parallelism}
+     * exports at a time.
+     *
+     * @param projectIds project ids
+     * @return sync report ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<SyncReport> sync(final List<Long> projectIds) {
+        final List<Long> syncedProjectIds = List.copyOf(projectIds);
+        return Futures.start(() -> {
+            final Properties currentCheckpoint = checkpoint();
+            final Map<Long, Throwable> projectFailures = new LinkedHashMap<>();
+            return Futures.mapWithBoundedParallelism(syncedProjectIds, parallelism, projectId ->
+                Futures.start(() -> projectPairs(projectId)).handle((pairs, throwable) -> {
+                    if (throwable != null) {
+                        synchronized (projectFailures) {
+                            projectFailures.put(projectId, Futures.unwrapCompletionException(throwable));
+                        }
+                        return List.<SyncPair>of();
+                    }
+                    return pairs;
+                })
+            ).thenCompose(projectsPairs -> {
+                final List<SyncPair> pairs = projectsPairs.stream().flatMap(List::stream).collect(Collectors.toList());
+                final List<SyncPair> changedPairs = pairs.stream()
+                    .filter(pair -> pair.version == null || !pair.version.equals(currentCheckpoint.getProperty(pair.checkpointKey())) || !Files.exists(pair.path))
+                    .collect(Collectors.toList());
+                return Futures.mapWithBoundedParallelism(changedPairs, parallelism, this::export)
+                    .thenApply(exportResults -> {
+                        final Map<String, String> exportedVersions = new LinkedHashMap<>();
+                        for (int i = 0; i < changedPairs.size(); i++) {
+                            if (exportResults.get(i).isSuccessful() && changedPairs.get(i).version != null) {
+                                exportedVersions.put(changedPairs.get(i).checkpointKey(), changedPairs.get(i).version);
+                            }
+                        }
+                        advanceCheckpoint(exportedVersions);
+                        synchronized (projectFailures) {
+                            return new SyncReport(syncedProjectIds.size(), pairs.size(), exportResults, projectFailures);
+                        }
+                    });
+            });
+        });
+    }
+
+    private CompletableFuture<List<SyncPair>> projectPairs(final long projectId) {
+        return translationsApi.projectLanguages(projectId).thenCombine(
+            filesApi.fetchAll(projectId, FILES_MAX_ITEMS_PER_PAGE, 1),
+            (projectLanguages, files) -> {
+                final List<SyncPair> pairs = new ArrayList<>();
+                for (final File file : files) {
+                    final @Nullable Instant lastImportedAt = file.getImportStatus() != null ? file.getImportStatus().getLastImportedAt() : null;
+                    for (final ProjectLanguage projectLanguage : projectLanguages) {
+                        pairs.add(new SyncPair(projectId, file.getName(), projectLanguage.getLocale(), projectLanguage.getUpdatedAt(), lastImportedAt));
+                    }
+                }
+                return pairs;
+            }
+        );
+    }
+
+    private CompletableFuture<ExportResult> export(final SyncPair pair) {
+        if (pair.pathFailure != null) {
+            return CompletableFuture.completedFuture(new ExportResult(pair.fileName, pair.locale, pair.path, pair.pathFailure));
+        }
+        return Futures.start(() -> {
+            try {
+                Files.createDirectories(pair.path.getParent());
+            } catch (final IOException e) {
+                throw new OneSkyApiException(e);
+            }
+            return translationsApi.export(pair.projectId, pair.locale, pair.fileName, pair.path);
+        }).handle((path, throwable) -> new ExportResult(
+            pair.fileName,
+            pair.locale,
+            pair.path,
+            throwable != null ? Futures.unwrapCompletionException(throwable) : null
+        ));
+    }
+
+    private synchronized Properties checkpoint() {
+        if (checkpoint == null) {
+            final Properties loadedCheckpoint = new Properties();
+            try (Reader reader = Files.newBufferedReader(directory.resolve(CHECKPOINT_FILE_NAME), UTF_8)) {
+                loadedCheckpoint.load(reader);
+            } catch (final NoSuchFileException e) {
+                // Nothing has been synchronized yet
+            } catch (final IOException e) {
+                throw new OneSkyApiException(e);
+            }
+            checkpoint = loadedCheckpoint;
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Records the exported versions, and replaces the checkpoint file atomically, so that a crashed run does not
+     * leave a partially written checkpoint.
+     */
+    private synchronized void advanceCheckpoint(final Map<String, String> exportedVersions) {
+        if (exportedVersions.isEmpty()) {
+            return;
+        }
+        final Properties currentCheckpoint = checkpoint();
+        currentCheckpoint.putAll(exportedVersions);
+        try {
+            Files.createDirectories(directory);
+            final Path checkpointFile = directory.resolve(CHECKPOINT_FILE_NAME);
+            final Path newCheckpointFile = Files.createTempFile(directory, CHECKPOINT_FILE_NAME, ".tmp");
+            try (Writer writer = Files.newBufferedWriter(newCheckpointFile, UTF_8)) {
+                currentCheckpoint.store(writer, null);
+            }
+            Files.move(newCheckpointFile, checkpointFile, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (final IOException e) {
+            throw new OneSkyApiException(e);
+        }
+    }
+
+    /**
+     * (File, locale) pair of a project, along with its current version; the version is {@code null} if a timestamp is
+     * unknown.
+     */
+    private final class SyncPair {
+        private final long projectId;
+        private final String fileName;
+        private final Locale locale;
+        private final @Nullable String version;
+        private final Path path;
+        private final @Nullable IllegalArgumentException pathFailure;
+
+        SyncPair(
+            final long projectId,
+            final String fileName,
+            final Locale locale,
+            final @Nullable Instant translationsUpdatedAt,
+            final @Nullable Instant lastImportedAt
+        ) {
+            this.projectId = projectId;
+            this.fileName = fileName;
+            this.locale = locale;
+            this.version = translationsUpdatedAt != null && lastImportedAt != null ? translationsUpdatedAt + " " + lastImportedAt : null;
+            Path resolvedPath;
+            @Nullable IllegalArgumentException resolvedPathFailure = null;
+            try {
+                resolvedPath = resolveWithin(directory, Long.toString(projectId), locale.toLanguageTag(), fileName);
+            } catch (final IllegalArgumentException e) {
+                resolvedPath = directory.resolve(Long.toString(projectId)).resolve(locale.toLanguageTag()).resolve(fileName);
+                resolvedPathFailure = e;
+            }
+            this.path = resolvedPath;
+            this.pathFailure = resolvedPathFailure;
+        }
+
+        String checkpointKey() {
+            return projectId + "/" + locale.toLanguageTag() + "/" + fileName;
+        }
+    }
+
+}
@@ -2,6 +2,7 @@ package info.datamuse.onesky.internal;
 
 import info.datamuse.onesky.OneSkyApiException;
 import info.datamuse.onesky.Page;
+import info.datamuse.onesky.internal.JsonResponseDecoder.DataDecoder;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -9,24 +10,24 @@ import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
+import java.util.function.Supplier;
 
+import static info.datamuse.onesky.internal.Futures.propagateCancellation;
 import static info.datamuse.onesky.internal.HttpUtils.*;
+import static info.datamuse.onesky.internal.JsonResponseDecoder.RESPONSE_DATA_KEY;
+import static info.datamuse.onesky.internal.JsonResponseDecoder.listDataDecoder;
+import static info.datamuse.onesky.internal.JsonResponseDecoder.objectDataDecoder;
 import static info.datamuse.onesky.internal.JsonUtils.getOptionalJsonValue;
 import static info.datamuse.onesky.internal.JsonUtils.unexpectedJsonTypeException;
 import static info.datamuse.onesky.internal.ListUtils.listFromMapEntries;
 import static java.net.http.HttpRequest.BodyPublishers.noBody;
-import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toUnmodifiableList;
-import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
+import static java.net.http.HttpResponse.BodyHandlers.discarding;
+import static java.util.Objects.requireNonNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -34,84 +35,144 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public abstract class AbstractOneSkyApi {
 
-    /**
-     * OneSky API base URL.
-     */
-    protected static final String API_BASE_URL = "https://platform.api.onesky.io/1";
-
     private static final String PAGE_NUMBER_PARAM = "page";
     private static final String PAGE_SIZE_PARAM = "per_page";
     private static final long MAX_PAGE_SIZE = 100;
 
-    private static final String RESPONSE_META_KEY = "meta";
-    private static final String RESPONSE_DATA_KEY = "data";
     private static final String TOTAL_ITEMS_COUNT_KEY = "record_count";
     private static final String TOTAL_PAGES_COUNT_KEY = "page_count";
 
     private static final Logger logger = getLogger(AbstractOneSkyApi.class);
 
-    private final String apiKey;
-    private final String apiSecret;
-    private final HttpClient httpClient;
+    private final ApiContext apiContext;
 
     private static final Map<String, String> JSON_CONTENT_TYPE_HEADER = Map.of(CONTENT_TYPE_HEADER, "application/json");
-    private static final HttpResponse.BodyHandler<String> stringResponseBodyHandler = HttpResponse.BodyHandlers.ofString();
 
     /**
      * Protected constructor.
      *
-     * @param apiKey OneSky API public key
-     * @param apiSecret OneSky API secret key
-     * @param httpClient HTTP Client
+     * @param apiContext per-client API context
      */
-    protected AbstractOneSkyApi(final String apiKey, final String apiSecret, final HttpClient httpClient) {
-        this.apiKey = apiKey;
-        this.apiSecret = apiSecret;
-        this.httpClient = httpClient;
+    protected AbstractOneSkyApi(final ApiContext apiContext) {
+        this.apiContext = requireNonNull(apiContext);
     }
 
     // TODO: implement and self-review the below
 
+    /**
+     * Executes an API GET-request which is expected to return an object; an identical request in flight is joined
+     * rather than sent again.
+     *
+     * @param <T> target object type
+     * @param operation name of the operation, which identifies the result conversion, e.g. the API URL template
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
+     * @param parameters URL query parameters excluding auth-parameters
+     * @param dataConverter converter of the result-data-JSON into the target type
+     * @return retrieved object (promise)
+     */
     protected final <T> CompletableFuture<T> apiGetObjectRequest(
+        final String operation,
         final String apiUrl,
         final Map<String, String> parameters,
         final Function<JSONObject, T> dataConverter
     ) {
-        return
-            apiDataRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK)
-                .thenApply(data -> {
-                    if (!(data instanceof JSONObject)) {
-                        throw unexpectedJsonTypeException(RESPONSE_DATA_KEY, data, JSONObject.class);
-                    }
-                    return dataConverter.apply((JSONObject) data);
-                });
+        return apiContext.getRequestCoalescer().execute(
+            new CoalescingKey(getClass(), JSONObject.class, operation, apiUrl, parameters),
+            () -> apiDataRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK, objectDataDecoder(dataConverter))
+        );
+    }
+
+    /**
+     * Executes a latency-critical API GET-request which is expected to return an object, hedged according to the
+     * client's {@link info.datamuse.onesky.HedgingPolicy}.
+     *
+     * @param <T> target object type
+     * @param operation name of the operation, which identifies the latency distribution and the result conversion, e.g.
+     *                  the API URL template
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
+     * @param parameters URL query parameters excluding auth-parameters
+     * @param dataConverter converter of the result-data-JSON into the target type
+     * @return retrieved object (promise)
+     */
+    protected final <T> CompletableFuture<T> apiHedgedGetObjectRequest(
+        final String operation,
+        final String apiUrl,
+        final Map<String, String> parameters,
+        final Function<JSONObject, T> dataConverter
+    ) {
+        return apiContext.getRequestCoalescer().execute(
+            new CoalescingKey(getClass(), JSONObject.class, operation, apiUrl, parameters),
+            () -> apiContext.getHedger().execute(
+                operation,
+                () -> apiDataRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK, objectDataDecoder(dataConverter))
+            )
+        );
     }
 
     /**
-     * Executes an API GET-request which is expected to return a list and returns a {@link CompletableFuture promise} for the result list.
+     * Executes an API GET-request which is expected to return a list and returns a {@link CompletableFuture promise} for the result list;
+     * an identical request in flight is joined rather than sent again.
      *
      * @param <T> target list item type
-     * @param apiUrl API URL excluding query parameters
+     * @param operation name of the operation, which identifies the result conversion, e.g. the API URL template
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
      * @param parameters URL query parameters excluding auth-parameters
      * @param dataItemConverter converter of the result-data-list-item-JSONs into target types.
      * @return retrieved list (promise)
      */
     protected final <T> CompletableFuture<List<T>> apiGetListRequest(
+        final String operation,
         final String apiUrl,
         final Map<String, String> parameters,
         final Function<JSONObject, T> dataItemConverter
     ) {
-        return
-            apiDataRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK)
-                .thenApply(data -> {
-                    if (!(data instanceof JSONArray)) {
-                        throw unexpectedJsonTypeException(RESPONSE_DATA_KEY, data, JSONArray.class);
-                    }
-                    return getResponseDataList((JSONArray) data, dataItemConverter);
-                });
+        return apiContext.getRequestCoalescer().execute(
+            new CoalescingKey(getClass(), List.class, operation, apiUrl, parameters),
+            () -> apiDataRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK, listDataDecoder(dataItemConverter))
+        );
+    }
+
+    /**
+     * Executes a latency-critical API GET-request which is expected to return a list, hedged according to the
+     * client's {@link info.datamuse.onesky.HedgingPolicy}.
+     *
+     * @param <T> target list item type
+     * @param operation name of the operation, which identifies the latency distribution and the result conversion, e.g.
+     *                  the API URL template
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
+     * @param parameters URL query parameters excluding auth-parameters
+     * @param dataItemConverter converter of the result-data-list-item-JSONs into target types.
+     * @return retrieved list (promise)
+     */
+    protected final <T> CompletableFuture<List<T>> apiHedgedGetListRequest(
+        final String operation,
+        final String apiUrl,
+        final Map<String, String> parameters,
+        final Function<JSONObject, T> dataItemConverter
+    ) {
+        return apiContext.getRequestCoalescer().execute(
+            new CoalescingKey(getClass(), List.class, operation, apiUrl, parameters),
+            () -> apiContext.getHedger().execute(
+                operation,
+                () -> apiDataRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK, listDataDecoder(dataItemConverter))
+            )
+        );
     }
 
+    /**
+     * Executes an API GET-request for a page of a list; an identical request in flight is joined rather than sent again.
+     *
+     * @param <T> target list item type
+     * @param operation name of the operation, which identifies the result conversion, e.g. the API URL template
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
+     * @param parameters URL query parameters excluding auth- and paging-parameters
+     * @param pageNumber page number ({@code 1}-based)
+     * @param maxItemsPerPage maximum number of items per page ("page size")
+     * @param dataItemConverter converter of the result-data-list-item-JSONs into target types.
+     * @return retrieved page (promise)
+     */
     protected final <T> CompletableFuture<Page<T>> apiGetPagedListRequest(
+        final String operation,
         final String apiUrl,
         final Map<String, String> parameters,
         final long pageNumber,
@@ -132,13 +193,17 @@ public abstract class AbstractOneSkyApi {
         parametersWithPaging.put(PAGE_NUMBER_PARAM, Long.toString(pageNumber));
         parametersWithPaging.put(PAGE_SIZE_PARAM, Long.toString(maxItemsPerPage));
 
-        return
-            apiJsonRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parametersWithPaging, HTTP_STATUS_OK)
-                .thenApply(responseJson -> {
+        return apiContext.getRequestCoalescer().execute(new CoalescingKey(getClass(), Page.class, operation, apiUrl, parametersWithPaging), () ->
+            apiJsonRequest(HTTP_GET, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parametersWithPaging, HTTP_STATUS_OK, listDataDecoder(dataItemConverter))
+                .thenApply(response -> {
+                    final @Nullable List<T> pageItems = response.getData();
+                    if (pageItems == null) {
+                        throw unexpectedJsonTypeException(RESPONSE_DATA_KEY, null, JSONArray.class);
+                    }
                     try {
-                        final JSONObject metaJson = responseJson.getJSONObject(RESPONSE_META_KEY);
+                        final JSONObject metaJson = response.getMeta();
                         return new Page<>(
-                            getResponseDataList(responseJson.getJSONArray(RESPONSE_DATA_KEY), dataItemConverter),
+                            pageItems,
                             pageNumber,
                             maxItemsPerPage,
                             metaJson.getLong(TOTAL_ITEMS_COUNT_KEY),
@@ -147,7 +212,8 @@ public abstract class AbstractOneSkyApi {
                     } catch (final JSONException e) {
                         throw new OneSkyApiException(e);
                     }
-                });
+                })
+        );
     }
 
     protected final <T> CompletableFuture<T> apiCreateRequest(
@@ -155,31 +221,30 @@ public abstract class AbstractOneSkyApi {
         final Map<String, String> parameters,
         final Function<JSONObject, T> dataConverter
     ) {
-        return
-            apiDataRequest(HTTP_POST, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_CREATED)
-                .thenApply(data -> {
-                    if (!(data instanceof JSONObject)) {
-                        throw unexpectedJsonTypeException(RESPONSE_DATA_KEY, data, JSONObject.class);
-                    }
-                    return dataConverter.apply((JSONObject) data);
-                });
+        return detachingCoalescedReads(
+            apiUrl,
+            apiDataRequest(HTTP_POST, noBody(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_CREATED, objectDataDecoder(dataConverter))
+        );
     }
 
     protected final CompletableFuture<Void> apiUpdateRequest(
             final String apiUrl,
             final Map<String, String> parameters
     ) {
-        return apiRequest(HTTP_PUT, noBody(), stringResponseBodyHandler, apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK)
-                        .thenApply(responseJson -> null);
+        return detachingCoalescedReads(
+            apiUrl,
+            apiRequest(HTTP_PUT, noBody(), discarding(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK)
+        );
     }
 
     protected final CompletableFuture<Void> apiDeleteRequest(
         final String apiUrl,
         final Map<String, String> parameters
     ) {
-        return
-            apiRequest(HTTP_DELETE, noBody(), stringResponseBodyHandler, apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK)
-                .thenApply(responseJson -> null);
+        return detachingCoalescedReads(
+            apiUrl,
+            apiRequest(HTTP_DELETE, noBody(), discarding(), apiUrl, JSON_CONTENT_TYPE_HEADER, parameters, HTTP_STATUS_OK)
+        );
     }
 
     protected final <T> CompletableFuture<T> apiMultiPartRequest(
@@ -190,68 +255,88 @@ public abstract class AbstractOneSkyApi {
             final Function<JSONObject, T> dataConverter
     ) {
         final Map<String, String> headers = Map.of("Content-Type", "multipart/form-data; boundary=" + boundary);
-        return
-                apiDataRequest(HTTP_POST, httpRequestBodyPublisher, apiUrl, headers, parameters, HTTP_STATUS_CREATED)
-                        .thenApply(data -> {
-                            if (!(data instanceof JSONObject)) {
-                                throw unexpectedJsonTypeException(RESPONSE_DATA_KEY, data, JSONObject.class);
-                            }
-                            return dataConverter.apply((JSONObject) data);
-                        });
+        return detachingCoalescedReads(
+            apiUrl,
+            apiDataRequest(HTTP_POST, httpRequestBodyPublisher, apiUrl, headers, parameters, HTTP_STATUS_CREATED, objectDataDecoder(dataConverter))
+        );
     }
 
     /**
-     * Executes an API request and returns a {@link CompletableFuture promise} for the result's {@code data} part.
+     * Executes an API request and returns a {@link CompletableFuture promise} for the result's decoded {@code data} part.
      *
+     * @param <D> decoded data type
      * @param httpMethod HTTP method name
      * @param httpRequestBodyPublisher HTTP request body publisher
-     * @param apiUrl API URL excluding query parameters
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
+     * @param headers HTTP request headers
      * @param parameters URL query parameters excluding auth-parameters
      * @param expectedStatus expected HTTP response status on success
+     * @param dataDecoder decoder of the result's {@code data} part
      * @return retrieved data (promise)
      */
-    protected final CompletableFuture<?> apiDataRequest(
+    protected final <D> CompletableFuture<D> apiDataRequest(
         final String httpMethod,
         final HttpRequest.BodyPublisher httpRequestBodyPublisher,
         final String apiUrl,
         final Map<String, String> headers,
         final Map<String, String> parameters,
-        final int expectedStatus
+        final int expectedStatus,
+        final DataDecoder<D> dataDecoder
     ) {
-        return
-            apiJsonRequest(httpMethod, httpRequestBodyPublisher, apiUrl, headers, parameters, expectedStatus)
-                .thenApply(responseJson -> responseJson.get(RESPONSE_DATA_KEY));
+        final CompletableFuture<JsonResponseDecoder.Response<D>> responsePromise =
+            apiJsonRequest(httpMethod, httpRequestBodyPublisher, apiUrl, headers, parameters, expectedStatus, dataDecoder);
+        return propagateCancellation(
+            responsePromise.thenApply(response -> {
+                final @Nullable D data = response.getData();
+                if (data == null) {
+                    throw new OneSkyApiException(String.format(Locale.ROOT, "API response has no `%s` part", RESPONSE_DATA_KEY));
+                }
+                return data;
+            }),
+            responsePromise
+        );
     }
 
     /**
-     * Executes an API request and returns a {@link CompletableFuture promise} for the result body.
+     * Executes an API request and returns a {@link CompletableFuture promise} for the decoded result body.
      *
+     * <p>The response body is decoded while it is being received, see {@link JsonResponseDecoder}; as reading the body
+     * stream blocks, it is decoded on the {@link ApiContext#getBlockingExecutor() blocking executor} rather than on the
+     * thread which has received the response headers.</p>
+     *
+     * @param <D> decoded data type
      * @param httpMethod HTTP method name
      * @param httpRequestBodyPublisher HTTP request body publisher
-     * @param apiUrl API URL excluding query parameters
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
+     * @param headers HTTP request headers
      * @param parameters URL query parameters excluding auth-parameters
      * @param expectedStatus expected HTTP response status on success
-     * @return retrieved data (promise)
+     * @param dataDecoder decoder of the result's {@code data} part
+     * @return decoded response (promise)
      */
-    protected final CompletableFuture<JSONObject> apiJsonRequest(
+    protected final <D> CompletableFuture<JsonResponseDecoder.Response<D>> apiJsonRequest(
         final String httpMethod,
         final HttpRequest.BodyPublisher httpRequestBodyPublisher,
         final String apiUrl,
         final Map<String, String> headers,
         final Map<String, String> parameters,
-        final int expectedStatus
+        final int expectedStatus,
+        final DataDecoder<D> dataDecoder
     ) {
-        return
-            apiRequest(httpMethod, httpRequestBodyPublisher, HttpResponse.BodyHandlers.ofString(), apiUrl, headers, parameters, expectedStatus)
-                .thenApply(httpResponseBody -> {
-                    try {
-                        final JSONObject responseJson = new JSONObject(httpResponseBody);
-                        checkSuccessResponse(responseJson, expectedStatus);
-                        return responseJson;
-                    } catch (final JSONException e) {
-                        throw new OneSkyApiException(e);
-                    }
-                });
+        final CompletableFuture<Supplier<JsonResponseDecoder.Response<D>>> lazyResponsePromise =
+            apiRequest(httpMethod, httpRequestBodyPublisher, JsonResponseDecoder.bodyHandler(dataDecoder), apiUrl, headers, parameters, expectedStatus);
+        return propagateCancellation(
+            lazyResponsePromise.thenApplyAsync(lazyResponse -> {
+                final JsonResponseDecoder.Response<D> response = lazyResponse.get();
+                try {
+                    checkSuccessResponse(response.getMeta(), expectedStatus);
+                } catch (final JSONException e) {
+                    throw new OneSkyApiException(e);
+                }
+                return response;
+            }, apiContext.getBlockingExecutor()),
+            lazyResponsePromise
+        );
     }
 
     protected final <T> CompletableFuture<T> apiRequest(
@@ -262,47 +347,111 @@ public abstract class AbstractOneSkyApi {
         final Map<String, String> headers,
         final Map<String, String> parameters,
         final int expectedStatus
+    ) {
+        final CompletableFuture<HttpResponse<T>> httpResponsePromise = sendApiRequest(
+            httpMethod,
+            httpRequestBodyPublisher,
+            expectedStatusBodyHandler(httpResponseBodyHandler, expectedStatus),
+            apiUrl,
+            headers,
+            parameters
+        );
+        return propagateCancellation(
+            httpResponsePromise.thenApply(httpResponse -> {
+                final int httpStatus = httpResponse.statusCode();
+                if (httpStatus != expectedStatus) {
+                    throw new OneSkyApiException(String.format(Locale.ROOT, "Expected status=%d, but API responded with status=%d", expectedStatus, httpStatus));
+                }
+                return httpResponse.body();
+            }),
+            httpResponsePromise
+        );
+    }
+
+    /**
+     * Executes a conditional API GET-request, which is expected to respond either with the status {@code 200} and the
+     * content, or with the status {@code 304} and no content.
+     *
+     * @param <T> response body type
+     * @param httpResponseBodyHandler handler of the content, applied only to the response with the status {@code 200}
+     * @param apiUrl API URL path relative to the API base URL, excluding query parameters
+     * @param headers HTTP request headers, including the validators
+     * @param parameters URL query parameters excluding auth-parameters
+     * @return HTTP response, whose body is {@code null} for the status {@code 304} (promise)
+     */
+    protected final <T> CompletableFuture<HttpResponse<T>> apiConditionalGetRequest(
+        final HttpResponse.BodyHandler<T> httpResponseBodyHandler,
+        final String apiUrl,
+        final Map<String, String> headers,
+        final Map<String, String> parameters
+    ) {
+        final CompletableFuture<HttpResponse<T>> httpResponsePromise = sendApiRequest(
+            HTTP_GET,
+            noBody(),
+            expectedStatusBodyHandler(httpResponseBodyHandler, HTTP_STATUS_OK),
+            apiUrl,
+            headers,
+            parameters
+        );
+        return propagateCancellation(
+            httpResponsePromise.thenApply(httpResponse -> {
+                final int httpStatus = httpResponse.statusCode();
+                if (httpStatus != HTTP_STATUS_OK && httpStatus != HTTP_STATUS_NOT_MODIFIED) {
+                    throw new OneSkyApiException(String.format(
+                        Locale.ROOT, "Expected status=%d or %d, but API responded with status=%d", HTTP_STATUS_OK, HTTP_STATUS_NOT_MODIFIED, httpStatus
+                    ));
+                }
+                return httpResponse;
+            }),
+            httpResponsePromise
+        );
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> sendApiRequest(
+        final String httpMethod,
+        final HttpRequest.BodyPublisher httpRequestBodyPublisher,
+        final HttpResponse.BodyHandler<T> httpResponseBodyHandler,
+        final String apiUrl,
+        final Map<String, String> headers,
+        final Map<String, String> parameters
     ) {
         logger.info("OneSky API call"); // TODO: include url with parameters, excluding auth data
         // TODO: log from within the Future, when finished
-        final String apiUrlWithParameters =
-            apiUrl
-            + '?'
-            + Stream.concat(
-                parameters.entrySet().stream(),
-                generateAuthParameters().entrySet().stream()
-            ).map(
-                paramEntry -> paramEntry.getKey() + '=' + paramEntry.getValue()
-            ).collect(joining("&"));
-        final HttpRequest apiHttpRequest =
-            HttpRequest.newBuilder(URI.create(apiUrlWithParameters))
-                .method(httpMethod, httpRequestBodyPublisher)
-                .headers(listFromMapEntries(headers).toArray(new String[0]))
-                .build();
-        return
-            httpClient
-                .sendAsync(apiHttpRequest, httpResponseBodyHandler)
-                .thenApply(httpResponse -> {
-                    final int httpStatus = httpResponse.statusCode();
-                    if (httpStatus != expectedStatus) {
-                        throw new OneSkyApiException(String.format(Locale.ROOT, "Expected status=%d, but API responded with status=%d", expectedStatus, httpStatus));
-                    }
-                    return httpResponse.body();
-                });
+        // A streamed body of unknown length may not be replayable, so such requests are not retried
+        final boolean isReplayable = httpRequestBodyPublisher.contentLength() >= 0;
+        return apiContext.getRetrier().send(
+            httpMethod,
+            isReplayable,
+            () -> apiContext.getTransport().send(
+                apiHttpRequest(httpMethod, httpRequestBodyPublisher, apiUrl, headers, parameters),
+                httpResponseBodyHandler
+            )
+        );
     }
 
-    private Map<String, String> generateAuthParameters() {
-        final String timestamp = Long.toString(Instant.now().getEpochSecond());
-        final String devHash = md5Hex(timestamp + apiSecret);
-        return Map.of(
-            "api_key", apiKey,
-            "timestamp", timestamp,
-            "dev_hash", devHash
+    /**
+     * Builds the HTTP request of an API call: the absolute URL with the parameters and the authentication data.
+     */
+    final HttpRequest apiHttpRequest(
+        final String httpMethod,
+        final HttpRequest.BodyPublisher httpRequestBodyPublisher,
+        final String apiUrl,
+        final Map<String, String> headers,
+        final Map<String, String> parameters
+    ) {
+        final StringBuilder apiUrlWithParameters = new StringBuilder(apiContext.getBaseUrl()).append(apiUrl).append('?');
+        parameters.forEach(
+            (paramName, paramValue) -> apiUrlWithParameters.append(paramName).append('=').append(paramValue).append('&')
         );
+        apiUrlWithParameters.append(apiContext.getAuthQueryString());
+        return
+            HttpRequest.newBuilder(URI.create(apiUrlWithParameters.toString()))
+                .method(httpMethod, httpRequestBodyPublisher)
+                .headers(listFromMapEntries(headers).toArray(new String[0]))
+                .build();
     }
 
-    private static void checkSuccessResponse(final JSONObject responseJson, final int expectedStatus) {
-        final JSONObject metaJson = responseJson.getJSONObject(RESPONSE_META_KEY);
+    private static void checkSuccessResponse(final JSONObject metaJson, final int expectedStatus) {
         final int status = metaJson.getInt("status");
         if (status != expectedStatus) {
             final @Nullable String message = getOptionalJsonValue(metaJson, "message", String.class);
@@ -310,15 +459,90 @@ public abstract class AbstractOneSkyApi {
         }
     }
 
-    private static <T> List<T> getResponseDataList(final JSONArray dataJson, final Function<JSONObject, T> dataItemConverter) {
-        return StreamSupport.stream(dataJson.spliterator(), false)
-            .map(dataItem -> {
-                if (!(dataItem instanceof JSONObject)) {
-                    throw unexpectedJsonTypeException(RESPONSE_DATA_KEY + "[].*", dataItem, JSONObject.class);
-                }
-                return dataItemConverter.apply((JSONObject) dataItem);
-            })
-            .collect(toUnmodifiableList());
+    /**
+     * Wraps the body handler so that the response body is only handled if the response has the expected status,
+     * and is discarded otherwise (the request then fails in {@link #apiRequest}).
+     */
+    private static <T> HttpResponse.BodyHandler<T> expectedStatusBodyHandler(final HttpResponse.BodyHandler<T> httpResponseBodyHandler, final int expectedStatus) {
+        return responseInfo ->
+            responseInfo.statusCode() == expectedStatus
+                ? httpResponseBodyHandler.apply(responseInfo)
+                : HttpResponse.BodySubscribers.replacing(null);
+    }
+
+    /**
+     * Detaches the coalesced GET-requests which may read the modified state once the modification has completed,
+     * whether successfully or not: a GET-request made afterwards must not join a request sent before the modification,
+     * and return (and e.g. cache) the state from before the modification.
+     *
+     * <p>The coalescer is shared by all API wrappers of the client, so e.g. a file upload also detaches the import
+     * tasks list of the project.</p>
+     */
+    private <T> CompletableFuture<T> detachingCoalescedReads(final String apiUrl, final CompletableFuture<T> modificationPromise) {
+        return propagateCancellation(
+            modificationPromise.whenComplete((result, throwable) ->
+                apiContext.getRequestCoalescer().detach(key -> key instanceof CoalescingKey && ((CoalescingKey) key).isAffectedBy(apiUrl))),
+            modificationPromise
+        );
+    }
+
+    /**
+     * Key identifying a GET-request for request coalescing: requests of the same API wrapper with the same operation,
+     * URL and non-auth parameters are interchangeable, since the wrapper and the operation identify the result
+     * conversion.
+     */
+    private static final class CoalescingKey {
+        private final Class<?> apiClass;
+        private final Class<?> resultKind;
+        private final String operation;
+        private final String apiUrl;
+        private final Map<String, String> parameters;
+
+        CoalescingKey(
+            final Class<?> apiClass,
+            final Class<?> resultKind,
+            final String operation,
+            final String apiUrl,
+            final Map<String, String> parameters
+        ) {
+            this.apiClass = apiClass;
+            this.resultKind = resultKind;
+            this.operation = requireNonNull(operation);
+            this.apiUrl = requireNonNull(apiUrl);
+            this.parameters = Map.copyOf(parameters);
+        }
+
+        /**
+         * Returns whether a modification of the resource may change the result: the URL of the request is within the
+         * parent of the resource (e.g. an upload to {@code /projects/1/files} changes {@code /projects/1/import-tasks}
+         * and {@code /projects/1/languages}), or is one of its ancestors.
+         */
+        boolean isAffectedBy(final String modifiedApiUrl) {
+            final int parentEnd = modifiedApiUrl.lastIndexOf('/');
+            final String modifiedScopeUrl = parentEnd > 0 ? modifiedApiUrl.substring(0, parentEnd) : modifiedApiUrl;
+            return apiUrl.equals(modifiedScopeUrl) || apiUrl.startsWith(modifiedScopeUrl + '/') || modifiedScopeUrl.startsWith(apiUrl + '/');
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof CoalescingKey)) {
+                return false;
+            }
+            final CoalescingKey otherKey = (CoalescingKey) other;
+            return apiClass.equals(otherKey.apiClass)
+                && resultKind.equals(otherKey.resultKind)
+                && operation.equals(otherKey.operation)
+                && apiUrl.equals(otherKey.apiUrl)
+                && parameters.equals(otherKey.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(apiClass, resultKind, operation, apiUrl, parameters);
+        }
     }
 
 }
@@ -0,0 +1,182 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.HedgingPolicy;
+import info.datamuse.onesky.OneSkyTransport;
+import info.datamuse.onesky.RetryPolicy;
+
+import javax.annotation.Nullable;
+import java.net.URI;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Objects.requireNonNull;
+import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
+
+/**
+ * Per-client context, shared by all API wrappers of a client.
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class ApiContext implements AutoCloseable {
+
+    private static final String API_KEY_PARAM = "api_key";
+    private static final String TIMESTAMP_PARAM = "timestamp";
+    private static final String DEV_HASH_PARAM = "dev_hash";
+    private static final String BLOCKING_THREAD_NAME_PREFIX = "onesky-blocking-";
+
+    private static final AtomicInteger BLOCKING_THREAD_COUNT = new AtomicInteger();
+
+    private final String apiSecret;
+    private final String baseUrl;
+    private final OneSkyTransport transport;
+    private final Retrier retrier;
+    private final Hedger hedger;
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+    private final ExecutorService blockingExecutor;
+    private final String apiKeyQueryParameter;
+
+    private volatile @Nullable AuthQuery authQuery;
+
+    /**
+     * Context constructor.
+     *
+     * @param apiKey OneSky API public key
+     * @param apiSecret OneSky API secret key
+     * @param baseUri OneSky API base URI
+     * @param transport HTTP transport
+     * @param retryPolicy policy of retrying failed requests
+     * @param hedgingPolicy policy of hedging latency-critical requests
+     */
+    public ApiContext(
+        final String apiKey,
+        final String apiSecret,
+        final URI baseUri,
+        final OneSkyTransport transport,
+        final RetryPolicy retryPolicy,
+        final HedgingPolicy hedgingPolicy
+    ) {
+        this.apiSecret = requireNonNull(apiSecret);
+        this.baseUrl = stripTrailingSlash(baseUri.toString());
+        this.transport = requireNonNull(transport);
+        this.retrier = new Retrier(retryPolicy);
+        this.hedger = new Hedger(hedgingPolicy);
+        this.blockingExecutor = Executors.newCachedThreadPool(ApiContext::newBlockingThread);
+        this.apiKeyQueryParameter = API_KEY_PARAM + '=' + requireNonNull(apiKey);
+    }
+
+    /**
+     * Returns OneSky API base URL, without a trailing slash.
+     *
+     * @return API base URL
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Returns HTTP transport.
+     *
+     * @return HTTP transport
+     */
+    public OneSkyTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Returns the retrier of failed requests, shared by all API wrappers so that they share the retry budget.
+     *
+     * @return retrier
+     */
+    public Retrier getRetrier() {
+        return retrier;
+    }
+
+    /**
+     * Returns the hedger of latency-critical requests, shared by all API wrappers so that they share the hedging budget.
+     *
+     * @return hedger
+     */
+    public Hedger getHedger() {
+        return hedger;
+    }
+
+    /**
+     * Returns the coalescer of GET-requests, shared by all API wrappers so that a modification made through one wrapper
+     * detaches the coalesced GET-requests made through the others.
+     *
+     * @return request coalescer
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Returns the executor of the work which may block, e.g. reading a response body stream or copying a file, so that
+     * such work never runs on the threads of the HTTP Client or of the shared scheduler.
+     *
+     * <p>The threads are daemon threads, and are stopped once idle for a while, so the executor of a long-lived context
+     * needs no shutdown; a short-lived context should be {@link #close() closed}.</p>
+     *
+     * @return blocking executor
+     */
+    public Executor getBlockingExecutor() {
+        return blockingExecutor;
+    }
+
+    /**
+     * Returns the URL query string of the authentication parameters for the current time.
+     *
+     * <p>The authentication hash only depends on the current time in seconds, so the query string is computed at most
+     * once per second and shared by all requests within that second.</p>
+     *
+     * @return authentication query string, e.g. {@code api_key=...&timestamp=...&dev_hash=...}
+     */
+    public String getAuthQueryString() {
+        final long timestamp = Instant.now().getEpochSecond();
+        final @Nullable AuthQuery currentAuthQuery = authQuery;
+        if (currentAuthQuery != null && currentAuthQuery.timestamp == timestamp) {
+            return currentAuthQuery.queryString;
+        }
+        final String timestampString = Long.toString(timestamp);
+        final AuthQuery newAuthQuery = new AuthQuery(
+            timestamp,
+            apiKeyQueryParameter
+                + '&' + TIMESTAMP_PARAM + '=' + timestampString
+                + '&' + DEV_HASH_PARAM + '=' + md5Hex(timestampString + apiSecret)
+        );
+        authQuery = newAuthQuery;
+        return newAuthQuery.queryString;
+    }
+
+    /**
+     * Shuts down the blocking executor; the work already submitted is completed.
+     */
+    @Override
+    public void close() {
+        blockingExecutor.shutdown();
+    }
+
+    private static String stripTrailingSlash(final String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    private static Thread newBlockingThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, BLOCKING_THREAD_NAME_PREFIX + BLOCKING_THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class AuthQuery {
+        private final long timestamp;
+        private final String queryString;
+
+        AuthQuery(final long timestamp, final String queryString) {
+            this.timestamp = timestamp;
+            this.queryString = queryString;
+        }
+    }
+
+}
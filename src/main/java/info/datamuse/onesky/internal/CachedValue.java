@@ -0,0 +1,107 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.CachePolicy;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Single value loaded asynchronously and cached according to a {@link CachePolicy}.
+ *
+ * <p>Concurrent requests for a value which is not cached share a single load; a failed load is not cached, and a failed
+ * refresh leaves the cached value in place until it expires.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @param <T> value type
+ */
+public final class CachedValue<T> {
+
+    private final Supplier<CompletableFuture<T>> loader;
+    private final long expireAfterNanos;
+    private final long refreshAfterNanos;
+    private final boolean isEnabled;
+    private final LongSupplier nanoTime;
+
+    // Guarded by `this`
+    private @Nullable T value;
+    private long loadedNanos;
+    private @Nullable CompletableFuture<T> loading;
+
+    /**
+     * Cached value constructor.
+     *
+     * @param loader loads the value
+     * @param cachePolicy cache policy
+     */
+    public CachedValue(final Supplier<CompletableFuture<T>> loader, final CachePolicy cachePolicy) {
+        this(loader, cachePolicy, System::nanoTime);
+    }
+
+    CachedValue(final Supplier<CompletableFuture<T>> loader, final CachePolicy cachePolicy, final LongSupplier nanoTime) {
+        this.loader = requireNonNull(loader);
+        this.expireAfterNanos = cachePolicy.getExpireAfter().toNanos();
+        this.refreshAfterNanos = cachePolicy.getRefreshAfter().toNanos();
+        this.isEnabled = cachePolicy.isEnabled();
+        this.nanoTime = requireNonNull(nanoTime);
+    }
+
+    /**
+     * Returns the cached value, or loads it if it is not cached or has expired.
+     *
+     * @return value ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<T> get() {
+        if (!isEnabled) {
+            return loader.get();
+        }
+        final CompletableFuture<T> load;
+        synchronized (this) {
+            if (value != null) {
+                final long ageNanos = nanoTime.getAsLong() - loadedNanos;
+                if (ageNanos < expireAfterNanos) {
+                    if (ageNanos >= refreshAfterNanos && loading == null) {
+                        startLoading();
+                    }
+                    return CompletableFuture.completedFuture(value);
+                }
+            }
+            load = loading != null ? loading : startLoading();
+        }
+        // A caller must not be able to cancel the shared load
+        return load.copy();
+    }
+
+    /**
+     * Discards the cached value, so that the next request loads it again.
+     */
+    public synchronized void invalidate() {
+        value = null;
+        loading = null;
+    }
+
+    // Guarded by `this`
+    private CompletableFuture<T> startLoading() {
+        final CompletableFuture<T> load = Futures.start(loader);
+        loading = load;
+        load.whenComplete((loadedValue, throwable) -> onLoaded(load, loadedValue, throwable));
+        return load;
+    }
+
+    private synchronized void onLoaded(final CompletableFuture<T> load, final @Nullable T loadedValue, final @Nullable Throwable throwable) {
+        if (loading != load) {
+            // Invalidated while loading
+            return;
+        }
+        loading = null;
+        if (throwable == null) {
+            value = loadedValue;
+            loadedNanos = nanoTime.getAsLong();
+        }
+    }
+
+}
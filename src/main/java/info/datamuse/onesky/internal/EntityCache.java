@@ -0,0 +1,179 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.CachePolicy;
+import info.datamuse.onesky.CacheStats;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cache of entities loaded asynchronously by key, bounded and expired according to a {@link CachePolicy}.
+ *
+ * <p>Concurrent requests for an entity which is not cached share a single load; a failed load is not cached, and a
+ * failed refresh leaves the cached entity in place until it expires. An entity invalidated while it is being loaded is
+ * not cached when the load completes.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ *
+ * @param <K> key type
+ * @param <V> entity type
+ */
+public final class EntityCache<K, V> {
+
+    private final long expireAfterNanos;
+    private final long refreshAfterNanos;
+    private final long maximumSize;
+    private final boolean isEnabled;
+    private final LongSupplier nanoTime;
+
+    // Guarded by `this`
+    private final Map<K, CacheEntry<V>> entries;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Entity cache constructor.
+     *
+     * @param cachePolicy cache policy
+     */
+    public EntityCache(final CachePolicy cachePolicy) {
+        this(cachePolicy, System::nanoTime);
+    }
+
+    EntityCache(final CachePolicy cachePolicy, final LongSupplier nanoTime) {
+        this.expireAfterNanos = cachePolicy.getExpireAfter().toNanos();
+        this.refreshAfterNanos = cachePolicy.getRefreshAfter().toNanos();
+        this.maximumSize = cachePolicy.getMaximumSize();
+        this.isEnabled = cachePolicy.isEnabled();
+        this.nanoTime = requireNonNull(nanoTime);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() <= maximumSize) {
+                    return false;
+                }
+                evictionCount++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached entity, or loads it if it is not cached or has expired.
+     *
+     * @param key entity key
+     * @param loader loads the entity
+     * @return entity ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<V> get(final K key, final Function<K, CompletableFuture<V>> loader) {
+        if (!isEnabled) {
+            return loader.apply(key);
+        }
+        final CacheEntry<V> entry;
+        final boolean isLoadRequired;
+        final boolean isRefreshRequired;
+        synchronized (this) {
+            final @Nullable CacheEntry<V> cachedEntry = entries.get(key);
+            final long nowNanos = nanoTime.getAsLong();
+            if (cachedEntry != null && (!cachedEntry.isLoaded || nowNanos - cachedEntry.loadedNanos < expireAfterNanos)) {
+                hitCount++;
+                entry = cachedEntry;
+                isLoadRequired = false;
+                isRefreshRequired = entry.isLoaded && !entry.isRefreshing && nowNanos - entry.loadedNanos >= refreshAfterNanos;
+                if (isRefreshRequired) {
+                    entry.isRefreshing = true;
+                }
+            } else {
+                missCount++;
+                entry = new CacheEntry<>();
+                entries.put(key, entry);
+                isLoadRequired = true;
+                isRefreshRequired = false;
+            }
+        }
+        if (isLoadRequired) {
+            Futures.start(() -> loader.apply(key)).whenComplete((value, throwable) -> onLoaded(key, entry, value, throwable));
+        } else if (isRefreshRequired) {
+            Futures.start(() -> loader.apply(key)).whenComplete((value, throwable) -> onRefreshed(key, entry, value, throwable));
+        }
+        // A caller must not be able to cancel the shared load
+        return entry.promise.copy();
+    }
+
+    /**
+     * Discards the cached entity, so that the next request loads it again.
+     *
+     * @param key entity key
+     */
+    public synchronized void invalidate(final K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Discards all the cached entities.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the cache statistics.
+     *
+     * @return cache statistics snapshot
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hitCount, missCount, evictionCount);
+    }
+
+    private void onLoaded(final K key, final CacheEntry<V> entry, final @Nullable V value, final @Nullable Throwable throwable) {
+        synchronized (this) {
+            final boolean isCurrent = entries.get(key) == entry;
+            if (throwable == null) {
+                entry.isLoaded = true;
+                entry.loadedNanos = nanoTime.getAsLong();
+            } else if (isCurrent) {
+                entries.remove(key);
+            }
+        }
+        if (throwable == null) {
+            entry.promise.complete(value);
+        } else {
+            entry.promise.completeExceptionally(Futures.unwrapCompletionException(throwable));
+        }
+    }
+
+    private void onRefreshed(final K key, final CacheEntry<V> entry, final @Nullable V value, final @Nullable Throwable throwable) {
+        synchronized (this) {
+            entry.isRefreshing = false;
+            if (throwable == null && entries.get(key) == entry) {
+                final CacheEntry<V> refreshedEntry = new CacheEntry<>();
+                refreshedEntry.isLoaded = true;
+                refreshedEntry.loadedNanos = nanoTime.getAsLong();
+                refreshedEntry.promise.complete(value);
+                entries.put(key, refreshedEntry);
+            }
+        }
+    }
+
+    /**
+     * Cache entry: an entity, or an in-flight load of an entity.
+     */
+    private static final class CacheEntry<V> {
+        private final CompletableFuture<V> promise = new CompletableFuture<>();
+
+        // Guarded by the cache
+        private boolean isLoaded;
+        private long loadedNanos;
+        private boolean isRefreshing;
+    }
+
+}
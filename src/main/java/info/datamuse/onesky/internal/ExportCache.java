@@ -0,0 +1,308 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.ExportCachePolicy;
+import info.datamuse.onesky.OneSkyApiException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static org.apache.commons.codec.digest.DigestUtils.sha256Hex;
+
+/**
+ * Cache of exported files in a local directory, configured by an {@link ExportCachePolicy}.
+ *
+ * <p>A cached file is named after the SHA-256 digest of its key, and its last access time is the modification time of
+ * an empty access file next to it, rather than its own: a linked cached file is the same file as its targets, whose
+ * modification times must not change when the cached file is looked up. Every lookup of an entry, every move of a new entry into the directory and every eviction holds the exclusive lock of
+ * the {@code .lock} file in it, so that the directory may be shared by the processes on the same host; the clients of
+ * the same process share a monitor, since a file lock is held on behalf of the whole process. The lock is not held
+ * while a cached file is copied: an entry is only ever replaced by an atomic move, and the copy reads the entry through
+ * a channel opened under the lock, which stays readable even if the entry is evicted meanwhile.</p>
+ *
+ * <p>The file operations run on the blocking executor, rather than on the threads which complete the downloads.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class ExportCache {
+
+    private static final String LOCK_FILE_NAME = ".lock";
+    private static final String ENTRY_FILE_SUFFIX = ".export";
+    private static final String ACCESS_FILE_SUFFIX = ".access";
+    private static final String DOWNLOAD_FILE_SUFFIX = ".download";
+    private static final Duration ABANDONED_DOWNLOAD_AGE = Duration.ofDays(1);
+
+    private static final Map<Path, Object> DIRECTORY_MONITORS = new ConcurrentHashMap<>();
+
+    private final Path directory;
+    private final long maximumSize;
+    private final boolean isLinkingFiles;
+    private final Executor blockingExecutor;
+    private final Object directoryMonitor;
+
+    /**
+     * Export cache constructor.
+     *
+     * @param exportCachePolicy export cache policy
+     * @param blockingExecutor executor of the file operations
+     */
+    public ExportCache(final ExportCachePolicy exportCachePolicy, final Executor blockingExecutor) {
+        try {
+            this.directory = Files.createDirectories(exportCachePolicy.getDirectory()).toRealPath();
+        } catch (final IOException e) {
+            throw new OneSkyApiException(e);
+        }
+        this.maximumSize = exportCachePolicy.getMaximumSize();
+        this.isLinkingFiles = exportCachePolicy.isLinkingFiles();
+        this.blockingExecutor = requireNonNull(blockingExecutor);
+        this.directoryMonitor = DIRECTORY_MONITORS.computeIfAbsent(directory, key -> new Object());
+    }
+
+    /**
+     * Copies (or links) the cached file to the target path.
+     *
+     * @param key cached file key
+     * @param target target path
+     * @return {@code true} if the file is cached, and has been copied; {@code false} if it is not cached
+     *     ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<Boolean> copyTo(final List<String> key, final Path target) {
+        return CompletableFuture.supplyAsync(() -> {
+            final Path entry = entryPath(key);
+            final @Nullable FileChannel source = locked(() -> {
+                try {
+                    final FileChannel entryChannel = FileChannel.open(entry, READ);
+                    try {
+                        touch(accessPath(entry));
+                    } catch (final IOException e) {
+                        closeQuietly(entryChannel);
+                        throw e;
+                    }
+                    return entryChannel;
+                } catch (final NoSuchFileException e) {
+                    return null;
+                }
+            });
+            if (source == null) {
+                return false;
+            }
+            transfer(source, entry, target);
+            return true;
+        }, blockingExecutor);
+    }
+
+    /**
+     * Creates a new file to download a file to be cached into; the file is in the cache directory, so that it can be
+     * {@link #put moved} into the cache atomically.
+     *
+     * @return download file path
+     */
+    public Path newDownloadFile() {
+        try {
+            return Files.createTempFile(directory, null, DOWNLOAD_FILE_SUFFIX);
+        } catch (final IOException e) {
+            throw new OneSkyApiException(e);
+        }
+    }
+
+    /**
+     * Moves a downloaded file into the cache, copies (or links) it to the target path, and evicts the least recently
+     * used files if the cache is full.
+     *
+     * @param key cached file key
+     * @param downloadFile {@link #newDownloadFile() download file}
+     * @param target target path
+     * @return completion ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<Void> put(final List<String> key, final Path downloadFile, final Path target) {
+        return CompletableFuture.runAsync(() -> {
+            final Path entry = entryPath(key);
+            final FileChannel source;
+            try {
+                // Opened before the move, so that the content is copied even if the new entry is evicted at once
+                source = FileChannel.open(downloadFile, READ);
+            } catch (final IOException e) {
+                throw new OneSkyApiException(e);
+            }
+            try {
+                locked(() -> {
+                    Files.move(downloadFile, entry, ATOMIC_MOVE, REPLACE_EXISTING);
+                    touch(accessPath(entry));
+                    evict();
+                    return null;
+                });
+            } catch (final RuntimeException e) {
+                closeQuietly(source);
+                throw e;
+            }
+            transfer(source, entry, target);
+        }, blockingExecutor);
+    }
+
+    /**
+     * Prepares a target path to be written by other means than the cache: if the cached files are linked, the target
+     * is deleted, since it may be a link of a cached file, which must not be modified in place.
+     *
+     * @param target target path
+     * @return completion ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<Void> unlinkTarget(final Path target) {
+        if (!isLinkingFiles) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Files.deleteIfExists(target);
+            } catch (final IOException e) {
+                throw new OneSkyApiException(e);
+            }
+        }, blockingExecutor);
+    }
+
+    /**
+     * Deletes a download file which is not going to be cached.
+     *
+     * @param downloadFile {@link #newDownloadFile() download file}
+     * @return completion ({@link CompletableFuture promise})
+     */
+    public CompletableFuture<Void> discard(final Path downloadFile) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                Files.deleteIfExists(downloadFile);
+            } catch (final IOException e) {
+                throw new OneSkyApiException(e);
+            }
+        }, blockingExecutor);
+    }
+
+    private Path entryPath(final List<String> key) {
+        return directory.resolve(sha256Hex(String.join("\n", key)) + ENTRY_FILE_SUFFIX);
+    }
+
+    private static Path accessPath(final Path entry) {
+        final String entryFileName = entry.getFileName().toString();
+        return entry.resolveSibling(entryFileName.substring(0, entryFileName.length() - ENTRY_FILE_SUFFIX.length()) + ACCESS_FILE_SUFFIX);
+    }
+
+    private static void touch(final Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (final NoSuchFileException e) {
+            Files.newByteChannel(file, WRITE, CREATE).close();
+        }
+    }
+
+    /**
+     * Links the entry to the target, or copies the content of the entry from the source channel, and closes the
+     * channel. The target is replaced rather than truncated, since it may be a link of another cached file.
+     */
+    private void transfer(final FileChannel source, final Path entry, final Path target) {
+        try (FileChannel entryChannel = source) {
+            if (isLinkingFiles) {
+                Files.deleteIfExists(target);
+                try {
+                    Files.createLink(target, entry);
+                    return;
+                } catch (final UnsupportedOperationException | IOException e) {
+                    // Hard links are not supported, e.g. the target is on another file store, or the entry is evicted
+                }
+            }
+            try (FileChannel destination = FileChannel.open(target, WRITE, CREATE, TRUNCATE_EXISTING)) {
+                final long size = entryChannel.size();
+                long position = 0;
+                while (position < size) {
+                    position += entryChannel.transferTo(position, size - position, destination);
+                }
+            }
+        } catch (final IOException e) {
+            throw new OneSkyApiException(e);
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the cache fits its maximum size, the access files of the deleted
+     * files, and the abandoned downloads.
+     */
+    private void evict() throws IOException {
+        final List<Path> entries = new ArrayList<>();
+        final Map<Path, Long> sizes = new HashMap<>();
+        final Map<Path, FileTime> accessTimes = new HashMap<>();
+        final Instant abandonedBefore = Instant.now().minus(ABANDONED_DOWNLOAD_AGE);
+        long totalSize = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (final Path file : files) {
+                final String fileName = file.getFileName().toString();
+                final BasicFileAttributes fileAttributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (fileName.endsWith(ENTRY_FILE_SUFFIX)) {
+                    entries.add(file);
+                    sizes.put(file, fileAttributes.size());
+                    accessTimes.putIfAbsent(file, fileAttributes.lastModifiedTime());
+                    totalSize += fileAttributes.size();
+                } else if (fileName.endsWith(ACCESS_FILE_SUFFIX)) {
+                    final String entryFileName = fileName.substring(0, fileName.length() - ACCESS_FILE_SUFFIX.length()) + ENTRY_FILE_SUFFIX;
+                    accessTimes.put(file.resolveSibling(entryFileName), fileAttributes.lastModifiedTime());
+                } else if (fileName.endsWith(DOWNLOAD_FILE_SUFFIX) && fileAttributes.lastModifiedTime().toInstant().isBefore(abandonedBefore)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(accessTimes::get));
+        for (int i = 0; i < entries.size() && totalSize > maximumSize; i++) {
+            Files.deleteIfExists(entries.get(i));
+            Files.deleteIfExists(accessPath(entries.get(i)));
+            totalSize -= sizes.get(entries.get(i));
+        }
+    }
+
+    /**
+     * Runs a short action on the directory, holding the lock of the directory.
+     */
+    private <T> T locked(final IOAction<T> action) {
+        synchronized (directoryMonitor) {
+            try (FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE_NAME), WRITE, CREATE)) {
+                // Released when the channel is closed
+                lockChannel.lock();
+                return action.run();
+            } catch (final IOException e) {
+                throw new OneSkyApiException(e);
+            }
+        }
+    }
+
+    private static void closeQuietly(final FileChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // Nothing to clean up
+        }
+    }
+
+    @FunctionalInterface
+    private interface IOAction<T> {
+        T run() throws IOException;
+    }
+
+}
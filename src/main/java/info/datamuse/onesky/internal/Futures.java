@@ -0,0 +1,174 @@
+package info.datamuse.onesky.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * {@link CompletableFuture} utilities.
+ */
+public final class Futures {
+
+    private Futures() {
+        // Namespace
+    }
+
+    /**
+     * Applies an asynchronous function to every input, running at most {@code parallelism} invocations at a time,
+     * and returns a {@link CompletableFuture promise} for the list of results in the order of the inputs.
+     *
+     * <p>The returned promise fails with the first failure of the {@code mapper}; no further invocations are started
+     * after a failure.</p>
+     *
+     * @param <T> input type
+     * @param <R> result type
+     * @param inputs inputs
+     * @param parallelism maximum number of concurrent invocations of the {@code mapper}
+     * @param mapper asynchronous function
+     * @return list of results (promise)
+     */
+    public static <T, R> CompletableFuture<List<R>> mapWithBoundedParallelism(
+        final List<T> inputs,
+        final int parallelism,
+        final Function<? super T, CompletableFuture<R>> mapper
+    ) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "`parallelism` must be positive, but was: %d", parallelism));
+        }
+        requireNonNull(mapper);
+        if (inputs.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        return new BoundedMapping<T, R>(List.copyOf(inputs), parallelism, mapper).start();
+    }
+
+    /**
+     * Starts an asynchronous operation; an exception thrown by the operation itself results in a failed future.
+     *
+     * <p>Unlike {@code completedFuture(operation).thenCompose(Supplier::get)}, the future returned by the operation is
+     * returned as is, so that cancelling it cancels the operation.</p>
+     *
+     * @param <T> result type
+     * @param operation starts the operation
+     * @return result of the operation (promise)
+     */
+    public static <T> CompletableFuture<T> start(final Supplier<CompletableFuture<T>> operation) {
+        final CompletableFuture<CompletableFuture<T>> startedOperation =
+            CompletableFuture.completedFuture(operation).thenApply(Supplier::get);
+        return startedOperation.isCompletedExceptionally()
+            ? startedOperation.thenCompose(Function.identity())
+            : startedOperation.join();
+    }
+
+    /**
+     * Makes cancellation of a dependent future (e.g. a result of {@link CompletableFuture#thenApply}) cancel its source
+     * future, which {@link CompletableFuture} does not do by itself.
+     *
+     * @param <T> dependent future type
+     * @param dependent dependent future
+     * @param source source future
+     * @return the dependent future
+     */
+    public static <T> CompletableFuture<T> propagateCancellation(final CompletableFuture<T> dependent, final CompletableFuture<?> source) {
+        dependent.whenComplete((result, throwable) -> {
+            if (dependent.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
+    }
+
+    /**
+     * Returns the actual cause of a {@link CompletionException} or {@link ExecutionException} as a runtime exception.
+     *
+     * @param throwable exception thrown by a {@link CompletableFuture}
+     * @return unwrapped exception
+     */
+    public static RuntimeException unwrapCompletionException(final Throwable throwable) {
+        final Throwable cause =
+            (throwable instanceof CompletionException || throwable instanceof ExecutionException) && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+    private static final class BoundedMapping<T, R> {
+        private final List<T> inputs;
+        private final int parallelism;
+        private final Function<? super T, CompletableFuture<R>> mapper;
+
+        private final Object[] results;
+        private final CompletableFuture<List<R>> resultsPromise = new CompletableFuture<>();
+        private final AtomicInteger inFlightCount = new AtomicInteger();
+        private final AtomicInteger completedCount = new AtomicInteger();
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private int nextInputIndex; // only accessed from within `drain()`
+
+        BoundedMapping(final List<T> inputs, final int parallelism, final Function<? super T, CompletableFuture<R>> mapper) {
+            this.inputs = inputs;
+            this.parallelism = parallelism;
+            this.mapper = mapper;
+            this.results = new Object[inputs.size()];
+        }
+
+        CompletableFuture<List<R>> start() {
+            drain();
+            return resultsPromise;
+        }
+
+        // Launches invocations in a loop rather than recursively, so that synchronously completed results don't grow the stack
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int varMissed = 1;
+            while (true) {
+                while (!resultsPromise.isDone() && nextInputIndex < inputs.size() && inFlightCount.get() < parallelism) {
+                    inFlightCount.incrementAndGet();
+                    launch(nextInputIndex++);
+                }
+                varMissed = drainRequests.addAndGet(-varMissed);
+                if (varMissed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void launch(final int inputIndex) {
+            CompletableFuture<R> varResultPromise;
+            try {
+                varResultPromise = requireNonNull(mapper.apply(inputs.get(inputIndex)));
+            } catch (final IllegalArgumentException | NullPointerException e) {
+                varResultPromise = CompletableFuture.failedFuture(e);
+            }
+            varResultPromise.whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    resultsPromise.completeExceptionally(unwrapCompletionException(throwable));
+                    return;
+                }
+                results[inputIndex] = result;
+                if (completedCount.incrementAndGet() == inputs.size()) {
+                    @SuppressWarnings("unchecked")
+                    final List<R> resultsList = (List<R>) Collections.unmodifiableList(Arrays.asList(results));
+                    resultsPromise.complete(resultsList);
+                } else {
+                    inFlightCount.decrementAndGet();
+                    drain();
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,185 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.HedgingPolicy;
+
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Executes idempotent requests according to a {@link HedgingPolicy}, with a per-client hedging budget.
+ *
+ * <p>Latencies are tracked per operation, since different operations have different latency distributions. The latency
+ * of an execution is measured from its start rather than from the start of the winning attempt: when a hedge wins, the
+ * primary attempt has been at least that slow, and leaving it out would bias the tracked percentile, and hence the
+ * hedging delay, ever lower.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class Hedger {
+
+    private static final int LATENCY_SAMPLES_COUNT = 256;
+    private static final int MIN_LATENCY_SAMPLES_COUNT = 20;
+
+    private final HedgingPolicy hedgingPolicy;
+    private final TokenBudget hedgingBudget;
+    private final Map<String, LatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+
+    /**
+     * Hedger constructor.
+     *
+     * @param hedgingPolicy hedging policy
+     */
+    public Hedger(final HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = requireNonNull(hedgingPolicy);
+        this.hedgingBudget = new TokenBudget(hedgingPolicy.getBudgetRatio(), hedgingPolicy.getBudgetCapacity());
+    }
+
+    /**
+     * Executes a request, and executes a duplicate if the request has not completed within the hedging delay.
+     *
+     * <p>The result is the first successful result, or the failure if all the executed requests have failed;
+     * the request which has not completed by then is cancelled.</p>
+     *
+     * @param <T> result type
+     * @param operation name of the operation, which identifies the latency distribution
+     * @param request executes the request, must be idempotent
+     * @return result ({@link CompletableFuture promise})
+     */
+    public <T> CompletableFuture<T> execute(final String operation, final Supplier<CompletableFuture<T>> request) {
+        if (!hedgingPolicy.isEnabled()) {
+            return request.get();
+        }
+        hedgingBudget.deposit();
+        final LatencyTracker latencyTracker = latencyTrackers.computeIfAbsent(operation, key -> new LatencyTracker());
+        final HedgedExecution<T> execution = new HedgedExecution<>(request, latencyTracker);
+        execution.start(hedgingDelay(latencyTracker));
+        return execution.result;
+    }
+
+    private Duration hedgingDelay(final LatencyTracker latencyTracker) {
+        final long percentileNanos = latencyTracker.percentileNanos(hedgingPolicy.getPercentile());
+        if (percentileNanos < 0) {
+            return hedgingPolicy.getMaxDelay();
+        }
+        final Duration delay = Duration.ofNanos(percentileNanos);
+        if (delay.compareTo(hedgingPolicy.getMinDelay()) < 0) {
+            return hedgingPolicy.getMinDelay();
+        }
+        return delay.compareTo(hedgingPolicy.getMaxDelay()) > 0 ? hedgingPolicy.getMaxDelay() : delay;
+    }
+
+    private final class HedgedExecution<T> {
+        private final Supplier<CompletableFuture<T>> request;
+        private final LatencyTracker latencyTracker;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        // Guarded by `this`
+        private final List<CompletableFuture<T>> attempts = new ArrayList<>(2);
+        private int failedAttemptsCount;
+        private @Nullable Throwable firstFailure;
+
+        HedgedExecution(final Supplier<CompletableFuture<T>> request, final LatencyTracker latencyTracker) {
+            this.request = request;
+            this.latencyTracker = latencyTracker;
+        }
+
+        void start(final Duration hedgingDelay) {
+            final long startNanos = System.nanoTime();
+            result.thenRun(() -> latencyTracker.record(System.nanoTime() - startNanos));
+            result.whenComplete((value, throwable) -> cancelAttempts());
+            startAttempt();
+            CompletableFuture.delayedExecutor(hedgingDelay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (!result.isDone() && hedgingBudget.tryWithdraw()) {
+                    startAttempt();
+                }
+            });
+        }
+
+        private void startAttempt() {
+            final CompletableFuture<T> attempt = Futures.start(request);
+            synchronized (this) {
+                attempts.add(attempt);
+            }
+            attempt.whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    result.complete(value);
+                } else if (!attempt.isCancelled()) {
+                    onAttemptFailure(throwable);
+                }
+            });
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+
+        /**
+         * Fails the result if all the started attempts have failed; a failure is not hedged, retries are up to the
+         * {@link Retrier}.
+         */
+        private void onAttemptFailure(final Throwable failure) {
+            final Throwable resultFailure;
+            synchronized (this) {
+                failedAttemptsCount++;
+                if (firstFailure == null) {
+                    firstFailure = failure;
+                }
+                if (failedAttemptsCount < attempts.size()) {
+                    return;
+                }
+                resultFailure = firstFailure;
+            }
+            result.completeExceptionally(Futures.unwrapCompletionException(resultFailure));
+        }
+
+        private void cancelAttempts() {
+            final List<CompletableFuture<T>> attemptsToCancel;
+            synchronized (this) {
+                attemptsToCancel = List.copyOf(attempts);
+            }
+            attemptsToCancel.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    /**
+     * Ring buffer of the recent latencies of an operation.
+     */
+    private static final class LatencyTracker {
+        // Guarded by `this`
+        private final long[] samplesNanos = new long[LATENCY_SAMPLES_COUNT];
+        private int samplesCount;
+        private int nextSampleIndex;
+
+        synchronized void record(final long latencyNanos) {
+            samplesNanos[nextSampleIndex] = latencyNanos;
+            nextSampleIndex = (nextSampleIndex + 1) % samplesNanos.length;
+            samplesCount = Math.min(samplesCount + 1, samplesNanos.length);
+        }
+
+        /**
+         * Returns the percentile of the recent latencies, or {@code -1} if not enough latencies are known.
+         */
+        long percentileNanos(final double percentile) {
+            final long[] sortedSamplesNanos;
+            synchronized (this) {
+                if (samplesCount < MIN_LATENCY_SAMPLES_COUNT) {
+                    return -1;
+                }
+                sortedSamplesNanos = Arrays.copyOf(samplesNanos, samplesCount);
+            }
+            Arrays.sort(sortedSamplesNanos);
+            final int index = (int) Math.ceil(percentile * sortedSamplesNanos.length) - 1;
+            return sortedSamplesNanos[Math.max(0, index)];
+        }
+    }
+
+}
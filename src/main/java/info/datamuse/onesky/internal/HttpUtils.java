@@ -35,11 +35,36 @@ public final class HttpUtils {
      */
     public static final int HTTP_STATUS_CREATED = 201;
 
+    /**
+     * HTTP response status code 304 ("Not Modified").
+     */
+    public static final int HTTP_STATUS_NOT_MODIFIED = 304;
+
     /**
      * {@code Content-Type} header name.
      */
     public static final String CONTENT_TYPE_HEADER = "Content-Type";
 
+    /**
+     * {@code ETag} header name.
+     */
+    public static final String ETAG_HEADER = "ETag";
+
+    /**
+     * {@code Last-Modified} header name.
+     */
+    public static final String LAST_MODIFIED_HEADER = "Last-Modified";
+
+    /**
+     * {@code If-None-Match} header name.
+     */
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    /**
+     * {@code If-Modified-Since} header name.
+     */
+    public static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+
     private HttpUtils() {
         // Namespace
     }
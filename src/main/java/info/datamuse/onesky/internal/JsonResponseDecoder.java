@@ -0,0 +1,221 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.OneSkyApiException;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static info.datamuse.onesky.internal.JsonUtils.unexpectedJsonTypeException;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Streaming decoder of OneSky API JSON responses.
+ *
+ * <p>A OneSky API response is a JSON object of the form {@code {"meta": {...}, "data": ...}}.
+ * The decoder reads it token-by-token directly from the response body stream: the (small) {@code meta} part is
+ * read as a whole, while the {@code data} part is handed to a {@link DataDecoder}, which converts the list items
+ * one at a time. Neither the response body text nor the full JSON tree of the {@code data} list is ever held in memory.</p>
+ */
+public final class JsonResponseDecoder {
+
+    static final String RESPONSE_META_KEY = "meta";
+    static final String RESPONSE_DATA_KEY = "data";
+
+    private JsonResponseDecoder() {
+        // Namespace
+    }
+
+    /**
+     * Decoder of the {@code data} part of the response.
+     *
+     * @param <D> decoded data type
+     */
+    @FunctionalInterface
+    public interface DataDecoder<D> {
+
+        /**
+         * Decodes the JSON value at the current position of the tokener.
+         *
+         * @param tokener JSON tokener positioned before the {@code data} value
+         * @return decoded data
+         */
+        D decode(JSONTokener tokener);
+
+    }
+
+    /**
+     * Decoded OneSky API response.
+     *
+     * @param <D> decoded data type
+     */
+    public static final class Response<D> {
+        private final JSONObject meta;
+        private final @Nullable D data;
+
+        Response(final JSONObject meta, final @Nullable D data) {
+            this.meta = requireNonNull(meta);
+            this.data = data;
+        }
+
+        /**
+         * Returns the {@code meta} part of the response.
+         *
+         * @return response {@code meta} JSON
+         */
+        public JSONObject getMeta() {
+            return meta;
+        }
+
+        /**
+         * Returns the decoded {@code data} part of the response, or {@code null} if the response has no data.
+         *
+         * @return decoded response data
+         */
+        public @Nullable D getData() {
+            return data;
+        }
+    }
+
+    /**
+     * Returns a decoder of a {@code data} JSON object.
+     *
+     * @param <T> target type
+     * @param dataConverter converter of the {@code data} JSON object into the target type
+     * @return data decoder
+     */
+    public static <T> DataDecoder<T> objectDataDecoder(final Function<JSONObject, T> dataConverter) {
+        return tokener -> {
+            final Object data = tokener.nextValue();
+            if (!(data instanceof JSONObject)) {
+                throw unexpectedJsonTypeException(RESPONSE_DATA_KEY, data, JSONObject.class);
+            }
+            return dataConverter.apply((JSONObject) data);
+        };
+    }
+
+    /**
+     * Returns a decoder of a {@code data} JSON array, which converts the array items one-by-one as they are read.
+     *
+     * @param <T> target list item type
+     * @param dataItemConverter converter of the {@code data} JSON array items into the target type
+     * @return data decoder
+     */
+    public static <T> DataDecoder<List<T>> listDataDecoder(final Function<JSONObject, T> dataItemConverter) {
+        return tokener -> {
+            final char firstChar = tokener.nextClean();
+            if (firstChar != '[') {
+                tokener.back();
+                throw unexpectedJsonTypeException(RESPONSE_DATA_KEY, tokener.nextValue(), JSONArray.class);
+            }
+            final List<T> items = new ArrayList<>();
+            if (tokener.nextClean() == ']') {
+                return Collections.emptyList();
+            }
+            tokener.back();
+            while (true) {
+                final Object dataItem = tokener.nextValue();
+                if (!(dataItem instanceof JSONObject)) {
+                    throw unexpectedJsonTypeException(RESPONSE_DATA_KEY + "[].*", dataItem, JSONObject.class);
+                }
+                items.add(dataItemConverter.apply((JSONObject) dataItem));
+                final char separator = tokener.nextClean();
+                if (separator == ']') {
+                    return Collections.unmodifiableList(items);
+                }
+                if (separator != ',') {
+                    throw tokener.syntaxError("Expected a ',' or ']'");
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns a response body handler which lazily decodes the response.
+     *
+     * <p>The handler completes as soon as the response body stream is available; the returned supplier then reads and
+     * decodes the body while it is being received. The supplier must be invoked on a thread which may block.</p>
+     *
+     * @param <D> decoded data type
+     * @param dataDecoder decoder of the {@code data} part of the response
+     * @return response body handler
+     */
+    public static <D> HttpResponse.BodyHandler<Supplier<Response<D>>> bodyHandler(final DataDecoder<D> dataDecoder) {
+        return responseInfo ->
+            HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofInputStream(),
+                bodyStream -> () -> decode(bodyStream, dataDecoder)
+            );
+    }
+
+    /**
+     * Decodes a OneSky API response from the response body stream and closes the stream.
+     *
+     * @param <D> decoded data type
+     * @param bodyStream response body stream
+     * @param dataDecoder decoder of the {@code data} part of the response
+     * @return decoded response
+     */
+    public static <D> Response<D> decode(final InputStream bodyStream, final DataDecoder<D> dataDecoder) {
+        try (Reader bodyReader = new BufferedReader(new InputStreamReader(bodyStream, UTF_8))) {
+            final JSONTokener tokener = new JSONTokener(bodyReader);
+            if (tokener.nextClean() != '{') {
+                throw tokener.syntaxError("A JSONObject text must begin with '{'");
+            }
+            @Nullable JSONObject varMeta = null;
+            @Nullable D varData = null;
+            if (tokener.nextClean() != '}') {
+                tokener.back();
+                while (true) {
+                    final String key = tokener.nextValue().toString();
+                    if (tokener.nextClean() != ':') {
+                        throw tokener.syntaxError("Expected a ':' after a key");
+                    }
+                    if (RESPONSE_DATA_KEY.equals(key)) {
+                        varData = dataDecoder.decode(tokener);
+                    } else {
+                        final Object value = tokener.nextValue();
+                        if (RESPONSE_META_KEY.equals(key)) {
+                            if (!(value instanceof JSONObject)) {
+                                throw unexpectedJsonTypeException(RESPONSE_META_KEY, value, JSONObject.class);
+                            }
+                            varMeta = (JSONObject) value;
+                        }
+                    }
+                    final char separator = tokener.nextClean();
+                    if (separator == '}') {
+                        break;
+                    }
+                    if (separator != ',') {
+                        throw tokener.syntaxError("Expected a ',' or '}'");
+                    }
+                }
+            }
+            if (tokener.nextClean() != 0) {
+                throw tokener.syntaxError("Unexpected content after the response JSON object");
+            }
+            if (varMeta == null) {
+                throw new OneSkyApiException(String.format(Locale.ROOT, "API response has no `%s` part", RESPONSE_META_KEY));
+            }
+            return new Response<>(varMeta, varData);
+        } catch (final JSONException | IOException e) {
+            throw new OneSkyApiException(e);
+        }
+    }
+
+}
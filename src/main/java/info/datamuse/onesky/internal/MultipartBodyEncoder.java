@@ -1,19 +1,19 @@
 package info.datamuse.onesky.internal;
 
-import java.io.ByteArrayInputStream;
 import java.io.InputStream;
-import java.io.SequenceInputStream;
+import java.net.http.HttpRequest;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public final class MultipartBodyEncoder {
 
     private static final String LINE_FEED = "\r\n";
 
     private final String boundary;
-    private final List<InputStream> inputStreams = new ArrayList<>();
+    private final List<MultipartBodyPublisher.Part> parts = new ArrayList<>();
 
     public MultipartBodyEncoder() {
         this.boundary = "===" + System.nanoTime() + "===";
@@ -39,10 +39,77 @@ public final class MultipartBodyEncoder {
         return this;
     }
 
+    /**
+     * Adds a file part, which is read from the input stream when the body is published.
+     *
+     * @param fieldName form field name
+     * @param fileName file name
+     * @param contentType file content type
+     * @param fileInputStream file content, closed once read
+     * @param blockingExecutor executor of the blocking reads of the input stream
+     * @return this encoder
+     */
     public MultipartBodyEncoder addFilePart(final String fieldName,
                                             final String fileName,
                                             final String contentType,
-                                            final InputStream fileInputStream) {
+                                            final InputStream fileInputStream,
+                                            final Executor blockingExecutor) {
+        return addFilePart(fieldName, fileName, contentType, MultipartBodyPublisher.inputStreamPart(fileInputStream, blockingExecutor));
+    }
+
+    /**
+     * Adds a file part, which is read from the file when the body is published.
+     *
+     * @param fieldName form field name
+     * @param fileName file name
+     * @param contentType file content type
+     * @param path file path
+     * @param fileSize file size in bytes
+     * @return this encoder
+     */
+    public MultipartBodyEncoder addFilePart(final String fieldName,
+                                            final String fileName,
+                                            final String contentType,
+                                            final Path path,
+                                            final long fileSize) {
+        return addFilePart(fieldName, fileName, contentType, MultipartBodyPublisher.filePart(path, fileSize));
+    }
+
+    /**
+     * Adds a file part of in-memory content.
+     *
+     * @param fieldName form field name
+     * @param fileName file name
+     * @param contentType file content type
+     * @param fileContent file content
+     * @return this encoder
+     */
+    public MultipartBodyEncoder addFilePart(final String fieldName,
+                                            final String fileName,
+                                            final String contentType,
+                                            final byte[] fileContent) {
+        return addFilePart(fieldName, fileName, contentType, MultipartBodyPublisher.bytesPart(fileContent));
+    }
+
+    /**
+     * Returns the publisher of the encoded body; its content length is known unless the body has an input stream part.
+     *
+     * @return body publisher
+     */
+    public HttpRequest.BodyPublisher finish() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(LINE_FEED);
+        sb.append("--" + boundary + "--").append(LINE_FEED);
+
+        addPart(sb.toString());
+
+        return new MultipartBodyPublisher(parts);
+    }
+
+    private MultipartBodyEncoder addFilePart(final String fieldName,
+                                             final String fileName,
+                                             final String contentType,
+                                             final MultipartBodyPublisher.Part filePart) {
         final StringBuilder sb = new StringBuilder();
 
         sb.append("--" + boundary).append(LINE_FEED);
@@ -58,24 +125,14 @@ public final class MultipartBodyEncoder {
 
         addPart(sb.toString());
 
-        inputStreams.add(fileInputStream);
+        parts.add(filePart);
 
         addPart(LINE_FEED);
 
         return this;
     }
 
-    public InputStream finish() {
-        final StringBuilder sb = new StringBuilder();
-        sb.append(LINE_FEED);
-        sb.append("--" + boundary + "--").append(LINE_FEED);
-
-        addPart(sb.toString());
-
-        return new SequenceInputStream(Collections.enumeration(inputStreams));
-    }
-
     private void addPart(final String partAsText) {
-        inputStreams.add(new ByteArrayInputStream(partAsText.getBytes(StandardCharsets.UTF_8)));
+        parts.add(MultipartBodyPublisher.bytesPart(partAsText.getBytes(StandardCharsets.UTF_8)));
     }
 }
@@ -0,0 +1,350 @@
+package info.datamuse.onesky.internal;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * {@link HttpRequest.BodyPublisher} of a multipart body, built by {@link MultipartBodyEncoder}.
+ *
+ * <p>The body is a sequence of parts, every part being either in-memory bytes, a file, or an input stream; the bytes
+ * are published as is, and the files are read through {@link AsynchronousFileChannel}s, so that the body is not
+ * copied through an {@link InputStream}. A file or an input stream is only read on the subscriber's demand, and the
+ * reads do not block the requesting thread, e.g. a thread of the HTTP Client: the input streams are read on a blocking
+ * executor. The content length is known unless the body has an input stream part.</p>
+ *
+ * <p>The part being read is closed as soon as it has been read, or once the subscription is cancelled or failed.</p>
+ *
+ * <p>Every subscription reads the parts anew, so a body without input stream parts may be published more than once,
+ * e.g. to retry a request.</p>
+ */
+final class MultipartBodyPublisher implements HttpRequest.BodyPublisher {
+
+    static final int BUFFER_SIZE = 16 * 1024;
+
+    private final List<Part> parts;
+    private final long contentLength;
+
+    MultipartBodyPublisher(final List<Part> parts) {
+        this.parts = List.copyOf(parts);
+        long varContentLength = 0;
+        for (final Part part : this.parts) {
+            if (part.length() < 0) {
+                varContentLength = -1;
+                break;
+            }
+            varContentLength += part.length();
+        }
+        this.contentLength = varContentLength;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new PartsSubscription(subscriber, parts));
+    }
+
+    /**
+     * Part of a multipart body.
+     */
+    interface Part {
+        /**
+         * Returns the part length, or {@code -1} if unknown.
+         */
+        long length();
+
+        /**
+         * Opens a reader of the part content.
+         */
+        PartReader open() throws IOException;
+
+        /**
+         * Releases the resources of a part which is not going to be read, as the subscription has been terminated.
+         */
+        default void release() throws IOException {
+        }
+    }
+
+    /**
+     * Reader of a part content.
+     */
+    interface PartReader extends AutoCloseable {
+        /**
+         * Reads the next buffer of the content; the promise is completed with {@code null} at the end of the content.
+         */
+        CompletableFuture<ByteBuffer> read();
+
+        @Override
+        void close() throws IOException;
+    }
+
+    static Part bytesPart(final byte[] bytes) {
+        return new Part() {
+            @Override
+            public long length() {
+                return bytes.length;
+            }
+
+            @Override
+            public PartReader open() {
+                return new PartReader() {
+                    private boolean isRead;
+
+                    @Override
+                    public CompletableFuture<ByteBuffer> read() {
+                        if (isRead) {
+                            return CompletableFuture.completedFuture(null);
+                        }
+                        isRead = true;
+                        return CompletableFuture.completedFuture(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+    }
+
+    static Part filePart(final Path path, final long length) {
+        return new Part() {
+            @Override
+            public long length() {
+                return length;
+            }
+
+            @Override
+            public PartReader open() throws IOException {
+                final AsynchronousFileChannel fileChannel = AsynchronousFileChannel.open(path, READ);
+                return new PartReader() {
+                    private long position;
+
+                    @Override
+                    public CompletableFuture<ByteBuffer> read() {
+                        final CompletableFuture<ByteBuffer> read = new CompletableFuture<>();
+                        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                        fileChannel.read(buffer, position, buffer, new CompletionHandler<Integer, ByteBuffer>() {
+                            @Override
+                            public void completed(final Integer readCount, final ByteBuffer readBuffer) {
+                                if (readCount < 0) {
+                                    read.complete(null);
+                                } else {
+                                    position += readCount;
+                                    read.complete(readBuffer.flip());
+                                }
+                            }
+
+                            @Override
+                            public void failed(final Throwable throwable, final ByteBuffer readBuffer) {
+                                read.completeExceptionally(throwable);
+                            }
+                        });
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        fileChannel.close();
+                    }
+                };
+            }
+        };
+    }
+
+    static Part inputStreamPart(final InputStream inputStream, final Executor blockingExecutor) {
+        return new Part() {
+            @Override
+            public long length() {
+                return -1;
+            }
+
+            @Override
+            public void release() throws IOException {
+                inputStream.close();
+            }
+
+            @Override
+            public PartReader open() {
+                return new PartReader() {
+                    @Override
+                    public CompletableFuture<ByteBuffer> read() {
+                        final CompletableFuture<ByteBuffer> read = new CompletableFuture<>();
+                        blockingExecutor.execute(() -> {
+                            try {
+                                final byte[] bytes = inputStream.readNBytes(BUFFER_SIZE);
+                                read.complete(bytes.length == 0 ? null : ByteBuffer.wrap(bytes));
+                            } catch (final IOException e) {
+                                read.completeExceptionally(e);
+                            }
+                        });
+                        return read;
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        inputStream.close();
+                    }
+                };
+            }
+        };
+    }
+
+    private static final class PartsSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final List<Part> parts;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private volatile boolean isCancelled;
+        private volatile @Nullable Throwable requestFailure;
+
+        // Only accessed from within `drain()`
+        private int nextPartIndex;
+        private @Nullable PartReader partReader;
+        private @Nullable CompletableFuture<ByteBuffer> pendingRead;
+        private boolean isDone;
+
+        PartsSubscription(final Flow.Subscriber<? super ByteBuffer> subscriber, final List<Part> parts) {
+            this.subscriber = subscriber;
+            this.parts = parts;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                requestFailure = new IllegalArgumentException(String.format(Locale.ROOT, "Non-positive request: %d", n));
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            isCancelled = true;
+            drain();
+        }
+
+        // Emits buffers in a loop rather than recursively, so that synchronously completed reads don't grow the stack
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int varMissed = 1;
+            while (true) {
+                try {
+                    emit();
+                } catch (final IOException e) {
+                    terminate(e);
+                }
+                varMissed = drainRequests.addAndGet(-varMissed);
+                if (varMissed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void emit() throws IOException {
+            while (!isDone) {
+                final @Nullable Throwable failure = requestFailure;
+                if (isCancelled || failure != null) {
+                    terminate(failure);
+                    return;
+                }
+                if (pendingRead != null) {
+                    if (!pendingRead.isDone()) {
+                        return;
+                    }
+                    final @Nullable ByteBuffer buffer = takePendingRead();
+                    if (buffer == null) {
+                        closePartReader();
+                        continue;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(buffer);
+                    continue;
+                }
+                if (demand.get() == 0) {
+                    return;
+                }
+                if (partReader == null) {
+                    if (nextPartIndex == parts.size()) {
+                        isDone = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    partReader = parts.get(nextPartIndex++).open();
+                }
+                final CompletableFuture<ByteBuffer> read = partReader.read();
+                pendingRead = read;
+                if (!read.isDone()) {
+                    read.whenComplete((buffer, throwable) -> drain());
+                    return;
+                }
+            }
+        }
+
+        private @Nullable ByteBuffer takePendingRead() throws IOException {
+            final CompletableFuture<ByteBuffer> read = pendingRead;
+            pendingRead = null;
+            try {
+                return read.join();
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+
+        private void closePartReader() throws IOException {
+            final @Nullable PartReader closedPartReader = partReader;
+            partReader = null;
+            if (closedPartReader != null) {
+                closedPartReader.close();
+            }
+        }
+
+        /**
+         * Releases the resources, and signals the failure unless the subscription is cancelled.
+         */
+        private void terminate(final @Nullable Throwable failure) {
+            if (isDone) {
+                return;
+            }
+            isDone = true;
+            try {
+                closePartReader();
+                while (nextPartIndex < parts.size()) {
+                    parts.get(nextPartIndex++).release();
+                }
+            } catch (final IOException e) {
+                // The subscriber is being notified of a failure or has cancelled the subscription
+            }
+            if (failure != null && !isCancelled) {
+                subscriber.onError(failure);
+            }
+        }
+    }
+
+}
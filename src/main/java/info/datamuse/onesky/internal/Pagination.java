@@ -0,0 +1,287 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.Page;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static info.datamuse.onesky.internal.Futures.mapWithBoundedParallelism;
+import static info.datamuse.onesky.internal.Futures.unwrapCompletionException;
+import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+/**
+ * Utilities for traversing paginated API lists.
+ *
+ * <p>All traversals are lazy: the first page is fetched when the first item is requested, and while the items of
+ * page {@code N} are being consumed, page {@code N+1} is already being fetched. No further pages are fetched once the
+ * consumer stops.</p>
+ */
+public final class Pagination {
+
+    private static final long UNKNOWN_PAGES_COUNT = -1;
+
+    private Pagination() {
+        // Namespace
+    }
+
+    /**
+     * Returns a lazy sequential stream of the items on all pages.
+     *
+     * <p>Closing the stream cancels the prefetch of the next page, if any.</p>
+     *
+     * @param <T> item type
+     * @param pageFetcher function which fetches the page with the given number ({@code 1}-based)
+     * @return stream of items
+     */
+    public static <T> Stream<T> stream(final LongFunction<CompletableFuture<Page<T>>> pageFetcher) {
+        final PageIterator<T> iterator = new PageIterator<>(pageFetcher);
+        return
+            StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Returns a lazy publisher of the items on all pages.
+     *
+     * <p>Every subscription traverses the pages independently; pages are only fetched on demand, and the traversal
+     * stops as soon as the subscription is cancelled.</p>
+     *
+     * @param <T> item type
+     * @param pageFetcher function which fetches the page with the given number ({@code 1}-based)
+     * @return publisher of items
+     */
+    public static <T> Flow.Publisher<T> publisher(final LongFunction<CompletableFuture<Page<T>>> pageFetcher) {
+        requireNonNull(pageFetcher);
+        return subscriber -> {
+            final PageSubscription<T> subscription = new PageSubscription<>(pageFetcher, requireNonNull(subscriber));
+            subscriber.onSubscribe(subscription);
+        };
+    }
+
+    /**
+     * Fetches the items on all pages and returns a {@link CompletableFuture promise} for the list of them.
+     *
+     * <p>Once the first page tells the total number of pages, the remaining pages are fetched concurrently,
+     * with at most {@code parallelism} requests in flight; the items are merged in the page order.</p>
+     *
+     * @param <T> item type
+     * @param pageFetcher function which fetches the page with the given number ({@code 1}-based)
+     * @param parallelism maximum number of pages being fetched concurrently
+     * @return list of items on all pages (promise)
+     */
+    public static <T> CompletableFuture<List<T>> fetchAll(final LongFunction<CompletableFuture<Page<T>>> pageFetcher, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "`parallelism` must be positive, but was: %d", parallelism));
+        }
+        return pageFetcher.apply(1).thenCompose(firstPage -> {
+            final long totalPagesCount = firstPage.getTotalPagesCount();
+            if (totalPagesCount <= 1) {
+                return CompletableFuture.completedFuture(firstPage.getPageItems());
+            }
+            final List<Long> remainingPageNumbers = LongStream.rangeClosed(2, totalPagesCount).boxed().collect(toUnmodifiableList());
+            return
+                mapWithBoundedParallelism(remainingPageNumbers, parallelism, pageFetcher::apply)
+                    .thenApply(remainingPages -> {
+                        final List<T> items = new ArrayList<>(firstPage.getPageItems());
+                        remainingPages.forEach(page -> items.addAll(page.getPageItems()));
+                        return Collections.unmodifiableList(items);
+                    });
+        });
+    }
+
+    private static final class PageIterator<T> implements Iterator<T> {
+        private final LongFunction<CompletableFuture<Page<T>>> pageFetcher;
+
+        private Iterator<T> pageItems = Collections.emptyIterator();
+        private long nextPageNumber = 1;
+        private long totalPagesCount = UNKNOWN_PAGES_COUNT;
+        private @Nullable CompletableFuture<Page<T>> nextPage;
+        private boolean closed;
+
+        PageIterator(final LongFunction<CompletableFuture<Page<T>>> pageFetcher) {
+            this.pageFetcher = requireNonNull(pageFetcher);
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            while (!pageItems.hasNext()) {
+                if (closed || (totalPagesCount != UNKNOWN_PAGES_COUNT && nextPageNumber > totalPagesCount)) {
+                    return false;
+                }
+                final CompletableFuture<Page<T>> pagePromise = nextPage != null ? nextPage : pageFetcher.apply(nextPageNumber);
+                nextPage = null;
+                final Page<T> page;
+                try {
+                    page = pagePromise.join();
+                } catch (final CompletionException e) {
+                    throw unwrapCompletionException(e);
+                }
+                pageItems = page.getPageItems().iterator();
+                totalPagesCount = page.getTotalPagesCount();
+                nextPageNumber++;
+                if (nextPageNumber <= totalPagesCount) {
+                    nextPage = pageFetcher.apply(nextPageNumber);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pageItems.next();
+        }
+
+        synchronized void close() {
+            closed = true;
+            pageItems = Collections.emptyIterator();
+            if (nextPage != null) {
+                nextPage.cancel(false);
+                nextPage = null;
+            }
+        }
+    }
+
+    private static final class PageSubscription<T> implements Flow.Subscription {
+        private final LongFunction<CompletableFuture<Page<T>>> pageFetcher;
+        private final Flow.Subscriber<? super T> subscriber;
+
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile @Nullable Throwable pendingError;
+
+        // The below fields are only accessed from within `drain()`
+        private Iterator<T> pageItems = Collections.emptyIterator();
+        private long nextPageNumber = 1;
+        private long totalPagesCount = UNKNOWN_PAGES_COUNT;
+        private @Nullable CompletableFuture<Page<T>> nextPage;
+        private boolean terminated;
+
+        PageSubscription(final LongFunction<CompletableFuture<Page<T>>> pageFetcher, final Flow.Subscriber<? super T> subscriber) {
+            this.pageFetcher = pageFetcher;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                pendingError = new IllegalArgumentException("Non-positive subscription request: " + n);
+                drain();
+                return;
+            }
+            demand.getAndUpdate(currentDemand -> currentDemand + n < 0 ? Long.MAX_VALUE : currentDemand + n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                return;
+            }
+            int varMissed = 1;
+            while (true) {
+                drainOnce();
+                varMissed = drainRequests.addAndGet(-varMissed);
+                if (varMissed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void drainOnce() {
+            if (terminated) {
+                return;
+            }
+            if (cancelled) {
+                terminate();
+                return;
+            }
+            final @Nullable Throwable error = pendingError;
+            if (error != null) {
+                terminate();
+                subscriber.onError(error);
+                return;
+            }
+            while (demand.get() > 0 && pageItems.hasNext() && !cancelled) {
+                subscriber.onNext(pageItems.next());
+                demand.decrementAndGet();
+            }
+            if (pageItems.hasNext() || cancelled) {
+                return;
+            }
+            if (totalPagesCount != UNKNOWN_PAGES_COUNT && nextPageNumber > totalPagesCount) {
+                terminate();
+                subscriber.onComplete();
+                return;
+            }
+            if (nextPage == null) {
+                if (demand.get() > 0) {
+                    nextPage = fetchPage(nextPageNumber);
+                }
+                return;
+            }
+            if (!nextPage.isDone()) {
+                return;
+            }
+            final Page<T> page;
+            try {
+                page = nextPage.join();
+            } catch (final CompletionException e) {
+                terminate();
+                subscriber.onError(unwrapCompletionException(e));
+                return;
+            }
+            pageItems = page.getPageItems().iterator();
+            totalPagesCount = page.getTotalPagesCount();
+            nextPageNumber++;
+            nextPage = nextPageNumber <= totalPagesCount ? fetchPage(nextPageNumber) : null;
+            drainRequests.incrementAndGet();
+        }
+
+        private CompletableFuture<Page<T>> fetchPage(final long pageNumber) {
+            CompletableFuture<Page<T>> varPagePromise;
+            try {
+                varPagePromise = pageFetcher.apply(pageNumber);
+            } catch (final IllegalArgumentException e) {
+                varPagePromise = CompletableFuture.failedFuture(e);
+            }
+            varPagePromise.whenComplete((page, throwable) -> drain());
+            return varPagePromise;
+        }
+
+        private void terminate() {
+            terminated = true;
+            pageItems = Collections.emptyIterator();
+            if (nextPage != null) {
+                nextPage.cancel(false);
+                nextPage = null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package info.datamuse.onesky.internal;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * {@link Path} utilities.
+ */
+public final class PathUtils {
+
+    private PathUtils() {
+        // Namespace
+    }
+
+    /**
+     * Resolves the names against the directory, and checks that the resulting path is inside the directory, since the
+     * names may come from the API (e.g. a file name such as {@code ../x}, or an absolute one).
+     *
+     * @param directory base directory
+     * @param names names to resolve, in order
+     * @return normalized path inside the directory
+     * @throws IllegalArgumentException if the path is outside the directory
+     */
+    public static Path resolveWithin(final Path directory, final String... names) {
+        final Path normalizedDirectory = directory.normalize();
+        Path path = normalizedDirectory;
+        for (final String name : names) {
+            path = path.resolve(name);
+        }
+        path = path.normalize();
+        if (!path.startsWith(normalizedDirectory) || path.equals(normalizedDirectory)) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "Path is outside the directory `%s`: %s", directory, path));
+        }
+        return path;
+    }
+
+}
@@ -0,0 +1,158 @@
+package info.datamuse.onesky.internal;
+
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical in-flight requests: a request made while an identical request is in flight does not send
+ * anything, and gets the result of the in-flight request.
+ *
+ * <p>Every caller gets its own future, so that a caller cancelling its future does not affect the other callers;
+ * the shared request is cancelled once all its callers have cancelled their futures.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class RequestCoalescer {
+
+    private final Map<Object, InFlightRequest<?>> inFlightRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Executes a request, unless an identical request is in flight.
+     *
+     * @param <T> result type
+     * @param key identifies the request, must define {@code equals} and {@code hashCode}; requests with equal keys
+     *            must be interchangeable, including their result types
+     * @param request executes the request
+     * @return result ({@link CompletableFuture promise})
+     */
+    public <T> CompletableFuture<T> execute(final Object key, final Supplier<CompletableFuture<T>> request) {
+        while (true) {
+            final @Nullable InFlightRequest<T> inFlightRequest = getInFlightRequest(key);
+            if (inFlightRequest != null) {
+                final @Nullable CompletableFuture<T> result = inFlightRequest.join();
+                if (result != null) {
+                    return result;
+                }
+                // The request is completing, and is to be removed
+                inFlightRequests.remove(key, inFlightRequest);
+                continue;
+            }
+            final InFlightRequest<T> newInFlightRequest = new InFlightRequest<>(key);
+            if (inFlightRequests.putIfAbsent(key, newInFlightRequest) == null) {
+                final CompletableFuture<T> result = requireJoined(newInFlightRequest.join());
+                newInFlightRequest.start(request);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Detaches the matching in-flight requests, e.g. once the resource they read has been modified: the callers which
+     * have joined a detached request still get its result, but the later identical requests are executed anew.
+     *
+     * @param keyFilter matches the keys of the requests to detach
+     */
+    public void detach(final Predicate<Object> keyFilter) {
+        inFlightRequests.keySet().removeIf(keyFilter);
+    }
+
+    /**
+     * Returns number of in-flight requests.
+     *
+     * @return in-flight requests count
+     */
+    int getInFlightRequestsCount() {
+        return inFlightRequests.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable <T> InFlightRequest<T> getInFlightRequest(final Object key) {
+        return (InFlightRequest<T>) inFlightRequests.get(key);
+    }
+
+    private static <T> CompletableFuture<T> requireJoined(final @Nullable CompletableFuture<T> result) {
+        if (result == null) {
+            throw new IllegalStateException("A new in-flight request can not be closed");
+        }
+        return result;
+    }
+
+    private final class InFlightRequest<T> {
+        private final Object key;
+        private final CompletableFuture<T> sharedResult = new CompletableFuture<>();
+
+        // Guarded by `this`
+        private int callersCount;
+        private boolean isClosed;
+        private @Nullable CompletableFuture<T> requestPromise;
+
+        InFlightRequest(final Object key) {
+            this.key = key;
+        }
+
+        /**
+         * Joins a caller to the request, or returns {@code null} if the request is completing.
+         */
+        synchronized @Nullable CompletableFuture<T> join() {
+            if (isClosed) {
+                return null;
+            }
+            callersCount++;
+            final CompletableFuture<T> result = sharedResult.copy();
+            result.whenComplete((value, throwable) -> {
+                if (result.isCancelled()) {
+                    onCallerCancelled();
+                }
+            });
+            return result;
+        }
+
+        void start(final Supplier<CompletableFuture<T>> request) {
+            final CompletableFuture<T> promise = Futures.start(request);
+            final boolean isCancelled;
+            synchronized (this) {
+                isCancelled = isClosed;
+                requestPromise = promise;
+            }
+            if (isCancelled) {
+                promise.cancel(true);
+                return;
+            }
+            promise.whenComplete((value, throwable) -> {
+                close();
+                if (throwable == null) {
+                    sharedResult.complete(value);
+                } else {
+                    sharedResult.completeExceptionally(Futures.unwrapCompletionException(throwable));
+                }
+            });
+        }
+
+        private void onCallerCancelled() {
+            final @Nullable CompletableFuture<T> promiseToCancel;
+            synchronized (this) {
+                callersCount--;
+                if (callersCount > 0 || isClosed) {
+                    return;
+                }
+                promiseToCancel = requestPromise;
+            }
+            close();
+            if (promiseToCancel != null) {
+                promiseToCancel.cancel(true);
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                isClosed = true;
+            }
+            inFlightRequests.remove(key, this);
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.RetryPolicy;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static info.datamuse.onesky.internal.HttpUtils.HTTP_POST;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Executes HTTP requests according to a {@link RetryPolicy}, with a per-client retry budget.
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class Retrier {
+
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 500, 502, 503, 504);
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private final RetryPolicy retryPolicy;
+    private final TokenBudget retryBudget;
+
+    /**
+     * Retrier constructor.
+     *
+     * @param retryPolicy retry policy
+     */
+    public Retrier(final RetryPolicy retryPolicy) {
+        this.retryPolicy = requireNonNull(retryPolicy);
+        this.retryBudget = new TokenBudget(retryPolicy.getRetryBudgetRatio(), retryPolicy.getRetryBudgetCapacity());
+    }
+
+    /**
+     * Sends a request, and re-sends it while it fails with a transient error and the policy and the budget allow.
+     *
+     * <p>The request is re-built for every attempt, so that e.g. the authentication data is up-to-date.</p>
+     *
+     * @param <T> response body type
+     * @param httpMethod HTTP method of the request
+     * @param isReplayable whether the request body may be sent more than once
+     * @param attempt sends the request
+     * @return response of the last attempt ({@link CompletableFuture promise})
+     */
+    public <T> CompletableFuture<HttpResponse<T>> send(
+        final String httpMethod,
+        final boolean isReplayable,
+        final Supplier<CompletableFuture<HttpResponse<T>>> attempt
+    ) {
+        retryBudget.deposit();
+        final boolean isRetryable =
+            retryPolicy.getMaxAttempts() > 1 && isReplayable && (retryPolicy.isRetryingPost() || !HTTP_POST.equals(httpMethod));
+        if (!isRetryable) {
+            return attempt.get();
+        }
+        final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        sendAttempt(attempt, 1, result);
+        return result;
+    }
+
+    private <T> void sendAttempt(
+        final Supplier<CompletableFuture<HttpResponse<T>>> attempt,
+        final int attemptNumber,
+        final CompletableFuture<HttpResponse<T>> result
+    ) {
+        if (result.isDone()) {
+            return;
+        }
+        final CompletableFuture<HttpResponse<T>> attemptResponse = Futures.start(attempt);
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                attemptResponse.cancel(true);
+            }
+        });
+        attemptResponse.whenComplete((response, throwable) -> {
+            final @Nullable Duration retryDelay = retryDelay(attemptNumber, response, throwable);
+            if (retryDelay == null) {
+                if (throwable != null) {
+                    result.completeExceptionally(Futures.unwrapCompletionException(throwable));
+                } else {
+                    result.complete(response);
+                }
+                return;
+            }
+            CompletableFuture.delayedExecutor(retryDelay.toNanos(), TimeUnit.NANOSECONDS)
+                .execute(() -> sendAttempt(attempt, attemptNumber + 1, result));
+        });
+    }
+
+    /**
+     * Returns the delay before the next attempt, or {@code null} if the request must not be retried.
+     */
+    private @Nullable Duration retryDelay(
+        final int attemptNumber,
+        final @Nullable HttpResponse<?> response,
+        final @Nullable Throwable throwable
+    ) {
+        if (attemptNumber >= retryPolicy.getMaxAttempts()) {
+            return null;
+        }
+        final @Nullable Duration retryAfter;
+        if (throwable != null) {
+            if (!isIoFailure(throwable)) {
+                return null;
+            }
+            retryAfter = null;
+        } else {
+            if (!RETRYABLE_STATUSES.contains(requireNonNull(response).statusCode())) {
+                return null;
+            }
+            retryAfter = response.headers().firstValue(RETRY_AFTER_HEADER).map(Retrier::parseRetryAfter).orElse(null);
+            if (retryAfter != null && retryAfter.compareTo(retryPolicy.getMaxRetryAfter()) > 0) {
+                return null;
+            }
+        }
+        if (!retryBudget.tryWithdraw()) {
+            return null;
+        }
+        final Duration backoff = backoff(attemptNumber);
+        return retryAfter != null && retryAfter.compareTo(backoff) > 0 ? retryAfter : backoff;
+    }
+
+    private Duration backoff(final int attemptNumber) {
+        final double backoffNanos = Math.min(
+            retryPolicy.getMaxBackoff().toNanos(),
+            retryPolicy.getInitialBackoff().toNanos() * Math.pow(retryPolicy.getBackoffMultiplier(), attemptNumber - 1)
+        );
+        final double jitterFactor = 1 - retryPolicy.getJitter() * ThreadLocalRandom.current().nextDouble();
+        return Duration.ofNanos((long) (backoffNanos * jitterFactor));
+    }
+
+    /**
+     * Parses a {@code Retry-After} header value: either a number of seconds or an HTTP date.
+     */
+    static @Nullable Duration parseRetryAfter(final String retryAfter) {
+        final String value = retryAfter.trim();
+        try {
+            if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+                return Duration.ofSeconds(Long.parseLong(value));
+            }
+            final Duration delay = Duration.between(Instant.now(), ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return delay.isNegative() ? Duration.ZERO : delay;
+        } catch (final NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isIoFailure(final Throwable throwable) {
+        final Throwable cause =
+            throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof IOException;
+    }
+
+}
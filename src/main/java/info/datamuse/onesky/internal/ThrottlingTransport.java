@@ -0,0 +1,264 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.OneSkyTransport;
+
+import javax.annotation.Nullable;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Transport decorator which limits the request rate with a token bucket and the number of in-flight requests.
+ *
+ * <p>Requests which can not be sent immediately are queued and sent in the FIFO order, so that the waiting requests
+ * are served fairly; no thread is blocked while the requests are waiting. A request which is cancelled while queued is
+ * dropped from the queue.</p>
+ *
+ * <p>A request is in flight until its response body has been received or its subscription cancelled (e.g. the body
+ * stream closed), since the bodies are streamed after the response headers have arrived.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+public final class ThrottlingTransport implements OneSkyTransport {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final OneSkyTransport transport;
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private final int maxInFlightRequests;
+
+    // Guarded by `this`
+    private final Queue<PendingRequest<?>> pendingRequests = new ArrayDeque<>();
+    private double availablePermits;
+    private long lastRefillNanos;
+    private int inFlightRequests;
+    private boolean isDispatchScheduled;
+
+    /**
+     * Transport constructor.
+     *
+     * @param transport underlying transport
+     * @param requestsPerSecond maximum sustained request rate, {@link Double#POSITIVE_INFINITY} for no rate limit
+     * @param burst maximum number of requests which may be sent at once after an idle period
+     * @param maxInFlightRequests maximum number of concurrently sent requests
+     */
+    public ThrottlingTransport(
+        final OneSkyTransport transport,
+        final double requestsPerSecond,
+        final int burst,
+        final int maxInFlightRequests
+    ) {
+        if (!(requestsPerSecond > 0)) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid requests rate: %s", requestsPerSecond));
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid burst: %d", burst));
+        }
+        if (maxInFlightRequests <= 0) {
+            throw new IllegalArgumentException(String.format(Locale.ROOT, "Invalid max in-flight requests: %d", maxInFlightRequests));
+        }
+        this.transport = requireNonNull(transport);
+        this.permitsPerNano = requestsPerSecond / NANOS_PER_SECOND;
+        this.maxPermits = burst;
+        this.maxInFlightRequests = maxInFlightRequests;
+        this.availablePermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+        final PendingRequest<T> pendingRequest = new PendingRequest<>(request, responseBodyHandler);
+        synchronized (this) {
+            pendingRequests.add(pendingRequest);
+        }
+        pendingRequest.response.whenComplete((response, throwable) -> {
+            if (pendingRequest.response.isCancelled()) {
+                final boolean isRemoved;
+                synchronized (this) {
+                    isRemoved = pendingRequests.remove(pendingRequest);
+                }
+                if (!isRemoved) {
+                    pendingRequest.cancelSent();
+                }
+            }
+        });
+        dispatch();
+        return pendingRequest.response;
+    }
+
+    private void dispatch() {
+        final List<PendingRequest<?>> requestsToSend = new ArrayList<>();
+        long varDispatchDelayNanos = 0;
+        synchronized (this) {
+            while (!pendingRequests.isEmpty() && inFlightRequests < maxInFlightRequests) {
+                refillPermits();
+                if (availablePermits < 1) {
+                    varDispatchDelayNanos = (long) Math.ceil((1 - availablePermits) / permitsPerNano);
+                    break;
+                }
+                availablePermits -= 1;
+                inFlightRequests++;
+                requestsToSend.add(pendingRequests.remove());
+            }
+            if (varDispatchDelayNanos > 0 && !isDispatchScheduled) {
+                isDispatchScheduled = true;
+            } else {
+                varDispatchDelayNanos = 0;
+            }
+        }
+        if (varDispatchDelayNanos > 0) {
+            CompletableFuture.delayedExecutor(varDispatchDelayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                synchronized (this) {
+                    isDispatchScheduled = false;
+                }
+                dispatch();
+            });
+        }
+        requestsToSend.forEach(this::sendPending);
+    }
+
+    private void refillPermits() {
+        if (permitsPerNano == Double.POSITIVE_INFINITY) {
+            availablePermits = maxPermits;
+            return;
+        }
+        final long nowNanos = System.nanoTime();
+        availablePermits = Math.min(maxPermits, availablePermits + (nowNanos - lastRefillNanos) * permitsPerNano);
+        lastRefillNanos = nowNanos;
+    }
+
+    private <T> void sendPending(final PendingRequest<T> pendingRequest) {
+        final HttpResponse.BodyHandler<T> releasingBodyHandler = responseInfo -> {
+            pendingRequest.isBodySubscribed = true;
+            return new ReleasingBodySubscriber<>(pendingRequest.responseBodyHandler.apply(responseInfo), () -> release(pendingRequest));
+        };
+        // Composing on a completed future turns an exception thrown by the transport into a failed future
+        final CompletableFuture<HttpResponse<T>> sentResponse =
+            CompletableFuture.completedFuture(pendingRequest.request)
+                .thenCompose(request -> transport.send(request, releasingBodyHandler));
+        pendingRequest.setSent(sentResponse);
+        sentResponse.whenComplete((response, throwable) -> {
+            // Otherwise released once the body has been received
+            if (throwable != null || !pendingRequest.isBodySubscribed) {
+                release(pendingRequest);
+            }
+            if (throwable != null) {
+                pendingRequest.response.completeExceptionally(Futures.unwrapCompletionException(throwable));
+            } else {
+                pendingRequest.response.complete(response);
+            }
+        });
+    }
+
+    private void release(final PendingRequest<?> pendingRequest) {
+        if (pendingRequest.isReleased.compareAndSet(false, true)) {
+            synchronized (this) {
+                inFlightRequests--;
+            }
+            dispatch();
+        }
+    }
+
+    private static final class PendingRequest<T> {
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<T> responseBodyHandler;
+        private final CompletableFuture<HttpResponse<T>> response = new CompletableFuture<>();
+        private final AtomicBoolean isReleased = new AtomicBoolean();
+        private volatile @Nullable CompletableFuture<HttpResponse<T>> sentResponse;
+        private volatile boolean isBodySubscribed;
+
+        PendingRequest(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+            this.request = request;
+            this.responseBodyHandler = responseBodyHandler;
+        }
+
+        void setSent(final CompletableFuture<HttpResponse<T>> sentResponse) {
+            this.sentResponse = sentResponse;
+            if (response.isCancelled()) {
+                sentResponse.cancel(true);
+            }
+        }
+
+        void cancelSent() {
+            final @Nullable CompletableFuture<HttpResponse<T>> currentSentResponse = sentResponse;
+            if (currentSentResponse != null) {
+                currentSentResponse.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Body subscriber which runs an action once the body has been received, has failed or its subscription has been
+     * cancelled.
+     */
+    private static final class ReleasingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> bodySubscriber;
+        private final Runnable releaseAction;
+
+        ReleasingBodySubscriber(final HttpResponse.BodySubscriber<T> bodySubscriber, final Runnable releaseAction) {
+            this.bodySubscriber = bodySubscriber;
+            this.releaseAction = releaseAction;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return bodySubscriber.getBody();
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            bodySubscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    try {
+                        subscription.cancel();
+                    } finally {
+                        releaseAction.run();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void onNext(final List<ByteBuffer> item) {
+            bodySubscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            try {
+                bodySubscriber.onError(throwable);
+            } finally {
+                releaseAction.run();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                bodySubscriber.onComplete();
+            } finally {
+                releaseAction.run();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package info.datamuse.onesky.internal;
+
+/**
+ * Budget of extra work (e.g. retries or hedged requests) proportional to the regular work.
+ *
+ * <p>Every unit of regular work {@link #deposit() deposits} a fraction of a token, up to the capacity, and every unit
+ * of extra work {@link #tryWithdraw() withdraws} a whole token; the budget is initially full.</p>
+ *
+ * <p>Instances are thread-safe.</p>
+ */
+final class TokenBudget {
+
+    private final double ratio;
+    private final double capacity;
+
+    // Guarded by `this`
+    private double tokens;
+
+    /**
+     * Budget constructor.
+     *
+     * @param ratio fraction of a token deposited per unit of regular work
+     * @param capacity maximum number of tokens
+     */
+    TokenBudget(final double ratio, final double capacity) {
+        this.ratio = ratio;
+        this.capacity = capacity;
+        this.tokens = capacity;
+    }
+
+    /**
+     * Deposits a fraction of a token for a unit of regular work.
+     */
+    synchronized void deposit() {
+        tokens = Math.min(capacity, tokens + ratio);
+    }
+
+    /**
+     * Withdraws a token for a unit of extra work, if available.
+     *
+     * @return {@code true} if a token has been withdrawn, {@code false} if the budget is exhausted
+     */
+    synchronized boolean tryWithdraw() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+}
@@ -1,17 +1,33 @@
 package info.datamuse.onesky;
 
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
-import static java.net.http.HttpClient.newHttpClient;
+import static java.util.Objects.requireNonNull;
 
 public abstract class AbstractOneSkyApiTest {
 
-    private static final String TEST_API_KEY = "OythOHK5h1xF1lXelhehPvurwYOPFV1j";
-    private static final String TEST_API_SECRET = "VW4ixQsYVt86ugrKPu6eb6xVBcTiy7aj";
+    private OneSkySimulator simulator;
+
+    @BeforeEach
+    public final void startSimulator() throws IOException {
+        simulator = OneSkySimulator.builder().dataset(0, 0, 0).build();
+    }
+
+    @AfterEach
+    public final void stopSimulator() {
+        simulator.close();
+    }
 
     protected final OneSkyClient getOneSkyClient() {
-        return new OneSkyClient(TEST_API_KEY, TEST_API_SECRET, newHttpClient());
+        return OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+            .apiBaseUri(requireNonNull(simulator).getApiBaseUri())
+            .build();
     }
 
     protected static final Path pathToResourceFile(final String fileName) {
@@ -0,0 +1,210 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.AdjustableClock;
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class ImportTaskTrackerTest {
+
+    private static final PollingPolicy POLLING_POLICY =
+        PollingPolicy.builder().interval(Duration.ofMillis(10), Duration.ofMillis(50)).build();
+
+    @Test
+    public void testTrackManyProjects() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 3, 0).clock(clock).importDuration(Duration.ofMinutes(1)).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .build();
+            final List<Long> projectIds = simulator.getProjectIds(simulator.getProjectGroupIds().get(0));
+
+            final List<Long> importIds = new ArrayList<>();
+            for (final long projectId : projectIds) {
+                for (int i = 1; i <= 10; i++) {
+                    importIds.add(upload(oneSkyClient, projectId, "file-" + i + ".yml"));
+                }
+            }
+            try (ImportTaskTracker importTaskTracker = oneSkyClient.importTasks().newTracker(POLLING_POLICY)) {
+                final List<CompletableFuture<OneSkyImportTasksApi.ImportTask>> completions = new ArrayList<>();
+                for (int i = 0; i < importIds.size(); i++) {
+                    completions.add(importTaskTracker.track(projectIds.get(i / 10), importIds.get(i)));
+                }
+                assertThat(importTaskTracker.getTrackedImportCount(), is(equalTo(30)));
+                assertThat(importTaskTracker.getTrackedProjectCount(), is(equalTo(3)));
+
+                Thread.sleep(POLLING_POLICY.getMaxInterval().multipliedBy(4).toMillis());
+                final long requestCount = simulator.getRequestCount();
+                for (final long projectId : projectIds) {
+                    assertThat(simulator.getRequestCount("GET", "/projects/" + projectId + "/import-tasks"), is(greaterThanOrEqualTo(1L)));
+                }
+                Thread.sleep(POLLING_POLICY.getMaxInterval().multipliedBy(4).toMillis());
+                // At most a sweep per project per interval
+                assertThat(simulator.getRequestCount() - requestCount, is(lessThanOrEqualTo(3L * 4 + 3)));
+
+                clock.advance(Duration.ofMinutes(1));
+                CompletableFuture.allOf(completions.toArray(new CompletableFuture<?>[0])).join();
+                // Every import is retrieved once, after it has left the sweep of the imports in progress
+                for (int i = 0; i < importIds.size(); i++) {
+                    assertThat(simulator.getRequestCount("GET", "/projects/" + projectIds.get(i / 10) + "/import-tasks/" + importIds.get(i)), is(equalTo(1L)));
+                }
+                assertThat(importTaskTracker.getTrackedImportCount(), is(equalTo(0)));
+            }
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testClose() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).clock(clock).importDuration(Duration.ofMinutes(1)).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final long importId = upload(oneSkyClient, projectId, "fruits.yml");
+
+            final ImportTaskTracker importTaskTracker = oneSkyClient.importTasks().newTracker(POLLING_POLICY);
+            final CompletableFuture<OneSkyImportTasksApi.ImportTask> completion = importTaskTracker.track(projectId, importId);
+            importTaskTracker.close();
+            assertThat(completion.isCancelled(), is(true));
+            assertThrows(IllegalStateException.class, () -> importTaskTracker.track(projectId, importId));
+
+            // Polling has stopped
+            final long requestCount = simulator.getRequestCount();
+            Thread.sleep(POLLING_POLICY.getMaxInterval().multipliedBy(2).toMillis());
+            assertThat(simulator.getRequestCount(), is(equalTo(requestCount)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFailedSweep() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).clock(clock).importDuration(Duration.ofMinutes(1)).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .retryPolicy(RetryPolicy.none())
+                .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final String sweepPath = "/projects/" + projectId + "/import-tasks";
+            final long firstImportId = upload(oneSkyClient, projectId, "first.yml");
+            final long secondImportId = upload(oneSkyClient, projectId, "second.yml");
+
+            try (ImportTaskTracker importTaskTracker = oneSkyClient.importTasks().newTracker(POLLING_POLICY)) {
+                simulator.failNextRequests("GET", sweepPath, 1);
+                final CompletableFuture<OneSkyImportTasksApi.ImportTask> firstCompletion = importTaskTracker.track(projectId, firstImportId);
+                final CompletableFuture<OneSkyImportTasksApi.ImportTask> secondCompletion = importTaskTracker.track(projectId, secondImportId);
+
+                // The failed sweep is followed by another one, and the imports are still tracked
+                awaitRequestCount(simulator, sweepPath, 2);
+                assertThat(firstCompletion.isDone(), is(false));
+                assertThat(secondCompletion.isDone(), is(false));
+
+                clock.advance(Duration.ofMinutes(1));
+                assertThat(firstCompletion.join().getId(), is(equalTo(firstImportId)));
+                assertThat(secondCompletion.join().getId(), is(equalTo(secondImportId)));
+            }
+
+            // The imports fail once the sweeps have failed too many times in a row
+            final long thirdImportId = upload(oneSkyClient, projectId, "third.yml");
+            final long fourthImportId = upload(oneSkyClient, projectId, "fourth.yml");
+            final PollingPolicy failingPollingPolicy = PollingPolicy.builder()
+                .interval(POLLING_POLICY.getInitialInterval(), POLLING_POLICY.getMaxInterval())
+                .maxConsecutiveFailures(3)
+                .build();
+            try (ImportTaskTracker importTaskTracker = oneSkyClient.importTasks().newTracker(failingPollingPolicy)) {
+                simulator.failNextRequests("GET", sweepPath, 3);
+                final long sweepCount = simulator.getRequestCount("GET", sweepPath);
+                final CompletableFuture<OneSkyImportTasksApi.ImportTask> thirdCompletion = importTaskTracker.track(projectId, thirdImportId);
+                final CompletableFuture<OneSkyImportTasksApi.ImportTask> fourthCompletion = importTaskTracker.track(projectId, fourthImportId);
+
+                final CompletionException exception = assertThrows(CompletionException.class, thirdCompletion::join);
+                assertThat(exception.getCause(), is(instanceOf(OneSkyApiException.class)));
+                assertThrows(CompletionException.class, fourthCompletion::join);
+                assertThat(simulator.getRequestCount("GET", sweepPath) - sweepCount, is(equalTo(3L)));
+            }
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFailedRetrieval() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).clock(clock).importDuration(Duration.ofMinutes(1)).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .retryPolicy(RetryPolicy.none())
+                .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final long importId = upload(oneSkyClient, projectId, "single.yml");
+            final String retrievalPath = "/projects/" + projectId + "/import-tasks/" + importId;
+            final PollingPolicy failingPollingPolicy = PollingPolicy.builder()
+                .interval(POLLING_POLICY.getInitialInterval(), POLLING_POLICY.getMaxInterval())
+                .maxConsecutiveFailures(3)
+                .build();
+
+            try (ImportTaskTracker importTaskTracker = oneSkyClient.importTasks().newTracker(failingPollingPolicy)) {
+                simulator.failNextRequests("GET", retrievalPath, 2);
+                final CompletableFuture<OneSkyImportTasksApi.ImportTask> completion = importTaskTracker.track(projectId, importId);
+
+                // The failed retrievals are followed by another one, and the import is still tracked
+                awaitRequestCount(simulator, retrievalPath, 3);
+                assertThat(completion.isDone(), is(false));
+
+                clock.advance(Duration.ofMinutes(1));
+                assertThat(completion.join().getId(), is(equalTo(importId)));
+            }
+
+            // The import fails once the retrievals have failed too many times in a row
+            try (ImportTaskTracker importTaskTracker = oneSkyClient.importTasks().newTracker(failingPollingPolicy)) {
+                simulator.failNextRequests("GET", retrievalPath, 3);
+                final long retrievalCount = simulator.getRequestCount("GET", retrievalPath);
+                final CompletableFuture<OneSkyImportTasksApi.ImportTask> completion = importTaskTracker.track(projectId, importId);
+
+                final CompletionException exception = assertThrows(CompletionException.class, completion::join);
+                assertThat(exception.getCause(), is(instanceOf(OneSkyApiException.class)));
+                assertThat(simulator.getRequestCount("GET", retrievalPath) - retrievalCount, is(equalTo(3L)));
+            }
+        }
+        // }}} Test Data End
+    }
+
+    private static void awaitRequestCount(final OneSkySimulator simulator, final String path, final long count) throws InterruptedException {
+        final long deadlineNanos = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (simulator.getRequestCount("GET", path) < count && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(5);
+        }
+        assertThat(simulator.getRequestCount("GET", path), is(greaterThanOrEqualTo(count)));
+    }
+
+    private static long upload(final OneSkyClient oneSkyClient, final long projectId, final String fileName) {
+        return oneSkyClient.files()
+            .upload(projectId, OneSkyFilesApi.FileFormat.YML, fileName, "key: value\n".getBytes(UTF_8), Locale.ENGLISH)
+            .join()
+            .getImportStatus()
+            .getId();
+    }
+
+}
@@ -0,0 +1,108 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public final class MetadataMirrorTest {
+
+    @Test
+    public void testRefreshAndQuery() throws IOException {
+        // Test Data Begin {{{
+        final Path file = Files.createTempDirectory("onesky-mirror").resolve("mirror.json.gz");
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(2, 2, 2).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .retryPolicy(RetryPolicy.none())
+                .build();
+            final long projectGroupId = simulator.getProjectGroupIds().get(1);
+            final List<Long> projectIds = simulator.getProjectIds(projectGroupId);
+
+            final MetadataMirror metadataMirror = oneSkyClient.newMetadataMirror(file, 4);
+            assertThat(metadataMirror.getRefreshedAt(), is(nullValue()));
+            assertThat(metadataMirror.getProjects(), hasSize(0));
+            metadataMirror.refresh().join();
+            assertThat(metadataMirror.getRefreshedAt(), is(notNullValue()));
+            assertThat(metadataMirror.getProjectGroups(), hasSize(2));
+            assertThat(metadataMirror.getProjects(), hasSize(4));
+            assertThat(ids(metadataMirror.getProjects(projectGroupId)), is(equalTo(projectIds)));
+            assertThat(metadataMirror.getProjectGroupId(projectIds.get(0)), is(equalTo(projectGroupId)));
+            assertThat(metadataMirror.getProjectLanguages(projectIds.get(0)), hasSize(3));
+            assertThat(metadataMirror.getProjectsByLocale(Locale.GERMAN), hasSize(4));
+            assertThat(metadataMirror.getFiles(projectIds.get(0)).stream().map(OneSkyFilesApi.File::getName).collect(Collectors.toList()),
+                is(equalTo(List.of("file-1.yml", "file-2.yml"))));
+            assertThat(metadataMirror.getProjectsByFileName("file-2.yml"), hasSize(4));
+            assertThat(metadataMirror.getProjectsByFileName("fruits.yml"), hasSize(0));
+
+            // The mirror is loaded from the file without any requests
+            final long requestCount = simulator.getRequestCount();
+            final MetadataMirror loadedMetadataMirror = oneSkyClient.newMetadataMirror(file, 4);
+            assertThat(simulator.getRequestCount(), is(equalTo(requestCount)));
+            assertThat(loadedMetadataMirror.getRefreshedAt(), is(equalTo(metadataMirror.getRefreshedAt())));
+            assertThat(ids(loadedMetadataMirror.getProjects()), is(equalTo(ids(metadataMirror.getProjects()))));
+            assertThat(loadedMetadataMirror.getProjectGroup(projectGroupId), is(equalTo(metadataMirror.getProjectGroup(projectGroupId))));
+            assertThat(loadedMetadataMirror.getProjectLanguages(projectIds.get(0)).get(1).getTranslationProgress(),
+                is(equalTo(metadataMirror.getProjectLanguages(projectIds.get(0)).get(1).getTranslationProgress())));
+            assertThat(loadedMetadataMirror.getFiles(projectIds.get(0)).get(0).getImportStatus().getLastImportedAt(),
+                is(equalTo(metadataMirror.getFiles(projectIds.get(0)).get(0).getImportStatus().getLastImportedAt())));
+
+            // An unchanged project is not stored again
+            Files.setLastModifiedTime(file, FileTime.from(Instant.EPOCH));
+            loadedMetadataMirror.refreshProject(projectIds.get(0)).join();
+            assertThat(Files.getLastModifiedTime(file), is(equalTo(FileTime.from(Instant.EPOCH))));
+
+            // A changed one is
+            oneSkyClient.files().upload(projectIds.get(0), OneSkyFilesApi.FileFormat.YML, "fruits.yml", "apple: Apple\n".getBytes(UTF_8), Locale.ENGLISH).join();
+            loadedMetadataMirror.refreshProject(projectIds.get(0)).join();
+            assertThat(ids(loadedMetadataMirror.getProjectsByFileName("fruits.yml")), is(equalTo(List.of(projectIds.get(0)))));
+            assertThat(ids(oneSkyClient.newMetadataMirror(file, 4).getProjectsByFileName("fruits.yml")), is(equalTo(List.of(projectIds.get(0)))));
+
+            // A full refresh which changes nothing but the refresh time is not stored either
+            final Instant refreshedAt = loadedMetadataMirror.getRefreshedAt();
+            Files.setLastModifiedTime(file, FileTime.from(Instant.EPOCH));
+            loadedMetadataMirror.refresh().join();
+            assertThat(loadedMetadataMirror.getRefreshedAt(), is(not(equalTo(refreshedAt))));
+            assertThat(Files.getLastModifiedTime(file), is(equalTo(FileTime.from(Instant.EPOCH))));
+
+            // A project group is refreshed along with its projects only
+            loadedMetadataMirror.refreshProjectGroup(projectGroupId).join();
+            assertThat(loadedMetadataMirror.getProjects(), hasSize(4));
+
+            // A project which fails to be mirrored keeps its last mirrored state, and does not fail the refresh
+            simulator.failNextRequests("GET", "/projects/" + projectIds.get(0) + "/languages", 1);
+            oneSkyClient.files().upload(projectIds.get(0), OneSkyFilesApi.FileFormat.YML, "vegetables.yml", "carrot: Carrot\n".getBytes(UTF_8), Locale.ENGLISH).join();
+            oneSkyClient.files().upload(projectIds.get(1), OneSkyFilesApi.FileFormat.YML, "vegetables.yml", "carrot: Carrot\n".getBytes(UTF_8), Locale.ENGLISH).join();
+            final Map<Long, Throwable> projectFailures = loadedMetadataMirror.refresh().join();
+            assertThat(projectFailures.keySet(), is(equalTo(Set.of(projectIds.get(0)))));
+            assertThat(loadedMetadataMirror.getProjects(), hasSize(4));
+            assertThat(loadedMetadataMirror.getProjectLanguages(projectIds.get(0)), hasSize(3));
+            assertThat(ids(loadedMetadataMirror.getProjectsByFileName("fruits.yml")), is(equalTo(List.of(projectIds.get(0)))));
+            assertThat(ids(loadedMetadataMirror.getProjectsByFileName("vegetables.yml")), is(equalTo(List.of(projectIds.get(1)))));
+        }
+        // }}} Test Data End
+    }
+
+    private static List<Long> ids(final List<OneSkyProjectsApi.Project> projects) {
+        return projects.stream().map(OneSkyProjectsApi.Project::getId).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,201 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.sameInstance;
+
+public final class OneSkyClientTest {
+
+    @Test
+    public void testSharedApiInstances() {
+        // Test Data Begin {{{
+        final var oneSkyClient = OneSkyClient.builder("key", "secret").build();
+        assertThat(oneSkyClient.projects(), is(sameInstance(oneSkyClient.projects())));
+        assertThat(oneSkyClient.files(), is(sameInstance(oneSkyClient.files())));
+        assertThat(oneSkyClient.locales(), is(sameInstance(oneSkyClient.locales())));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testBaseUriAndTransport() {
+        // Test Data Begin {{{
+        final var transport = new StubTransport(
+            request -> StubTransport.StubResponse.json(200, "{\"meta\": {\"status\": 200, \"record_count\": 2}, \"data\": [{\"code\": \"de\"}, {\"code\": \"uk\"}]}")
+        );
+        final var oneSkyClient =
+            OneSkyClient.builder("key", "secret")
+                .apiBaseUri(URI.create("http://localhost:4711/onesky/"))
+                .transport(transport)
+                .build();
+
+        assertThat(oneSkyClient.locales().list().join(), is(equalTo(List.of(Locale.GERMAN, new Locale("uk")))));
+
+        assertThat(transport.getRequests(), hasSize(1));
+        final URI requestUri = transport.getRequests().get(0).uri();
+        assertThat(requestUri.getPath(), is(equalTo("/onesky/locales")));
+        assertThat(requestUri.getQuery(), matchesPattern("api_key=key&timestamp=\\d+&dev_hash=[0-9a-f]{32}"));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testReferenceDataCache() {
+        // Test Data Begin {{{
+        final var transport = new StubTransport(
+            request -> StubTransport.StubResponse.json(200, "{\"meta\": {\"status\": 200, \"record_count\": 1}, \"data\": [{\"code\": \"de\"}]}")
+        );
+        final var oneSkyClient =
+            OneSkyClient.builder("key", "secret")
+                .transport(transport)
+                .referenceDataCache(CachePolicy.builder().expireAfter(Duration.ofMinutes(10)).build())
+                .build();
+
+        assertThat(oneSkyClient.locales().list().join(), is(equalTo(List.of(Locale.GERMAN))));
+        assertThat(oneSkyClient.locales().list().join(), is(equalTo(List.of(Locale.GERMAN))));
+        assertThat(transport.getRequests(), hasSize(1));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testEntityCache() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().build()) {
+            final var oneSkyClient =
+                OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                    .apiBaseUri(simulator.getApiBaseUri())
+                    .entityCache(CachePolicy.builder().build())
+                    .build();
+            final long projectGroupId = simulator.getProjectGroupIds().get(0);
+            final long projectId = simulator.getProjectIds(projectGroupId).get(0);
+            final String projectPath = "/projects/" + projectId;
+
+            assertThat(oneSkyClient.projects().retrieve(projectId).join().getName(), is(equalTo(oneSkyClient.projects().retrieve(projectId).join().getName())));
+            assertThat(simulator.getRequestCount("GET", projectPath), is(equalTo(1L)));
+
+            oneSkyClient.projects().update(projectId, "Renamed", null).join();
+            assertThat(oneSkyClient.projects().retrieve(projectId).join().getName(), is(equalTo("Renamed")));
+            assertThat(simulator.getRequestCount("GET", projectPath), is(equalTo(2L)));
+            assertThat(oneSkyClient.projects().cacheStats(), is(equalTo(new CacheStats(1, 2, 0))));
+
+            final long projectCount = oneSkyClient.projectGroups().retrieve(projectGroupId).join().getProjectCount();
+            oneSkyClient.projects().create(projectGroupId, "website", "New", null).join();
+            assertThat(oneSkyClient.projectGroups().retrieve(projectGroupId).join().getProjectCount(), is(equalTo(projectCount + 1)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testRequestCoalescing() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().latency(Duration.ofMillis(200), Duration.ZERO).build()) {
+            final var oneSkyClient =
+                OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                    .apiBaseUri(simulator.getApiBaseUri())
+                    .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+
+            final List<CompletableFuture<OneSkyProjectsApi.Project>> projectPromises =
+                Stream.generate(() -> oneSkyClient.projects().retrieve(projectId)).limit(10).collect(toList());
+            projectPromises.forEach(CompletableFuture::join);
+            assertThat(simulator.getRequestCount("GET", "/projects/" + projectId), is(equalTo(1L)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testRetrieveAfterUpdateIsNotCoalescedWithEarlierRetrieve() {
+        // Test Data Begin {{{
+        final AtomicReference<String> projectName = new AtomicReference<>("Original");
+        final List<CompletableFuture<Void>> pendingProjectGets = new CopyOnWriteArrayList<>();
+        // Answers a GET-request with the state as of the request, but only once released
+        final OneSkyTransport transport = new OneSkyTransport() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+                if (!request.method().equals("GET")) {
+                    projectName.set("Renamed");
+                    return new StubTransport(stubRequest -> StubTransport.StubResponse.json(200, "")).send(request, responseBodyHandler);
+                }
+                final String body = request.uri().getPath().endsWith("/languages")
+                    ? "{\"meta\": {\"status\": 200}, \"data\": []}"
+                    : "{\"meta\": {\"status\": 200}, \"data\": {\"id\": 1, \"name\": \"" + projectName.get() + "\"}}";
+                final CompletableFuture<Void> release = new CompletableFuture<>();
+                if (!request.uri().getPath().endsWith("/languages")) {
+                    pendingProjectGets.add(release);
+                } else {
+                    release.complete(null);
+                }
+                return release.thenCompose(released ->
+                    new StubTransport(stubRequest -> StubTransport.StubResponse.json(200, body)).send(request, responseBodyHandler));
+            }
+        };
+        final var oneSkyClient =
+            OneSkyClient.builder("key", "secret")
+                .transport(transport)
+                .retryPolicy(RetryPolicy.none())
+                .entityCache(CachePolicy.builder().build())
+                .build();
+
+        final CompletableFuture<OneSkyProjectsApi.Project> earlierProject = oneSkyClient.projects().retrieve(1);
+        oneSkyClient.projects().update(1, "Renamed", null).join();
+        final CompletableFuture<OneSkyProjectsApi.Project> laterProject = oneSkyClient.projects().retrieve(1);
+        assertThat(pendingProjectGets, hasSize(2));
+
+        pendingProjectGets.forEach(release -> release.complete(null));
+        assertThat(earlierProject.join().getName(), is(equalTo("Original")));
+        assertThat(laterProject.join().getName(), is(equalTo("Renamed")));
+        // The stale project has not been cached after the update
+        assertThat(oneSkyClient.projects().retrieve(1).join().getName(), is(equalTo("Renamed")));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testListAfterUploadIsNotCoalescedWithEarlierList() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .retryPolicy(RetryPolicy.none())
+                .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final String importTasksPath = "/projects/" + projectId + "/import-tasks";
+
+            final CompletableFuture<Void> release = simulator.holdResponses("GET", importTasksPath);
+            final CompletableFuture<Page<OneSkyImportTasksApi.ImportTask>> earlierImportTasks =
+                oneSkyClient.importTasks().pagedList(projectId, null, 1, 100);
+            final long deadlineNanos = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (simulator.getRequestCount("GET", importTasksPath) < 1 && System.nanoTime() < deadlineNanos) {
+                Thread.sleep(5);
+            }
+            // The upload goes through another API wrapper than the coalesced list
+            oneSkyClient.files().upload(projectId, OneSkyFilesApi.FileFormat.YML, "uploaded.yml", "key: value\n".getBytes(UTF_8), Locale.ENGLISH).join();
+            final CompletableFuture<Page<OneSkyImportTasksApi.ImportTask>> laterImportTasks =
+                oneSkyClient.importTasks().pagedList(projectId, null, 1, 100);
+            release.complete(null);
+
+            assertThat(earlierImportTasks.join().getPageItems(), hasSize(0));
+            assertThat(laterImportTasks.join().getPageItems(), hasSize(1));
+            assertThat(simulator.getRequestCount("GET", importTasksPath), is(equalTo(2L)));
+        }
+        // }}} Test Data End
+    }
+
+}
@@ -18,7 +18,7 @@ import static org.hamcrest.Matchers.*;
 public class OneSkyFilesApiTest extends AbstractOneSkyApiTest {
 
     @Test
-    public void testCRUDProject() throws InterruptedException, IOException {
+    public void testCRUDProject() throws IOException {
         // Test Data Begin {{{
 
         final List<OneSkyProjectTypesApi.ProjectType> projectTypes = getOneSkyClient().projectTypes().list().join();
@@ -46,8 +46,8 @@ public class OneSkyFilesApiTest extends AbstractOneSkyApiTest {
         assertThat(projectFile.getImportStatus(), is(notNullValue()));
         assertThat(projectFile.getImportStatus().getLastImportedAt(), is(notNullValue()));
 
-        //needed for import completion
-        Thread.sleep(5000);
+        // Await import completion
+        oneSkyClient.importTasks().awaitCompletion(project.getId(), projectFile.getImportStatus().getId()).join();
 
         // Retrieve list of import tasks
         final Page<OneSkyImportTasksApi.ImportTask> importTasksPage = oneSkyClient.importTasks().pagedList(project.getId(), OneSkyFilesApi.FileStatus.ALL, 1L, 80L).join();
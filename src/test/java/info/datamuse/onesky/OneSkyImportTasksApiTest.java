@@ -0,0 +1,116 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.AdjustableClock;
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class OneSkyImportTasksApiTest {
+
+    private static final PollingPolicy POLLING_POLICY =
+        PollingPolicy.builder().interval(Duration.ofMillis(10), Duration.ofMillis(50)).build();
+
+    @Test
+    public void testAwaitCompletion() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).clock(clock).importDuration(Duration.ofMinutes(1)).build()) {
+            final OneSkyClient oneSkyClient = newPollingClient(simulator);
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final String importTasksPath = "/projects/" + projectId + "/import-tasks";
+
+            final long importId = upload(oneSkyClient, projectId, "fruits.yml");
+            final CompletableFuture<OneSkyImportTasksApi.ImportTask> completion = oneSkyClient.importTasks().awaitCompletion(projectId, importId);
+            awaitAtLeast(2, () -> simulator.getRequestCount("GET", importTasksPath + "/" + importId));
+            assertThat(completion.isDone(), is(false));
+
+            clock.advance(Duration.ofMinutes(1));
+            final OneSkyImportTasksApi.ImportTask importTask = completion.join();
+            assertThat(importTask.getId(), is(equalTo(importId)));
+            assertThat(importTask.getImportStatus().getStatus(), is(equalTo(OneSkyFilesApi.FileStatus.COMPLETED)));
+            assertThat(importTask.getFormat(), is(equalTo(OneSkyFilesApi.FileFormat.YML)));
+            // A single import is polled without sweeps
+            assertThat(simulator.getRequestCount("GET", importTasksPath), is(equalTo(0L)));
+
+            // An unknown import fails
+            final CompletionException e =
+                assertThrows(CompletionException.class, () -> oneSkyClient.importTasks().awaitCompletion(projectId, Long.MAX_VALUE).join());
+            assertThat(e.getCause(), is(instanceOf(OneSkyApiException.class)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testAwaitCompletionOfManyImports() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).clock(clock).importDuration(Duration.ofMinutes(1)).build()) {
+            final OneSkyClient oneSkyClient = newPollingClient(simulator);
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final String importTasksPath = "/projects/" + projectId + "/import-tasks";
+
+            final List<Long> importIds = new ArrayList<>();
+            final List<CompletableFuture<OneSkyImportTasksApi.ImportTask>> completions = new ArrayList<>();
+            for (int i = 1; i <= 5; i++) {
+                importIds.add(upload(oneSkyClient, projectId, "file-" + i + ".yml"));
+            }
+            for (final long importId : importIds) {
+                completions.add(oneSkyClient.importTasks().awaitCompletion(projectId, importId));
+            }
+            final CompletableFuture<OneSkyImportTasksApi.ImportTask> cancelledCompletion =
+                oneSkyClient.importTasks().awaitCompletion(projectId, importIds.get(0));
+            cancelledCompletion.cancel(true);
+            awaitAtLeast(3, () -> simulator.getRequestCount("GET", importTasksPath));
+
+            clock.advance(Duration.ofMinutes(1));
+            for (int i = 0; i < importIds.size(); i++) {
+                assertThat(completions.get(i).join().getId(), is(equalTo(importIds.get(i))));
+                assertThat(completions.get(i).join().getImportStatus().getStatus(), is(equalTo(OneSkyFilesApi.FileStatus.COMPLETED)));
+                // Every import is retrieved once, after it has left the sweep of the imports in progress
+                assertThat(simulator.getRequestCount("GET", importTasksPath + "/" + importIds.get(i)), is(equalTo(1L)));
+            }
+            assertThat(cancelledCompletion.isCancelled(), is(true));
+        }
+        // }}} Test Data End
+    }
+
+    private static long upload(final OneSkyClient oneSkyClient, final long projectId, final String fileName) {
+        return oneSkyClient.files()
+            .upload(projectId, OneSkyFilesApi.FileFormat.YML, fileName, "key: value\n".getBytes(UTF_8), Locale.ENGLISH)
+            .join()
+            .getImportStatus()
+            .getId();
+    }
+
+    private static void awaitAtLeast(final long expectedCount, final LongSupplier count) throws IOException, InterruptedException {
+        final Instant deadline = Instant.now().plusSeconds(10);
+        while (count.getAsLong() < expectedCount && Instant.now().isBefore(deadline)) {
+            Thread.sleep(5);
+        }
+        assertThat(count.getAsLong() >= expectedCount, is(true));
+    }
+
+    private static OneSkyClient newPollingClient(final OneSkySimulator simulator) {
+        return OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+            .apiBaseUri(simulator.getApiBaseUri())
+            .importPolling(POLLING_POLICY)
+            .build();
+    }
+
+}
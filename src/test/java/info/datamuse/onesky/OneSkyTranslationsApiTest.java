@@ -0,0 +1,171 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.AdjustableClock;
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public final class OneSkyTranslationsApiTest {
+
+    private static final int HTTP_STATUS_NOT_MODIFIED = 304;
+
+    @Test
+    public void testExportRevalidation() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-export");
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 1).exportValidators(true).build()) {
+            final OneSkyClient oneSkyClient = newRevalidatingClient(simulator);
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final Path path = directory.resolve("file-1.yml");
+
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            final byte[] content = Files.readAllBytes(path);
+            assertThat(simulator.getResponseCount(HTTP_STATUS_NOT_MODIFIED), is(equalTo(0L)));
+
+            // Unchanged translations are not downloaded again
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            assertThat(simulator.getResponseCount(HTTP_STATUS_NOT_MODIFIED), is(equalTo(1L)));
+            assertThat(Files.readAllBytes(path), is(equalTo(content)));
+
+            // Changed translations are
+            simulator.setTranslationProgress(projectId, Locale.ENGLISH, 90);
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            assertThat(simulator.getResponseCount(HTTP_STATUS_NOT_MODIFIED), is(equalTo(1L)));
+
+            // So is a modified local copy
+            Files.write(path, "modified".getBytes(UTF_8));
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            assertThat(simulator.getResponseCount(HTTP_STATUS_NOT_MODIFIED), is(equalTo(1L)));
+            assertThat(Files.readAllBytes(path), is(equalTo(content)));
+            assertThat(simulator.getRequestCount("GET", "/projects/" + projectId + "/translations"), is(equalTo(4L)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testExportRevalidationWithoutHttpValidators() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-export");
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 1).clock(clock).build()) {
+            final OneSkyClient oneSkyClient = newRevalidatingClient(simulator);
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final String translationsPath = "/projects/" + projectId + "/translations";
+            final Path path = directory.resolve("file-1.yml");
+
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            assertThat(simulator.getRequestCount("GET", translationsPath), is(equalTo(1L)));
+
+            // The fallback validator is the time of the last update of the translations
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            assertThat(simulator.getRequestCount("GET", translationsPath), is(equalTo(1L)));
+            clock.advance(Duration.ofMinutes(1));
+            simulator.setTranslationProgress(projectId, Locale.ENGLISH, 90);
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            assertThat(simulator.getRequestCount("GET", translationsPath), is(equalTo(2L)));
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", path).join();
+            assertThat(simulator.getRequestCount("GET", translationsPath), is(equalTo(2L)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testExportCache() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-export");
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 1).clock(clock).build()) {
+            final ExportCachePolicy exportCachePolicy = ExportCachePolicy.builder(directory.resolve("cache")).build();
+            final OneSkyClient oneSkyClient = newCachingClient(simulator, exportCachePolicy);
+            final OneSkyClient otherOneSkyClient = newCachingClient(simulator, exportCachePolicy);
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final String translationsPath = "/projects/" + projectId + "/translations";
+
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", directory.resolve("first.yml")).join();
+            otherOneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", directory.resolve("second.yml")).join();
+            assertThat(simulator.getRequestCount("GET", translationsPath), is(equalTo(1L)));
+            assertThat(Files.readAllBytes(directory.resolve("second.yml")), is(equalTo(Files.readAllBytes(directory.resolve("first.yml")))));
+
+            // Other translations are cached separately
+            oneSkyClient.translations().export(projectId, Locale.GERMAN, "file-1.yml", directory.resolve("third.yml")).join();
+            assertThat(simulator.getRequestCount("GET", translationsPath), is(equalTo(2L)));
+
+            // Updated translations are downloaded again
+            clock.advance(Duration.ofMinutes(1));
+            simulator.setTranslationProgress(projectId, Locale.ENGLISH, 90);
+            otherOneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", directory.resolve("second.yml")).join();
+            oneSkyClient.translations().export(projectId, Locale.ENGLISH, "file-1.yml", directory.resolve("first.yml")).join();
+            assertThat(simulator.getRequestCount("GET", translationsPath), is(equalTo(3L)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testExportAll() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-export");
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 2).build()) {
+            final OneSkyClient oneSkyClient =
+                OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                    .apiBaseUri(simulator.getApiBaseUri())
+                    .retryPolicy(RetryPolicy.none())
+                    .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+
+            final List<OneSkyTranslationsApi.ExportResult> exportResults =
+                oneSkyClient.translations().exportAll(projectId, List.of("file-1.yml", "missing.yml", "file-2.yml"), directory, 2).join();
+            assertThat(exportResults, hasSize(9));
+            assertThat(exportResults.stream().filter(OneSkyTranslationsApi.ExportResult::isSuccessful).count(), is(equalTo(6L)));
+
+            final OneSkyTranslationsApi.ExportResult failedExport = exportResults.get(3);
+            assertThat(failedExport.getFileName(), is(equalTo("missing.yml")));
+            assertThat(failedExport.getFailure(), is(instanceOf(OneSkyApiException.class)));
+
+            final OneSkyTranslationsApi.ExportResult germanExport = exportResults.stream()
+                .filter(exportResult -> exportResult.getFileName().equals("file-2.yml") && exportResult.getLocale().equals(Locale.GERMAN))
+                .findFirst()
+                .orElseThrow();
+            assertThat(germanExport.getPath(), is(equalTo(directory.resolve("de").resolve("file-2.yml"))));
+            assertThat(Files.readString(germanExport.getPath()), is(equalTo("key2: value 2\n")));
+
+            // A file name cannot escape the directory
+            final List<OneSkyTranslationsApi.ExportResult> escapingExportResults =
+                oneSkyClient.translations().exportAll(projectId, List.of("../../escaped.yml"), directory, 2).join();
+            assertThat(escapingExportResults, hasSize(3));
+            assertThat(escapingExportResults.stream().noneMatch(OneSkyTranslationsApi.ExportResult::isSuccessful), is(true));
+            assertThat(escapingExportResults.get(0).getFailure(), is(instanceOf(IllegalArgumentException.class)));
+            assertThat(Files.exists(directory.resolveSibling("escaped.yml")), is(false));
+        }
+        // }}} Test Data End
+    }
+
+    private static OneSkyClient newCachingClient(final OneSkySimulator simulator, final ExportCachePolicy exportCachePolicy) {
+        return OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+            .apiBaseUri(simulator.getApiBaseUri())
+            .exportCache(exportCachePolicy)
+            .build();
+    }
+
+    private static OneSkyClient newRevalidatingClient(final OneSkySimulator simulator) {
+        return OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+            .apiBaseUri(simulator.getApiBaseUri())
+            .exportRevalidation(true)
+            .build();
+    }
+
+}
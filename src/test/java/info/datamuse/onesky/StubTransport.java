@@ -0,0 +1,146 @@
+package info.datamuse.onesky;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * In-memory {@link OneSkyTransport} which answers the requests with stub responses and records the requests.
+ */
+public final class StubTransport implements OneSkyTransport {
+
+    private final Function<HttpRequest, StubResponse> responder;
+    private final List<HttpRequest> requests = new CopyOnWriteArrayList<>();
+
+    public StubTransport(final Function<HttpRequest, StubResponse> responder) {
+        this.responder = responder;
+    }
+
+    public List<HttpRequest> getRequests() {
+        return requests;
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+        requests.add(request);
+        final StubResponse stubResponse = responder.apply(request);
+        final HttpHeaders headers = HttpHeaders.of(stubResponse.headers, (name, value) -> true);
+        final HttpResponse.BodySubscriber<T> bodySubscriber = responseBodyHandler.apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return stubResponse.status;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        });
+        final AtomicBoolean bodySent = new AtomicBoolean();
+        bodySubscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(final long n) {
+                if (n > 0 && bodySent.compareAndSet(false, true)) {
+                    bodySubscriber.onNext(List.of(ByteBuffer.wrap(stubResponse.body.getBytes(UTF_8))));
+                    bodySubscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+                bodySent.set(true);
+            }
+        });
+        return bodySubscriber.getBody().toCompletableFuture().thenApply(body -> new StubHttpResponse<>(request, stubResponse.status, headers, body));
+    }
+
+    public static final class StubResponse {
+        private final int status;
+        private final String body;
+        private final Map<String, List<String>> headers;
+
+        public StubResponse(final int status, final String body, final Map<String, List<String>> headers) {
+            this.status = status;
+            this.body = body;
+            this.headers = headers;
+        }
+
+        public static StubResponse json(final int status, final String body) {
+            return new StubResponse(status, body, Map.of("Content-Type", List.of("application/json")));
+        }
+    }
+
+    private static final class StubHttpResponse<T> implements HttpResponse<T> {
+        private final HttpRequest request;
+        private final int status;
+        private final HttpHeaders headers;
+        private final T body;
+
+        StubHttpResponse(final HttpRequest request, final int status, final HttpHeaders headers, final T body) {
+            this.request = request;
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return status;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return request;
+        }
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return headers;
+        }
+
+        @Override
+        public T body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return request.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
+
+}
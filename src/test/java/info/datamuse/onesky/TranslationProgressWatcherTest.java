@@ -0,0 +1,173 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.AdjustableClock;
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class TranslationProgressWatcherTest {
+
+    private static final PollingPolicy POLLING_POLICY =
+        PollingPolicy.builder().interval(Duration.ofMillis(10), Duration.ofMillis(50)).build();
+
+    @Test
+    public void testWatch() throws IOException, InterruptedException {
+        // Test Data Begin {{{
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).clock(clock).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+
+            try (TranslationProgressWatcher progressWatcher = oneSkyClient.translations().newProgressWatcher(POLLING_POLICY)) {
+                final ChangeSubscriber subscriber = new ChangeSubscriber();
+                progressWatcher.watch(projectId).subscribe(subscriber);
+
+                // The current state comes first
+                assertThat(subscriber.takeLocales(3), is(equalTo(Set.of(Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH))));
+                assertThat(subscriber.changes.poll(200, TimeUnit.MILLISECONDS), is(nullValue()));
+
+                // Then only the changes
+                clock.advance(Duration.ofMinutes(1));
+                simulator.setTranslationProgress(projectId, Locale.GERMAN, 80);
+                final TranslationProgressWatcher.ProgressChange change = subscriber.changes.poll(10, TimeUnit.SECONDS);
+                assertThat(change, is(notNullValue()));
+                assertThat(change.getLocale(), is(equalTo(Locale.GERMAN)));
+                assertThat(change.getPrevious().getTranslationProgress(), is(equalTo((short) 50)));
+                assertThat(change.getCurrent().getTranslationProgress(), is(equalTo((short) 80)));
+                assertThat(subscriber.changes.poll(200, TimeUnit.MILLISECONDS), is(nullValue()));
+
+                // Later subscribers share the poll, and receive the current state too
+                final ChangeSubscriber laterSubscriber = new ChangeSubscriber();
+                progressWatcher.watch(projectId).subscribe(laterSubscriber);
+                assertThat(laterSubscriber.takeLocales(3), is(equalTo(Set.of(Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH))));
+                assertThat(progressWatcher.getWatchedProjectCount(), is(equalTo(1)));
+
+                // A project without subscribers is not polled
+                subscriber.subscription.join().cancel();
+                laterSubscriber.subscription.join().cancel();
+                Thread.sleep(POLLING_POLICY.getMaxInterval().multipliedBy(3).toMillis());
+                assertThat(progressWatcher.getWatchedProjectCount(), is(equalTo(0)));
+                final long requestCount = simulator.getRequestCount();
+                Thread.sleep(POLLING_POLICY.getMaxInterval().multipliedBy(2).toMillis());
+                assertThat(simulator.getRequestCount(), is(equalTo(requestCount)));
+            }
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testClose() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+
+            final TranslationProgressWatcher progressWatcher = oneSkyClient.translations().newProgressWatcher(POLLING_POLICY);
+            final ChangeSubscriber subscriber = new ChangeSubscriber();
+            progressWatcher.watch(projectId).subscribe(subscriber);
+            subscriber.takeLocales(3);
+            progressWatcher.close();
+            subscriber.completion.get(10, TimeUnit.SECONDS);
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFailedPolls() throws IOException, InterruptedException, TimeoutException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .retryPolicy(RetryPolicy.none())
+                .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final String languagesPath = "/projects/" + projectId + "/languages";
+            final PollingPolicy pollingPolicy = PollingPolicy.builder()
+                .interval(POLLING_POLICY.getInitialInterval(), POLLING_POLICY.getMaxInterval())
+                .maxConsecutiveFailures(3)
+                .build();
+
+            try (TranslationProgressWatcher progressWatcher = oneSkyClient.translations().newProgressWatcher(pollingPolicy)) {
+                // Fewer failed polls than the max are retried
+                simulator.failNextRequests("GET", languagesPath, 2);
+                final ChangeSubscriber subscriber = new ChangeSubscriber();
+                progressWatcher.watch(projectId).subscribe(subscriber);
+                assertThat(subscriber.takeLocales(3), is(equalTo(Set.of(Locale.ENGLISH, Locale.GERMAN, Locale.FRENCH))));
+                assertThat(subscriber.completion.isDone(), is(false));
+                assertThat(simulator.getRequestCount("GET", languagesPath), is(greaterThanOrEqualTo(3L)));
+
+                // As many as the max fail the subscribers
+                simulator.failNextRequests("GET", languagesPath, 3);
+                final ExecutionException exception = assertThrows(ExecutionException.class, () -> subscriber.completion.get(10, TimeUnit.SECONDS));
+                assertThat(exception.getCause(), is(instanceOf(OneSkyApiException.class)));
+                assertThat(progressWatcher.getWatchedProjectCount(), is(equalTo(0)));
+            }
+        }
+        // }}} Test Data End
+    }
+
+    private static final class ChangeSubscriber implements Flow.Subscriber<TranslationProgressWatcher.ProgressChange> {
+        private final BlockingQueue<TranslationProgressWatcher.ProgressChange> changes = new LinkedBlockingQueue<>();
+        private final CompletableFuture<Flow.Subscription> subscription = new CompletableFuture<>();
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription.complete(subscription);
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final TranslationProgressWatcher.ProgressChange item) {
+            changes.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            completion.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completion.complete(null);
+        }
+
+        Set<Locale> takeLocales(final int count) throws InterruptedException {
+            final Set<Locale> locales = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                final TranslationProgressWatcher.ProgressChange change = changes.poll(10, TimeUnit.SECONDS);
+                assertThat(change, is(notNullValue()));
+                assertThat(change.getPrevious(), is(nullValue()));
+                locales.add(change.getLocale());
+            }
+            return locales;
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package info.datamuse.onesky;
+
+import info.datamuse.onesky.simulator.AdjustableClock;
+import info.datamuse.onesky.simulator.OneSkySimulator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+public final class TranslationSyncTest {
+
+    @Test
+    public void testSync() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-sync");
+        final AdjustableClock clock = new AdjustableClock(Instant.parse("2020-01-01T00:00:00Z"));
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 2, 2).clock(clock).build()) {
+            final OneSkyClient oneSkyClient = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                .apiBaseUri(simulator.getApiBaseUri())
+                .build();
+            final long projectGroupId = simulator.getProjectGroupIds().get(0);
+            final List<Long> projectIds = simulator.getProjectIds(projectGroupId);
+            final TranslationSync translationSync = oneSkyClient.newTranslationSync(directory, 4);
+
+            final TranslationSync.SyncReport firstReport = translationSync.syncProjectGroup(projectGroupId).join();
+            assertThat(firstReport.isSuccessful(), is(true));
+            assertThat(firstReport.getProjectCount(), is(equalTo(2)));
+            assertThat(firstReport.getCheckedCount(), is(equalTo(12)));
+            assertThat(firstReport.getExportResults(), hasSize(12));
+            final Path germanPath = directory.resolve(projectIds.get(0).toString()).resolve("de").resolve("file-2.yml");
+            assertThat(Files.readString(germanPath), is(equalTo("key2: value 2\n")));
+
+            // Unchanged translations are not exported again; the French translations have never been updated, so
+            // their last update time is unknown, and they are exported by every run
+            final TranslationSync.SyncReport secondReport = translationSync.sync(projectIds).join();
+            assertThat(secondReport.getCheckedCount(), is(equalTo(12)));
+            assertThat(secondReport.getExportResults(), hasSize(4));
+            assertThat(secondReport.getExportResults().stream().allMatch(exportResult -> exportResult.getLocale().equals(Locale.FRENCH)), is(true));
+
+            // Updated translations are, and so are missing local copies
+            clock.advance(Duration.ofMinutes(1));
+            simulator.setTranslationProgress(projectIds.get(1), Locale.GERMAN, 90);
+            Files.delete(germanPath);
+            final TranslationSync.SyncReport thirdReport = translationSync.sync(projectIds).join();
+            assertThat(thirdReport.getExportResults(), hasSize(3 + 4));
+            assertThat(Files.exists(germanPath), is(true));
+
+            // The checkpoint is kept in the directory
+            final TranslationSync.SyncReport fourthReport = oneSkyClient.newTranslationSync(directory, 4).sync(projectIds).join();
+            assertThat(fourthReport.getExportResults(), hasSize(4));
+
+            // A failed project does not fail the others
+            final TranslationSync.SyncReport fifthReport = translationSync.sync(List.of(projectIds.get(0), Long.MAX_VALUE)).join();
+            assertThat(fifthReport.isSuccessful(), is(false));
+            assertThat(fifthReport.getCheckedCount(), is(equalTo(6)));
+            assertThat(fifthReport.getProjectFailures().keySet(), is(equalTo(Set.of(Long.MAX_VALUE))));
+
+            // A file name can not escape the directory
+            oneSkyClient.files().upload(projectIds.get(0), OneSkyFilesApi.FileFormat.YML, "../../../escaped.yml", "key: value\n".getBytes(UTF_8), Locale.ENGLISH).join();
+            final TranslationSync.SyncReport sixthReport = translationSync.sync(List.of(projectIds.get(0))).join();
+            final List<OneSkyTranslationsApi.ExportResult> escapingExportResults = sixthReport.getExportResults().stream()
+                .filter(exportResult -> exportResult.getFileName().equals("../../../escaped.yml"))
+                .collect(Collectors.toList());
+            assertThat(escapingExportResults, hasSize(3));
+            assertThat(escapingExportResults.get(0).getFailure(), is(instanceOf(IllegalArgumentException.class)));
+            assertThat(Files.exists(directory.resolveSibling("escaped.yml")), is(false));
+        }
+        // }}} Test Data End
+    }
+
+}
@@ -0,0 +1,74 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.HedgingPolicy;
+import info.datamuse.onesky.OneSkyTransport;
+import info.datamuse.onesky.RetryPolicy;
+import info.datamuse.onesky.StubTransport;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public final class AbstractOneSkyApiRequestTest {
+
+    private static final String TRANSPORT_THREAD_NAME = "transport";
+
+    @Test
+    public void testResponseIsDecodedOnBlockingExecutor() {
+        // Test Data Begin {{{
+        final StubTransport stubTransport = new StubTransport(
+            request -> StubTransport.StubResponse.json(200, "{\"meta\": {\"status\": 200}, \"data\": [{\"code\": \"de\"}, {\"code\": \"uk\"}]}")
+        );
+        final ExecutorService transportExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, TRANSPORT_THREAD_NAME));
+        try {
+            // Completes the responses on a thread of its own, as the HTTP Client does
+            final OneSkyTransport transport = new OneSkyTransport() {
+                @Override
+                public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+                    return CompletableFuture.supplyAsync(() -> stubTransport.send(request, responseBodyHandler).join(), transportExecutor);
+                }
+            };
+            final TestApi api = new TestApi(
+                new ApiContext("key", "secret", URI.create("http://localhost/"), transport, RetryPolicy.none(), HedgingPolicy.none())
+            );
+
+            final List<String> decodingThreadNames = new CopyOnWriteArrayList<>();
+            api.list(json -> {
+                decodingThreadNames.add(Thread.currentThread().getName());
+                return json.getString("code");
+            }).join();
+
+            assertThat(decodingThreadNames, hasSize(2));
+            assertThat(decodingThreadNames, everyItem(startsWith("onesky-blocking-")));
+        } finally {
+            transportExecutor.shutdown();
+        }
+        // }}} Test Data End
+    }
+
+    private static final class TestApi extends AbstractOneSkyApi {
+        TestApi(final ApiContext apiContext) {
+            super(apiContext);
+        }
+
+        <T> CompletableFuture<List<T>> list(final Function<JSONObject, T> converter) {
+            return apiGetListRequest("/items", "/items", Map.of(), converter);
+        }
+    }
+
+}
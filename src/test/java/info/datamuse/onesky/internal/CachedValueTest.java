@@ -0,0 +1,125 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.CachePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class CachedValueTest {
+
+    private static final long SECOND_NANOS = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    public void testSingleFlightAndExpiration() {
+        // Test Data Begin {{{
+        final AtomicLong nanoTime = new AtomicLong();
+        final List<CompletableFuture<String>> loads = new CopyOnWriteArrayList<>();
+        final CachedValue<String> cachedValue = new CachedValue<>(
+            recordingLoader(loads),
+            CachePolicy.builder().expireAfter(Duration.ofSeconds(10)).build(),
+            nanoTime::get
+        );
+
+        final CompletableFuture<String> first = cachedValue.get();
+        final CompletableFuture<String> second = cachedValue.get();
+        assertThat(loads, hasSize(1));
+        loads.get(0).complete("v1");
+        assertThat(first.join(), is(equalTo("v1")));
+        assertThat(second.join(), is(equalTo("v1")));
+
+        nanoTime.set(9 * SECOND_NANOS);
+        assertThat(cachedValue.get().join(), is(equalTo("v1")));
+        assertThat(loads, hasSize(1));
+
+        nanoTime.set(10 * SECOND_NANOS);
+        final CompletableFuture<String> expired = cachedValue.get();
+        assertThat(expired.isDone(), is(false));
+        assertThat(loads, hasSize(2));
+        loads.get(1).complete("v2");
+        assertThat(expired.join(), is(equalTo("v2")));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testRefreshAhead() {
+        // Test Data Begin {{{
+        final AtomicLong nanoTime = new AtomicLong();
+        final List<CompletableFuture<String>> loads = new CopyOnWriteArrayList<>();
+        final CachedValue<String> cachedValue = new CachedValue<>(
+            recordingLoader(loads),
+            CachePolicy.builder().expireAfter(Duration.ofSeconds(10)).refreshAfter(Duration.ofSeconds(5)).build(),
+            nanoTime::get
+        );
+        cachedValue.get();
+        loads.get(0).complete("v1");
+
+        nanoTime.set(6 * SECOND_NANOS);
+        assertThat(cachedValue.get().join(), is(equalTo("v1")));
+        assertThat(cachedValue.get().join(), is(equalTo("v1")));
+        assertThat(loads, hasSize(2));
+
+        // A failed refresh keeps the cached value
+        loads.get(1).completeExceptionally(new IOException("refresh"));
+        assertThat(cachedValue.get().join(), is(equalTo("v1")));
+        assertThat(loads, hasSize(3));
+        loads.get(2).complete("v2");
+        assertThat(cachedValue.get().join(), is(equalTo("v2")));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFailureAndInvalidation() {
+        // Test Data Begin {{{
+        final List<CompletableFuture<String>> loads = new CopyOnWriteArrayList<>();
+        final CachedValue<String> cachedValue = new CachedValue<>(recordingLoader(loads), CachePolicy.builder().build());
+
+        final CompletableFuture<String> failed = cachedValue.get();
+        loads.get(0).completeExceptionally(new IOException("load"));
+        assertThrows(CompletionException.class, failed::join);
+
+        final CompletableFuture<String> loaded = cachedValue.get();
+        // Cancelling a caller's future does not cancel the shared load
+        cachedValue.get().cancel(true);
+        loads.get(1).complete("v1");
+        assertThat(loaded.join(), is(equalTo("v1")));
+
+        cachedValue.invalidate();
+        cachedValue.get();
+        assertThat(loads, hasSize(3));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testDisabledPolicy() {
+        // Test Data Begin {{{
+        final List<CompletableFuture<String>> loads = new CopyOnWriteArrayList<>();
+        final CachedValue<String> cachedValue = new CachedValue<>(recordingLoader(loads), CachePolicy.none());
+
+        cachedValue.get();
+        cachedValue.get();
+        assertThat(loads, hasSize(2));
+        // }}} Test Data End
+    }
+
+    private static Supplier<CompletableFuture<String>> recordingLoader(final List<CompletableFuture<String>> loads) {
+        return () -> {
+            final CompletableFuture<String> load = new CompletableFuture<>();
+            loads.add(load);
+            return load;
+        };
+    }
+
+}
@@ -0,0 +1,122 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.CachePolicy;
+import info.datamuse.onesky.CacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class EntityCacheTest {
+
+    private static final long SECOND_NANOS = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    public void testHitsMissesAndExpiration() {
+        // Test Data Begin {{{
+        final AtomicLong nanoTime = new AtomicLong();
+        final Map<Long, List<CompletableFuture<String>>> loads = new ConcurrentHashMap<>();
+        final EntityCache<Long, String> cache =
+            new EntityCache<>(CachePolicy.builder().expireAfter(Duration.ofSeconds(10)).build(), nanoTime::get);
+
+        final CompletableFuture<String> first = cache.get(1L, recordingLoader(loads));
+        final CompletableFuture<String> second = cache.get(1L, recordingLoader(loads));
+        assertThat(loads.get(1L), hasSize(1));
+        loads.get(1L).get(0).complete("one");
+        assertThat(first.join(), is(equalTo("one")));
+        assertThat(second.join(), is(equalTo("one")));
+
+        nanoTime.set(10 * SECOND_NANOS);
+        cache.get(1L, recordingLoader(loads));
+        assertThat(loads.get(1L), hasSize(2));
+        assertThat(cache.stats(), is(equalTo(new CacheStats(1, 2, 0))));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        // Test Data Begin {{{
+        final Map<Long, List<CompletableFuture<String>>> loads = new ConcurrentHashMap<>();
+        final EntityCache<Long, String> cache = new EntityCache<>(CachePolicy.builder().maximumSize(2).build());
+
+        cache.get(1L, recordingLoader(loads));
+        cache.get(2L, recordingLoader(loads));
+        cache.get(1L, recordingLoader(loads));
+        cache.get(3L, recordingLoader(loads));
+        cache.get(1L, recordingLoader(loads));
+        assertThat(loads.get(1L), hasSize(1));
+        cache.get(2L, recordingLoader(loads));
+        assertThat(loads.get(2L), hasSize(2));
+        assertThat(cache.stats(), is(equalTo(new CacheStats(2, 4, 2))));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testInvalidation() {
+        // Test Data Begin {{{
+        final Map<Long, List<CompletableFuture<String>>> loads = new ConcurrentHashMap<>();
+        final EntityCache<Long, String> cache = new EntityCache<>(CachePolicy.builder().build());
+
+        // An entity invalidated while being loaded is not cached
+        final CompletableFuture<String> stale = cache.get(1L, recordingLoader(loads));
+        cache.invalidate(1L);
+        loads.get(1L).get(0).complete("stale");
+        assertThat(stale.join(), is(equalTo("stale")));
+        cache.get(1L, recordingLoader(loads));
+        assertThat(loads.get(1L), hasSize(2));
+
+        cache.invalidateAll();
+        cache.get(1L, recordingLoader(loads));
+        assertThat(loads.get(1L), hasSize(3));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFailureAndRefreshAhead() {
+        // Test Data Begin {{{
+        final AtomicLong nanoTime = new AtomicLong();
+        final Map<Long, List<CompletableFuture<String>>> loads = new ConcurrentHashMap<>();
+        final EntityCache<Long, String> cache = new EntityCache<>(
+            CachePolicy.builder().expireAfter(Duration.ofSeconds(10)).refreshAfter(Duration.ofSeconds(5)).build(),
+            nanoTime::get
+        );
+
+        final CompletableFuture<String> failed = cache.get(1L, recordingLoader(loads));
+        loads.get(1L).get(0).completeExceptionally(new IOException("load"));
+        assertThrows(CompletionException.class, failed::join);
+
+        cache.get(1L, recordingLoader(loads));
+        loads.get(1L).get(1).complete("v1");
+
+        nanoTime.set(6 * SECOND_NANOS);
+        assertThat(cache.get(1L, recordingLoader(loads)).join(), is(equalTo("v1")));
+        assertThat(cache.get(1L, recordingLoader(loads)).join(), is(equalTo("v1")));
+        assertThat(loads.get(1L), hasSize(3));
+        loads.get(1L).get(2).complete("v2");
+        assertThat(cache.get(1L, recordingLoader(loads)).join(), is(equalTo("v2")));
+        // }}} Test Data End
+    }
+
+    private static Function<Long, CompletableFuture<String>> recordingLoader(final Map<Long, List<CompletableFuture<String>>> loads) {
+        return key -> {
+            final CompletableFuture<String> load = new CompletableFuture<>();
+            loads.computeIfAbsent(key, k -> new CopyOnWriteArrayList<>()).add(load);
+            return load;
+        };
+    }
+
+}
@@ -0,0 +1,111 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.ExportCachePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public final class ExportCacheTest {
+
+    private static final Executor BLOCKING_EXECUTOR = Runnable::run;
+
+    @Test
+    public void testPutAndCopy() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-export-cache");
+        final ExportCache exportCache = new ExportCache(ExportCachePolicy.builder(directory.resolve("cache")).build(), BLOCKING_EXECUTOR);
+        final List<String> key = List.of("1", "en", "file.yml", "", "2020-01-01T00:00:00Z");
+
+        assertThat(exportCache.copyTo(key, directory.resolve("miss.yml")).join(), is(false));
+        assertThat(Files.exists(directory.resolve("miss.yml")), is(false));
+
+        exportCache.put(key, download(exportCache, "content"), directory.resolve("first.yml")).join();
+        assertThat(Files.readString(directory.resolve("first.yml")), is(equalTo("content")));
+
+        // Another cache instance shares the directory
+        final ExportCache sharedExportCache = new ExportCache(ExportCachePolicy.builder(directory.resolve("cache")).build(), BLOCKING_EXECUTOR);
+        assertThat(sharedExportCache.copyTo(key, directory.resolve("second.yml")).join(), is(true));
+        assertThat(Files.readString(directory.resolve("second.yml")), is(equalTo("content")));
+
+        // A copy is independent of the cached file
+        Files.writeString(directory.resolve("second.yml"), "modified");
+        assertThat(exportCache.copyTo(key, directory.resolve("third.yml")).join(), is(true));
+        assertThat(Files.readString(directory.resolve("third.yml")), is(equalTo("content")));
+        assertThat(exportCache.copyTo(List.of("1", "de", "file.yml", "", "2020-01-01T00:00:00Z"), directory.resolve("other.yml")).join(), is(false));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-export-cache");
+        final ExportCache exportCache = new ExportCache(ExportCachePolicy.builder(directory.resolve("cache")).maximumSize(10).build(), BLOCKING_EXECUTOR);
+        final List<String> firstKey = List.of("1");
+        final List<String> secondKey = List.of("2");
+        final List<String> thirdKey = List.of("3");
+
+        exportCache.put(firstKey, download(exportCache, "first"), directory.resolve("first.txt")).join();
+        exportCache.put(secondKey, download(exportCache, "secnd"), directory.resolve("second.txt")).join();
+        // The access time is the modification time of the access file, which may be coarse
+        setAccessTime(directory.resolve("cache"), 0);
+        exportCache.copyTo(firstKey, directory.resolve("first.txt")).join();
+        exportCache.put(thirdKey, download(exportCache, "third"), directory.resolve("third.txt")).join();
+
+        assertThat(exportCache.copyTo(firstKey, directory.resolve("first.txt")).join(), is(true));
+        assertThat(exportCache.copyTo(secondKey, directory.resolve("second.txt")).join(), is(false));
+        assertThat(exportCache.copyTo(thirdKey, directory.resolve("third.txt")).join(), is(true));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testLinkFiles() throws IOException {
+        // Test Data Begin {{{
+        final Path directory = Files.createTempDirectory("onesky-export-cache");
+        final ExportCache exportCache = new ExportCache(ExportCachePolicy.builder(directory.resolve("cache")).linkFiles(true).build(), BLOCKING_EXECUTOR);
+        final List<String> key = List.of("1");
+
+        Files.writeString(directory.resolve("existing.txt"), "existing");
+        exportCache.put(key, download(exportCache, "content"), directory.resolve("existing.txt")).join();
+        assertThat(exportCache.copyTo(key, directory.resolve("linked.txt")).join(), is(true));
+        assertThat(Files.readString(directory.resolve("existing.txt")), is(equalTo("content")));
+        assertThat(Files.isSameFile(directory.resolve("existing.txt"), directory.resolve("linked.txt")), is(true));
+        assertThat(Files.readString(directory.resolve("linked.txt")), is(equalTo("content")));
+
+        // A lookup does not touch the modification time of the linked targets
+        Files.setLastModifiedTime(directory.resolve("existing.txt"), FileTime.from(Instant.EPOCH));
+        assertThat(exportCache.copyTo(key, directory.resolve("relinked.txt")).join(), is(true));
+        assertThat(Files.getLastModifiedTime(directory.resolve("existing.txt")), is(equalTo(FileTime.from(Instant.EPOCH))));
+
+        // A file written by other means than the cache does not modify the cached file through its link
+        exportCache.unlinkTarget(directory.resolve("linked.txt")).join();
+        Files.writeString(directory.resolve("linked.txt"), "modified");
+        assertThat(exportCache.copyTo(key, directory.resolve("copied.txt")).join(), is(true));
+        assertThat(Files.readString(directory.resolve("copied.txt")), is(equalTo("content")));
+        assertThat(Files.readString(directory.resolve("existing.txt")), is(equalTo("content")));
+        // }}} Test Data End
+    }
+
+    private static Path download(final ExportCache exportCache, final String content) throws IOException {
+        return Files.write(exportCache.newDownloadFile(), content.getBytes(UTF_8));
+    }
+
+    private static void setAccessTime(final Path cacheDirectory, final long epochSecond) throws IOException {
+        try (var files = Files.list(cacheDirectory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(epochSecond)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,154 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.HedgingPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class HedgerTest {
+
+    private static final Duration HEDGING_DELAY = Duration.ofMillis(20);
+    private static final String OPERATION = "test";
+
+    @Test
+    public void testHedgeWins() throws InterruptedException {
+        // Test Data Begin {{{
+        final Hedger hedger = new Hedger(policy(0, 1));
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute(OPERATION, recordingRequest(attempts));
+        assertThat(attempts, hasSize(1));
+        awaitAttempts(attempts, 2);
+
+        attempts.get(1).complete("hedge");
+        assertThat(result.join(), is(equalTo("hedge")));
+        assertThat(attempts.get(0).isCancelled(), is(true));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFastRequestIsNotHedged() throws InterruptedException {
+        // Test Data Begin {{{
+        final Hedger hedger = new Hedger(policy(0, 1));
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute(OPERATION, recordingRequest(attempts));
+        attempts.get(0).complete("primary");
+        assertThat(result.join(), is(equalTo("primary")));
+
+        Thread.sleep(HEDGING_DELAY.multipliedBy(3).toMillis());
+        assertThat(attempts, hasSize(1));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testHedgingBudget() throws InterruptedException {
+        // Test Data Begin {{{
+        final Hedger hedger = new Hedger(policy(0, 1));
+
+        final List<CompletableFuture<String>> firstAttempts = new CopyOnWriteArrayList<>();
+        final CompletableFuture<String> firstResult = hedger.execute(OPERATION, recordingRequest(firstAttempts));
+        awaitAttempts(firstAttempts, 2);
+        firstAttempts.get(0).complete("primary");
+        assertThat(firstResult.join(), is(equalTo("primary")));
+
+        // The only token has been spent, and no request adds to the budget
+        final List<CompletableFuture<String>> secondAttempts = new CopyOnWriteArrayList<>();
+        final CompletableFuture<String> secondResult = hedger.execute(OPERATION, recordingRequest(secondAttempts));
+        Thread.sleep(HEDGING_DELAY.multipliedBy(3).toMillis());
+        assertThat(secondAttempts, hasSize(1));
+        secondAttempts.get(0).complete("primary");
+        assertThat(secondResult.join(), is(equalTo("primary")));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testAllAttemptsFailed() throws InterruptedException {
+        // Test Data Begin {{{
+        final Hedger hedger = new Hedger(policy(0, 1));
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute(OPERATION, recordingRequest(attempts));
+        awaitAttempts(attempts, 2);
+
+        attempts.get(0).completeExceptionally(new IOException("primary"));
+        assertThat(result.isDone(), is(false));
+        attempts.get(1).completeExceptionally(new IOException("hedge"));
+        final CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertThat(exception.getCause(), is(instanceOf(IOException.class)));
+        assertThat(exception.getCause().getMessage(), is(equalTo("primary")));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testLatencyOfLostPrimaryIsTracked() throws InterruptedException {
+        // Test Data Begin {{{
+        final Duration maxDelay = Duration.ofMillis(100);
+        final Hedger hedger = new Hedger(HedgingPolicy.builder().delay(Duration.ofMillis(1), maxDelay).budget(0, 32).build());
+
+        // Not enough latencies are known, so every hedge is sent after the max delay, and wins
+        for (int i = 0; i < 20; i++) {
+            final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+            final CompletableFuture<String> result = hedger.execute(OPERATION, recordingRequest(attempts));
+            awaitAttempts(attempts, 2);
+            attempts.get(1).complete("hedge");
+            assertThat(result.join(), is(equalTo("hedge")));
+        }
+
+        // The primaries have been at least as slow as the max delay, so the hedging delay has not dropped
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+        final CompletableFuture<String> result = hedger.execute(OPERATION, recordingRequest(attempts));
+        Thread.sleep(maxDelay.dividedBy(3).toMillis());
+        assertThat(attempts, hasSize(1));
+        attempts.get(0).complete("primary");
+        assertThat(result.join(), is(equalTo("primary")));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testDisabledPolicy() throws InterruptedException {
+        // Test Data Begin {{{
+        final Hedger hedger = new Hedger(HedgingPolicy.none());
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute(OPERATION, recordingRequest(attempts));
+        Thread.sleep(HEDGING_DELAY.multipliedBy(3).toMillis());
+        assertThat(attempts, hasSize(1));
+        assertThat(result, is(attempts.get(0)));
+        // }}} Test Data End
+    }
+
+    private static HedgingPolicy policy(final double budgetRatio, final int budgetCapacity) {
+        return HedgingPolicy.builder().delay(HEDGING_DELAY, HEDGING_DELAY).budget(budgetRatio, budgetCapacity).build();
+    }
+
+    private static Supplier<CompletableFuture<String>> recordingRequest(final List<CompletableFuture<String>> attempts) {
+        return () -> {
+            final CompletableFuture<String> attempt = new CompletableFuture<>();
+            attempts.add(attempt);
+            return attempt;
+        };
+    }
+
+    private static void awaitAttempts(final List<?> attempts, final int count) throws InterruptedException {
+        final long deadlineNanos = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (attempts.size() < count && System.nanoTime() < deadlineNanos) {
+            Thread.sleep(5);
+        }
+        assertThat(attempts, hasSize(count));
+    }
+
+}
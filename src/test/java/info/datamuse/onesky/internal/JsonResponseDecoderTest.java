@@ -0,0 +1,92 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.OneSkyApiException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import static info.datamuse.onesky.internal.JsonResponseDecoder.decode;
+import static info.datamuse.onesky.internal.JsonResponseDecoder.listDataDecoder;
+import static info.datamuse.onesky.internal.JsonResponseDecoder.objectDataDecoder;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class JsonResponseDecoderTest {
+
+    @Test
+    public void testDecodeList() {
+        // Test Data Begin {{{
+        final var response = decode(
+            stream("{\"meta\": {\"status\": 200, \"record_count\": 3}, \"data\": [{\"code\": \"de\"}, {\"code\": \"fr\"}, {\"code\": \"uk\"}]}"),
+            listDataDecoder(item -> item.getString("code"))
+        );
+        assertThat(response.getMeta().getInt("status"), is(equalTo(200)));
+        assertThat(response.getMeta().getLong("record_count"), is(equalTo(3L)));
+        assertThat(response.getData(), is(equalTo(List.of("de", "fr", "uk"))));
+
+        final var dataFirstResponse = decode(
+            stream("{\"data\":[],\"meta\":{\"status\":200}}"),
+            listDataDecoder(item -> item.getString("code"))
+        );
+        assertThat(dataFirstResponse.getMeta().getInt("status"), is(equalTo(200)));
+        assertThat(dataFirstResponse.getData(), is(empty()));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testDecodeObject() {
+        // Test Data Begin {{{
+        final var response = decode(
+            stream("{\"meta\": {\"status\": 201}, \"extra\": [1, 2], \"data\": {\"id\": 4711, \"name\": \"Cologne\"}}"),
+            objectDataDecoder(data -> data.getLong("id"))
+        );
+        assertThat(response.getMeta().getInt("status"), is(equalTo(201)));
+        assertThat(response.getData(), is(equalTo(4711L)));
+
+        final var noDataResponse = decode(
+            stream("{\"meta\": {\"status\": 400, \"message\": \"Invalid\"}}"),
+            objectDataDecoder(data -> data.getLong("id"))
+        );
+        assertThat(noDataResponse.getMeta().getString("message"), is(equalTo("Invalid")));
+        assertThat(noDataResponse.getData(), is(nullValue()));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testDecodeInvalid() {
+        // Test Data Begin {{{
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> decode(stream("{\"meta\": {\"status\": 200}, \"data\": {\"id\": 1}}"), listDataDecoder(item -> item))
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> decode(stream("{\"meta\": {\"status\": 200}, \"data\": [1, 2]}"), listDataDecoder(item -> item))
+        );
+        assertThrows(
+            OneSkyApiException.class,
+            () -> decode(stream("{\"data\": []}"), listDataDecoder(item -> item))
+        );
+        assertThrows(
+            OneSkyApiException.class,
+            () -> decode(stream("{\"meta\": {\"status\": 200}, \"data\": [{}"), listDataDecoder(item -> item))
+        );
+        assertThrows(
+            OneSkyApiException.class,
+            () -> decode(stream("{\"meta\": {\"status\": 200}} trailing"), listDataDecoder(item -> item))
+        );
+        // }}} Test Data End
+    }
+
+    private static InputStream stream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(UTF_8));
+    }
+
+}
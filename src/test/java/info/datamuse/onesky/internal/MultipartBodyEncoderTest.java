@@ -0,0 +1,206 @@
+package info.datamuse.onesky.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public final class MultipartBodyEncoderTest {
+
+    @Test
+    public void testFilePart() throws IOException {
+        // Test Data Begin {{{
+        final byte[] content = new byte[MultipartBodyPublisher.BUFFER_SIZE * 2 + 1];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        final Path path = Files.write(Files.createTempFile("onesky-upload", ".yml"), content);
+
+        final MultipartBodyEncoder multipartBodyEncoder = new MultipartBodyEncoder()
+            .addFilePart("file", "fruits.yml", "YML", path, content.length)
+            .addFormField("locale", "de");
+        final HttpRequest.BodyPublisher bodyPublisher = multipartBodyEncoder.finish();
+        final String boundary = multipartBodyEncoder.getBoundary();
+        final String expectedBody = "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"fruits.yml\"\r\n"
+            + "Content-Type: YML\r\n"
+            + "Content-Transfer-Encoding: binary\r\n"
+            + "\r\n"
+            + new String(content, UTF_8) + "\r\n"
+            + "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"locale\"\r\n"
+            + "Content-Type: text/plain; charset=UTF-8\r\n"
+            + "\r\n"
+            + "de\r\n"
+            + "\r\n"
+            + "--" + boundary + "--\r\n";
+
+        assertThat(bodyPublisher.contentLength(), is(equalTo((long) expectedBody.getBytes(UTF_8).length)));
+        assertThat(new String(publishedBody(bodyPublisher).join(), UTF_8), is(equalTo(expectedBody)));
+        // The body may be published again, e.g. to retry a request
+        assertThat(new String(publishedBody(bodyPublisher).join(), UTF_8), is(equalTo(expectedBody)));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testInputStreamPart() {
+        // Test Data Begin {{{
+        final AtomicBoolean isClosed = new AtomicBoolean();
+        final ByteArrayInputStream inputStream = new ByteArrayInputStream(new byte[MultipartBodyPublisher.BUFFER_SIZE * 3]) {
+            @Override
+            public void close() {
+                isClosed.set(true);
+            }
+        };
+        final HttpRequest.BodyPublisher bodyPublisher = new MultipartBodyEncoder()
+            .addFilePart("file", "fruits.yml", "YML", inputStream, Runnable::run)
+            .finish();
+        assertThat(bodyPublisher.contentLength(), is(equalTo(-1L)));
+
+        // Cancelling the subscription releases the input stream
+        bodyPublisher.subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                if (isClosed.get()) {
+                    throw new IllegalStateException("Published after cancellation");
+                }
+                subscription.cancel();
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertThat(isClosed.get(), is(true));
+
+        // The input stream is read on the blocking executor, not on the requesting thread: 3 buffers and the end
+        final AtomicInteger blockingReadCount = new AtomicInteger();
+        final Executor blockingExecutor = command -> {
+            blockingReadCount.incrementAndGet();
+            command.run();
+        };
+        final HttpRequest.BodyPublisher readBodyPublisher = new MultipartBodyEncoder()
+            .addFilePart("file", "fruits.yml", "YML", new ByteArrayInputStream(new byte[MultipartBodyPublisher.BUFFER_SIZE * 3]), blockingExecutor)
+            .finish();
+        publishedBody(readBodyPublisher).join();
+        assertThat(blockingReadCount.get(), is(equalTo(4)));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testBackpressure() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        // Test Data Begin {{{
+        final Path path = Files.write(Files.createTempFile("onesky-upload", ".yml"), new byte[MultipartBodyPublisher.BUFFER_SIZE * 4]);
+        final HttpRequest.BodyPublisher bodyPublisher = new MultipartBodyEncoder()
+            .addFilePart("file", "fruits.yml", "YML", path, Files.size(path))
+            .finish();
+
+        final BlockingQueue<ByteBuffer> items = new LinkedBlockingQueue<>();
+        final AtomicLong publishedLength = new AtomicLong();
+        final CompletableFuture<Void> completion = new CompletableFuture<>();
+        final CompletableFuture<Flow.Subscription> subscriptionPromise = new CompletableFuture<>();
+        bodyPublisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscriptionPromise.complete(subscription);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                publishedLength.addAndGet(item.remaining());
+                items.add(item);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                completion.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completion.complete(null);
+            }
+        });
+        final Flow.Subscription subscription = subscriptionPromise.join();
+
+        // The file is only read on demand
+        subscription.request(2);
+        assertThat(items.poll(10, TimeUnit.SECONDS), is(notNullValue()));
+        assertThat(items.poll(10, TimeUnit.SECONDS), is(notNullValue()));
+        assertThat(items.poll(100, TimeUnit.MILLISECONDS), is(nullValue()));
+
+        subscription.request(Long.MAX_VALUE);
+        completion.get(10, TimeUnit.SECONDS);
+        assertThat(publishedLength.get(), is(equalTo(bodyPublisher.contentLength())));
+        // }}} Test Data End
+    }
+
+    private static CompletableFuture<byte[]> publishedBody(final HttpRequest.BodyPublisher bodyPublisher) {
+        final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        bodyPublisher.subscribe(new Flow.Subscriber<>() {
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                final byte[] itemBytes = new byte[item.remaining()];
+                item.get(itemBytes);
+                bytes.writeBytes(itemBytes);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                body.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                body.complete(bytes.toByteArray());
+            }
+        });
+        return body;
+    }
+
+}
@@ -0,0 +1,178 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.Page;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class PaginationTest {
+
+    private static final long PAGE_SIZE = 3;
+
+    @Test
+    public void testStream() {
+        // Test Data Begin {{{
+        final List<Long> fetchedPages = new CopyOnWriteArrayList<>();
+        final LongFunction<CompletableFuture<Page<Long>>> pageFetcher = pageFetcher(10, fetchedPages);
+
+        try (Stream<Long> items = Pagination.stream(pageFetcher)) {
+            assertThat(fetchedPages, is(empty()));
+            assertThat(items.collect(toList()), is(equalTo(LongStream.range(0, 10).boxed().collect(toList()))));
+        }
+        assertThat(fetchedPages, is(equalTo(List.of(1L, 2L, 3L, 4L))));
+
+        fetchedPages.clear();
+        try (Stream<Long> items = Pagination.stream(pageFetcher)) {
+            assertThat(items.limit(2).collect(toList()), is(equalTo(List.of(0L, 1L))));
+        }
+        assertThat(fetchedPages, is(equalTo(List.of(1L, 2L))));
+
+        try (Stream<Long> items = Pagination.stream(pageFetcher(0, fetchedPages))) {
+            assertThat(items.collect(toList()), is(empty()));
+        }
+
+        try (Stream<Long> items = Pagination.stream(pageNumber -> CompletableFuture.failedFuture(new IllegalStateException("Failed")))) {
+            assertThrows(IllegalStateException.class, () -> items.collect(toList()));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testPublisher() throws Exception {
+        // Test Data Begin {{{
+        final List<Long> fetchedPages = new CopyOnWriteArrayList<>();
+        final Flow.Publisher<Long> publisher = Pagination.publisher(pageFetcher(10, fetchedPages));
+
+        final CompletableFuture<List<Long>> allItems = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private final List<Long> items = new CopyOnWriteArrayList<>();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final Long item) {
+                items.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                allItems.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                allItems.complete(items);
+            }
+        });
+        assertThat(allItems.get(10, TimeUnit.SECONDS), is(equalTo(LongStream.range(0, 10).boxed().collect(toList()))));
+        assertThat(fetchedPages, is(equalTo(List.of(1L, 2L, 3L, 4L))));
+
+        fetchedPages.clear();
+        final CompletableFuture<List<Long>> firstItems = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private final List<Long> items = new CopyOnWriteArrayList<>();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(final Long item) {
+                items.add(item);
+                if (items.size() == 2) {
+                    subscription.cancel();
+                    firstItems.complete(items);
+                }
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                firstItems.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                firstItems.completeExceptionally(new AssertionError("Unexpected completion"));
+            }
+        });
+        assertThat(firstItems.get(10, TimeUnit.SECONDS), is(equalTo(List.of(0L, 1L))));
+        assertThat(fetchedPages, is(equalTo(List.of(1L, 2L))));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFetchAll() throws Exception {
+        // Test Data Begin {{{
+        final List<Long> fetchedPages = new CopyOnWriteArrayList<>();
+        final LongFunction<CompletableFuture<Page<Long>>> pageFetcher = pageFetcher(100, fetchedPages);
+        final AtomicInteger inFlightPages = new AtomicInteger();
+        final AtomicInteger maxInFlightPages = new AtomicInteger();
+        final LongFunction<CompletableFuture<Page<Long>>> countingPageFetcher = pageNumber -> {
+            maxInFlightPages.accumulateAndGet(inFlightPages.incrementAndGet(), Math::max);
+            return pageFetcher.apply(pageNumber).whenComplete((page, throwable) -> inFlightPages.decrementAndGet());
+        };
+
+        final List<Long> allItems = Pagination.fetchAll(countingPageFetcher, 4).get(10, TimeUnit.SECONDS);
+        assertThat(allItems, is(equalTo(LongStream.range(0, 100).boxed().collect(toList()))));
+        assertThat(fetchedPages, hasSize(34));
+        assertThat(maxInFlightPages.get(), is(lessThanOrEqualTo(4)));
+
+        assertThat(Pagination.fetchAll(pageFetcher(2, fetchedPages), 4).get(10, TimeUnit.SECONDS), is(equalTo(List.of(0L, 1L))));
+
+        final ExecutionException failure = assertThrows(
+            ExecutionException.class,
+            () -> Pagination.fetchAll(
+                pageNumber -> pageNumber == 3 ? CompletableFuture.failedFuture(new IllegalStateException("Failed")) : pageFetcher.apply(pageNumber),
+                2
+            ).get(10, TimeUnit.SECONDS)
+        );
+        assertThat(failure.getCause(), is(instanceOf(IllegalStateException.class)));
+
+        assertThrows(IllegalArgumentException.class, () -> Pagination.fetchAll(pageFetcher, 0));
+        // }}} Test Data End
+    }
+
+    private static LongFunction<CompletableFuture<Page<Long>>> pageFetcher(final long totalItemsCount, final List<Long> fetchedPages) {
+        final long totalPagesCount = (totalItemsCount + PAGE_SIZE - 1) / PAGE_SIZE;
+        return pageNumber -> {
+            fetchedPages.add(pageNumber);
+            return CompletableFuture.supplyAsync(() -> new Page<>(
+                LongStream.range((pageNumber - 1) * PAGE_SIZE, Math.min(pageNumber * PAGE_SIZE, totalItemsCount)).boxed().collect(Collectors.toList()),
+                pageNumber,
+                PAGE_SIZE,
+                totalItemsCount,
+                totalPagesCount
+            ));
+        };
+    }
+
+}
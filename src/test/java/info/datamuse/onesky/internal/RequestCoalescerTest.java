@@ -0,0 +1,110 @@
+package info.datamuse.onesky.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class RequestCoalescerTest {
+
+    @Test
+    public void testIdenticalRequestsAreCoalesced() {
+        // Test Data Begin {{{
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> first = coalescer.execute(List.of("/projects/1"), recordingRequest(requests));
+        final CompletableFuture<String> second = coalescer.execute(List.of("/projects/1"), recordingRequest(requests));
+        final CompletableFuture<String> other = coalescer.execute(List.of("/projects/2"), recordingRequest(requests));
+        assertThat(requests, hasSize(2));
+        assertThat(coalescer.getInFlightRequestsCount(), is(equalTo(2)));
+
+        requests.get(0).complete("one");
+        assertThat(first.join(), is(equalTo("one")));
+        assertThat(second.join(), is(equalTo("one")));
+        assertThat(other.isDone(), is(false));
+        assertThat(coalescer.getInFlightRequestsCount(), is(equalTo(1)));
+
+        // A completed request is not reused
+        coalescer.execute(List.of("/projects/1"), recordingRequest(requests));
+        assertThat(requests, hasSize(3));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testFailureIsShared() {
+        // Test Data Begin {{{
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> first = coalescer.execute("key", recordingRequest(requests));
+        final CompletableFuture<String> second = coalescer.execute("key", recordingRequest(requests));
+        requests.get(0).completeExceptionally(new IOException("failure"));
+
+        assertThat(assertThrows(CompletionException.class, first::join).getCause(), is(instanceOf(IOException.class)));
+        assertThat(assertThrows(CompletionException.class, second::join).getCause(), is(instanceOf(IOException.class)));
+        assertThat(coalescer.getInFlightRequestsCount(), is(equalTo(0)));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testCancellation() {
+        // Test Data Begin {{{
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> first = coalescer.execute("key", recordingRequest(requests));
+        final CompletableFuture<String> second = coalescer.execute("key", recordingRequest(requests));
+
+        // The request is cancelled once all its callers have cancelled
+        first.cancel(true);
+        assertThat(requests.get(0).isCancelled(), is(false));
+        second.cancel(true);
+        assertThat(requests.get(0).isCancelled(), is(true));
+        assertThat(coalescer.getInFlightRequestsCount(), is(equalTo(0)));
+
+        coalescer.execute("key", recordingRequest(requests));
+        assertThat(requests, hasSize(2));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testDetachedRequestIsNotJoined() {
+        // Test Data Begin {{{
+        final RequestCoalescer coalescer = new RequestCoalescer();
+        final List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> before = coalescer.execute("/projects/1", recordingRequest(requests));
+        coalescer.detach(key -> key.equals("/projects/1"));
+        assertThat(coalescer.getInFlightRequestsCount(), is(equalTo(0)));
+
+        final CompletableFuture<String> after = coalescer.execute("/projects/1", recordingRequest(requests));
+        assertThat(requests, hasSize(2));
+        requests.get(0).complete("stale");
+        requests.get(1).complete("fresh");
+        assertThat(before.join(), is(equalTo("stale")));
+        assertThat(after.join(), is(equalTo("fresh")));
+        assertThat(coalescer.getInFlightRequestsCount(), is(equalTo(0)));
+        // }}} Test Data End
+    }
+
+    private static Supplier<CompletableFuture<String>> recordingRequest(final List<CompletableFuture<String>> requests) {
+        return () -> {
+            final CompletableFuture<String> request = new CompletableFuture<>();
+            requests.add(request);
+            return request;
+        };
+    }
+
+}
@@ -0,0 +1,152 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.RetryPolicy;
+import info.datamuse.onesky.StubTransport;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static info.datamuse.onesky.internal.HttpUtils.HTTP_GET;
+import static info.datamuse.onesky.internal.HttpUtils.HTTP_POST;
+import static java.net.http.HttpResponse.BodyHandlers.discarding;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+
+public final class RetrierTest {
+
+    private static final RetryPolicy NO_BACKOFF_POLICY =
+        RetryPolicy.builder().maxAttempts(3).backoff(Duration.ZERO, Duration.ZERO, 1).build();
+
+    @Test
+    public void testRetryTransientFailures() {
+        // Test Data Begin {{{
+        final StubTransport transport = scriptedTransport(503, 429, 200);
+        final Retrier retrier = new Retrier(NO_BACKOFF_POLICY);
+
+        assertThat(send(retrier, transport, HTTP_GET).join().statusCode(), is(equalTo(200)));
+        assertThat(transport.getRequests(), hasSize(3));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testMaxAttempts() {
+        // Test Data Begin {{{
+        final StubTransport transport = scriptedTransport(500, 502, 504, 200);
+        final Retrier retrier = new Retrier(NO_BACKOFF_POLICY);
+
+        assertThat(send(retrier, transport, HTTP_GET).join().statusCode(), is(equalTo(504)));
+        assertThat(transport.getRequests(), hasSize(3));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testNonRetryableStatus() {
+        // Test Data Begin {{{
+        final StubTransport transport = scriptedTransport(400, 200);
+        final Retrier retrier = new Retrier(NO_BACKOFF_POLICY);
+
+        assertThat(send(retrier, transport, HTTP_GET).join().statusCode(), is(equalTo(400)));
+        assertThat(transport.getRequests(), hasSize(1));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testPostOptIn() {
+        // Test Data Begin {{{
+        final StubTransport transport = scriptedTransport(503, 201);
+        assertThat(send(new Retrier(NO_BACKOFF_POLICY), transport, HTTP_POST).join().statusCode(), is(equalTo(503)));
+        assertThat(transport.getRequests(), hasSize(1));
+
+        final StubTransport optInTransport = scriptedTransport(503, 201);
+        final Retrier optInRetrier = new Retrier(
+            RetryPolicy.builder().backoff(Duration.ZERO, Duration.ZERO, 1).retryPost(true).build()
+        );
+        assertThat(send(optInRetrier, optInTransport, HTTP_POST).join().statusCode(), is(equalTo(201)));
+        assertThat(optInTransport.getRequests(), hasSize(2));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testNonReplayableBody() {
+        // Test Data Begin {{{
+        final StubTransport transport = scriptedTransport(503, 200);
+        final Retrier retrier = new Retrier(NO_BACKOFF_POLICY);
+
+        final HttpResponse<Void> response =
+            retrier.send(HTTP_GET, false, () -> transport.send(request(), discarding())).join();
+        assertThat(response.statusCode(), is(equalTo(503)));
+        assertThat(transport.getRequests(), hasSize(1));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testRetryAfter() {
+        // Test Data Begin {{{
+        final StubTransport transport = new StubTransport(
+            request -> new StubTransport.StubResponse(503, "", Map.of("Retry-After", List.of("120")))
+        );
+        final Retrier retrier = new Retrier(NO_BACKOFF_POLICY);
+
+        // The requested delay exceeds the max Retry-After delay
+        assertThat(send(retrier, transport, HTTP_GET).join().statusCode(), is(equalTo(503)));
+        assertThat(transport.getRequests(), hasSize(1));
+
+        assertThat(Retrier.parseRetryAfter("7"), is(equalTo(Duration.ofSeconds(7))));
+        assertThat(
+            Retrier.parseRetryAfter(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(30))),
+            is(allOf(greaterThan(Duration.ofSeconds(25)), lessThanOrEqualTo(Duration.ofSeconds(30))))
+        );
+        assertThat(Retrier.parseRetryAfter("soon"), is(nullValue()));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testRetryBudget() {
+        // Test Data Begin {{{
+        final StubTransport transport = new StubTransport(request -> StubTransport.StubResponse.json(503, "{}"));
+        final Retrier retrier = new Retrier(
+            RetryPolicy.builder().backoff(Duration.ZERO, Duration.ZERO, 1).retryBudget(0.5, 2).build()
+        );
+
+        // The budget is initially full (2 tokens), and the 1st request brings it to its capacity
+        send(retrier, transport, HTTP_GET).join();
+        assertThat(transport.getRequests(), hasSize(3));
+        // The 2nd request adds 0.5 tokens, which is not enough for a retry
+        send(retrier, transport, HTTP_GET).join();
+        assertThat(transport.getRequests(), hasSize(4));
+        // The 3rd request adds another 0.5 tokens
+        send(retrier, transport, HTTP_GET).join();
+        assertThat(transport.getRequests(), hasSize(6));
+        // }}} Test Data End
+    }
+
+    private static CompletableFuture<HttpResponse<Void>> send(final Retrier retrier, final StubTransport transport, final String httpMethod) {
+        return retrier.send(httpMethod, true, () -> transport.send(request(), discarding()));
+    }
+
+    private static StubTransport scriptedTransport(final Integer... statuses) {
+        final Iterator<Integer> statusesIterator = List.of(statuses).iterator();
+        return new StubTransport(request -> StubTransport.StubResponse.json(statusesIterator.next(), "{}"));
+    }
+
+    private static HttpRequest request() {
+        return HttpRequest.newBuilder(URI.create("http://localhost/projects")).build();
+    }
+
+}
@@ -0,0 +1,159 @@
+package info.datamuse.onesky.internal;
+
+import info.datamuse.onesky.OneSkyTransport;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+
+import static java.net.http.HttpResponse.BodyHandlers.discarding;
+import static java.net.http.HttpResponse.BodyHandlers.ofInputStream;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public final class ThrottlingTransportTest {
+
+    @Test
+    public void testMaxInFlightRequests() {
+        // Test Data Begin {{{
+        final ManualTransport manualTransport = new ManualTransport();
+        final ThrottlingTransport transport = new ThrottlingTransport(manualTransport, Double.POSITIVE_INFINITY, 1, 2);
+
+        final List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(transport.send(request(i), discarding()));
+        }
+        assertThat(manualTransport.sentRequests, hasSize(2));
+
+        // Cancelled while queued: never sent
+        responses.get(2).cancel(false);
+
+        manualTransport.completeSent(0);
+        assertThat(manualTransport.sentRequests, hasSize(3));
+        assertThat(manualTransport.sentRequests.get(2).uri(), is(equalTo(request(3).uri())));
+
+        manualTransport.completeSent(1);
+        manualTransport.completeSent(2);
+        assertThat(manualTransport.sentRequests, hasSize(4));
+        assertThat(manualTransport.sentRequests.get(3).uri(), is(equalTo(request(4).uri())));
+        assertThat(responses.get(0).isDone(), is(true));
+        assertThat(responses.get(4).isDone(), is(false));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testRateLimit() {
+        // Test Data Begin {{{
+        final OneSkyTransport completingTransport = new OneSkyTransport() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        final ThrottlingTransport transport = new ThrottlingTransport(completingTransport, 20, 2, Integer.MAX_VALUE);
+
+        final long startNanos = System.nanoTime();
+        final List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            responses.add(transport.send(request(i), discarding()));
+        }
+        assertThat(responses.get(1).isDone(), is(true));
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).join();
+        // 2 requests are sent at once, the other 4 at the rate of 20 requests per second
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos), is(greaterThanOrEqualTo(Duration.ofMillis(190))));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testTransportFailure() {
+        // Test Data Begin {{{
+        final OneSkyTransport failingTransport = new OneSkyTransport() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+                throw new IllegalStateException("Failure");
+            }
+        };
+        final ThrottlingTransport transport = new ThrottlingTransport(failingTransport, Double.POSITIVE_INFINITY, 1, 1);
+
+        final CompletableFuture<HttpResponse<Void>> response1 = transport.send(request(1), discarding());
+        final CompletableFuture<HttpResponse<Void>> response2 = transport.send(request(2), discarding());
+        assertThat(response1.isCompletedExceptionally(), is(true));
+        assertThat(response2.isCompletedExceptionally(), is(true));
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testInFlightUntilBodyReceived() throws IOException {
+        // Test Data Begin {{{
+        final List<HttpRequest> sentRequests = new CopyOnWriteArrayList<>();
+        final List<HttpResponse.BodySubscriber<?>> bodySubscribers = new CopyOnWriteArrayList<>();
+        // Completes the responses once the headers have arrived, and leaves the bodies pending
+        final OneSkyTransport streamingTransport = new OneSkyTransport() {
+            @Override
+            public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+                sentRequests.add(request);
+                final HttpResponse.BodySubscriber<T> bodySubscriber = responseBodyHandler.apply(null);
+                bodySubscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(final long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                bodySubscribers.add(bodySubscriber);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        final ThrottlingTransport transport = new ThrottlingTransport(streamingTransport, Double.POSITIVE_INFINITY, 1, 1);
+
+        final CompletableFuture<HttpResponse<InputStream>> response1 = transport.send(request(1), ofInputStream());
+        transport.send(request(2), ofInputStream());
+        transport.send(request(3), ofInputStream());
+        assertThat(response1.isDone(), is(true));
+        assertThat(sentRequests, hasSize(1));
+
+        bodySubscribers.get(0).onComplete();
+        assertThat(sentRequests, hasSize(2));
+
+        // Closing the body stream cancels the body subscription
+        ((InputStream) bodySubscribers.get(1).getBody().toCompletableFuture().join()).close();
+        assertThat(sentRequests, hasSize(3));
+        // }}} Test Data End
+    }
+
+    private static HttpRequest request(final int index) {
+        return HttpRequest.newBuilder(URI.create("http://localhost/" + index)).build();
+    }
+
+    private static final class ManualTransport implements OneSkyTransport {
+        private final List<HttpRequest> sentRequests = new CopyOnWriteArrayList<>();
+        private final List<CompletableFuture<?>> sentResponses = new CopyOnWriteArrayList<>();
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+            final CompletableFuture<HttpResponse<T>> response = new CompletableFuture<>();
+            sentRequests.add(request);
+            sentResponses.add(response);
+            return response;
+        }
+
+        void completeSent(final int index) {
+            sentResponses.get(index).complete(null);
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package info.datamuse.onesky.simulator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * UTC {@link Clock} which stands still until it is advanced, to control the time of the {@link OneSkySimulator}.
+ */
+public final class AdjustableClock extends Clock {
+    private volatile Instant instant;
+
+    /**
+     * Clock constructor.
+     *
+     * @param instant initial instant
+     */
+    public AdjustableClock(final Instant instant) {
+        this.instant = instant;
+    }
+
+    /**
+     * Advances the clock.
+     *
+     * @param duration duration to advance the clock by
+     */
+    public void advance(final Duration duration) {
+        instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+        return instant;
+    }
+}
@@ -0,0 +1,1020 @@
+package info.datamuse.onesky.simulator;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+import static org.apache.commons.codec.digest.DigestUtils.md5Hex;
+
+/**
+ * In-process simulator of the OneSky Platform API, built on the JDK {@link HttpServer}.
+ *
+ * <p>The simulator implements the project groups, projects, files, import tasks, translations, locales and
+ * project types endpoints with the OneSky {@code meta}/{@code data} response envelope, and allows to measure the
+ * client's throughput and latency without network access: the response latency, the rate of injected failures and
+ * the size of the pre-populated dataset are configurable.</p>
+ *
+ * <p>Usage:</p>
+ * <pre>
+ * try (OneSkySimulator simulator = OneSkySimulator.builder().latency(Duration.ofMillis(20)).build()) {
+ *     OneSkyClient client = OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+ *         .apiBaseUri(simulator.getApiBaseUri())
+ *         .build();
+ *     ...
+ * }
+ * </pre>
+ */
+public final class OneSkySimulator implements AutoCloseable {
+
+    /**
+     * API public key accepted by the simulator.
+     */
+    public static final String API_KEY = "simulator-api-key";
+
+    /**
+     * API secret key accepted by the simulator.
+     */
+    public static final String API_SECRET = "simulator-api-secret";
+
+    private static final String BASE_PATH = "/1";
+
+    private static final int HTTP_STATUS_OK = 200;
+    private static final int HTTP_STATUS_CREATED = 201;
+    private static final int HTTP_STATUS_NOT_MODIFIED = 304;
+    private static final int HTTP_STATUS_BAD_REQUEST = 400;
+    private static final int HTTP_STATUS_UNAUTHORIZED = 401;
+    private static final int HTTP_STATUS_NOT_FOUND = 404;
+    private static final int HTTP_STATUS_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_STATUS_INTERNAL_SERVER_ERROR = 500;
+
+    private static final List<String> PROJECT_TYPES = List.of(
+        "ios", "iPhone/iPad App",
+        "android", "Android App",
+        "website", "Regular Website",
+        "windows-metro", "Windows Metro App",
+        "webapp-others", "Others"
+    );
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor;
+    private final Duration latency;
+    private final Duration latencyJitter;
+    private final double errorRate;
+    private final Duration importDuration;
+    private final Clock clock;
+    private final boolean isSendingExportValidators;
+
+    private final List<Locale> locales;
+    private final AtomicLong nextId = new AtomicLong(1000);
+    private final Map<Long, GroupState> groups = new LinkedHashMap<>();
+    private final Map<Long, ProjectState> projects = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private final AtomicLong totalRequestCount = new AtomicLong();
+    private final Map<Integer, AtomicLong> responseCounts = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> injectedFailureCounts = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> responseHolds = new ConcurrentHashMap<>();
+
+    private OneSkySimulator(final Builder builder) throws IOException {
+        this.latency = builder.latency;
+        this.latencyJitter = builder.latencyJitter;
+        this.errorRate = builder.errorRate;
+        this.importDuration = builder.importDuration;
+        this.clock = builder.clock;
+        this.isSendingExportValidators = builder.isSendingExportValidators;
+        this.locales =
+            Arrays.stream(Locale.getAvailableLocales())
+                .filter(locale -> !locale.getLanguage().isEmpty() && locale.getScript().isEmpty() && !locale.hasExtensions() && locale.getVariant().isEmpty())
+                .sorted((locale1, locale2) -> locale1.toLanguageTag().compareTo(locale2.toLanguageTag()))
+                .collect(Collectors.toUnmodifiableList());
+        populate(builder);
+
+        this.executor = Executors.newFixedThreadPool(builder.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "onesky-simulator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.httpServer.setExecutor(executor);
+        this.httpServer.createContext(BASE_PATH, this::handle);
+        this.httpServer.start();
+    }
+
+    /**
+     * Returns a new simulator builder.
+     *
+     * @return simulator builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the base URI of the simulated API, to be passed to the client builder.
+     *
+     * @return simulated API base URI
+     */
+    public URI getApiBaseUri() {
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ':' + httpServer.getAddress().getPort() + BASE_PATH);
+    }
+
+    /**
+     * Returns the total number of handled requests.
+     *
+     * @return total number of requests
+     */
+    public long getRequestCount() {
+        return totalRequestCount.get();
+    }
+
+    /**
+     * Returns the number of handled requests with the given method and path (relative to the API base URI).
+     *
+     * @param method HTTP method
+     * @param path request path, e.g. {@code /projects/1001}
+     * @return number of requests
+     */
+    public long getRequestCount(final String method, final String path) {
+        final AtomicLong count = requestCounts.get(method + ' ' + path);
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * Returns number of responses with the specified HTTP status.
+     *
+     * @param status HTTP status
+     * @return number of responses
+     */
+    public long getResponseCount(final int status) {
+        final @Nullable AtomicLong responseCount = responseCounts.get(status);
+        return responseCount != null ? responseCount.get() : 0;
+    }
+
+    /**
+     * Returns ids of the pre-populated and created project groups.
+     *
+     * @return project group ids
+     */
+    public synchronized List<Long> getProjectGroupIds() {
+        return List.copyOf(groups.keySet());
+    }
+
+    /**
+     * Returns ids of the projects of the given project group.
+     *
+     * @param projectGroupId project group id
+     * @return project ids
+     */
+    public synchronized List<Long> getProjectIds(final long projectGroupId) {
+        return List.copyOf(requireNonNull(groups.get(projectGroupId)).projectIds);
+    }
+
+    /**
+     * Sets translation progress of a project language, adding the language to the project if needed.
+     *
+     * @param projectId project id
+     * @param locale language
+     * @param translationProgress translation progress in percent
+     */
+    public synchronized void setTranslationProgress(final long projectId, final Locale locale, final int translationProgress) {
+        final ProjectState project = requireNonNull(projects.get(projectId));
+        final LanguageState language = project.languages.computeIfAbsent(locale, newLocale -> new LanguageState(false, 0, null));
+        language.translationProgress = translationProgress;
+        language.updatedAt = clock.instant();
+    }
+
+    /**
+     * Fails the next requests with the given method and path (relative to the API base URI) with HTTP 500.
+     *
+     * @param method HTTP method
+     * @param path request path, e.g. {@code /projects/1001}
+     * @param count number of requests to fail
+     */
+    public void failNextRequests(final String method, final String path, final int count) {
+        injectedFailureCounts.computeIfAbsent(method + ' ' + path, key -> new AtomicInteger()).addAndGet(count);
+    }
+
+    /**
+     * Holds the responses to the requests with the given method and path (relative to the API base URI) until the
+     * returned future is completed; the responses reflect the state as of the requests.
+     *
+     * @param method HTTP method
+     * @param path request path, e.g. {@code /projects/1001}
+     * @return releases the held responses once completed
+     */
+    public CompletableFuture<Void> holdResponses(final String method, final String path) {
+        final CompletableFuture<Void> release = new CompletableFuture<>();
+        release.thenRun(() -> responseHolds.remove(method + ' ' + path, release));
+        responseHolds.put(method + ' ' + path, release);
+        return release;
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void populate(final Builder builder) {
+        final Instant now = clock.instant();
+        for (int i = 0; i < builder.projectGroupsCount; i++) {
+            final GroupState group = new GroupState(nextId.incrementAndGet(), "Group-" + (i + 1), Locale.ENGLISH);
+            groups.put(group.id, group);
+            for (int j = 0; j < builder.projectsPerGroupCount; j++) {
+                final ProjectState project = new ProjectState(
+                    nextId.incrementAndGet(), group.id, "Project-" + (i + 1) + '-' + (j + 1), "Description", "website"
+                );
+                project.languages.put(Locale.ENGLISH, new LanguageState(true, 100, now));
+                project.languages.put(Locale.GERMAN, new LanguageState(false, 50, now));
+                project.languages.put(Locale.FRENCH, new LanguageState(false, 0, null));
+                for (int k = 0; k < builder.filesPerProjectCount; k++) {
+                    final String fileName = "file-" + (k + 1) + ".yml";
+                    final byte[] content = ("key" + (k + 1) + ": value " + (k + 1) + '\n').getBytes(UTF_8);
+                    final ImportState fileImport = new ImportState(nextId.incrementAndGet(), fileName, "YAML", Locale.ENGLISH, now, now, 1);
+                    project.imports.put(fileImport.id, fileImport);
+                    project.files.put(fileName, new FileState(fileName, content, fileImport));
+                }
+                projects.put(project.id, project);
+                group.projectIds.add(project.id);
+            }
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            final String method = exchange.getRequestMethod();
+            final String path = exchange.getRequestURI().getPath().substring(BASE_PATH.length());
+            totalRequestCount.incrementAndGet();
+            requestCounts.computeIfAbsent(method + ' ' + path, key -> new AtomicLong()).incrementAndGet();
+
+            final Response response = respond(exchange, method, path);
+            responseCounts.computeIfAbsent(response.status, key -> new AtomicLong()).incrementAndGet();
+            simulateLatency();
+            final @Nullable CompletableFuture<Void> responseHold = responseHolds.get(method + ' ' + path);
+            if (responseHold != null) {
+                responseHold.join();
+            }
+            if (response.contentType != null) {
+                exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            }
+            response.headers.forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+            exchange.sendResponseHeaders(response.status, response.body.length == 0 ? -1 : response.body.length);
+            if (response.body.length > 0) {
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(response.body);
+                }
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response respond(final HttpExchange exchange, final String method, final String path) throws IOException {
+        final Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (!isAuthenticated(parameters)) {
+            return error(HTTP_STATUS_UNAUTHORIZED, "Invalid authentication");
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return error(HTTP_STATUS_INTERNAL_SERVER_ERROR, "Injected failure");
+        }
+        final @Nullable AtomicInteger injectedFailureCount = injectedFailureCounts.get(method + ' ' + path);
+        if (injectedFailureCount != null && injectedFailureCount.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            return error(HTTP_STATUS_INTERNAL_SERVER_ERROR, "Injected failure");
+        }
+        final byte[] requestBody;
+        try (InputStream requestBodyStream = exchange.getRequestBody()) {
+            requestBody = requestBodyStream.readAllBytes();
+        }
+        final String[] segments = path.split("/");
+        synchronized (this) {
+            try {
+                return route(method, segments, parameters, exchange.getRequestHeaders(), requestBody);
+            } catch (final NumberFormatException | IndexOutOfBoundsException e) {
+                return error(HTTP_STATUS_BAD_REQUEST, "Invalid request: " + e.getMessage());
+            }
+        }
+    }
+
+    private Response route(
+        final String method,
+        final String[] segments,
+        final Map<String, String> parameters,
+        final Headers requestHeaders,
+        final byte[] requestBody
+    ) {
+        final String resource = segments.length > 1 ? segments[1] : "";
+        switch (resource) {
+            case "locales":
+                return "GET".equals(method) ? listLocales() : methodNotAllowed();
+            case "project-types":
+                return "GET".equals(method) ? listProjectTypes() : methodNotAllowed();
+            case "project-groups":
+                return routeProjectGroups(method, segments, parameters);
+            case "projects":
+                return routeProjects(method, segments, parameters, requestHeaders, requestBody);
+            default:
+                return error(HTTP_STATUS_NOT_FOUND, "Unknown resource");
+        }
+    }
+
+    private Response routeProjectGroups(final String method, final String[] segments, final Map<String, String> parameters) {
+        if (segments.length == 2) {
+            if ("GET".equals(method)) {
+                return paged(groups.values().stream().map(OneSkySimulator::projectGroupListJson).collect(Collectors.toList()), parameters);
+            }
+            if ("POST".equals(method)) {
+                final String name = requireParameter(parameters, "name");
+                final Locale baseLocale = Locale.forLanguageTag(parameters.getOrDefault("locale", "en"));
+                final GroupState group = new GroupState(nextId.incrementAndGet(), name, baseLocale);
+                groups.put(group.id, group);
+                return data(HTTP_STATUS_CREATED, new JSONObject().put("id", group.id).put("name", group.name).put("base_language", localeJson(baseLocale)));
+            }
+            return methodNotAllowed();
+        }
+        final @Nullable GroupState group = groups.get(Long.parseLong(segments[2]));
+        if (group == null) {
+            return error(HTTP_STATUS_NOT_FOUND, "Project group not found");
+        }
+        if (segments.length == 3) {
+            if ("GET".equals(method)) {
+                return data(HTTP_STATUS_OK, new JSONObject()
+                    .put("id", group.id)
+                    .put("name", group.name)
+                    .put("enabled_language_count", 1)
+                    .put("project_count", Integer.toString(group.projectIds.size())));
+            }
+            if ("DELETE".equals(method)) {
+                groups.remove(group.id);
+                group.projectIds.forEach(projects::remove);
+                return empty(HTTP_STATUS_OK);
+            }
+            return methodNotAllowed();
+        }
+        switch (segments[3]) {
+            case "languages":
+                return data(HTTP_STATUS_OK, new JSONArray().put(localeJson(group.baseLocale).put("is_base_language", true)));
+            case "projects":
+                if ("GET".equals(method)) {
+                    return data(HTTP_STATUS_OK, new JSONArray(group.projectIds.stream()
+                        .map(projects::get)
+                        .map(project -> new JSONObject().put("id", project.id).put("name", project.name))
+                        .collect(Collectors.toList())));
+                }
+                if ("POST".equals(method)) {
+                    final ProjectState project = new ProjectState(
+                        nextId.incrementAndGet(),
+                        group.id,
+                        parameters.getOrDefault("name", "Project"),
+                        parameters.get("description"),
+                        requireParameter(parameters, "project_type")
+                    );
+                    project.languages.put(group.baseLocale, new LanguageState(true, 100, null));
+                    projects.put(project.id, project);
+                    group.projectIds.add(project.id);
+                    return data(HTTP_STATUS_CREATED, projectJson(project));
+                }
+                return methodNotAllowed();
+            default:
+                return error(HTTP_STATUS_NOT_FOUND, "Unknown resource");
+        }
+    }
+
+    private Response routeProjects(
+        final String method,
+        final String[] segments,
+        final Map<String, String> parameters,
+        final Headers requestHeaders,
+        final byte[] requestBody
+    ) {
+        final @Nullable ProjectState project = segments.length > 2 ? projects.get(Long.parseLong(segments[2])) : null;
+        if (project == null) {
+            return error(HTTP_STATUS_NOT_FOUND, "Project not found");
+        }
+        if (segments.length == 3) {
+            switch (method) {
+                case "GET":
+                    return data(HTTP_STATUS_OK, projectJson(project).put("string_count", project.stringCount()).put("word_count", project.stringCount()));
+                case "PUT":
+                    if (parameters.containsKey("name")) {
+                        project.name = parameters.get("name");
+                    }
+                    if (parameters.containsKey("description")) {
+                        project.description = parameters.get("description");
+                    }
+                    return empty(HTTP_STATUS_OK);
+                case "DELETE":
+                    projects.remove(project.id);
+                    groups.get(project.groupId).projectIds.remove(project.id);
+                    return empty(HTTP_STATUS_OK);
+                default:
+                    return methodNotAllowed();
+            }
+        }
+        switch (segments[3]) {
+            case "languages":
+                return data(HTTP_STATUS_OK, new JSONArray(project.languages.entrySet().stream()
+                    .map(languageEntry -> projectLanguageJson(languageEntry.getKey(), languageEntry.getValue()))
+                    .collect(Collectors.toList())));
+            case "files":
+                return routeFiles(method, project, parameters, requestHeaders.getFirst("Content-Type"), requestBody);
+            case "import-tasks":
+                return routeImportTasks(segments, project, parameters);
+            case "translations":
+                return routeTranslations(segments, project, parameters, requestHeaders);
+            default:
+                return error(HTTP_STATUS_NOT_FOUND, "Unknown resource");
+        }
+    }
+
+    private Response routeFiles(
+        final String method,
+        final ProjectState project,
+        final Map<String, String> parameters,
+        final @Nullable String contentType,
+        final byte[] requestBody
+    ) {
+        switch (method) {
+            case "GET":
+                return paged(project.files.values().stream().map(this::fileJson).collect(Collectors.toList()), parameters);
+            case "POST":
+                final Map<String, MultipartField> fields = parseMultipart(contentType, requestBody);
+                final @Nullable MultipartField fileField = fields.get("file");
+                if (fileField == null || fileField.fileName == null || !fields.containsKey("file_format")) {
+                    return error(HTTP_STATUS_BAD_REQUEST, "`file` and `file_format` are required");
+                }
+                final String format = fields.get("file_format").stringValue();
+                final Locale locale = fields.containsKey("locale") ? Locale.forLanguageTag(fields.get("locale").stringValue()) : Locale.ENGLISH;
+                final Instant now = clock.instant();
+                final ImportState fileImport = new ImportState(
+                    nextId.incrementAndGet(), fileField.fileName, format, locale, now, now.plus(importDuration), countLines(fileField.content)
+                );
+                project.imports.put(fileImport.id, fileImport);
+                project.files.put(fileField.fileName, new FileState(fileField.fileName, fileField.content, fileImport));
+                project.languages.computeIfAbsent(locale, newLocale -> new LanguageState(false, 0, null)).updatedAt = now;
+                return data(HTTP_STATUS_CREATED, new JSONObject()
+                    .put("name", fileField.fileName)
+                    .put("format", format)
+                    .put("language", localeJson(locale))
+                    .put("import", new JSONObject().put("id", fileImport.id).put("created_at_timestamp", now.getEpochSecond())));
+            case "DELETE":
+                final @Nullable FileState removedFile = project.files.remove(requireParameter(parameters, "file_name"));
+                return removedFile != null ? empty(HTTP_STATUS_OK) : error(HTTP_STATUS_NOT_FOUND, "File not found");
+            default:
+                return methodNotAllowed();
+        }
+    }
+
+    private Response routeImportTasks(final String[] segments, final ProjectState project, final Map<String, String> parameters) {
+        final Instant now = clock.instant();
+        if (segments.length == 4) {
+            final String status = parameters.getOrDefault("status", "all");
+            return paged(
+                project.imports.values().stream()
+                    .filter(fileImport -> "all".equals(status) || status.equals(fileImport.status(now)))
+                    .map(fileImport -> importTaskJson(fileImport, now, false))
+                    .collect(Collectors.toList()),
+                parameters
+            );
+        }
+        final @Nullable ImportState fileImport = project.imports.get(Long.parseLong(segments[4]));
+        return fileImport != null ? data(HTTP_STATUS_OK, importTaskJson(fileImport, now, true)) : error(HTTP_STATUS_NOT_FOUND, "Import task not found");
+    }
+
+    private Response routeTranslations(
+        final String[] segments,
+        final ProjectState project,
+        final Map<String, String> parameters,
+        final Headers requestHeaders
+    ) {
+        final String operation = segments.length > 4 ? segments[4] : "";
+        switch (operation) {
+            case "":
+            case "multilingual":
+                final @Nullable FileState file = project.files.get(requireParameter(parameters, "source_file_name"));
+                if (file == null) {
+                    return error(HTTP_STATUS_NOT_FOUND, "File not found");
+                }
+                return exportTranslations(file, project, parameters.containsKey("locale") ? Locale.forLanguageTag(parameters.get("locale")) : null, requestHeaders);
+            case "status":
+                final @Nullable FileState statusFile = project.files.get(requireParameter(parameters, "file_name"));
+                final Locale locale = Locale.forLanguageTag(requireParameter(parameters, "locale"));
+                final @Nullable LanguageState language = project.languages.get(locale);
+                if (statusFile == null || language == null) {
+                    return error(HTTP_STATUS_NOT_FOUND, "File or language not found");
+                }
+                return data(HTTP_STATUS_OK, new JSONObject()
+                    .put("file_name", statusFile.name)
+                    .put("locale", localeJson(locale))
+                    .put("progress", language.translationProgress + "%")
+                    .put("string_count", statusFile.stringCount())
+                    .put("word_count", statusFile.stringCount()));
+            default:
+                return error(HTTP_STATUS_NOT_FOUND, "Unknown resource");
+        }
+    }
+
+    private Response exportTranslations(
+        final FileState file,
+        final ProjectState project,
+        final @Nullable Locale locale,
+        final Headers requestHeaders
+    ) {
+        if (!isSendingExportValidators) {
+            return new Response(HTTP_STATUS_OK, "text/plain; charset=UTF-8", file.content);
+        }
+        final Instant updatedAt = project.languages.entrySet().stream()
+            .filter(languageEntry -> locale == null || languageEntry.getKey().equals(locale))
+            .map(languageEntry -> languageEntry.getValue().updatedAt)
+            .filter(Objects::nonNull)
+            .max(Comparator.naturalOrder())
+            .orElse(Instant.EPOCH);
+        final String entityTag = '"' + md5Hex(file.content) + '-' + updatedAt.toEpochMilli() + '"';
+        final String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(updatedAt.atZone(ZoneOffset.UTC));
+        final @Nullable String ifNoneMatch = requestHeaders.getFirst("If-None-Match");
+        final @Nullable String ifModifiedSince = requestHeaders.getFirst("If-Modified-Since");
+        final boolean isNotModified = ifNoneMatch != null
+            ? ifNoneMatch.equals(entityTag)
+            : ifModifiedSince != null
+                && !updatedAt.truncatedTo(ChronoUnit.SECONDS).isAfter(ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+        final Response response = isNotModified
+            ? new Response(HTTP_STATUS_NOT_MODIFIED, null, new byte[0])
+            : new Response(HTTP_STATUS_OK, "text/plain; charset=UTF-8", file.content);
+        response.headers.put("ETag", entityTag);
+        response.headers.put("Last-Modified", lastModified);
+        return response;
+    }
+
+    private Response listLocales() {
+        return data(HTTP_STATUS_OK, new JSONArray(locales.stream().map(OneSkySimulator::localeJson).collect(Collectors.toList())));
+    }
+
+    private static Response listProjectTypes() {
+        final JSONArray projectTypes = new JSONArray();
+        for (int i = 0; i < PROJECT_TYPES.size(); i += 2) {
+            projectTypes.put(new JSONObject().put("code", PROJECT_TYPES.get(i)).put("name", PROJECT_TYPES.get(i + 1)));
+        }
+        return data(HTTP_STATUS_OK, projectTypes);
+    }
+
+    private void simulateLatency() {
+        final long latencyNanos =
+            latency.toNanos()
+            + (latencyJitter.isZero() ? 0 : ThreadLocalRandom.current().nextLong(latencyJitter.toNanos() + 1));
+        if (latencyNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latencyNanos);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static boolean isAuthenticated(final Map<String, String> parameters) {
+        final @Nullable String timestamp = parameters.get("timestamp");
+        return
+            API_KEY.equals(parameters.get("api_key"))
+            && timestamp != null
+            && md5Hex(timestamp + API_SECRET).equals(parameters.get("dev_hash"));
+    }
+
+    private static Response paged(final List<JSONObject> items, final Map<String, String> parameters) {
+        final int pageNumber = Integer.parseInt(parameters.getOrDefault("page", "1"));
+        final int pageSize = Integer.parseInt(parameters.getOrDefault("per_page", "50"));
+        final int pagesCount = (items.size() + pageSize - 1) / pageSize;
+        final List<JSONObject> pageItems = items.subList(Math.min(items.size(), (pageNumber - 1) * pageSize), Math.min(items.size(), pageNumber * pageSize));
+        final JSONObject meta = new JSONObject()
+            .put("status", HTTP_STATUS_OK)
+            .put("record_count", items.size())
+            .put("page_count", pagesCount);
+        return json(HTTP_STATUS_OK, new JSONObject().put("meta", meta).put("data", new JSONArray(pageItems)));
+    }
+
+    private static Response data(final int status, final Object data) {
+        return json(status, new JSONObject().put("meta", new JSONObject().put("status", status)).put("data", data));
+    }
+
+    private static Response empty(final int status) {
+        return json(status, new JSONObject().put("meta", new JSONObject().put("status", status)));
+    }
+
+    private static Response error(final int status, final String message) {
+        return json(status, new JSONObject().put("meta", new JSONObject().put("status", status).put("message", message)));
+    }
+
+    private static Response methodNotAllowed() {
+        return error(HTTP_STATUS_METHOD_NOT_ALLOWED, "Method not allowed");
+    }
+
+    private static Response json(final int status, final JSONObject json) {
+        return new Response(status, "application/json; charset=UTF-8", json.toString().getBytes(UTF_8));
+    }
+
+    private static JSONObject localeJson(final Locale locale) {
+        return new JSONObject()
+            .put("code", locale.toLanguageTag())
+            .put("english_name", locale.getDisplayName(Locale.ENGLISH))
+            .put("local_name", locale.getDisplayName(locale))
+            .put("locale", locale.getLanguage())
+            .put("region", locale.getCountry());
+    }
+
+    private static JSONObject projectGroupListJson(final GroupState group) {
+        return new JSONObject().put("id", group.id).put("name", group.name);
+    }
+
+    private static JSONObject projectJson(final ProjectState project) {
+        final int projectTypeIndex = PROJECT_TYPES.indexOf(project.projectType);
+        final JSONObject projectJson = new JSONObject()
+            .put("id", project.id)
+            .put("name", project.name)
+            .put("project_type", new JSONObject()
+                .put("code", project.projectType)
+                .put("name", projectTypeIndex >= 0 ? PROJECT_TYPES.get(projectTypeIndex + 1) : project.projectType));
+        if (project.description != null) {
+            projectJson.put("description", project.description);
+        }
+        return projectJson;
+    }
+
+    private static JSONObject projectLanguageJson(final Locale locale, final LanguageState language) {
+        return localeJson(locale)
+            .put("is_base_language", language.isBaseLanguage)
+            .put("is_ready_to_publish", language.translationProgress == 100)
+            .put("translation_progress", language.translationProgress + "%")
+            .put("last_updated_at_timestamp", language.updatedAt != null ? language.updatedAt.getEpochSecond() : JSONObject.NULL);
+    }
+
+    private JSONObject fileJson(final FileState file) {
+        return new JSONObject()
+            .put("file_name", file.name)
+            .put("string_count", file.stringCount())
+            .put("last_import", new JSONObject().put("id", file.lastImport.id).put("status", file.lastImport.status(clock.instant())))
+            .put("uploaded_at_timestamp", file.lastImport.createdAt.getEpochSecond());
+    }
+
+    private static JSONObject importTaskJson(final ImportState fileImport, final Instant now, final boolean isDetailed) {
+        final JSONObject fileJson = new JSONObject().put("name", fileImport.fileName);
+        if (isDetailed) {
+            fileJson.put("format", fileImport.format).put("locale", localeJson(fileImport.locale));
+        }
+        final JSONObject importTaskJson = new JSONObject()
+            .put("id", fileImport.id)
+            .put("file", fileJson)
+            .put("status", fileImport.status(now))
+            .put("created_at_timestamp", fileImport.createdAt.getEpochSecond());
+        if (isDetailed) {
+            importTaskJson.put("string_count", fileImport.stringCount).put("word_count", fileImport.stringCount);
+        }
+        return importTaskJson;
+    }
+
+    private static String requireParameter(final Map<String, String> parameters, final String name) {
+        final @Nullable String value = parameters.get(name);
+        if (value == null) {
+            throw new IndexOutOfBoundsException("Missing parameter `" + name + '`');
+        }
+        return value;
+    }
+
+    private static Map<String, String> parseQuery(final @Nullable String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> parameters = new HashMap<>();
+        for (final String parameter : rawQuery.split("&")) {
+            final int separatorIndex = parameter.indexOf('=');
+            if (separatorIndex > 0) {
+                parameters.put(
+                    URLDecoder.decode(parameter.substring(0, separatorIndex), UTF_8),
+                    URLDecoder.decode(parameter.substring(separatorIndex + 1), UTF_8)
+                );
+            }
+        }
+        return parameters;
+    }
+
+    private static Map<String, MultipartField> parseMultipart(final @Nullable String contentType, final byte[] body) {
+        final String boundaryPrefix = "boundary=";
+        if (contentType == null || !contentType.contains(boundaryPrefix)) {
+            return Collections.emptyMap();
+        }
+        // ISO-8859-1 maps bytes to chars one-to-one, so that the binary parts survive the round trip
+        final String bodyString = new String(body, ISO_8859_1);
+        final String delimiter = "--" + contentType.substring(contentType.indexOf(boundaryPrefix) + boundaryPrefix.length()).trim();
+        final Map<String, MultipartField> fields = new HashMap<>();
+        for (final String part : bodyString.split(Pattern.quote(delimiter))) {
+            final int headersEnd = part.indexOf("\r\n\r\n");
+            if (headersEnd < 0) {
+                continue;
+            }
+            final String headers = part.substring(0, headersEnd);
+            final @Nullable String name = headerAttribute(headers, "name");
+            if (name == null) {
+                continue;
+            }
+            String varContent = part.substring(headersEnd + 4);
+            if (varContent.endsWith("\r\n")) {
+                varContent = varContent.substring(0, varContent.length() - 2);
+            }
+            fields.put(name, new MultipartField(headerAttribute(headers, "filename"), varContent.getBytes(ISO_8859_1)));
+        }
+        return fields;
+    }
+
+    private static @Nullable String headerAttribute(final String headers, final String attributeName) {
+        final String attributePrefix = ' ' + attributeName + "=\"";
+        final int attributeIndex = headers.indexOf(attributePrefix);
+        if (attributeIndex < 0) {
+            return null;
+        }
+        final int valueStart = attributeIndex + attributePrefix.length();
+        return headers.substring(valueStart, headers.indexOf('"', valueStart));
+    }
+
+    private static int countLines(final byte[] content) {
+        int varLines = 0;
+        for (final byte b : content) {
+            if (b == '\n') {
+                varLines++;
+            }
+        }
+        return varLines;
+    }
+
+    /**
+     * {@link OneSkySimulator} builder.
+     */
+    public static final class Builder {
+        private Duration latency = Duration.ZERO;
+        private Duration latencyJitter = Duration.ZERO;
+        private double errorRate;
+        private Duration importDuration = Duration.ZERO;
+        private int projectGroupsCount = 1;
+        private int projectsPerGroupCount = 1;
+        private int filesPerProjectCount = 1;
+        private int threads = 16;
+        private Clock clock = Clock.systemUTC();
+        private boolean isSendingExportValidators;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the latency added to every response, and the maximum random jitter added on top of it.
+         *
+         * @param latency fixed latency
+         * @param latencyJitter maximum random additional latency
+         * @return this builder
+         */
+        public Builder latency(final Duration latency, final Duration latencyJitter) {
+            this.latency = requireNonNull(latency);
+            this.latencyJitter = requireNonNull(latencyJitter);
+            return this;
+        }
+
+        /**
+         * Sets the fraction of requests which fail with the HTTP status 500.
+         *
+         * @param errorRate error rate between {@code 0} and {@code 1}
+         * @return this builder
+         */
+        public Builder errorRate(final double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Sets the time it takes for an uploaded file to be imported.
+         *
+         * @param importDuration import duration
+         * @return this builder
+         */
+        public Builder importDuration(final Duration importDuration) {
+            this.importDuration = requireNonNull(importDuration);
+            return this;
+        }
+
+        /**
+         * Sets the size of the pre-populated dataset.
+         *
+         * @param projectGroupsCount number of project groups
+         * @param projectsPerGroupCount number of projects per project group
+         * @param filesPerProjectCount number of files per project
+         * @return this builder
+         */
+        public Builder dataset(final int projectGroupsCount, final int projectsPerGroupCount, final int filesPerProjectCount) {
+            this.projectGroupsCount = projectGroupsCount;
+            this.projectsPerGroupCount = projectsPerGroupCount;
+            this.filesPerProjectCount = filesPerProjectCount;
+            return this;
+        }
+
+        /**
+         * Sets the number of server threads, which bounds the number of concurrently handled requests.
+         *
+         * @param threads number of server threads
+         * @return this builder
+         */
+        public Builder threads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the clock which drives the timestamps and the import progress.
+         *
+         * @param clock clock
+         * @return this builder
+         */
+        public Builder clock(final Clock clock) {
+            this.clock = requireNonNull(clock);
+            return this;
+        }
+
+        /**
+         * Sets whether the translation exports are sent with the {@code ETag} and {@code Last-Modified} validators and
+         * honor the conditional request headers; disabled by default.
+         *
+         * @param isSendingExportValidators {@code true} to send the export validators
+         * @return this builder
+         */
+        public Builder exportValidators(final boolean isSendingExportValidators) {
+            this.isSendingExportValidators = isSendingExportValidators;
+            return this;
+        }
+
+        /**
+         * Builds and starts the simulator.
+         *
+         * @return started simulator
+         * @throws IOException if the server could not be started
+         */
+        public OneSkySimulator build() throws IOException {
+            return new OneSkySimulator(this);
+        }
+    }
+
+    private static final class Response {
+        private final int status;
+        private final @Nullable String contentType;
+        private final byte[] body;
+        private final Map<String, String> headers = new HashMap<>();
+
+        Response(final int status, final @Nullable String contentType, final byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private static final class GroupState {
+        private final long id;
+        private final String name;
+        private final Locale baseLocale;
+        private final List<Long> projectIds = new ArrayList<>();
+
+        GroupState(final long id, final String name, final Locale baseLocale) {
+            this.id = id;
+            this.name = name;
+            this.baseLocale = baseLocale;
+        }
+    }
+
+    private static final class ProjectState {
+        private final long id;
+        private final long groupId;
+        private String name;
+        private @Nullable String description;
+        private final String projectType;
+        private final Map<Locale, LanguageState> languages = new LinkedHashMap<>();
+        private final Map<String, FileState> files = new LinkedHashMap<>();
+        private final Map<Long, ImportState> imports = new LinkedHashMap<>();
+
+        ProjectState(final long id, final long groupId, final String name, final @Nullable String description, final String projectType) {
+            this.id = id;
+            this.groupId = groupId;
+            this.name = name;
+            this.description = description;
+            this.projectType = projectType;
+        }
+
+        int stringCount() {
+            return files.values().stream().mapToInt(FileState::stringCount).sum();
+        }
+    }
+
+    private static final class LanguageState {
+        private final boolean isBaseLanguage;
+        private int translationProgress;
+        private @Nullable Instant updatedAt;
+
+        LanguageState(final boolean isBaseLanguage, final int translationProgress, final @Nullable Instant updatedAt) {
+            this.isBaseLanguage = isBaseLanguage;
+            this.translationProgress = translationProgress;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private static final class FileState {
+        private final String name;
+        private final byte[] content;
+        private final ImportState lastImport;
+
+        FileState(final String name, final byte[] content, final ImportState lastImport) {
+            this.name = name;
+            this.content = content;
+            this.lastImport = lastImport;
+        }
+
+        int stringCount() {
+            return lastImport.stringCount;
+        }
+    }
+
+    private static final class ImportState {
+        private final long id;
+        private final String fileName;
+        private final String format;
+        private final Locale locale;
+        private final Instant createdAt;
+        private final Instant completesAt;
+        private final int stringCount;
+
+        ImportState(
+            final long id,
+            final String fileName,
+            final String format,
+            final Locale locale,
+            final Instant createdAt,
+            final Instant completesAt,
+            final int stringCount
+        ) {
+            this.id = id;
+            this.fileName = fileName;
+            this.format = format;
+            this.locale = locale;
+            this.createdAt = createdAt;
+            this.completesAt = completesAt;
+            this.stringCount = stringCount;
+        }
+
+        String status(final Instant now) {
+            return now.isBefore(completesAt) ? "in-progress" : "completed";
+        }
+    }
+
+    private static final class MultipartField {
+        private final @Nullable String fileName;
+        private final byte[] content;
+
+        MultipartField(final @Nullable String fileName, final byte[] content) {
+            this.fileName = fileName;
+            this.content = content;
+        }
+
+        String stringValue() {
+            return new String(content, UTF_8);
+        }
+    }
+
+}
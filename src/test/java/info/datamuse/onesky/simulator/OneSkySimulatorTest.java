@@ -0,0 +1,226 @@
+package info.datamuse.onesky.simulator;
+
+import info.datamuse.onesky.OneSkyApiException;
+import info.datamuse.onesky.OneSkyClient;
+import info.datamuse.onesky.OneSkyFilesApi;
+import info.datamuse.onesky.OneSkyImportTasksApi;
+import info.datamuse.onesky.OneSkyProjectGroupsApi;
+import info.datamuse.onesky.OneSkyProjectsApi;
+import info.datamuse.onesky.OneSkyTranslationsApi;
+import info.datamuse.onesky.OneSkyTransport;
+import info.datamuse.onesky.Page;
+import info.datamuse.onesky.RetryPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class OneSkySimulatorTest {
+
+    @Test
+    public void testDataset() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(3, 2, 120).build()) {
+            final OneSkyClient oneSkyClient = newClient(simulator);
+
+            final Page<OneSkyProjectGroupsApi.ProjectGroup> projectGroupsPage = oneSkyClient.projectGroups().pagedList(1L, 2L).join();
+            assertThat(projectGroupsPage.getPageItems(), hasSize(2));
+            assertThat(projectGroupsPage.getTotalItemsCount(), is(equalTo(3L)));
+            assertThat(projectGroupsPage.getTotalPagesCount(), is(equalTo(2L)));
+
+            final long projectGroupId = simulator.getProjectGroupIds().get(0);
+            final OneSkyProjectGroupsApi.ProjectGroup projectGroup = oneSkyClient.projectGroups().retrieve(projectGroupId).join();
+            assertThat(projectGroup.getBaseLocale(), is(equalTo(Locale.ENGLISH)));
+            assertThat(projectGroup.getProjectCount(), is(equalTo(2L)));
+
+            final long projectId = simulator.getProjectIds(projectGroupId).get(0);
+            final OneSkyProjectsApi.Project project = oneSkyClient.projects().retrieve(projectId).join();
+            assertThat(project.getBaseLanguage().getLocale(), is(equalTo(Locale.ENGLISH)));
+            assertThat(project.getCountOfStrings(), is(equalTo(120)));
+
+            final List<OneSkyFilesApi.File> files = oneSkyClient.files().stream(projectId, 50L).collect(Collectors.toList());
+            assertThat(files, hasSize(120));
+            assertThat(simulator.getRequestCount("GET", "/projects/" + projectId + "/files"), is(equalTo(3L)));
+
+            assertThat(oneSkyClient.locales().list().join(), hasItem(Locale.forLanguageTag("de-DE")));
+            assertThat(oneSkyClient.projectTypes().list().join().get(0).getCode(), is(equalTo("ios")));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testUploadImportAndExport() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(0, 0, 0).importDuration(Duration.ofHours(1)).build()) {
+            final OneSkyClient oneSkyClient = newClient(simulator);
+            final Path path = Paths.get("src", "test", "resources", "fruits.yaml");
+            final String fileName = path.getFileName().toString();
+
+            final OneSkyProjectGroupsApi.ProjectGroup projectGroup = oneSkyClient.projectGroups().create("Group", Locale.GERMAN).join();
+            final OneSkyProjectsApi.Project project = oneSkyClient.projects().create(projectGroup.getId(), "website", "Project", "Description").join();
+
+            final OneSkyFilesApi.File file = oneSkyClient.files().upload(project.getId(), OneSkyFilesApi.FileFormat.YAML, path, Locale.GERMAN).join();
+            assertThat(file.getName(), is(equalTo(fileName)));
+            assertThat(file.getFormat(), is(equalTo(OneSkyFilesApi.FileFormat.YAML)));
+
+            final OneSkyImportTasksApi.ImportTask importTask =
+                oneSkyClient.importTasks().retrieve(project.getId(), file.getImportStatus().getId()).join();
+            assertThat(importTask.getImportStatus().getStatus(), is(equalTo(OneSkyFilesApi.FileStatus.IN_PROGRESS)));
+            assertThat(importTask.getLocale(), is(equalTo(Locale.GERMAN)));
+
+            simulator.setTranslationProgress(project.getId(), Locale.GERMAN, 40);
+            final OneSkyTranslationsApi.TranslationStatus translationStatus =
+                oneSkyClient.translations().status(project.getId(), fileName, Locale.GERMAN).join();
+            assertThat(translationStatus.getProgress(), is(equalTo((short) 40)));
+
+            try (InputStream translation = oneSkyClient.translations().export(project.getId(), Locale.GERMAN, fileName).join()) {
+                assertThat(translation.readAllBytes(), is(equalTo(Files.readAllBytes(path))));
+            }
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testUploadAll() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).build()) {
+            final OneSkyClient oneSkyClient = newClient(simulator);
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final Path directory = Files.createTempDirectory("onesky-upload");
+            Files.writeString(directory.resolve("a.yml"), "a: A\n");
+            Files.writeString(directory.resolve("b.properties"), "b=B\n");
+            Files.writeString(directory.resolve("c.txt"), "c\n");
+            Files.createDirectory(directory.resolve("d"));
+
+            final List<OneSkyFilesApi.UploadProgress> progress = new CopyOnWriteArrayList<>();
+            final List<OneSkyFilesApi.UploadResult> uploadResults =
+                oneSkyClient.files().uploadAll(projectId, directory, Locale.ENGLISH, 2, progress::add).join();
+            assertThat(uploadResults, hasSize(3));
+            assertThat(uploadResults.get(0).getFile().getFormat(), is(equalTo(OneSkyFilesApi.FileFormat.YML)));
+            assertThat(uploadResults.get(0).getFile().getImportStatus(), is(notNullValue()));
+            assertThat(uploadResults.get(1).getFile().getFormat(), is(equalTo(OneSkyFilesApi.FileFormat.JAVA_PROPERTIES)));
+            assertThat(uploadResults.get(2).isSuccessful(), is(false));
+            assertThat(uploadResults.get(2).getFailure(), is(instanceOf(IllegalArgumentException.class)));
+            assertThat(simulator.getRequestCount("POST", "/projects/" + projectId + "/files"), is(equalTo(2L)));
+
+            assertThat(progress, hasSize(3));
+            assertThat(progress.stream().map(OneSkyFilesApi.UploadProgress::getCompletedCount).collect(Collectors.toSet()), is(equalTo(Set.of(1, 2, 3))));
+            assertThat(progress.get(2).getTotalCount(), is(equalTo(3)));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testUploadAllWithFailingProgressListener() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).build()) {
+            final OneSkyClient oneSkyClient = newClient(simulator);
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final Path directory = Files.createTempDirectory("onesky-upload");
+            Files.writeString(directory.resolve("a.yml"), "a: A\n");
+            Files.writeString(directory.resolve("b.yml"), "b: B\n");
+
+            final List<OneSkyFilesApi.UploadResult> uploadResults =
+                oneSkyClient.files().uploadAll(projectId, directory, Locale.ENGLISH, 2, progress -> {
+                    throw new IllegalStateException("Listener failure");
+                }).join();
+            assertThat(uploadResults, hasSize(2));
+            assertThat(uploadResults.get(0).isSuccessful(), is(true));
+            assertThat(uploadResults.get(1).isSuccessful(), is(true));
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testSizedUploadsAreRetried() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().dataset(1, 1, 0).build()) {
+            final OneSkyTransport transport = OneSkyTransport.of(HttpClient.newHttpClient());
+            final List<Long> contentLengths = new CopyOnWriteArrayList<>();
+            final OneSkyClient oneSkyClient =
+                OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                    .apiBaseUri(simulator.getApiBaseUri())
+                    .transport(new OneSkyTransport() {
+                        @Override
+                        public <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request, final HttpResponse.BodyHandler<T> responseBodyHandler) {
+                            final long contentLength = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(0L);
+                            contentLengths.add(contentLength);
+                            final CompletableFuture<HttpResponse<T>> response = transport.send(request, responseBodyHandler);
+                            // The first upload attempt is sent, but is failed as if the connection has been reset
+                            return contentLengths.size() == 1
+                                ? response.thenCompose(ignored -> CompletableFuture.failedFuture(new IOException("Connection reset")))
+                                : response;
+                        }
+                    })
+                    .retryPolicy(RetryPolicy.builder().backoff(Duration.ofMillis(1), Duration.ofMillis(1), 1).retryPost(true).build())
+                    .build();
+            final long projectId = simulator.getProjectIds(simulator.getProjectGroupIds().get(0)).get(0);
+            final Path path = Paths.get("src", "test", "resources", "fruits.yaml");
+
+            oneSkyClient.files().upload(projectId, OneSkyFilesApi.FileFormat.YAML, path, Locale.ENGLISH).join();
+            assertThat(contentLengths, hasSize(2));
+            assertThat(contentLengths.get(0), is(greaterThan(Files.size(path))));
+            assertThat(contentLengths.get(1), is(equalTo(contentLengths.get(0))));
+            try (InputStream translation = oneSkyClient.translations().export(projectId, Locale.ENGLISH, "fruits.yaml").join()) {
+                assertThat(translation.readAllBytes(), is(equalTo(Files.readAllBytes(path))));
+            }
+
+            final byte[] content = "key: value\n".getBytes(StandardCharsets.UTF_8);
+            oneSkyClient.files().upload(projectId, OneSkyFilesApi.FileFormat.YAML, "in-memory.yaml", content, Locale.ENGLISH).join();
+            assertThat(contentLengths.get(contentLengths.size() - 1), is(greaterThan((long) content.length)));
+            try (InputStream translation = oneSkyClient.translations().export(projectId, Locale.ENGLISH, "in-memory.yaml").join()) {
+                assertThat(translation.readAllBytes(), is(equalTo(content)));
+            }
+        }
+        // }}} Test Data End
+    }
+
+    @Test
+    public void testLatencyAndErrorInjection() throws IOException {
+        // Test Data Begin {{{
+        try (OneSkySimulator simulator = OneSkySimulator.builder().latency(Duration.ofMillis(50), Duration.ZERO).errorRate(1.0).build()) {
+            final OneSkyClient oneSkyClient =
+                OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET)
+                    .apiBaseUri(simulator.getApiBaseUri())
+                    .retryPolicy(RetryPolicy.none())
+                    .build();
+            final long startNanos = System.nanoTime();
+            final CompletionException exception = assertThrows(CompletionException.class, () -> oneSkyClient.locales().list().join());
+            assertThat(exception.getCause(), is(instanceOf(OneSkyApiException.class)));
+            assertThat(Duration.ofNanos(System.nanoTime() - startNanos), is(greaterThanOrEqualTo(Duration.ofMillis(50))));
+            assertThat(simulator.getRequestCount(), is(equalTo(1L)));
+        }
+        // }}} Test Data End
+    }
+
+    private static OneSkyClient newClient(final OneSkySimulator simulator) {
+        return OneSkyClient.builder(OneSkySimulator.API_KEY, OneSkySimulator.API_SECRET).apiBaseUri(simulator.getApiBaseUri()).build();
+    }
+
+}